@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import net.runelite.cache.ConfigType;
+import net.runelite.cache.IndexType;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.FSFile;
+import net.runelite.cache.fs.jagex.DiskStorage;
+import net.runelite.cache.index.FileData;
+import net.runelite.cache.index.IndexData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks splitting archives into files and parsing index data
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArchiveBenchmark
+{
+	private Archive archive;
+	private byte[] decompressedData;
+	private byte[] indexData;
+
+	@Setup
+	public void setup(CacheState cache) throws IOException
+	{
+		archive = cache.getConfig(ConfigType.OBJECT);
+		decompressedData = archive.decompress(cache.loadArchive(archive));
+
+		IndexData index = cache.getIndex(IndexType.CONFIGS).toIndexData();
+		indexData = index.writeIndexData();
+	}
+
+	@Benchmark
+	public ArchiveFiles loadContents()
+	{
+		ArchiveFiles files = new ArchiveFiles();
+		for (FileData fileData : archive.getFileData())
+		{
+			files.addFile(new FSFile(fileData.getId()));
+		}
+		files.loadContents(decompressedData);
+		return files;
+	}
+
+	@Benchmark
+	public IndexData loadIndexData()
+	{
+		IndexData index = new IndexData();
+		index.load(indexData);
+		return index;
+	}
+
+	@Benchmark
+	public ArchiveFiles loadArchive(CacheState cache) throws IOException
+	{
+		return archive.getFiles(cache.loadArchive(archive));
+	}
+
+	@Benchmark
+	public byte[] readIndex(CacheState cache) throws IOException
+	{
+		DiskStorage storage = (DiskStorage) cache.store.getStorage();
+		return storage.readIndex(IndexType.CONFIGS.getNumber());
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.runelite.cache.ConfigType;
+import net.runelite.cache.IndexType;
+import net.runelite.cache.definitions.InterfaceDefinition;
+import net.runelite.cache.definitions.ItemDefinition;
+import net.runelite.cache.definitions.ModelDefinition;
+import net.runelite.cache.definitions.NpcDefinition;
+import net.runelite.cache.definitions.ObjectDefinition;
+import net.runelite.cache.definitions.loaders.InterfaceLoader;
+import net.runelite.cache.definitions.loaders.ItemLoader;
+import net.runelite.cache.definitions.loaders.ModelLoader;
+import net.runelite.cache.definitions.loaders.NpcLoader;
+import net.runelite.cache.definitions.loaders.ObjectLoader;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.FSFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks decoding every definition of a type from already loaded files
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoaderBenchmark
+{
+	private List<FSFile> items;
+	private List<FSFile> npcs;
+	private List<FSFile> objects;
+	private List<FSFile> models;
+	private List<FSFile> interfaces;
+
+	@Setup
+	public void setup(CacheState cache) throws IOException
+	{
+		items = loadFiles(cache, cache.getConfig(ConfigType.ITEM));
+		npcs = loadFiles(cache, cache.getConfig(ConfigType.NPC));
+		objects = loadFiles(cache, cache.getConfig(ConfigType.OBJECT));
+
+		models = new ArrayList<>();
+		for (Archive archive : cache.getIndex(IndexType.MODELS).getArchives())
+		{
+			models.addAll(loadFiles(cache, archive));
+		}
+
+		interfaces = new ArrayList<>();
+		for (Archive archive : cache.getIndex(IndexType.INTERFACES).getArchives())
+		{
+			interfaces.addAll(loadFiles(cache, archive));
+		}
+	}
+
+	private static List<FSFile> loadFiles(CacheState cache, Archive archive) throws IOException
+	{
+		ArchiveFiles files = archive.getFiles(cache.loadArchive(archive));
+		return files.getFiles();
+	}
+
+	@Benchmark
+	public void loadItems(Blackhole blackhole)
+	{
+		ItemLoader loader = new ItemLoader();
+		for (FSFile file : items)
+		{
+			ItemDefinition def = loader.load(file.getFileId(), file.getContents());
+			blackhole.consume(def);
+		}
+	}
+
+	@Benchmark
+	public void loadNpcs(Blackhole blackhole)
+	{
+		NpcLoader loader = new NpcLoader();
+		for (FSFile file : npcs)
+		{
+			NpcDefinition def = loader.load(file.getFileId(), file.getContents());
+			blackhole.consume(def);
+		}
+	}
+
+	@Benchmark
+	public void loadObjects(Blackhole blackhole)
+	{
+		ObjectLoader loader = new ObjectLoader();
+		for (FSFile file : objects)
+		{
+			ObjectDefinition def = loader.load(file.getFileId(), file.getContents());
+			blackhole.consume(def);
+		}
+	}
+
+	@Benchmark
+	public void loadModels(Blackhole blackhole)
+	{
+		ModelLoader loader = new ModelLoader();
+		for (FSFile file : models)
+		{
+			ModelDefinition def = loader.load(file.getFileId(), file.getContents());
+			blackhole.consume(def);
+		}
+	}
+
+	@Benchmark
+	public void loadInterfaces(Blackhole blackhole)
+	{
+		InterfaceLoader loader = new InterfaceLoader();
+		for (FSFile file : interfaces)
+		{
+			InterfaceDefinition def = loader.load(file.getFileId(), file.getContents());
+			blackhole.consume(def);
+		}
+	}
+}
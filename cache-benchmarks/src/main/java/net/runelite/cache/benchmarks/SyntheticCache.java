@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.runelite.cache.ConfigType;
+import net.runelite.cache.IndexType;
+import net.runelite.cache.definitions.InterfaceDefinition;
+import net.runelite.cache.definitions.ItemDefinition;
+import net.runelite.cache.definitions.NpcDefinition;
+import net.runelite.cache.definitions.ObjectDefinition;
+import net.runelite.cache.definitions.savers.InterfaceSaver;
+import net.runelite.cache.definitions.savers.ItemSaver;
+import net.runelite.cache.definitions.savers.NpcSaver;
+import net.runelite.cache.definitions.savers.ObjectSaver;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.FSFile;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Storage;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.fs.jagex.CompressionType;
+import net.runelite.cache.index.FileData;
+import net.runelite.cache.io.OutputStream;
+
+/**
+ * Generates a cache with made up definitions, so the benchmarks don't need
+ * any game data. The cache is written through DiskStorage like a real one.
+ */
+public class SyntheticCache
+{
+	public static final int ITEMS = 4096;
+	public static final int NPCS = 2048;
+	public static final int OBJECTS = 8192;
+	public static final int MODELS = 256;
+	public static final int INTERFACES = 64;
+	public static final int WIDGETS = 32;
+
+	private static final int MODEL_VERTICES = 512;
+
+	private final Random random = new Random(42L);
+
+	public void create(File folder) throws IOException
+	{
+		try (Store store = new Store(folder))
+		{
+			for (int i = 0; i <= IndexType.MODELS.getNumber(); ++i)
+			{
+				store.addIndex(i).setCompression(CompressionType.GZ);
+			}
+
+			Storage storage = store.getStorage();
+
+			Index configs = store.getIndex(IndexType.CONFIGS);
+			addArchive(storage, configs, ConfigType.ITEM.getId(), items());
+			addArchive(storage, configs, ConfigType.NPC.getId(), npcs());
+			addArchive(storage, configs, ConfigType.OBJECT.getId(), objects());
+
+			Index models = store.getIndex(IndexType.MODELS);
+			for (int i = 0; i < MODELS; ++i)
+			{
+				List<byte[]> files = new ArrayList<>(1);
+				files.add(model());
+				addArchive(storage, models, i, files);
+			}
+
+			Index interfaces = store.getIndex(IndexType.INTERFACES);
+			for (int i = 0; i < INTERFACES; ++i)
+			{
+				addArchive(storage, interfaces, i, widgets());
+			}
+
+			store.save();
+		}
+	}
+
+	private void addArchive(Storage storage, Index index, int archiveId, List<byte[]> contents) throws IOException
+	{
+		Archive archive = index.addArchive(archiveId);
+		archive.setCompression(CompressionType.GZ);
+
+		ArchiveFiles files = new ArchiveFiles();
+		FileData[] fileData = new FileData[contents.size()];
+		for (int i = 0; i < contents.size(); ++i)
+		{
+			FileData fd = fileData[i] = new FileData();
+			fd.setId(i);
+
+			FSFile file = new FSFile(i);
+			file.setContents(contents.get(i));
+			files.addFile(file);
+		}
+		archive.setFileData(fileData);
+
+		Container container = new Container(archive.getCompression(), -1);
+		container.compress(files.saveContents(), null);
+		storage.saveArchive(archive, container.data);
+	}
+
+	private List<byte[]> items()
+	{
+		ItemSaver saver = new ItemSaver();
+		List<byte[]> files = new ArrayList<>(ITEMS);
+		for (int i = 0; i < ITEMS; ++i)
+		{
+			ItemDefinition def = new ItemDefinition(i);
+			def.name = "Item " + i;
+			def.inventoryModel = random.nextInt(MODELS);
+			def.cost = random.nextInt(100000);
+			def.members = random.nextBoolean();
+			files.add(saver.save(def));
+		}
+		return files;
+	}
+
+	private List<byte[]> npcs()
+	{
+		NpcSaver saver = new NpcSaver();
+		List<byte[]> files = new ArrayList<>(NPCS);
+		for (int i = 0; i < NPCS; ++i)
+		{
+			NpcDefinition def = new NpcDefinition(i);
+			def.name = "Npc " + i;
+			def.models = new int[]
+			{
+				random.nextInt(MODELS), random.nextInt(MODELS)
+			};
+			def.combatLevel = random.nextInt(128);
+			files.add(saver.save(def));
+		}
+		return files;
+	}
+
+	private List<byte[]> objects()
+	{
+		ObjectSaver saver = new ObjectSaver();
+		List<byte[]> files = new ArrayList<>(OBJECTS);
+		for (int i = 0; i < OBJECTS; ++i)
+		{
+			ObjectDefinition def = new ObjectDefinition();
+			def.setId(i);
+			def.setName("Object " + i);
+			def.setObjectModels(new int[]
+			{
+				random.nextInt(MODELS)
+			});
+			def.setActions(new String[]
+			{
+				"Open", null, null, null, null
+			});
+			files.add(saver.save(def));
+		}
+		return files;
+	}
+
+	private List<byte[]> widgets()
+	{
+		InterfaceSaver saver = new InterfaceSaver();
+		List<byte[]> files = new ArrayList<>(WIDGETS);
+		for (int i = 0; i < WIDGETS; ++i)
+		{
+			InterfaceDefinition def = new InterfaceDefinition();
+			def.hasScript = false;
+			def.type = 6; // model
+			def.parentId = i == 0 ? 0xFFFF : 0;
+			def.originalWidth = 32;
+			def.field2231 = 32;
+			def.modelId = random.nextInt(MODELS);
+			def.modelZoom = 1000;
+			files.add(saver.save(def));
+		}
+		return files;
+	}
+
+	/**
+	 * Build a model in the old format, made of a strip of triangles
+	 */
+	private byte[] model()
+	{
+		int vertices = MODEL_VERTICES;
+		int faces = vertices - 2;
+
+		OutputStream vertexFlags = new OutputStream();
+		OutputStream faceTypes = new OutputStream();
+		OutputStream faceIndices = new OutputStream();
+		OutputStream faceColors = new OutputStream();
+		OutputStream vertexX = new OutputStream();
+		OutputStream vertexY = new OutputStream();
+		OutputStream vertexZ = new OutputStream();
+
+		for (int i = 0; i < vertices; ++i)
+		{
+			vertexFlags.writeByte(1 | 2 | 4);
+			writeSignedSmart(vertexX, random.nextInt(128) - 64);
+			writeSignedSmart(vertexY, random.nextInt(128) - 64);
+			writeSignedSmart(vertexZ, random.nextInt(128) - 64);
+		}
+
+		for (int i = 0; i < faces; ++i)
+		{
+			faceColors.writeShort(random.nextInt(0x10000));
+			if (i == 0)
+			{
+				// first face has all 3 vertices
+				faceTypes.writeByte(1);
+				writeSignedSmart(faceIndices, 0);
+				writeSignedSmart(faceIndices, 1);
+				writeSignedSmart(faceIndices, 1);
+			}
+			else
+			{
+				// the next faces reuse the last two vertices, and add one
+				faceTypes.writeByte(3);
+				writeSignedSmart(faceIndices, 1);
+			}
+		}
+
+		byte[] faceIndexData = faceIndices.flip();
+		byte[] x = vertexX.flip();
+		byte[] y = vertexY.flip();
+		byte[] z = vertexZ.flip();
+
+		OutputStream out = new OutputStream();
+		out.writeBytes(vertexFlags.flip());
+		out.writeBytes(faceTypes.flip());
+		out.writeBytes(faceIndexData);
+		out.writeBytes(faceColors.flip());
+		out.writeBytes(x);
+		out.writeBytes(y);
+		out.writeBytes(z);
+
+		out.writeShort(vertices);
+		out.writeShort(faces);
+		out.writeByte(0); // texture triangles
+		out.writeByte(0); // face render types
+		out.writeByte(0); // priority
+		out.writeByte(0); // face alphas
+		out.writeByte(0); // face skins
+		out.writeByte(0); // vertex skins
+		out.writeShort(x.length);
+		out.writeShort(y.length);
+		out.writeShort(z.length);
+		out.writeShort(faceIndexData.length);
+		return out.flip();
+	}
+
+	private static void writeSignedSmart(OutputStream out, int value)
+	{
+		if (value >= -64 && value < 64)
+		{
+			out.writeByte(value + 64);
+		}
+		else
+		{
+			out.writeShort(value + 0xC000);
+		}
+	}
+}
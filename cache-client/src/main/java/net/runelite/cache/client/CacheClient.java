@@ -25,6 +25,7 @@
 package net.runelite.cache.client;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -40,9 +41,14 @@ import io.netty.channel.socket.nio.NioSocketChannel;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
@@ -82,6 +88,8 @@ public class CacheClient implements AutoCloseable
 	private CompletableFuture<HandshakeResponseType> handshakeFuture;
 	private final Queue<PendingFileRequest> requests = new ArrayDeque<>();
 
+	private volatile DownloadProgress progress;
+
 	public CacheClient(Store store, int clientRevision)
 	{
 		this(store, HOST, clientRevision);
@@ -96,7 +104,12 @@ public class CacheClient implements AutoCloseable
 
 	public CacheClient(Store store, int clientRevision, DownloadWatcher watcher)
 	{
-		this(store, clientRevision);
+		this(store, HOST, clientRevision, watcher);
+	}
+
+	public CacheClient(Store store, String host, int clientRevision, DownloadWatcher watcher)
+	{
+		this(store, host, clientRevision);
 		this.watcher = watcher;
 	}
 
@@ -200,10 +213,36 @@ public class CacheClient implements AutoCloseable
 		return indexInfo;
 	}
 
+	/**
+	 * progress of the current or last download
+	 *
+	 * @return the progress, or null if no download has been started
+	 */
+	public DownloadProgress getProgress()
+	{
+		return progress;
+	}
+
 	public void download() throws IOException
+	{
+		download(1);
+	}
+
+	/**
+	 * download all out of date archives. Archives are requested over
+	 * {@code connections} update connections, each with its own request
+	 * window, and are verified and saved on a separate writer thread.
+	 *
+	 * @param connections number of update connections to use, including
+	 *                    this one
+	 * @throws IOException
+	 */
+	public void download(int connections) throws IOException
 	{
 		Stopwatch stopwatch = Stopwatch.createStarted();
 
+		List<Archive> pending = new ArrayList<>();
+
 		List<IndexInfo> indexes = requestIndexes();
 		for (IndexInfo indexInfo : indexes)
 		{
@@ -314,65 +353,136 @@ public class CacheClient implements AutoCloseable
 				// Add files
 				archive.setFileData(ad.getFiles());
 
-				CompletableFuture<FileResult> future = requestFile(index.getId(), ad.getId(), false);
-				future.handle((fr, ex) ->
-				{
-					byte[] data = fr.getCompressedData();
-
-					Crc32 crc32 = new Crc32();
-					crc32.update(data, 0, data.length);
-					int hash = crc32.getHash();
-
-					if (hash != archive.getCrc())
-					{
-						logger.warn("crc mismatch on downloaded archive {}/{}: {} != {}",
-							archive.getIndex().getId(), archive.getArchiveId(),
-							hash, archive.getCrc());
-						throw new RuntimeException("crc mismatch");
-					}
-
-					if (watcher != null)
-					{
-						watcher.downloadComplete(archive, data);
-					}
-					else
-					{
-						try
-						{
-							Storage storage = store.getStorage();
-							storage.saveArchive(archive, data);
-						}
-						catch (IOException ex1)
-						{
-							logger.warn("unable to save archive data", ex1);
-						}
-					}
-					return null;
-				});
+				pending.add(archive);
 			}
 		}
 
-		// flush any pending requests
-		channel.flush();
+		// the update protocol does not give archive sizes, so use the file
+		// count as an estimate and request the largest archives first, so the
+		// slowest downloads don't trail at the end
+		pending.sort(Comparator.comparingInt((Archive archive) -> archive.getFileData().length).reversed());
+
+		fetch(pending, connections);
+
+		stopwatch.stop();
+		logger.info("Download completed in {}: {}", stopwatch, progress);
+	}
+
+	private void fetch(List<Archive> archives, int connections) throws IOException
+	{
+		DownloadProgress progress = new DownloadProgress(archives.size());
+		this.progress = progress;
+
+		if (archives.isEmpty())
+		{
+			return;
+		}
 
-		while (!requests.isEmpty())
+		List<CacheClient> clients = new ArrayList<>();
+		clients.add(this);
+
+		ExecutorService writer = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+			.setNameFormat("cache-writer")
+			.build());
+		ExecutorService feeders = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+			.setNameFormat("cache-feeder-%d")
+			.build());
+
+		try
 		{
-			// wait for pending requests
-			synchronized (this)
+			for (int i = 1; i < Math.min(connections, archives.size()); ++i)
 			{
-				try
+				CacheClient client = new CacheClient(store, host, clientRevision, watcher);
+				client.connect();
+				HandshakeResponseType response = client.handshake().join();
+				if (response != HandshakeResponseType.RESPONSE_OK)
 				{
-					wait();
+					logger.warn("Unable to open update connection {}: {}", i, response);
+					client.close();
+					break;
 				}
-				catch (InterruptedException ex)
+				clients.add(client);
+			}
+
+			logger.info("Downloading {} archives over {} connections", archives.size(), clients.size());
+
+			// each connection takes the next archive once it has room in its
+			// request window
+			Queue<Archive> queue = new ConcurrentLinkedQueue<>(archives);
+			List<CompletableFuture<Void>> results = Collections.synchronizedList(new ArrayList<>(archives.size()));
+
+			CompletableFuture<?>[] feeding = clients.stream()
+				.map(client -> CompletableFuture.runAsync(() -> client.feed(queue, results, writer, progress), feeders))
+				.toArray(CompletableFuture<?>[]::new);
+			CompletableFuture.allOf(feeding).join();
+
+			CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+		}
+		finally
+		{
+			feeders.shutdownNow();
+			writer.shutdown();
+
+			for (CacheClient client : clients)
+			{
+				if (client != this)
 				{
-					logger.warn(null, ex);
+					client.close();
 				}
 			}
 		}
+	}
 
-		stopwatch.stop();
-		logger.info("Download completed in {}", stopwatch);
+	private void feed(Queue<Archive> queue, List<CompletableFuture<Void>> results, ExecutorService writer, DownloadProgress progress)
+	{
+		Archive archive;
+		while ((archive = queue.poll()) != null)
+		{
+			final Archive a = archive;
+			CompletableFuture<Void> future = requestFile(a.getIndex().getId(), a.getArchiveId(), false)
+				.thenAcceptAsync(fr -> save(a, fr.getCompressedData(), progress), writer);
+			results.add(future);
+		}
+
+		// flush any pending requests
+		channel.flush();
+	}
+
+	private void save(Archive archive, byte[] data, DownloadProgress progress)
+	{
+		Crc32 crc32 = new Crc32();
+		crc32.update(data, 0, data.length);
+		int hash = crc32.getHash();
+
+		if (hash != archive.getCrc())
+		{
+			logger.warn("crc mismatch on downloaded archive {}/{}: {} != {}",
+				archive.getIndex().getId(), archive.getArchiveId(),
+				hash, archive.getCrc());
+			progress.fail();
+			return;
+		}
+
+		if (watcher != null)
+		{
+			watcher.downloadComplete(archive, data);
+		}
+		else
+		{
+			try
+			{
+				Storage storage = store.getStorage();
+				storage.saveArchive(archive, data);
+			}
+			catch (IOException ex)
+			{
+				logger.warn("unable to save archive data", ex);
+				progress.fail();
+				return;
+			}
+		}
+
+		progress.complete(data.length);
 	}
 
 	private synchronized CompletableFuture<FileResult> requestFile(int index, int fileId, boolean flush)
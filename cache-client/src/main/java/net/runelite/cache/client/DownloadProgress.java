@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and throughput of an archive download
+ */
+public class DownloadProgress
+{
+	private final int total;
+	private final AtomicInteger completed = new AtomicInteger();
+	private final AtomicInteger failed = new AtomicInteger();
+	private final AtomicLong bytes = new AtomicLong();
+	private final long start = System.nanoTime();
+
+	DownloadProgress(int total)
+	{
+		this.total = total;
+	}
+
+	void complete(int size)
+	{
+		completed.incrementAndGet();
+		bytes.addAndGet(size);
+	}
+
+	void fail()
+	{
+		failed.incrementAndGet();
+	}
+
+	/**
+	 * @return number of archives being downloaded
+	 */
+	public int getTotal()
+	{
+		return total;
+	}
+
+	/**
+	 * @return number of archives downloaded and saved
+	 */
+	public int getCompleted()
+	{
+		return completed.get();
+	}
+
+	/**
+	 * @return number of archives which failed verification
+	 */
+	public int getFailed()
+	{
+		return failed.get();
+	}
+
+	/**
+	 * @return number of compressed bytes downloaded
+	 */
+	public long getBytes()
+	{
+		return bytes.get();
+	}
+
+	public long getElapsedMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+
+	public double getArchivesPerSecond()
+	{
+		return (completed.get() + failed.get()) * 1000.0 / Math.max(1L, getElapsedMillis());
+	}
+
+	public double getBytesPerSecond()
+	{
+		return bytes.get() * 1000.0 / Math.max(1L, getElapsedMillis());
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%d/%d archives (%d failed), %d KiB in %d ms (%.1f archives/s, %.1f KiB/s)",
+			getCompleted(), total, getFailed(), getBytes() / 1024, getElapsedMillis(),
+			getArchivesPerSecond(), getBytesPerSecond() / 1024.0);
+	}
+}
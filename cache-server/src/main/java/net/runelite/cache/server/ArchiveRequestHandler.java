@@ -24,21 +24,10 @@
  */
 package net.runelite.cache.server;
 
-import com.google.common.primitives.Ints;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
-import java.io.IOException;
-import java.util.Arrays;
-import net.runelite.cache.fs.Archive;
-import net.runelite.cache.fs.Container;
-import net.runelite.cache.fs.Index;
-import net.runelite.cache.fs.Storage;
-import net.runelite.cache.fs.Store;
-import net.runelite.cache.fs.jagex.CompressionType;
-import net.runelite.cache.fs.jagex.DiskStorage;
 import net.runelite.protocol.api.update.ArchiveRequestPacket;
-import net.runelite.protocol.api.update.ArchiveResponsePacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,113 +35,45 @@ public class ArchiveRequestHandler extends SimpleChannelInboundHandler<ArchiveRe
 {
 	private static final Logger logger = LoggerFactory.getLogger(ArchiveRequestHandler.class);
 
-	private final Store store;
+	private final PreparedResponseCache responses;
 
-	public ArchiveRequestHandler(Store store)
+	public ArchiveRequestHandler(PreparedResponseCache responses)
 	{
-		this.store = store;
+		this.responses = responses;
 	}
 
 	@Override
 	protected void channelRead0(ChannelHandlerContext ctx, ArchiveRequestPacket archiveRequest) throws Exception
 	{
-		if (archiveRequest.getIndex() == 255)
-		{
-			handleRequest255(ctx, archiveRequest.getIndex(),
-				archiveRequest.getArchive());
-		}
-		else
-		{
-			handleRequest(ctx, archiveRequest.getIndex(),
-				archiveRequest.getArchive());
-		}
-	}
+		int index = archiveRequest.getIndex();
+		int archiveId = archiveRequest.getArchive();
 
-	private void handleRequest255(ChannelHandlerContext ctx, int index, int archiveId) throws IOException
-	{
-		logger.info("Client {} requests 255: index {}, archive {}", ctx.channel().remoteAddress(), index, archiveId);
-
-		byte[] compressed;
-		if (archiveId == 255)
+		ByteBuf response;
+		if (index == 255)
 		{
-			// index 255 data, for each index:
-			// 4 byte crc
-			// 4 byte revision
-			ByteBuf buffer = ctx.alloc().heapBuffer(store.getIndexes().size() * 8);
-			for (Index i : store.getIndexes())
-			{
-				buffer.writeInt(i.getCrc());
-				buffer.writeInt(i.getRevision());
-			}
-
-			compressed = compress(CompressionType.NONE, Arrays.copyOf(buffer.array(), buffer.readableBytes()));
-			buffer.release();
+			logger.debug("Client {} requests 255: index {}, archive {}", ctx.channel().remoteAddress(), index, archiveId);
+			response = responses.getIndexResponse(archiveId);
 		}
 		else
 		{
-			// Requires disk storage. Use packed index data from
-			// store as its crc matches
-			DiskStorage storage = (DiskStorage) store.getStorage();
-			compressed = storage.readIndex(archiveId);
+			logger.debug("Client {} requests index {} archive {}", ctx.channel().remoteAddress(), index, archiveId);
+			response = responses.getResponse(index, archiveId);
 		}
 
-		ArchiveResponsePacket response = new ArchiveResponsePacket();
-		response.setIndex(index);
-		response.setArchive(archiveId);
-		response.setData(compressed);
-
-		ctx.writeAndFlush(response);
-	}
-
-	private void handleRequest(ChannelHandlerContext ctx, int index, int archiveId) throws IOException
-	{
-		logger.info("Client {} requests index {} archive {}", ctx.channel().remoteAddress(), index, archiveId);
-
-		Index i = store.findIndex(index);
-		assert i != null;
-
-		Archive archive = i.getArchive(archiveId);
-		assert archive != null;
-
-		Storage storage = store.getStorage();
-		byte[] packed = storage.loadArchive(archive); // is compressed, includes length and type
-
-		if (packed == null)
+		if (response == null)
 		{
 			logger.warn("Missing archive {}/{}", index, archiveId);
 			return; // is it possible to notify the client of an error with this?
 		}
 
-		byte compression = packed[0];
-		int compressedSize = Ints.fromBytes(packed[1], packed[2],
-			packed[3], packed[4]);
-
-		// size the client expects the data to be
-		int expectedSize = 1 // compression type
-			+ 4 // compressed size
-			+ compressedSize
-			+ (compression != CompressionType.NONE ? 4 : 0);
-		if (packed.length != expectedSize)
-		{
-			// It may have the archive revision appended at the end.
-			// The data the client writes will have it, but the data fetched from
-			// the update server will never have it
-			assert packed.length - expectedSize == 2 : "packed length != expected size";
-			packed = Arrays.copyOf(packed, packed.length - 2);
-		}
-
-		ArchiveResponsePacket response = new ArchiveResponsePacket();
-		response.setIndex(index);
-		response.setArchive(archiveId);
-		response.setData(packed);
-
-		ctx.writeAndFlush(response);
+		ctx.write(response);
 	}
 
-	private byte[] compress(int compression, byte[] data) throws IOException
+	@Override
+	public void channelReadComplete(ChannelHandlerContext ctx) throws Exception
 	{
-		Container container = new Container(compression, -1);
-		container.compress(data, null);
-		return container.data;
+		// flush once per read, rather than once per request
+		ctx.flush();
+		super.channelReadComplete(ctx);
 	}
 }
@@ -31,6 +31,9 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+import java.io.IOException;
 import net.runelite.cache.fs.Store;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,25 +44,47 @@ public class CacheServer implements AutoCloseable
 
 	private static final int PORT = 43594;
 
-	private final EventLoopGroup group = new NioEventLoopGroup(1);
+	private static final int DEFAULT_IO_THREADS = 8;
+	private static final long RESPONSE_CACHE_BYTES = 256L * 1024 * 1024;
+
+	private final EventLoopGroup bossGroup = new NioEventLoopGroup(1);
+	private final EventLoopGroup workerGroup;
+	private final EventExecutorGroup ioGroup;
 
 	private Channel channel;
 
 	private final Store store;
 	private final int revision;
+	private final PreparedResponseCache responseCache;
 
 	public CacheServer(Store store, int revision)
+	{
+		this(store, revision, Runtime.getRuntime().availableProcessors(), DEFAULT_IO_THREADS);
+	}
+
+	/**
+	 * @param store
+	 * @param revision
+	 * @param workerThreads number of threads handling client connections
+	 * @param ioThreads number of threads reading archives from storage
+	 */
+	public CacheServer(Store store, int revision, int workerThreads, int ioThreads)
 	{
 		this.store = store;
 		this.revision = revision;
+		this.workerGroup = new NioEventLoopGroup(workerThreads);
+		this.ioGroup = new DefaultEventExecutorGroup(ioThreads);
+		this.responseCache = new PreparedResponseCache(store, RESPONSE_CACHE_BYTES);
 	}
 
-	public void start()
+	public void start() throws IOException
 	{
+		responseCache.prepareIndexes();
+
 		ServerBootstrap b = new ServerBootstrap();
-		b.group(group)
+		b.group(bossGroup, workerGroup)
 			.channel(NioServerSocketChannel.class)
-			.option(ChannelOption.TCP_NODELAY, true)
+			.childOption(ChannelOption.TCP_NODELAY, true)
 			.childHandler(new CacheServerInitializer(this));
 
 		ChannelFuture f = b.bind(PORT).syncUninterruptibly();
@@ -76,8 +101,14 @@ public class CacheServer implements AutoCloseable
 	@Override
 	public void close()
 	{
-		channel.close().syncUninterruptibly();
-		group.shutdownGracefully();
+		if (channel != null)
+		{
+			channel.close().syncUninterruptibly();
+		}
+		bossGroup.shutdownGracefully();
+		workerGroup.shutdownGracefully().syncUninterruptibly();
+		ioGroup.shutdownGracefully().syncUninterruptibly();
+		responseCache.clear();
 	}
 
 	public int getRevision()
@@ -89,4 +120,14 @@ public class CacheServer implements AutoCloseable
 	{
 		return store;
 	}
+
+	EventExecutorGroup getIoGroup()
+	{
+		return ioGroup;
+	}
+
+	PreparedResponseCache getResponseCache()
+	{
+		return responseCache;
+	}
 }
@@ -61,8 +61,11 @@ public class CacheServerInitializer extends ChannelInitializer<SocketChannel>
 			new ArchiveResponseEncoder()
 		);
 
+		// archive requests may block on disk reads, so they are handled
+		// off of the event loop
+		p.addLast(server.getIoGroup(), new ArchiveRequestHandler(server.getResponseCache()));
+
 		p.addLast(
-			new ArchiveRequestHandler(server.getStore()),
 			new EncryptionHandler(),
 			new HandshakeHandler(server)
 		);
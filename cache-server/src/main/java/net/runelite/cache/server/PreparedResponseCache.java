@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.server;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.primitives.Ints;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Storage;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.fs.jagex.CompressionType;
+import net.runelite.cache.fs.jagex.DiskStorage;
+import net.runelite.protocol.update.encoders.ArchiveResponseEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Encoded archive responses, ready to be written to a channel. Index 255
+ * responses are prepared up front, and others are cached as they are
+ * requested, bounded by their total size.
+ */
+class PreparedResponseCache
+{
+	private static final Logger logger = LoggerFactory.getLogger(PreparedResponseCache.class);
+
+	private final Store store;
+	private final Map<Integer, ByteBuf> indexResponses = new HashMap<>();
+	private final Cache<Long, ByteBuf> responses;
+
+	PreparedResponseCache(Store store, long maxBytes)
+	{
+		this.store = store;
+		this.responses = CacheBuilder.newBuilder()
+			.maximumWeight(maxBytes)
+			.weigher((Long key, ByteBuf buf) -> buf.capacity())
+			.removalListener((RemovalNotification<Long, ByteBuf> notification) -> release(notification.getValue()))
+			.build();
+	}
+
+	/**
+	 * prepare the index 255 responses
+	 *
+	 * @throws IOException
+	 */
+	void prepareIndexes() throws IOException
+	{
+		// index 255 data, for each index:
+		// 4 byte crc
+		// 4 byte revision
+		ByteBuf buffer = Unpooled.buffer(store.getIndexes().size() * 8);
+		for (Index i : store.getIndexes())
+		{
+			buffer.writeInt(i.getCrc());
+			buffer.writeInt(i.getRevision());
+		}
+
+		Container container = new Container(CompressionType.NONE, -1);
+		container.compress(Arrays.copyOf(buffer.array(), buffer.readableBytes()), null);
+		indexResponses.put(255, prepare(255, 255, container.data, container.data.length));
+
+		// Requires disk storage. Use packed index data from
+		// store as its crc matches
+		DiskStorage storage = (DiskStorage) store.getStorage();
+		for (Index i : store.getIndexes())
+		{
+			byte[] compressed = storage.readIndex(i.getId());
+			if (compressed != null)
+			{
+				indexResponses.put(i.getId(), prepare(255, i.getId(), compressed, compressed.length));
+			}
+		}
+	}
+
+	/**
+	 * get an index 255 response
+	 *
+	 * @param archiveId
+	 * @return a retained duplicate of the response, or null
+	 */
+	ByteBuf getIndexResponse(int archiveId)
+	{
+		ByteBuf buf = indexResponses.get(archiveId);
+		return buf != null ? buf.duplicate().retain() : null;
+	}
+
+	/**
+	 * get an archive response, reading and encoding the archive if it is
+	 * not cached. This may block on disk I/O.
+	 *
+	 * @param index
+	 * @param archiveId
+	 * @return a retained duplicate of the response, or null if the archive
+	 * doesn't exist
+	 * @throws IOException
+	 */
+	ByteBuf getResponse(int index, int archiveId) throws IOException
+	{
+		long key = ((long) index << 32) | (archiveId & 0xffffffffL);
+
+		ByteBuf buf = responses.getIfPresent(key);
+		if (buf != null)
+		{
+			synchronized (buf)
+			{
+				// the buffer is released when it is evicted
+				if (buf.refCnt() > 0)
+				{
+					return buf.duplicate().retain();
+				}
+			}
+		}
+
+		buf = load(index, archiveId);
+		if (buf == null)
+		{
+			return null;
+		}
+
+		ByteBuf response = buf.duplicate().retain();
+		responses.put(key, buf);
+		return response;
+	}
+
+	private ByteBuf load(int index, int archiveId) throws IOException
+	{
+		Index i = store.findIndex(index);
+		if (i == null)
+		{
+			logger.warn("Missing index {}", index);
+			return null;
+		}
+
+		Archive archive = i.getArchive(archiveId);
+		if (archive == null)
+		{
+			logger.warn("Missing archive {}/{}", index, archiveId);
+			return null;
+		}
+
+		Storage storage = store.getStorage();
+		byte[] packed = storage.loadArchive(archive); // is compressed, includes length and type
+
+		if (packed == null)
+		{
+			logger.warn("Missing archive {}/{}", index, archiveId);
+			return null;
+		}
+
+		byte compression = packed[0];
+		int compressedSize = Ints.fromBytes(packed[1], packed[2],
+			packed[3], packed[4]);
+
+		// size the client expects the data to be
+		int expectedSize = 1 // compression type
+			+ 4 // compressed size
+			+ compressedSize
+			+ (compression != CompressionType.NONE ? 4 : 0);
+		if (packed.length != expectedSize)
+		{
+			// It may have the archive revision appended at the end.
+			// The data the client writes will have it, but the data fetched from
+			// the update server will never have it
+			assert packed.length - expectedSize == 2 : "packed length != expected size";
+		}
+
+		return prepare(index, archiveId, packed, expectedSize);
+	}
+
+	private static ByteBuf prepare(int index, int archiveId, byte[] data, int length)
+	{
+		ByteBuf buf = Unpooled.directBuffer(ArchiveResponseEncoder.encodedSize(length));
+		ArchiveResponseEncoder.encode(index, archiveId, Unpooled.wrappedBuffer(data, 0, length), buf);
+		return buf;
+	}
+
+	private static void release(ByteBuf buf)
+	{
+		synchronized (buf)
+		{
+			buf.release();
+		}
+	}
+
+	void clear()
+	{
+		responses.invalidateAll();
+		indexResponses.values().forEach(ByteBuf::release);
+		indexResponses.clear();
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import net.runelite.protocol.api.update.ArchiveRequestPacket;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+public class ArchiveRequestHandlerTest
+{
+	@Test
+	public void testRequest() throws Exception
+	{
+		ByteBuf prepared = Unpooled.wrappedBuffer(new byte[]
+		{
+			0, 0, 1, 0, 0, 0, 0, 0
+		});
+		ByteBuf indexResponse = Unpooled.wrappedBuffer(new byte[]
+		{
+			(byte) 255, 0, 0
+		});
+
+		PreparedResponseCache responses = new PreparedResponseCache(null, 0)
+		{
+			@Override
+			ByteBuf getIndexResponse(int archiveId)
+			{
+				return archiveId == 0 ? indexResponse : null;
+			}
+
+			@Override
+			ByteBuf getResponse(int index, int archiveId)
+			{
+				return index == 0 && archiveId == 1 ? prepared : null;
+			}
+		};
+
+		EmbeddedChannel channel = new EmbeddedChannel(new ArchiveRequestHandler(responses));
+
+		// responses are flushed once the read completes
+		channel.writeInbound(request(0, 1), request(255, 0));
+		assertSame(prepared, channel.readOutbound());
+		assertSame(indexResponse, channel.readOutbound());
+		assertNull(channel.readOutbound());
+
+		channel.finish();
+	}
+
+	@Test
+	public void testMissing() throws Exception
+	{
+		PreparedResponseCache responses = new PreparedResponseCache(null, 0)
+		{
+			@Override
+			ByteBuf getResponse(int index, int archiveId)
+			{
+				return null;
+			}
+		};
+
+		EmbeddedChannel channel = new EmbeddedChannel(new ArchiveRequestHandler(responses));
+		channel.writeInbound(request(0, 1));
+		assertNull(channel.readOutbound());
+		assertEquals(0, channel.outboundMessages().size());
+
+		channel.finish();
+	}
+
+	private static ArchiveRequestPacket request(int index, int archive)
+	{
+		ArchiveRequestPacket packet = new ArchiveRequestPacket();
+		packet.setIndex(index);
+		packet.setArchive(archive);
+		return packet;
+	}
+}
@@ -26,8 +26,11 @@ package net.runelite.cache.server;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.runelite.cache.StoreLocation;
 import net.runelite.cache.client.CacheClient;
+import net.runelite.cache.client.DownloadProgress;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.Index;
@@ -104,6 +107,113 @@ public class CacheServerTest
 		}
 	}
 
+	@Test
+	public void testServerMultipleConnections() throws Exception
+	{
+		try (Store store = new Store(folder.newFolder());
+			CacheServer server = new CacheServer(store, REVISION))
+		{
+			Storage storage = store.getStorage();
+			for (int i = 0; i < 2; ++i)
+			{
+				Index index = store.addIndex(i);
+				for (int j = 0; j < 50; ++j)
+				{
+					Archive archive = index.addArchive(j);
+					FileData[] files = new FileData[j % 5 + 1];
+					for (int k = 0; k < files.length; ++k)
+					{
+						files[k] = new FileData();
+						files[k].setId(k);
+					}
+					archive.setFileData(files);
+
+					Container container = new Container(archive.getCompression(), -1);
+					container.compress(("test " + i + " " + j).getBytes(), null);
+					storage.saveArchive(archive, container.data);
+				}
+			}
+
+			store.save();
+
+			server.start();
+
+			try (Store store2 = new Store(folder.newFolder());
+				CacheClient client = new CacheClient(store2, HOST, REVISION))
+			{
+				client.connect();
+				client.handshake().get();
+				client.download(4);
+
+				DownloadProgress progress = client.getProgress();
+				assertEquals(100, progress.getTotal());
+				assertEquals(100, progress.getCompleted());
+				assertEquals(0, progress.getFailed());
+
+				Storage storage2 = store2.getStorage();
+				for (int i = 0; i < 2; ++i)
+				{
+					Index index = store2.findIndex(i);
+					for (int j = 0; j < 50; ++j)
+					{
+						Archive archive = index.getArchive(j);
+						byte[] data = archive.decompress(storage2.loadArchive(archive));
+						assertArrayEquals(("test " + i + " " + j).getBytes(), data);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testServerMultipleConnectionsWatcher() throws Exception
+	{
+		try (Store store = new Store(folder.newFolder());
+			CacheServer server = new CacheServer(store, REVISION))
+		{
+			Storage storage = store.getStorage();
+			Index index = store.addIndex(0);
+			for (int j = 0; j < 50; ++j)
+			{
+				Archive archive = index.addArchive(j);
+				FileData[] files = new FileData[1];
+				files[0] = new FileData();
+				archive.setFileData(files);
+
+				Container container = new Container(archive.getCompression(), -1);
+				container.compress(("test " + j).getBytes(), null);
+				storage.saveArchive(archive, container.data);
+			}
+
+			store.save();
+
+			server.start();
+
+			Map<Integer, byte[]> downloaded = new ConcurrentHashMap<>();
+			try (Store store2 = new Store(folder.newFolder());
+				CacheClient client = new CacheClient(store2, HOST, REVISION,
+					(archive, data) -> downloaded.put(archive.getArchiveId(), data)))
+			{
+				client.connect();
+				client.handshake().get();
+				client.download(4);
+
+				DownloadProgress progress = client.getProgress();
+				assertEquals(50, progress.getTotal());
+				assertEquals(50, progress.getCompleted());
+				assertEquals(0, progress.getFailed());
+
+				assertEquals(50, downloaded.size());
+				Index index2 = store2.findIndex(0);
+				for (int j = 0; j < 50; ++j)
+				{
+					Archive archive = index2.getArchive(j);
+					assertArrayEquals(("test " + j).getBytes(), archive.decompress(downloaded.get(j)));
+				}
+			}
+		}
+	}
+
 	private void addInitialFilesToStore(Store store) throws FileNotFoundException, IOException
 	{
 		Storage storage = store.getStorage();
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import net.runelite.cache.StoreLocation;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.fs.jagex.CompressionType;
+import net.runelite.cache.index.FileData;
+import net.runelite.protocol.update.encoders.ArchiveResponseEncoder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PreparedResponseCacheTest
+{
+	@Rule
+	public TemporaryFolder folder = StoreLocation.getTemporaryFolder();
+
+	@Test
+	public void testGetResponse() throws Exception
+	{
+		try (Store store = createStore())
+		{
+			PreparedResponseCache responses = new PreparedResponseCache(store, 1 << 20);
+
+			ByteBuf response = responses.getResponse(0, 0);
+			assertEquals(expected(store, 0, 0), response);
+
+			// the second request is served from the same prepared buffer
+			ByteBuf response2 = responses.getResponse(0, 0);
+			assertEquals(expected(store, 0, 0), response2);
+			assertSame(response.unwrap(), response2.unwrap());
+
+			response.release();
+			response2.release();
+			responses.clear();
+		}
+	}
+
+	@Test
+	public void testMissing() throws Exception
+	{
+		try (Store store = createStore())
+		{
+			PreparedResponseCache responses = new PreparedResponseCache(store, 1 << 20);
+
+			assertNull(responses.getResponse(0, 1));
+			assertNull(responses.getResponse(1, 0));
+			assertNull(responses.getIndexResponse(255));
+		}
+	}
+
+	@Test
+	public void testEvictionReleases() throws Exception
+	{
+		try (Store store = createStore())
+		{
+			// too small to hold any response, so each one is evicted as
+			// soon as it is cached
+			PreparedResponseCache responses = new PreparedResponseCache(store, 1);
+
+			ByteBuf response = responses.getResponse(0, 0);
+			assertEquals(expected(store, 0, 0), response);
+			assertEquals(1, response.refCnt());
+
+			ByteBuf response2 = responses.getResponse(0, 0);
+			assertNotSame(response.unwrap(), response2.unwrap());
+
+			response.release();
+			response2.release();
+			assertEquals(0, response.refCnt());
+			assertEquals(0, response2.refCnt());
+		}
+	}
+
+	@Test
+	public void testIndexResponses() throws Exception
+	{
+		try (Store store = createStore())
+		{
+			PreparedResponseCache responses = new PreparedResponseCache(store, 1 << 20);
+			responses.prepareIndexes();
+
+			Index index = store.findIndex(0);
+			ByteBuf data = Unpooled.buffer();
+			data.writeInt(index.getCrc());
+			data.writeInt(index.getRevision());
+			byte[] b = new byte[data.readableBytes()];
+			data.readBytes(b);
+
+			Container container = new Container(CompressionType.NONE, -1);
+			container.compress(b, null);
+
+			ByteBuf expected = Unpooled.buffer();
+			ArchiveResponseEncoder.encode(255, 255, Unpooled.wrappedBuffer(container.data), expected);
+
+			ByteBuf response = responses.getIndexResponse(255);
+			assertEquals(expected, response);
+			response.release();
+
+			response = responses.getIndexResponse(0);
+			assertNotNull(response);
+			assertEquals(255, response.getUnsignedByte(0));
+			assertEquals(0, response.getUnsignedShort(1));
+			response.release();
+
+			assertNull(responses.getIndexResponse(1));
+
+			responses.clear();
+		}
+	}
+
+	private Store createStore() throws IOException
+	{
+		Store store = new Store(folder.newFolder());
+		Index index = store.addIndex(0);
+
+		Archive archive = index.addArchive(0);
+		FileData file = new FileData();
+		archive.setFileData(new FileData[]
+		{
+			file
+		});
+
+		Container container = new Container(archive.getCompression(), -1);
+		container.compress("test".getBytes(), null);
+		store.getStorage().saveArchive(archive, container.data);
+
+		store.save();
+		return store;
+	}
+
+	private static ByteBuf expected(Store store, int index, int archiveId) throws IOException
+	{
+		Archive archive = store.findIndex(index).getArchive(archiveId);
+		byte[] packed = store.getStorage().loadArchive(archive);
+
+		ByteBuf expected = Unpooled.buffer();
+		ArchiveResponseEncoder.encode(index, archiveId, Unpooled.wrappedBuffer(packed), expected);
+		return expected;
+	}
+}
@@ -35,11 +35,15 @@ import org.sql2o.ResultSetIterable;
 
 class CacheDAO
 {
+	private static final int BATCH_SIZE = 1000;
+
 	// cache prepared statements for high volume queries
 	private Query associateArchive;
-	private Query findArchive, insertArchive;
+	private Query findArchive;
 	private Query associateFile;
 
+	private int associateArchiveBatch, associateFileBatch;
+
 	public CacheEntry findMostRecent(Connection con)
 	{
 		return con.createQuery("select id, revision, date from cache order by revision desc, date desc limit 1")
@@ -96,18 +100,6 @@ class CacheDAO
 		return entry;
 	}
 
-	public void associateArchiveToIndex(Connection con, ArchiveEntry archive, IndexEntry index)
-	{
-		if (associateArchive == null)
-		{
-			associateArchive = con.createQuery("insert into index_archive (`index`, archive) values (:index, :archive)");
-		}
-		associateArchive
-			.addParameter("index", index.getId())
-			.addParameter("archive", archive.getId())
-			.executeUpdate();
-	}
-
 	public ArchiveEntry findArchive(Connection con, IndexEntry index,
 		int archiveId, int nameHash, int crc, int revision)
 	{
@@ -134,35 +126,71 @@ class CacheDAO
 		return entry;
 	}
 
-	public ArchiveEntry createArchive(Connection con, IndexEntry index,
-		int archiveId, int nameHash, int crc, int revision, byte[] hash)
+	/**
+	 * insert archives in a single batch, setting the id of each entry
+	 *
+	 * @param con
+	 * @param entries
+	 */
+	public void createArchives(Connection con, List<ArchiveEntry> entries)
 	{
-		if (insertArchive == null)
+		if (entries.isEmpty())
 		{
-			insertArchive = con.createQuery("insert into archive (archiveId, nameHash, crc, revision, hash) values "
-				+ "(:archiveId, :nameHash, :crc, :revision, :hash)");
+			return;
 		}
 
-		int id = insertArchive
-			.addParameter("archiveId", archiveId)
-			.addParameter("nameHash", nameHash)
-			.addParameter("crc", crc)
-			.addParameter("revision", revision)
-			.addParameter("hash", hash)
-			.executeUpdate()
-			.getKey(int.class);
+		Query query = con.createQuery("insert into archive (archiveId, nameHash, crc, revision, hash) values "
+			+ "(:archiveId, :nameHash, :crc, :revision, :hash)", true);
+		for (ArchiveEntry entry : entries)
+		{
+			query.addParameter("archiveId", entry.getArchiveId())
+				.addParameter("nameHash", entry.getNameHash())
+				.addParameter("crc", entry.getCrc())
+				.addParameter("revision", entry.getRevision())
+				.addParameter("hash", entry.getHash())
+				.addToBatch();
+		}
 
-		ArchiveEntry entry = new ArchiveEntry();
-		entry.setId(id);
-		entry.setArchiveId(archiveId);
-		entry.setNameHash(nameHash);
-		entry.setCrc(crc);
-		entry.setRevision(revision);
-		entry.setHash(hash);
-		return entry;
+		List<Integer> keys = query.executeBatch()
+			.getKeys(Integer.class);
+		if (keys.size() != entries.size())
+		{
+			throw new IllegalStateException("Expected " + entries.size() + " keys, got " + keys.size());
+		}
+
+		for (int i = 0; i < entries.size(); ++i)
+		{
+			entries.get(i).setId(keys.get(i));
+		}
+	}
+
+	/**
+	 * queue an archive to index association. Queued associations are
+	 * written by {@link #executeBatches()}.
+	 */
+	public void addArchiveToIndexBatch(Connection con, ArchiveEntry archive, IndexEntry index)
+	{
+		if (associateArchive == null)
+		{
+			associateArchive = con.createQuery("insert into index_archive (`index`, archive) values (:index, :archive)");
+		}
+		associateArchive
+			.addParameter("index", index.getId())
+			.addParameter("archive", archive.getId())
+			.addToBatch();
+
+		if (++associateArchiveBatch >= BATCH_SIZE)
+		{
+			associateArchive.executeBatch();
+			associateArchiveBatch = 0;
+		}
 	}
 
-	public void associateFileToArchive(Connection con, ArchiveEntry archive, int fileId, int nameHash)
+	/**
+	 * queue a file to archive association. Queued associations are written
+	 * by {@link #executeBatches()}.
+	 */
+	public void addFileToArchiveBatch(Connection con, ArchiveEntry archive, int fileId, int nameHash)
 	{
 		if (associateFile == null)
 		{
@@ -172,6 +200,27 @@ class CacheDAO
 			.addParameter("archive", archive.getId())
 			.addParameter("fileId", fileId)
 			.addParameter("nameHash", nameHash)
-			.executeUpdate();
+			.addToBatch();
+
+		if (++associateFileBatch >= BATCH_SIZE)
+		{
+			associateFile.executeBatch();
+			associateFileBatch = 0;
+		}
+	}
+
+	public void executeBatches()
+	{
+		if (associateArchiveBatch > 0)
+		{
+			associateArchive.executeBatch();
+			associateArchiveBatch = 0;
+		}
+
+		if (associateFileBatch > 0)
+		{
+			associateFile.executeBatch();
+			associateFileBatch = 0;
+		}
 	}
 }
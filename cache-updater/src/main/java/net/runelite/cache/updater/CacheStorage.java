@@ -25,7 +25,11 @@
 package net.runelite.cache.updater;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Index;
@@ -45,6 +49,13 @@ public class CacheStorage implements Storage
 	private final CacheDAO cacheDao;
 	private final Connection con;
 
+	/**
+	 * archives of the loaded cache, by index id and archive id
+	 */
+	private final Map<Integer, Map<Integer, ArchiveEntry>> loadedArchives = new HashMap<>();
+
+	private final StageStats saveStats = new StageStats("save");
+
 	public CacheStorage(CacheEntry cacheEntry, CacheDAO cacheDao, Connection con)
 	{
 		this.cacheEntry = cacheEntry;
@@ -82,6 +93,9 @@ public class CacheStorage implements Storage
 			index.setCrc(indexEntry.getCrc());
 			index.setRevision(indexEntry.getRevision());
 
+			Map<Integer, ArchiveEntry> archiveEntries = new HashMap<>();
+			loadedArchives.put(indexEntry.getIndexId(), archiveEntries);
+
 			try (ResultSetIterable<ArchiveEntry> archives = cacheDao.findArchivesForIndex(con, indexEntry))
 			{
 				for (ArchiveEntry archiveEntry : archives)
@@ -96,6 +110,7 @@ public class CacheStorage implements Storage
 					archive.setCrc(archiveEntry.getCrc());
 					archive.setRevision(archiveEntry.getRevision());
 					archive.setHash(archiveEntry.getHash());
+					archiveEntries.put(archiveEntry.getArchiveId(), archiveEntry);
 
 					// File data is not necessary for cache updating
 				}
@@ -106,29 +121,74 @@ public class CacheStorage implements Storage
 	@Override
 	public void save(Store store) throws IOException
 	{
+		long start = System.nanoTime();
+		int archiveCount = 0;
+
 		for (Index index : store.getIndexes())
 		{
 			IndexEntry entry = cacheDao.createIndex(con, cacheEntry, index.getId(), index.getCrc(), index.getRevision());
+			Map<Integer, ArchiveEntry> previous = loadedArchives.getOrDefault(index.getId(), Collections.emptyMap());
+
+			List<Archive> newArchives = new ArrayList<>();
+			List<ArchiveEntry> newEntries = new ArrayList<>();
 
 			for (Archive archive : index.getArchives())
 			{
-				ArchiveEntry archiveEntry = cacheDao.findArchive(con, entry, archive.getArchiveId(),
-					archive.getNameHash(), archive.getCrc(), archive.getRevision());
+				// most archives are unchanged from the loaded cache, so only
+				// query for the ones which are not
+				ArchiveEntry archiveEntry = previous.get(archive.getArchiveId());
+				if (archiveEntry == null || !matches(archiveEntry, archive))
+				{
+					archiveEntry = cacheDao.findArchive(con, entry, archive.getArchiveId(),
+						archive.getNameHash(), archive.getCrc(), archive.getRevision());
+				}
+
 				if (archiveEntry == null)
 				{
-					byte[] hash = archive.getHash();
-					archiveEntry = cacheDao.createArchive(con, entry, archive.getArchiveId(),
-						archive.getNameHash(), archive.getCrc(), archive.getRevision(), hash);
+					archiveEntry = new ArchiveEntry();
+					archiveEntry.setArchiveId(archive.getArchiveId());
+					archiveEntry.setNameHash(archive.getNameHash());
+					archiveEntry.setCrc(archive.getCrc());
+					archiveEntry.setRevision(archive.getRevision());
+					archiveEntry.setHash(archive.getHash());
+
+					newArchives.add(archive);
+					newEntries.add(archiveEntry);
+					continue;
+				}
 
-					for (FileData file : archive.getFileData())
-					{
-						cacheDao.associateFileToArchive(con, archiveEntry, file.getId(), file.getNameHash());
-					}
+				cacheDao.addArchiveToIndexBatch(con, archiveEntry, entry);
+			}
+
+			cacheDao.createArchives(con, newEntries);
+
+			for (int i = 0; i < newArchives.size(); ++i)
+			{
+				Archive archive = newArchives.get(i);
+				ArchiveEntry archiveEntry = newEntries.get(i);
+
+				for (FileData file : archive.getFileData())
+				{
+					cacheDao.addFileToArchiveBatch(con, archiveEntry, file.getId(), file.getNameHash());
 				}
 
-				cacheDao.associateArchiveToIndex(con, archiveEntry, entry);
+				cacheDao.addArchiveToIndexBatch(con, archiveEntry, entry);
 			}
+
+			archiveCount += index.getArchives().size();
 		}
+
+		cacheDao.executeBatches();
+
+		saveStats.record(archiveCount, 0, start);
+		log.info("{}", saveStats);
+	}
+
+	private static boolean matches(ArchiveEntry archiveEntry, Archive archive)
+	{
+		return archiveEntry.getNameHash() == archive.getNameHash()
+			&& archiveEntry.getCrc() == archive.getCrc()
+			&& archiveEntry.getRevision() == archive.getRevision();
 	}
 
 	@Override
@@ -30,12 +30,10 @@ import io.minio.errors.InvalidPortException;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 import net.runelite.cache.client.CacheClient;
 import net.runelite.cache.client.IndexInfo;
 import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.updater.beans.CacheEntry;
 import net.runelite.cache.updater.beans.IndexEntry;
@@ -63,6 +61,9 @@ public class CacheUpdater implements CommandLineRunner
 	@Value("${minio.bucket}")
 	private String minioBucket;
 
+	@Value("${minio.upload-threads:8}")
+	private int uploadThreads;
+
 	@Autowired
 	public CacheUpdater(
 		@Qualifier("Runelite Cache SQL2O") Sql2o sql2o,
@@ -92,44 +93,60 @@ public class CacheUpdater implements CommandLineRunner
 			Store store = new Store(storage);
 			store.load();
 
-			ExecutorService executor = Executors.newSingleThreadExecutor();
-
-			CacheClient client = new CacheClient(store, rsVersion,
-				(Archive archive, byte[] data) -> executor.submit(new CacheUploader(minioClient, minioBucket, archive, data)));
+			UploadPipeline pipeline = new UploadPipeline(minioClient, minioBucket,
+				Runtime.getRuntime().availableProcessors(), uploadThreads);
 
-			client.connect();
-			HandshakeResponseType result = client.handshake().join();
-
-			if (result != HandshakeResponseType.RESPONSE_OK)
+			// archives referenced by the database are already in the store
+			for (Index index : store.getIndexes())
 			{
-				logger.warn("Out of date!");
-				return;
+				for (Archive archive : index.getArchives())
+				{
+					if (archive.getHash() != null)
+					{
+						pipeline.addKnown(archive.getHash());
+					}
+				}
 			}
 
-			List<IndexInfo> indexes = client.requestIndexes();
-			List<IndexEntry> entries = cacheDao.findIndexesForCache(con, cache);
+			try
+			{
+				CacheClient client = new CacheClient(store, rsVersion, pipeline::submit);
+
+				client.connect();
+				HandshakeResponseType result = client.handshake().join();
+
+				if (result != HandshakeResponseType.RESPONSE_OK)
+				{
+					logger.warn("Out of date!");
+					return;
+				}
+
+				List<IndexInfo> indexes = client.requestIndexes();
+				List<IndexEntry> entries = cacheDao.findIndexesForCache(con, cache);
 
-			if (!checkOutOfDate(indexes, entries))
+				if (!checkOutOfDate(indexes, entries))
+				{
+					logger.info("All up to date.");
+					return;
+				}
+
+				client.download();
+
+				// wait for hashing, which the database rows need, and ensure
+				// objects are added to the store before they become visible in
+				// the database
+				pipeline.finish();
+			}
+			finally
 			{
-				logger.info("All up to date.");
-				return;
+				pipeline.abort();
 			}
 
-			client.download();
-
 			CacheEntry newCache = created ? cache : cacheDao.createCache(con, rsVersion, Instant.now());
 
 			storage.setCacheEntry(newCache);
 			store.save();
 
-			// ensure objects are added to the store before they become
-			// visible in the database
-			executor.shutdown();
-			while (!executor.awaitTermination(1, TimeUnit.SECONDS))
-			{
-				logger.debug("Waiting for termination of executor...");
-			}
-
 			// commit database
 			con.commit();
 		}
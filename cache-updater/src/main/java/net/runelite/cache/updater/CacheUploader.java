@@ -24,8 +24,6 @@
  */
 package net.runelite.cache.updater;
 
-import com.google.common.hash.Hashing;
-import com.google.common.io.BaseEncoding;
 import io.minio.MinioClient;
 import io.minio.errors.ErrorResponseException;
 import io.minio.errors.InsufficientDataException;
@@ -35,10 +33,8 @@ import io.minio.errors.InvalidBucketNameException;
 import io.minio.errors.NoResponseException;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
-import net.runelite.cache.fs.Archive;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xmlpull.v1.XmlPullParserException;
@@ -49,35 +45,29 @@ public class CacheUploader implements Runnable
 
 	private final MinioClient minioClient;
 	private final String minioBucket;
-	private final Archive archive;
+	private final String path;
 	private final byte[] data;
+	private final StageStats stats;
 
-	public CacheUploader(MinioClient minioClient, String minioBucket, Archive archive, byte[] data)
+	public CacheUploader(MinioClient minioClient, String minioBucket, String path, byte[] data, StageStats stats)
 	{
 		this.minioClient = minioClient;
 		this.minioBucket = minioBucket;
-		this.archive = archive;
+		this.path = path;
 		this.data = data;
+		this.stats = stats;
 	}
 
 	@Override
 	public void run()
 	{
-		byte[] hash = Hashing.sha256().hashBytes(data).asBytes();
-		String hashStr = BaseEncoding.base16().encode(hash);
-
-		archive.setHash(hash);
-
-		String path = new StringBuilder()
-			.append(hashStr.substring(0, 2))
-			.append('/')
-			.append(hashStr.substring(2))
-			.toString();
+		long start = System.nanoTime();
 
 		try
 		{
-			try (InputStream in = minioClient.getObject(minioBucket, path))
+			try
 			{
+				minioClient.statObject(minioBucket, path);
 				return; // already exists
 			}
 			catch (ErrorResponseException ex)
@@ -86,6 +76,7 @@ public class CacheUploader implements Runnable
 			}
 
 			minioClient.putObject(minioBucket, path, new ByteArrayInputStream(data), data.length, "binary/octet-stream");
+			stats.record(data.length, start);
 		}
 		catch (ErrorResponseException | InsufficientDataException | InternalException | InvalidArgumentException | InvalidBucketNameException | NoResponseException | IOException | InvalidKeyException | NoSuchAlgorithmException | XmlPullParserException ex)
 		{
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.updater;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput counters for one stage of the update pipeline. Time is the sum
+ * of time spent in the stage across all threads.
+ */
+class StageStats
+{
+	private final String name;
+	private final LongAdder count = new LongAdder();
+	private final LongAdder bytes = new LongAdder();
+	private final LongAdder nanos = new LongAdder();
+
+	StageStats(String name)
+	{
+		this.name = name;
+	}
+
+	void record(long bytes, long startNanos)
+	{
+		record(1, bytes, startNanos);
+	}
+
+	void record(long count, long bytes, long startNanos)
+	{
+		this.count.add(count);
+		this.bytes.add(bytes);
+		this.nanos.add(System.nanoTime() - startNanos);
+	}
+
+	long getCount()
+	{
+		return count.sum();
+	}
+
+	@Override
+	public String toString()
+	{
+		long count = this.count.sum();
+		long bytes = this.bytes.sum();
+		long millis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(nanos.sum()));
+		return String.format("%s: %d items, %d KiB in %d ms (%.1f items/s, %.1f KiB/s)",
+			name, count, bytes / 1024, millis,
+			count * 1000.0 / millis, bytes / 1024.0 * 1000.0 / millis);
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.updater;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.minio.MinioClient;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import net.runelite.cache.fs.Archive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashes downloaded archives and uploads the ones not already in the
+ * store. Hashing and uploading run on separate bounded pools, so the
+ * download is only throttled once both queues are full.
+ */
+class UploadPipeline
+{
+	private static final Logger logger = LoggerFactory.getLogger(UploadPipeline.class);
+
+	private static final int QUEUE_SIZE = 256;
+
+	private final MinioClient minioClient;
+	private final String minioBucket;
+
+	/**
+	 * hashes of archives known to be in the store
+	 */
+	private final Set<String> knownHashes = ConcurrentHashMap.newKeySet();
+
+	private final ExecutorService hashExecutor;
+	private final ExecutorService uploadExecutor;
+
+	private final StageStats hashStats = new StageStats("hash");
+	private final StageStats skipStats = new StageStats("skip");
+	private final StageStats uploadStats = new StageStats("upload");
+
+	UploadPipeline(MinioClient minioClient, String minioBucket, int hashThreads, int uploadThreads)
+	{
+		this.minioClient = minioClient;
+		this.minioBucket = minioBucket;
+		this.hashExecutor = createExecutor("cache-hash-%d", hashThreads);
+		this.uploadExecutor = createExecutor("cache-upload-%d", uploadThreads);
+	}
+
+	private static ExecutorService createExecutor(String nameFormat, int threads)
+	{
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(QUEUE_SIZE),
+			new ThreadFactoryBuilder()
+				.setNameFormat(nameFormat)
+				.build(),
+			// throttle the submitter when the stage is backed up
+			new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	/**
+	 * mark an archive as already present in the store
+	 *
+	 * @param hash sha256 of the archive
+	 */
+	void addKnown(byte[] hash)
+	{
+		knownHashes.add(BaseEncoding.base16().encode(hash));
+	}
+
+	void submit(Archive archive, byte[] data)
+	{
+		hashExecutor.execute(() -> hash(archive, data));
+	}
+
+	private void hash(Archive archive, byte[] data)
+	{
+		long start = System.nanoTime();
+		byte[] hash = Hashing.sha256().hashBytes(data).asBytes();
+		String hashStr = BaseEncoding.base16().encode(hash);
+
+		archive.setHash(hash);
+		hashStats.record(data.length, start);
+
+		if (!knownHashes.add(hashStr))
+		{
+			skipStats.record(data.length, start);
+			return;
+		}
+
+		String path = new StringBuilder()
+			.append(hashStr.substring(0, 2))
+			.append('/')
+			.append(hashStr.substring(2))
+			.toString();
+
+		uploadExecutor.execute(new CacheUploader(minioClient, minioBucket, path, data, uploadStats));
+	}
+
+	/**
+	 * wait for all submitted archives to be hashed and uploaded
+	 *
+	 * @throws InterruptedException
+	 */
+	void finish() throws InterruptedException
+	{
+		hashExecutor.shutdown();
+		while (!hashExecutor.awaitTermination(1, TimeUnit.SECONDS))
+		{
+			logger.debug("Waiting for hashing to finish...");
+		}
+
+		uploadExecutor.shutdown();
+		while (!uploadExecutor.awaitTermination(1, TimeUnit.SECONDS))
+		{
+			logger.debug("Waiting for uploads to finish...");
+		}
+
+		logger.info("{}", hashStats);
+		logger.info("{}", skipStats);
+		logger.info("{}", uploadStats);
+	}
+
+	void abort()
+	{
+		hashExecutor.shutdownNow();
+		uploadExecutor.shutdownNow();
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.updater;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.index.FileData;
+import net.runelite.cache.updater.beans.ArchiveEntry;
+import net.runelite.cache.updater.beans.CacheEntry;
+import net.runelite.cache.updater.beans.IndexEntry;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.sql2o.Connection;
+import org.sql2o.ResultSetIterable;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CacheStorageTest
+{
+	@Mock
+	private CacheDAO cacheDao;
+
+	@Mock
+	private Connection con;
+
+	@Test
+	public void testSave() throws Exception
+	{
+		CacheEntry cache = new CacheEntry();
+		cache.setId(1);
+
+		IndexEntry indexEntry = new IndexEntry();
+		indexEntry.setId(10);
+		indexEntry.setIndexId(2);
+
+		ArchiveEntry unchanged = archive(100, 1, 0x1111);
+		ArchiveEntry changed = archive(101, 2, 0x2222);
+
+		ResultSetIterable<ArchiveEntry> archives = archives(unchanged, changed);
+		when(cacheDao.findIndexesForCache(con, cache)).thenReturn(Collections.singletonList(indexEntry));
+		when(cacheDao.findArchivesForIndex(con, indexEntry)).thenReturn(archives);
+
+		CacheStorage storage = new CacheStorage(cache, cacheDao, con);
+		Store store = new Store(storage);
+		store.load();
+
+		Index index = store.findIndex(2);
+		assertNotNull(index.getArchive(1));
+
+		// archive 2 changes, archive 3 is new but matches an existing row
+		Archive archive2 = index.getArchive(2);
+		archive2.setCrc(0x2223);
+		archive2.setFileData(new FileData[]
+		{
+			file(0, 42), file(1, 43)
+		});
+
+		Archive archive3 = index.addArchive(3);
+		archive3.setCrc(0x3333);
+		ArchiveEntry existing = archive(102, 3, 0x3333);
+		when(cacheDao.findArchive(eq(con), any(IndexEntry.class), eq(3), anyInt(), eq(0x3333), anyInt())).thenReturn(existing);
+
+		IndexEntry newIndexEntry = new IndexEntry();
+		newIndexEntry.setId(11);
+		newIndexEntry.setIndexId(2);
+		when(cacheDao.createIndex(eq(con), eq(cache), eq(2), anyInt(), anyInt())).thenReturn(newIndexEntry);
+
+		store.save();
+
+		// the unchanged archive is reused without a query
+		verify(cacheDao, never()).findArchive(eq(con), any(IndexEntry.class), eq(1), anyInt(), anyInt(), anyInt());
+		verify(cacheDao, times(1)).findArchive(eq(con), any(IndexEntry.class), eq(2), anyInt(), anyInt(), anyInt());
+		verify(cacheDao).addArchiveToIndexBatch(con, unchanged, newIndexEntry);
+		verify(cacheDao).addArchiveToIndexBatch(con, existing, newIndexEntry);
+
+		// only the changed archive is inserted, along with its files
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<ArchiveEntry>> captor = ArgumentCaptor.forClass((Class) List.class);
+		verify(cacheDao).createArchives(eq(con), captor.capture());
+		assertEquals(1, captor.getValue().size());
+		ArchiveEntry created = captor.getValue().get(0);
+		assertEquals(2, created.getArchiveId());
+		assertEquals(0x2223, created.getCrc());
+
+		verify(cacheDao).addFileToArchiveBatch(con, created, 0, 42);
+		verify(cacheDao).addFileToArchiveBatch(con, created, 1, 43);
+		verify(cacheDao).addArchiveToIndexBatch(con, created, newIndexEntry);
+		verify(cacheDao, times(1)).executeBatches();
+	}
+
+	private static ArchiveEntry archive(int id, int archiveId, int crc)
+	{
+		ArchiveEntry archiveEntry = new ArchiveEntry();
+		archiveEntry.setId(id);
+		archiveEntry.setArchiveId(archiveId);
+		archiveEntry.setCrc(crc);
+		return archiveEntry;
+	}
+
+	private static FileData file(int id, int nameHash)
+	{
+		FileData fileData = new FileData();
+		fileData.setId(id);
+		fileData.setNameHash(nameHash);
+		return fileData;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ResultSetIterable<ArchiveEntry> archives(ArchiveEntry... entries)
+	{
+		ResultSetIterable<ArchiveEntry> iterable = mock(ResultSetIterable.class);
+		when(iterable.iterator()).thenReturn(Arrays.asList(entries).iterator());
+		return iterable;
+	}
+}
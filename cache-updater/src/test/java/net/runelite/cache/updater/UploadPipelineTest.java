@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.updater;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import io.minio.MinioClient;
+import io.minio.errors.ErrorResponseException;
+import java.io.InputStream;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Index;
+import static org.junit.Assert.assertArrayEquals;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UploadPipelineTest
+{
+	private static final String BUCKET = "cache";
+
+	@Mock
+	private MinioClient minioClient;
+
+	@Test
+	public void testUpload() throws Exception
+	{
+		byte[] data = new byte[]
+		{
+			4, 8, 15, 16, 23, 42
+		};
+		byte[] hash = Hashing.sha256().hashBytes(data).asBytes();
+		String path = path(hash);
+		when(minioClient.statObject(BUCKET, path)).thenThrow(mock(ErrorResponseException.class));
+
+		Index index = new Index(0);
+		Archive archive = index.addArchive(0);
+		Archive duplicate = index.addArchive(1);
+
+		UploadPipeline pipeline = new UploadPipeline(minioClient, BUCKET, 2, 2);
+		pipeline.submit(archive, data);
+		pipeline.submit(duplicate, data.clone());
+		pipeline.finish();
+
+		assertArrayEquals(hash, archive.getHash());
+		assertArrayEquals(hash, duplicate.getHash());
+
+		// the second archive with the same contents is not uploaded again
+		verify(minioClient, times(1)).putObject(eq(BUCKET), eq(path), any(InputStream.class), eq((long) data.length), anyString());
+	}
+
+	@Test
+	public void testKnownSkipped() throws Exception
+	{
+		byte[] data = new byte[]
+		{
+			4, 8, 15, 16, 23, 42
+		};
+		byte[] hash = Hashing.sha256().hashBytes(data).asBytes();
+
+		Archive archive = new Index(0).addArchive(0);
+
+		UploadPipeline pipeline = new UploadPipeline(minioClient, BUCKET, 2, 2);
+		pipeline.addKnown(hash);
+		pipeline.submit(archive, data);
+		pipeline.finish();
+
+		assertArrayEquals(hash, archive.getHash());
+		verify(minioClient, never()).statObject(anyString(), anyString());
+		verify(minioClient, never()).putObject(anyString(), anyString(), any(InputStream.class), anyLong(), anyString());
+	}
+
+	@Test
+	public void testExistingNotUploaded() throws Exception
+	{
+		byte[] data = new byte[]
+		{
+			4, 8, 15, 16, 23, 42
+		};
+		byte[] hash = Hashing.sha256().hashBytes(data).asBytes();
+
+		Archive archive = new Index(0).addArchive(0);
+
+		// statObject succeeds, so the object is already in the store
+		UploadPipeline pipeline = new UploadPipeline(minioClient, BUCKET, 2, 2);
+		pipeline.submit(archive, data);
+		pipeline.finish();
+
+		verify(minioClient, times(1)).statObject(BUCKET, path(hash));
+		verify(minioClient, never()).putObject(anyString(), anyString(), any(InputStream.class), anyLong(), anyString());
+	}
+
+	private static String path(byte[] hash)
+	{
+		String hashStr = BaseEncoding.base16().encode(hash);
+		return hashStr.substring(0, 2) + "/" + hashStr.substring(2);
+	}
+}
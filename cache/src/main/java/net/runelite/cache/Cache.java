@@ -26,6 +26,7 @@ package net.runelite.cache;
 
 import java.io.File;
 import java.io.IOException;
+import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.Store;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -61,6 +62,9 @@ public class Cache
 
 		String cache = cmd.getOptionValue("cache");
 
+		// the dump decompresses every archive of an index on this thread
+		Container.setPooling(true);
+
 		Store store = loadStore(cache);
 
 		if (cmd.hasOption("items"))
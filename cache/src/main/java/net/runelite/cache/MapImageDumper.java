@@ -28,9 +28,22 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import javax.imageio.ImageIO;
 import lombok.Getter;
 import lombok.Setter;
 import net.runelite.cache.definitions.AreaDefinition;
@@ -65,6 +78,13 @@ public class MapImageDumper
 	private static final int MAPICON_MAX_HEIGHT = 6;
 	private static final int BLEND = 5; // number of surrounding tiles for ground blending
 
+	private static final int TILE_SIZE = Region.X * MAP_SCALE; // one region per tile at the highest zoom level
+	private static final int TILE_ROWS = 256; // region y is 8 bits
+	public static final int MAX_ZOOM = 8; // 2^8 tiles per side covers every region
+
+	private static final ThreadLocal<int[][]> SCRATCH_MAP = ThreadLocal.withInitial(() -> new int[Region.X * MAP_SCALE][Region.Y * MAP_SCALE]);
+	private static final ThreadLocal<int[][]> SCRATCH_ABOVE = ThreadLocal.withInitial(() -> new int[Region.X * MAP_SCALE][Region.Y * MAP_SCALE]);
+
 	private static int[] colorPalette = new ColorPalette(0.9d, 0, 512).getColorPalette();
 
 	private static int[][] TILE_SHAPE_2D = new int[][]{{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}, {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1}, {1, 0, 0, 0, 1, 1, 0, 0, 1, 1, 1, 0, 1, 1, 1, 1}, {1, 1, 0, 0, 1, 1, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0}, {0, 0, 1, 1, 0, 0, 1, 1, 0, 0, 0, 1, 0, 0, 0, 1}, {0, 1, 1, 1, 0, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1}, {1, 1, 1, 0, 1, 1, 1, 0, 1, 1, 1, 1, 1, 1, 1, 1}, {1, 1, 0, 0, 1, 1, 0, 0, 1, 1, 0, 0, 1, 1, 0, 0}, {0, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 1, 1, 0, 0}, {1, 1, 1, 1, 1, 1, 1, 1, 0, 1, 1, 1, 0, 0, 1, 1}, {1, 1, 1, 1, 1, 1, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0}, {0, 0, 0, 0, 0, 0, 1, 1, 0, 1, 1, 1, 0, 1, 1, 1}, {0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 0, 1, 1, 1, 1}};
@@ -158,18 +178,276 @@ public class MapImageDumper
 		return image;
 	}
 
+	/**
+	 * Render plane z of every loaded region as a slippy map tile pyramid.
+	 *
+	 * @param outDir output directory, tiles are written to zoom/x/y.png
+	 * @param z plane
+	 * @param executor executor to render and downsample tiles on
+	 * @throws IOException
+	 * @see #dumpTiles(File, int, Collection, Executor)
+	 */
+	public void dumpTiles(File outDir, int z, Executor executor) throws IOException
+	{
+		List<Integer> regionIds = new ArrayList<>();
+		for (Region region : regionLoader.getRegions())
+		{
+			regionIds.add(region.getRegionID());
+		}
+
+		dumpTiles(outDir, z, regionIds, executor);
+	}
+
+	/**
+	 * Render plane z of the given regions into an existing tile pyramid.
+	 * Each region is one tile at {@link #MAX_ZOOM}, with north up, and
+	 * each lower zoom level is downsampled from the tiles written to disk
+	 * at the level above it, so only the tiles being rendered are held in
+	 * memory. Regions which no longer exist have their tiles removed.
+	 *
+	 * @param outDir output directory, tiles are written to zoom/x/y.png
+	 * @param z plane
+	 * @param regionIds ids of the regions to render
+	 * @param executor executor to render and downsample tiles on
+	 * @throws IOException
+	 */
+	public void dumpTiles(File outDir, int z, Collection<Integer> regionIds, Executor executor) throws IOException
+	{
+		Set<Integer> dirty = new HashSet<>();
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+		for (int regionId : regionIds)
+		{
+			int tileX = regionId >> 8;
+			int tileY = TILE_ROWS - 1 - (regionId & 0xFF);
+			Region region = regionLoader.findRegionForWorldCoordinates(tileX << 6, (regionId & 0xFF) << 6);
+			File file = tileFile(outDir, MAX_ZOOM, tileX, tileY);
+
+			dirty.add(tileX << 16 | tileY);
+			futures.add(CompletableFuture.runAsync(() ->
+			{
+				try
+				{
+					if (region == null)
+					{
+						file.delete();
+					}
+					else
+					{
+						writeTile(drawRegion(region, z), file);
+					}
+				}
+				catch (IOException ex)
+				{
+					throw new UncheckedIOException(ex);
+				}
+			}, executor));
+		}
+
+		join(futures);
+		logger.info("Rendered {} region tiles", futures.size());
+
+		for (int zoom = MAX_ZOOM - 1; zoom >= 0; --zoom)
+		{
+			Set<Integer> parents = new HashSet<>();
+			for (int tile : dirty)
+			{
+				parents.add((tile >>> 16) >> 1 << 16 | (tile & 0xFFFF) >> 1);
+			}
+
+			futures.clear();
+			for (int tile : parents)
+			{
+				int level = zoom;
+				futures.add(CompletableFuture.runAsync(() ->
+				{
+					try
+					{
+						downsampleTile(outDir, level, tile >>> 16, tile & 0xFFFF);
+					}
+					catch (IOException ex)
+					{
+						throw new UncheckedIOException(ex);
+					}
+				}, executor));
+			}
+
+			join(futures);
+			dirty = parents;
+		}
+	}
+
+	/**
+	 * Find the regions whose tiles must be rendered again to bring a tile
+	 * pyramid of the previous cache up to date with this one. These are
+	 * the regions whose map or land archives were added, removed, or
+	 * changed, plus their neighbours, because ground colors are blended
+	 * across region borders.
+	 *
+	 * @param previous store the existing tiles were rendered from
+	 * @return region ids
+	 */
+	public Set<Integer> findChangedRegions(Store previous)
+	{
+		Index index = store.getIndex(IndexType.MAPS);
+		Index previousIndex = previous.getIndex(IndexType.MAPS);
+
+		Set<Integer> regionIds = new HashSet<>(RegionLoader.findRegionIds(index));
+		regionIds.addAll(RegionLoader.findRegionIds(previousIndex));
+
+		Set<Integer> changed = new HashSet<>();
+		for (int regionId : regionIds)
+		{
+			int x = regionId >> 8;
+			int y = regionId & 0xFF;
+
+			if (archiveChanged(index, previousIndex, "m" + x + "_" + y)
+				|| archiveChanged(index, previousIndex, "l" + x + "_" + y))
+			{
+				for (int dx = -1; dx <= 1; ++dx)
+				{
+					for (int dy = -1; dy <= 1; ++dy)
+					{
+						int nx = x + dx;
+						int ny = y + dy;
+						if (nx >= 0 && ny >= 0 && ny < TILE_ROWS && regionIds.contains(nx << 8 | ny))
+						{
+							changed.add(nx << 8 | ny);
+						}
+					}
+				}
+			}
+		}
+
+		return changed;
+	}
+
+	private static boolean archiveChanged(Index index, Index previousIndex, String name)
+	{
+		Archive archive = index.findArchiveByName(name);
+		Archive previousArchive = previousIndex.findArchiveByName(name);
+
+		if (archive == null || previousArchive == null)
+		{
+			return archive != previousArchive;
+		}
+
+		return archive.getCrc() != previousArchive.getCrc()
+			|| archive.getRevision() != previousArchive.getRevision();
+	}
+
+	private static File tileFile(File outDir, int zoom, int x, int y)
+	{
+		return new File(outDir, zoom + File.separator + x + File.separator + y + ".png");
+	}
+
+	private static void writeTile(BufferedImage image, File file) throws IOException
+	{
+		File dir = file.getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory())
+		{
+			throw new IOException("unable to create directory " + dir);
+		}
+
+		ImageIO.write(image, "png", file);
+	}
+
+	/**
+	 * Build a tile by averaging each 2x2 block of pixels of its four
+	 * children at the next zoom level. The tile is removed if none of the
+	 * children exist.
+	 */
+	private static void downsampleTile(File outDir, int zoom, int x, int y) throws IOException
+	{
+		BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		int[] child = new int[TILE_SIZE * TILE_SIZE];
+		boolean found = false;
+
+		for (int i = 0; i < 4; ++i)
+		{
+			int cx = i & 1;
+			int cy = i >> 1;
+			File file = tileFile(outDir, zoom + 1, x * 2 + cx, y * 2 + cy);
+			if (!file.exists())
+			{
+				continue;
+			}
+
+			BufferedImage childImage = ImageIO.read(file);
+			if (childImage == null)
+			{
+				throw new IOException("unable to read tile " + file);
+			}
+
+			childImage.getRGB(0, 0, TILE_SIZE, TILE_SIZE, child, 0, TILE_SIZE);
+			found = true;
+
+			int offsetX = cx * (TILE_SIZE / 2);
+			int offsetY = cy * (TILE_SIZE / 2);
+			for (int py = 0; py < TILE_SIZE / 2; ++py)
+			{
+				int row = py * 2 * TILE_SIZE;
+				int to = (offsetY + py) * TILE_SIZE + offsetX;
+				for (int px = 0; px < TILE_SIZE / 2; ++px)
+				{
+					int from = row + px * 2;
+					pixels[to + px] = average(child[from], child[from + 1], child[from + TILE_SIZE], child[from + TILE_SIZE + 1]);
+				}
+			}
+		}
+
+		File file = tileFile(outDir, zoom, x, y);
+		if (!found)
+		{
+			file.delete();
+			return;
+		}
+
+		writeTile(image, file);
+	}
+
+	private static int average(int p1, int p2, int p3, int p4)
+	{
+		int r = ((p1 >> 16 & 0xFF) + (p2 >> 16 & 0xFF) + (p3 >> 16 & 0xFF) + (p4 >> 16 & 0xFF)) >> 2;
+		int g = ((p1 >> 8 & 0xFF) + (p2 >> 8 & 0xFF) + (p3 >> 8 & 0xFF) + (p4 >> 8 & 0xFF)) >> 2;
+		int b = ((p1 & 0xFF) + (p2 & 0xFF) + (p3 & 0xFF) + (p4 & 0xFF)) >> 2;
+		return r << 16 | g << 8 | b;
+	}
+
+	private static void join(List<CompletableFuture<Void>> futures) throws IOException
+	{
+		try
+		{
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+		}
+		catch (CompletionException ex)
+		{
+			if (ex.getCause() instanceof UncheckedIOException)
+			{
+				throw ((UncheckedIOException) ex.getCause()).getCause();
+			}
+			throw ex;
+		}
+	}
+
 	private void drawMap(BufferedImage image, int drawBaseX, int drawBaseY, int z, Region region)
 	{
-		int[][] map = new int[Region.X * MAP_SCALE][Region.Y * MAP_SCALE];
+		// the scratch rasters are reused by each thread, so they must be cleared
+		int[][] map = clear(SCRATCH_MAP.get());
 		drawMap(map, region, z);
 
 		int[][] above = null;
 		if (z < 3)
 		{
-			above = new int[Region.X * MAP_SCALE][Region.Y * MAP_SCALE];
+			above = clear(SCRATCH_ABOVE.get());
 			drawMap(above, region, z + 1);
 		}
 
+		// images are always TYPE_INT_RGB, so write to the raster directly instead of through setRGB
+		int[] raster = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		int stride = image.getWidth();
+
 		for (int x = 0; x < Region.X; ++x)
 		{
 			for (int y = 0; y < Region.Y; ++y)
@@ -179,12 +457,12 @@ public class MapImageDumper
 				int tileSetting = region.getTileSetting(z, x, Region.Y - y - 1);
 				if (!isBridge && ((tileSetting & 24) == 0))
 				{
-					drawTile(image, map, drawBaseX, drawBaseY, x, y);
+					drawTile(raster, stride, map, drawBaseX, drawBaseY, x, y);
 				}
 
 				if (z < 3 && isBridge) // client also has a check for &8 != 0 here
 				{
-					drawTile(image, above, drawBaseX, drawBaseY, x, y);
+					drawTile(raster, stride, above, drawBaseX, drawBaseY, x, y);
 				}
 			}
 		}
@@ -208,15 +486,26 @@ public class MapImageDumper
 		}
 	}
 
-	private void drawTile(BufferedImage to, int[][] pixels, int drawBaseX, int drawBaseY, int x, int y)
+	private static int[][] clear(int[][] pixels)
 	{
-		for (int i = 0; i < MAP_SCALE; ++i)
+		for (int[] column : pixels)
 		{
-			for (int j = 0; j < MAP_SCALE; ++j)
+			Arrays.fill(column, 0);
+		}
+		return pixels;
+	}
+
+	private static void drawTile(int[] to, int stride, int[][] pixels, int drawBaseX, int drawBaseY, int x, int y)
+	{
+		int drawX = (drawBaseX + x) * MAP_SCALE;
+		int drawY = (drawBaseY + y) * MAP_SCALE;
+
+		for (int j = 0; j < MAP_SCALE; ++j)
+		{
+			int offset = (drawY + j) * stride + drawX;
+			for (int i = 0; i < MAP_SCALE; ++i)
 			{
-				to.setRGB(drawBaseX * MAP_SCALE + x * MAP_SCALE + i,
-					drawBaseY * MAP_SCALE + y * MAP_SCALE + j,
-					pixels[x * MAP_SCALE + i][y * MAP_SCALE + j]);
+				to[offset + i] = pixels[x * MAP_SCALE + i][y * MAP_SCALE + j];
 			}
 		}
 	}
@@ -25,6 +25,7 @@
 package net.runelite.cache.fs;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import net.runelite.cache.index.FileData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -105,15 +106,23 @@ public class Archive
 
 		byte[] encryptedData = data;
 
-		Container container = Container.decompress(encryptedData, keys);
-		if (container == null)
+		Container container;
+		try
+		{
+			container = Container.decompress(encryptedData, keys);
+		}
+		catch (IOException ex)
 		{
 			logger.warn("Unable to decrypt archive {}", this);
-			return null;
+			throw ex;
 		}
 
-		byte[] decompressedData = container.data;
+		verify(container);
+		return container.data;
+	}
 
+	private void verify(Container container) throws IOException
+	{
 		if (this.crc != container.crc)
 		{
 			logger.warn("crc mismatch for archive {}/{}", index.getId(), this.getArchiveId());
@@ -134,7 +143,6 @@ public class Archive
 		}
 
 		setCompression(container.compression);
-		return decompressedData;
 	}
 
 	public ArchiveFiles getFiles(byte[] data) throws IOException
@@ -144,7 +152,10 @@ public class Archive
 
 	public ArchiveFiles getFiles(byte[] data, int[] keys) throws IOException
 	{
-		byte[] decompressedData = decompress(data, keys);
+		// decryption is done in place, so leave the caller's data alone
+		ByteBuffer buffer = ByteBuffer.wrap(keys != null ? data.clone() : data);
+		Container container = Container.decompressInPlace(buffer, keys);
+		verify(container);
 
 		ArchiveFiles files = new ArchiveFiles();
 		for (FileData fileEntry : fileData)
@@ -153,7 +164,8 @@ public class Archive
 			file.setNameHash(fileEntry.getNameHash());
 			files.addFile(file);
 		}
-		files.loadContents(decompressedData);
+		// the decompressed data may be in a per thread buffer, which this copies out of
+		files.loadContents(container.buffer);
 		return files;
 	}
 
@@ -169,7 +181,11 @@ public class Archive
 
 	public void setNameHash(int nameHash)
 	{
-		this.nameHash = nameHash;
+		if (this.nameHash != nameHash)
+		{
+			this.nameHash = nameHash;
+			index.invalidateNames();
+		}
 	}
 
 	public int getCrc()
@@ -25,6 +25,7 @@
 package net.runelite.cache.fs;
 
 import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -111,9 +112,37 @@ public class ArchiveFiles
 			return;
 		}
 
+		loadContents(new InputStream(data));
+	}
+
+	/**
+	 * Load the contents of the files from the remaining bytes of the
+	 * buffer. The contents are always copied out of the buffer, so it may be
+	 * reused once this returns.
+	 *
+	 * @param data
+	 */
+	public void loadContents(ByteBuffer data)
+	{
+		logger.trace("Loading contents of archive ({} files)", files.size());
+
+		assert !this.getFiles().isEmpty();
+
+		if (this.getFiles().size() == 1)
+		{
+			byte[] contents = new byte[data.remaining()];
+			data.duplicate().get(contents);
+			this.getFiles().get(0).setContents(contents);
+			return;
+		}
+
+		loadContents(new InputStream(data));
+	}
+
+	private void loadContents(InputStream stream)
+	{
 		int filesCount = this.getFiles().size();
 
-		InputStream stream = new InputStream(data);
 		stream.setOffset(stream.getLength() - 1);
 		int chunks = stream.readUnsignedByte();
 
@@ -27,8 +27,8 @@ package net.runelite.cache.fs;
 import static com.google.common.primitives.Bytes.concat;
 import com.google.common.primitives.Ints;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import net.runelite.cache.fs.jagex.CompressionType;
-import net.runelite.cache.io.InputStream;
 import net.runelite.cache.io.OutputStream;
 import net.runelite.cache.util.BZip2;
 import net.runelite.cache.util.Crc32;
@@ -41,7 +41,18 @@ public class Container
 {
 	private static final Logger logger = LoggerFactory.getLogger(Container.class);
 
+	/**
+	 * Largest decompression buffer kept around by each thread for
+	 * {@link #decompressInPlace(ByteBuffer, int[])}
+	 */
+	private static final int MAX_POOLED_SIZE = 1 << 22;
+
+	private static final ThreadLocal<ByteBuffer> DECOMPRESS_BUFFER = new ThreadLocal<>();
+
+	private static volatile boolean pooling;
+
 	public byte[] data;
+	public ByteBuffer buffer; // view of the data, for containers decompressed in place
 	public int compression; // compression
 	public int revision;
 	public int crc; // crc of compressed data
@@ -90,96 +101,193 @@ public class Container
 		this.data = stream.flip();
 	}
 
+	/**
+	 * Decompress a container. This never returns null; data which can't
+	 * be decompressed, such as data decrypted with the wrong keys, throws
+	 * an {@link IOException}, as the gzip and bzip2 streams always have.
+	 *
+	 * @param b container data, which is not modified
+	 * @param keys xtea keys, or null
+	 * @return
+	 * @throws IOException if the compressed data is invalid
+	 */
 	public static Container decompress(byte[] b, int[] keys) throws IOException
 	{
-		InputStream stream = new InputStream(b);
+		// decryption is done in place, so leave the caller's data alone
+		ByteBuffer in = ByteBuffer.wrap(keys != null ? b.clone() : b);
+		Container container = decompressInPlace(in, keys, null);
+
+		ByteBuffer buffer = container.buffer;
+		if (buffer.arrayOffset() == 0 && buffer.capacity() == buffer.array().length)
+		{
+			container.data = buffer.array();
+		}
+		else
+		{
+			container.data = new byte[buffer.remaining()];
+			buffer.duplicate().get(container.data);
+		}
+		return container;
+	}
+
+	/**
+	 * Check if the given keys decrypt the container, without decompressing
+	 * it. Only the first blocks of the encrypted data are decrypted, which
+	 * is enough to check the compressed data header. Uncompressed
+	 * containers have no header to check and are always accepted.
+	 *
+	 * @param b container data, which is not modified
+	 * @param keys xtea keys
+	 * @return
+	 */
+	public static boolean checkKeys(byte[] b, int[] keys)
+	{
+		if (b.length < 5)
+		{
+			throw new RuntimeException("Invalid data");
+		}
 
-		int compression = stream.readUnsignedByte();
-		int compressedLength = stream.readInt();
+		int compression = b[0] & 0xFF;
+		int compressedLength = Ints.fromBytes(b[1], b[2], b[3], b[4]);
 		if (compressedLength < 0 || compressedLength > 1000000)
 		{
 			throw new RuntimeException("Invalid data");
 		}
 
-		Crc32 crc32 = new Crc32();
-		crc32.update(b, 0, 5); // compression + length
+		if (compression == CompressionType.NONE)
+		{
+			return true;
+		}
 
-		byte[] data;
-		int revision = -1;
-		switch (compression)
+		if (compression != CompressionType.BZ2 && compression != CompressionType.GZ)
 		{
-			case CompressionType.NONE:
-			{
-				byte[] encryptedData = new byte[compressedLength];
-				stream.readBytes(encryptedData, 0, compressedLength);
+			throw new RuntimeException("Unknown decompression type");
+		}
 
-				crc32.update(encryptedData, 0, compressedLength);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
+		if (5 + 4 + compressedLength > b.length)
+		{
+			throw new RuntimeException("Invalid data");
+		}
 
-				if (stream.remaining() >= 2)
-				{
-					revision = stream.readUnsignedShort();
-					assert revision != -1;
-				}
+		// decompressed length followed by the compressed data header,
+		// which is at most 6 bytes for either format
+		byte[] head = new byte[Math.min(16, 4 + compressedLength)];
+		System.arraycopy(b, 5, head, 0, head.length);
 
-				data = decryptedData;
+		Xtea xtea = new Xtea(keys);
+		xtea.decrypt(ByteBuffer.wrap(head), 0, head.length);
 
-				break;
-			}
-			case CompressionType.BZ2:
-			{
-				byte[] encryptedData = new byte[compressedLength + 4];
-				stream.readBytes(encryptedData);
+		int decompressedLength = Ints.fromBytes(head[0], head[1], head[2], head[3]);
+		if (decompressedLength < 0)
+		{
+			return false;
+		}
 
-				crc32.update(encryptedData, 0, encryptedData.length);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
+		return compression == CompressionType.BZ2
+			? BZip2.hasHeader(head, 4, Math.min(compressedLength, head.length - 4))
+			: GZip.hasHeader(head, 4, compressedLength) && (head[7] & 0xE0) == 0; // reserved flags
+	}
 
-				if (stream.remaining() >= 2)
-				{
-					revision = stream.readUnsignedShort();
-					assert revision != -1;
-				}
+	/**
+	 * Decompress the container in the remaining bytes of {@code in} without
+	 * copying the compressed data. The data is decrypted in place, so the
+	 * contents of {@code in} are modified. The decompressed data is written
+	 * to {@code out} if it has room, otherwise to a new buffer, and is
+	 * available as {@link #buffer} on the returned container. For
+	 * uncompressed containers it is a view of {@code in}.
+	 *
+	 * @param in
+	 * @param keys xtea keys, or null
+	 * @param out buffer to decompress into, or null
+	 * @return
+	 * @throws IOException
+	 */
+	public static Container decompressInPlace(ByteBuffer in, int[] keys, ByteBuffer out) throws IOException
+	{
+		if (!in.hasArray())
+		{
+			ByteBuffer copy = ByteBuffer.allocate(in.remaining());
+			copy.put(in.duplicate());
+			copy.flip();
+			in = copy;
+		}
+
+		byte[] b = in.array();
+		int off = in.arrayOffset() + in.position();
+		int end = in.arrayOffset() + in.limit();
+
+		if (end - off < 5)
+		{
+			throw new RuntimeException("Invalid data");
+		}
 
-				stream = new InputStream(decryptedData);
+		int compression = b[off] & 0xFF;
+		int compressedLength = Ints.fromBytes(b[off + 1], b[off + 2], b[off + 3], b[off + 4]);
+		if (compressedLength < 0 || compressedLength > 1000000)
+		{
+			throw new RuntimeException("Invalid data");
+		}
 
-				int decompressedLength = stream.readInt();
-				data = BZip2.decompress(stream.getRemaining(), compressedLength);
+		int dataOff = off + 5;
+		// compressed data is prefixed with its decompressed length
+		int encryptedLength = compression == CompressionType.NONE ? compressedLength : compressedLength + 4;
+		if (dataOff + encryptedLength > end)
+		{
+			throw new RuntimeException("Invalid data");
+		}
 
-				if (data == null)
-				{
-					return null;
-				}
+		Crc32 crc32 = new Crc32();
+		crc32.update(b, off, 5 + encryptedLength);
 
-				assert data.length == decompressedLength;
+		int revision = -1;
+		if (end - (dataOff + encryptedLength) >= 2)
+		{
+			revision = ((b[dataOff + encryptedLength] & 0xFF) << 8) | (b[dataOff + encryptedLength + 1] & 0xFF);
+		}
 
+		if (keys != null)
+		{
+			Xtea xtea = new Xtea(keys);
+			xtea.decrypt(ByteBuffer.wrap(b), dataOff, encryptedLength);
+		}
+
+		ByteBuffer result;
+		switch (compression)
+		{
+			case CompressionType.NONE:
+				result = ByteBuffer.wrap(b, dataOff, compressedLength).slice();
 				break;
-			}
+			case CompressionType.BZ2:
 			case CompressionType.GZ:
 			{
-				byte[] encryptedData = new byte[compressedLength + 4];
-				stream.readBytes(encryptedData);
-
-				crc32.update(encryptedData, 0, encryptedData.length);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
-
-				if (stream.remaining() >= 2)
+				// check the header before trusting the length, since bad keys give a garbage length
+				boolean valid = compression == CompressionType.BZ2
+					? BZip2.hasHeader(b, dataOff + 4, compressedLength)
+					: GZip.hasHeader(b, dataOff + 4, compressedLength);
+				int decompressedLength = Ints.fromBytes(b[dataOff], b[dataOff + 1], b[dataOff + 2], b[dataOff + 3]);
+				if (!valid || decompressedLength < 0)
 				{
-					revision = stream.readUnsignedShort();
-					assert revision != -1;
+					throw new IOException("Invalid compressed data");
 				}
 
-				stream = new InputStream(decryptedData);
+				if (out == null || !out.hasArray() || out.remaining() < decompressedLength)
+				{
+					out = ByteBuffer.allocate(decompressedLength);
+				}
 
-				int decompressedLength = stream.readInt();
-				data = GZip.decompress(stream.getRemaining(), compressedLength);
+				byte[] o = out.array();
+				int outOff = out.arrayOffset() + out.position();
 
-				if (data == null)
+				if (compression == CompressionType.BZ2)
 				{
-					return null;
+					BZip2.decompress(b, dataOff + 4, compressedLength, o, outOff, decompressedLength);
+				}
+				else
+				{
+					GZip.decompress(b, dataOff + 4, compressedLength, o, outOff, decompressedLength);
 				}
 
-				assert data.length == decompressedLength;
-
+				result = ByteBuffer.wrap(o, outOff, decompressedLength).slice();
 				break;
 			}
 			default:
@@ -187,20 +295,65 @@ public class Container
 		}
 
 		Container container = new Container(compression, revision);
-		container.data = data;
+		container.buffer = result;
 		container.crc = crc32.getHash();
 		return container;
 	}
 
-	private static byte[] decrypt(byte[] data, int length, int[] keys)
+	/**
+	 * Decompress the container in the remaining bytes of {@code in}. If
+	 * pooling is enabled the data is decompressed into a buffer owned by
+	 * the calling thread. Either way the returned container's
+	 * {@link #buffer} is only valid until the next call to this method on
+	 * the same thread, so its contents must be copied out if they are kept.
+	 *
+	 * @param in
+	 * @param keys xtea keys, or null
+	 * @return
+	 * @throws IOException
+	 * @see #decompressInPlace(ByteBuffer, int[], ByteBuffer)
+	 * @see #setPooling(boolean)
+	 */
+	public static Container decompressInPlace(ByteBuffer in, int[] keys) throws IOException
 	{
-		if (keys == null)
+		if (!pooling)
 		{
-			return data;
+			return decompressInPlace(in, keys, null);
 		}
 
-		Xtea xtea = new Xtea(keys);
-		return xtea.decrypt(data, length);
+		ByteBuffer scratch = DECOMPRESS_BUFFER.get();
+		if (scratch != null)
+		{
+			scratch.clear();
+		}
+
+		Container container = decompressInPlace(in, keys, scratch);
+
+		byte[] array = container.buffer.array();
+		if (container.compression != CompressionType.NONE
+			&& array.length <= MAX_POOLED_SIZE
+			&& (scratch == null || array != scratch.array()))
+		{
+			// the scratch buffer was too small, keep the larger one instead
+			DECOMPRESS_BUFFER.set(ByteBuffer.wrap(array));
+		}
+
+		return container;
+	}
+
+	/**
+	 * Set whether {@link #decompressInPlace(ByteBuffer, int[])} keeps a
+	 * decompression buffer of up to 4 MiB per thread. The buffers live as
+	 * long as their threads, so this is off by default, and is meant for
+	 * tools which decompress many archives on a few threads rather than
+	 * servers with large thread pools. Turning it off doesn't free buffers
+	 * already kept.
+	 *
+	 * @param pooling
+	 */
+	public static void setPooling(boolean pooling)
+	{
+		Container.pooling = pooling;
 	}
 
 	private static byte[] encrypt(byte[] data, int length, int[] keys)
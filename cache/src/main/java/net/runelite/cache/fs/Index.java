@@ -25,12 +25,14 @@
 package net.runelite.cache.fs;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import net.runelite.cache.index.ArchiveData;
 import net.runelite.cache.index.FileData;
 import net.runelite.cache.index.IndexData;
 import net.runelite.cache.util.Djb2;
+import net.runelite.cache.util.IntObjectMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +49,14 @@ public class Index
 	private int compression; // compression method of this index's data in 255
 
 	private final List<Archive> archives = new ArrayList<>();
+	private final IntObjectMap<Archive> archivesById = new IntObjectMap<>();
+
+	/**
+	 * archives by name hash, built on first lookup. It is discarded whenever
+	 * a name hash changes, as names are usually set right after archives are
+	 * added.
+	 */
+	private volatile IntObjectMap<Archive> archivesByName;
 
 	public Index(int id)
 	{
@@ -147,39 +157,78 @@ public class Index
 
 	public List<Archive> getArchives()
 	{
-		return archives;
+		return Collections.unmodifiableList(archives);
 	}
 
 	public Archive addArchive(int id)
 	{
 		Archive archive = new Archive(this, id);
 		this.archives.add(archive);
+
+		// lookups return the first archive with an id
+		if (archivesById.get(id) == null)
+		{
+			archivesById.put(id, archive);
+		}
+		archivesByName = null;
 		return archive;
 	}
 
-	public Archive getArchive(int id)
+	public void removeArchive(Archive archive)
 	{
-		for (Archive a : archives)
+		if (!archives.removeIf(a -> a == archive))
 		{
-			if (a.getArchiveId() == id)
+			return;
+		}
+
+		int id = archive.getArchiveId();
+		if (archivesById.get(id) == archive)
+		{
+			archivesById.remove(id);
+			for (Archive a : archives)
 			{
-				return a;
+				if (a.getArchiveId() == id)
+				{
+					archivesById.put(id, a);
+					break;
+				}
 			}
 		}
-		return null;
+		archivesByName = null;
+	}
+
+	public Archive getArchive(int id)
+	{
+		return archivesById.get(id);
 	}
 
 	public Archive findArchiveByName(String name)
 	{
-		int hash = Djb2.hash(name);
-		for (Archive a : archives)
+		return findArchiveByNameHash(Djb2.hash(name));
+	}
+
+	public Archive findArchiveByNameHash(int nameHash)
+	{
+		IntObjectMap<Archive> byName = archivesByName;
+		if (byName == null)
 		{
-			if (a.getNameHash() == hash)
+			byName = new IntObjectMap<>(archives.size());
+			for (Archive a : archives)
 			{
-				return a;
+				// lookups return the first archive with a name
+				if (byName.get(a.getNameHash()) == null)
+				{
+					byName.put(a.getNameHash(), a);
+				}
 			}
+			archivesByName = byName;
 		}
-		return null;
+		return byName.get(nameHash);
+	}
+
+	void invalidateNames()
+	{
+		archivesByName = null;
 	}
 
 	public IndexData toIndexData()
@@ -25,6 +25,11 @@
 package net.runelite.cache.fs;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public interface Storage extends AutoCloseable
 {
@@ -35,9 +40,88 @@ public interface Storage extends AutoCloseable
 
 	void load(Store store) throws IOException;
 
+	/**
+	 * Load the store, using the given executor for work which may be done
+	 * in parallel. By default this is the same as {@link #load(Store)}.
+	 *
+	 * @param store
+	 * @param executor
+	 * @throws IOException
+	 */
+	default void load(Store store, Executor executor) throws IOException
+	{
+		load(store);
+	}
+
 	void save(Store store) throws IOException;
 
 	byte[] loadArchive(Archive archive) throws IOException;
 
+	/**
+	 * Load the data of many archives. The returned futures are in the same
+	 * order as the given archives, and complete exceptionally with an
+	 * {@link UncheckedIOException} if the archive can't be read. The default
+	 * implementation doesn't assume {@link #loadArchive(Archive)} is thread
+	 * safe and serializes the reads.
+	 *
+	 * @param archives
+	 * @param executor executor to read the archives on
+	 * @return
+	 */
+	default List<CompletableFuture<byte[]>> loadArchives(List<Archive> archives, Executor executor)
+	{
+		List<CompletableFuture<byte[]>> futures = new ArrayList<>(archives.size());
+		for (Archive archive : archives)
+		{
+			futures.add(CompletableFuture.supplyAsync(() ->
+			{
+				synchronized (this)
+				{
+					try
+					{
+						return loadArchive(archive);
+					}
+					catch (IOException ex)
+					{
+						throw new UncheckedIOException(ex);
+					}
+				}
+			}, executor));
+		}
+		return futures;
+	}
+
+	/**
+	 * Load, decompress, and split into files many archives. Decompression
+	 * of each archive is done on the given executor as soon as its data
+	 * has been read.
+	 *
+	 * @param archives
+	 * @param executor
+	 * @return
+	 * @see #loadArchives(List, Executor)
+	 */
+	default List<CompletableFuture<ArchiveFiles>> loadArchiveFiles(List<Archive> archives, Executor executor)
+	{
+		List<CompletableFuture<byte[]>> data = loadArchives(archives, executor);
+		List<CompletableFuture<ArchiveFiles>> futures = new ArrayList<>(archives.size());
+		for (int i = 0; i < archives.size(); ++i)
+		{
+			Archive archive = archives.get(i);
+			futures.add(data.get(i).thenApplyAsync(archiveData ->
+			{
+				try
+				{
+					return archive.getFiles(archiveData);
+				}
+				catch (IOException ex)
+				{
+					throw new UncheckedIOException(ex);
+				}
+			}, executor));
+		}
+		return futures;
+	}
+
 	void saveArchive(Archive archive, byte[] data) throws IOException;
 }
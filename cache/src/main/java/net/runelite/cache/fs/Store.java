@@ -31,6 +31,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import net.runelite.cache.IndexType;
 import net.runelite.cache.fs.jagex.DiskStorage;
 import org.slf4j.Logger;
@@ -45,7 +46,20 @@ public final class Store implements Closeable
 
 	public Store(File folder) throws IOException
 	{
-		storage = new DiskStorage(folder);
+		this(folder, false);
+	}
+
+	/**
+	 *
+	 * @param folder cache folder
+	 * @param mapped whether the cache files should be read through memory
+	 * mappings
+	 * @throws IOException
+	 * @see DiskStorage#DiskStorage(File, boolean)
+	 */
+	public Store(File folder, boolean mapped) throws IOException
+	{
+		storage = new DiskStorage(folder, mapped);
 		storage.init(this);
 	}
 
@@ -121,6 +135,18 @@ public final class Store implements Closeable
 		storage.load(this);
 	}
 
+	/**
+	 * Load the store, using the executor for work which the storage can
+	 * do in parallel, such as parsing the index data of each index.
+	 *
+	 * @param executor
+	 * @throws IOException
+	 */
+	public void load(Executor executor) throws IOException
+	{
+		storage.load(this, executor);
+	}
+
 	public void save() throws IOException
 	{
 		storage.save(this);
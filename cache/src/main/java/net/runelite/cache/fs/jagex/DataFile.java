@@ -30,6 +30,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,23 +42,77 @@ public class DataFile implements Closeable
 	private static final int SECTOR_SIZE = 520;
 
 	private final RandomAccessFile dat;
+	private final boolean mapped;
+	private volatile MappedByteBuffer map;
 
 	public DataFile(File file) throws FileNotFoundException
+	{
+		this(file, false);
+	}
+
+	/**
+	 *
+	 * @param file data file
+	 * @param mapped whether reads should go through a read only memory
+	 * mapping of the file instead of the shared RandomAccessFile. Mapped reads
+	 * do not seek and are safe to perform from multiple threads at once.
+	 * @throws FileNotFoundException
+	 */
+	public DataFile(File file, boolean mapped) throws FileNotFoundException
 	{
 		this.dat = new RandomAccessFile(file, "rw");
+		this.mapped = mapped;
 	}
 
 	@Override
 	public void close() throws IOException
 	{
+		map = null;
 		dat.close();
 	}
 
 	public void clear() throws IOException
 	{
+		map = null;
 		dat.setLength(0L);
 	}
 
+	public boolean isMapped()
+	{
+		return mapped;
+	}
+
+	/**
+	 * Get the current mapping of the data file, mapping it if the file has
+	 * been written to since it was last mapped.
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	private ByteBuffer getMap() throws IOException
+	{
+		MappedByteBuffer m = map;
+		if (m != null)
+		{
+			return m;
+		}
+
+		synchronized (this)
+		{
+			if (map == null)
+			{
+				long length = dat.length();
+				if (length > Integer.MAX_VALUE)
+				{
+					throw new IOException("data file is too large to map: " + length);
+				}
+
+				map = dat.getChannel().map(FileChannel.MapMode.READ_ONLY, 0L, length);
+			}
+			return map;
+		}
+	}
+
 	/**
 	 *
 	 * @param indexId expected index of archive of contents being read
@@ -68,9 +124,13 @@ public class DataFile implements Closeable
 	 */
 	public byte[] read(int indexId, int archiveId, int sector, int size) throws IOException
 	{
-		if (sector <= 0L || dat.length() / SECTOR_SIZE < (long) sector)
+		// the mapped view is private to this call, so positioning it is thread safe
+		ByteBuffer view = mapped ? getMap().duplicate() : null;
+		long length = view != null ? view.capacity() : dat.length();
+
+		if (sector <= 0L || length / SECTOR_SIZE < (long) sector)
 		{
-			logger.warn("bad read, dat length {}, requested sector {}", dat.length(), sector);
+			logger.warn("bad read, dat length {}, requested sector {}", length, sector);
 			return null;
 		}
 
@@ -87,8 +147,6 @@ public class DataFile implements Closeable
 				return null;
 			}
 
-			dat.seek(SECTOR_SIZE * sector);
-
 			int dataBlockSize = size - readBytesCount;
 			byte headerSize;
 			int currentIndex;
@@ -102,7 +160,7 @@ public class DataFile implements Closeable
 					dataBlockSize = SECTOR_SIZE - headerSize;
 				}
 
-				int i = dat.read(readBuffer, 0, headerSize + dataBlockSize);
+				int i = readSector(view, sector, readBuffer, headerSize + dataBlockSize);
 				if (i != headerSize + dataBlockSize)
 				{
 					logger.warn("Short read when reading file data for {}/{}", indexId, archiveId);
@@ -127,7 +185,7 @@ public class DataFile implements Closeable
 					dataBlockSize = SECTOR_SIZE - headerSize;
 				}
 
-				int i = dat.read(readBuffer, 0, headerSize + dataBlockSize);
+				int i = readSector(view, sector, readBuffer, headerSize + dataBlockSize);
 				if (i != headerSize + dataBlockSize)
 				{
 					logger.warn("short read");
@@ -153,7 +211,7 @@ public class DataFile implements Closeable
 				return null;
 			}
 
-			if (nextSector < 0 || dat.length() / SECTOR_SIZE < (long) nextSector)
+			if (nextSector < 0 || length / SECTOR_SIZE < (long) nextSector)
 			{
 				logger.warn("Invalid next sector");
 				return null;
@@ -169,7 +227,31 @@ public class DataFile implements Closeable
 		return buffer.array();
 	}
 
-	public DataFileWriteResult write(int indexId, int archiveId, byte[] compressedData) throws IOException
+	private int readSector(ByteBuffer view, int sector, byte[] readBuffer, int len) throws IOException
+	{
+		long position = (long) SECTOR_SIZE * sector;
+
+		if (view == null)
+		{
+			synchronized (this)
+			{
+				dat.seek(position);
+				return dat.read(readBuffer, 0, len);
+			}
+		}
+
+		if (position >= view.limit())
+		{
+			return -1;
+		}
+
+		view.position((int) position);
+		len = Math.min(len, view.remaining());
+		view.get(readBuffer, 0, len);
+		return len;
+	}
+
+	public synchronized DataFileWriteResult write(int indexId, int archiveId, byte[] compressedData) throws IOException
 	{
 		int sector;
 		int startSector;
@@ -259,6 +341,9 @@ public class DataFile implements Closeable
 			sector = nextSector;
 		}
 
+		// the file may have grown, so the next mapped read has to remap it
+		map = null;
+
 		DataFileWriteResult res = new DataFileWriteResult();
 		res.sector = startSector;
 		res.compressedLength = compressedData.length;
@@ -28,8 +28,12 @@ import com.google.common.primitives.Ints;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.Index;
@@ -49,17 +53,32 @@ public class DiskStorage implements Storage
 	private static final String MAIN_FILE_CACHE_IDX = "main_file_cache.idx";
 
 	private final File folder;
+	private final boolean mapped;
 
 	private final DataFile data;
 	private final IndexFile index255;
 	private final List<IndexFile> indexFiles = new ArrayList<>();
 
 	public DiskStorage(File folder) throws IOException
+	{
+		this(folder, false);
+	}
+
+	/**
+	 *
+	 * @param folder cache folder
+	 * @param mapped whether to read the data and index files through memory
+	 * mappings, allowing archives to be loaded from many threads at once.
+	 * Writes always go through the files directly.
+	 * @throws IOException
+	 */
+	public DiskStorage(File folder, boolean mapped) throws IOException
 	{
 		this.folder = folder;
+		this.mapped = mapped;
 
-		this.data = new DataFile(new File(folder, MAIN_FILE_CACHE_DAT));
-		this.index255 = new IndexFile(255, new File(folder, MAIN_FILE_CACHE_IDX + "255"));
+		this.data = new DataFile(new File(folder, MAIN_FILE_CACHE_DAT), mapped);
+		this.index255 = new IndexFile(255, new File(folder, MAIN_FILE_CACHE_IDX + "255"), mapped);
 	}
 
 	@Override
@@ -95,7 +114,7 @@ public class DiskStorage implements Storage
 			}
 		}
 
-		IndexFile indexFile = new IndexFile(i, new File(folder, MAIN_FILE_CACHE_IDX + i));
+		IndexFile indexFile = new IndexFile(i, new File(folder, MAIN_FILE_CACHE_IDX + i), mapped);
 		indexFiles.add(indexFile);
 		return indexFile;
 	}
@@ -109,6 +128,49 @@ public class DiskStorage implements Storage
 		}
 	}
 
+	/**
+	 * Load the store, decompressing and parsing the index data of each
+	 * index in parallel.
+	 *
+	 * @param store
+	 * @param executor
+	 * @throws IOException
+	 */
+	@Override
+	public void load(Store store, Executor executor) throws IOException
+	{
+		List<Index> indexes = store.getIndexes();
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[indexes.size()];
+		for (int i = 0; i < futures.length; ++i)
+		{
+			Index index = indexes.get(i);
+			futures[i] = CompletableFuture.runAsync(() ->
+			{
+				try
+				{
+					loadIndex(index);
+				}
+				catch (IOException ex)
+				{
+					throw new UncheckedIOException(ex);
+				}
+			}, executor);
+		}
+
+		try
+		{
+			CompletableFuture.allOf(futures).join();
+		}
+		catch (CompletionException ex)
+		{
+			if (ex.getCause() instanceof UncheckedIOException)
+			{
+				throw ((UncheckedIOException) ex.getCause()).getCause();
+			}
+			throw ex;
+		}
+	}
+
 	public byte[] readIndex(int indexId) throws IOException
 	{
 		IndexEntry entry = index255.read(indexId);
@@ -171,6 +233,35 @@ public class DiskStorage implements Storage
 		return archiveData;
 	}
 
+	/**
+	 * Load the data of many archives. Reads are not serialized, since both
+	 * the data and index files support concurrent reads.
+	 *
+	 * @param archives
+	 * @param executor
+	 * @return
+	 */
+	@Override
+	public List<CompletableFuture<byte[]>> loadArchives(List<Archive> archives, Executor executor)
+	{
+		List<CompletableFuture<byte[]>> futures = new ArrayList<>(archives.size());
+		for (Archive archive : archives)
+		{
+			futures.add(CompletableFuture.supplyAsync(() ->
+			{
+				try
+				{
+					return loadArchive(archive);
+				}
+				catch (IOException ex)
+				{
+					throw new UncheckedIOException(ex);
+				}
+			}, executor));
+		}
+		return futures;
+	}
+
 	@Override
 	public void save(Store store) throws IOException
 	{
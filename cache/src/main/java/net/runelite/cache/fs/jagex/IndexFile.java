@@ -29,6 +29,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,25 +45,53 @@ public class IndexFile implements Closeable
 	private final File file;
 	private final RandomAccessFile idx;
 	private final byte[] buffer = new byte[INDEX_ENTRY_LEN];
+	private final boolean mapped;
+	private volatile MappedByteBuffer map;
 
 	public IndexFile(int indexFileId, File file) throws FileNotFoundException
+	{
+		this(indexFileId, file, false);
+	}
+
+	public IndexFile(int indexFileId, File file, boolean mapped) throws FileNotFoundException
 	{
 		this.indexFileId = indexFileId;
 		this.file = file;
 		this.idx = new RandomAccessFile(file, "rw");
+		this.mapped = mapped;
 	}
 
 	@Override
 	public void close() throws IOException
 	{
+		map = null;
 		idx.close();
 	}
 
-	public void clear() throws IOException
+	public synchronized void clear() throws IOException
 	{
+		map = null;
 		idx.setLength(0L);
 	}
 
+	private MappedByteBuffer getMap() throws IOException
+	{
+		MappedByteBuffer m = map;
+		if (m != null)
+		{
+			return m;
+		}
+
+		synchronized (this)
+		{
+			if (map == null)
+			{
+				map = idx.getChannel().map(FileChannel.MapMode.READ_ONLY, 0L, idx.length());
+			}
+			return map;
+		}
+	}
+
 	@Override
 	public int hashCode()
 	{
@@ -107,9 +137,32 @@ public class IndexFile implements Closeable
 		buffer[5] = (byte) entry.getSector();
 
 		idx.write(buffer);
+
+		map = null;
 	}
 
-	public synchronized IndexEntry read(int id) throws IOException
+	public IndexEntry read(int id) throws IOException
+	{
+		if (!mapped)
+		{
+			return readFile(id);
+		}
+
+		// absolute gets do not modify the buffer, so this needs no lock
+		MappedByteBuffer m = getMap();
+		int pos = id * INDEX_ENTRY_LEN;
+		if (pos < 0 || pos + INDEX_ENTRY_LEN > m.limit())
+		{
+			logger.debug("short read for id {} on index {}", id, indexFileId);
+			return null;
+		}
+
+		int length = ((m.get(pos) & 0xFF) << 16) | ((m.get(pos + 1) & 0xFF) << 8) | (m.get(pos + 2) & 0xFF);
+		int sector = ((m.get(pos + 3) & 0xFF) << 16) | ((m.get(pos + 4) & 0xFF) << 8) | (m.get(pos + 5) & 0xFF);
+		return toEntry(id, length, sector);
+	}
+
+	private synchronized IndexEntry readFile(int id) throws IOException
 	{
 		idx.seek(id * INDEX_ENTRY_LEN);
 		int i = idx.read(buffer);
@@ -121,7 +174,11 @@ public class IndexFile implements Closeable
 
 		int length = ((buffer[0] & 0xFF) << 16) | ((buffer[1] & 0xFF) << 8) | (buffer[2] & 0xFF);
 		int sector = ((buffer[3] & 0xFF) << 16) | ((buffer[4] & 0xFF) << 8) | (buffer[5] & 0xFF);
+		return toEntry(id, length, sector);
+	}
 
+	private IndexEntry toEntry(int id, int length, int sector)
+	{
 		if (length <= 0 || sector <= 0)
 		{
 			logger.debug("invalid length or sector {}/{}", length, sector);
@@ -131,8 +188,16 @@ public class IndexFile implements Closeable
 		return new IndexEntry(this, id, sector, length);
 	}
 
-	public synchronized int getIndexCount() throws IOException
+	public int getIndexCount() throws IOException
 	{
-		return (int) (idx.length() / INDEX_ENTRY_LEN);
+		if (mapped)
+		{
+			return getMap().limit() / INDEX_ENTRY_LEN;
+		}
+
+		synchronized (this)
+		{
+			return (int) (idx.length() / INDEX_ENTRY_LEN);
+		}
 	}
 }
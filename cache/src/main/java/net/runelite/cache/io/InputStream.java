@@ -46,6 +46,17 @@ public class InputStream extends java.io.InputStream
 		this.buffer = ByteBuffer.wrap(buffer);
 	}
 
+	/**
+	 * Create a stream over the remaining bytes of the buffer, without
+	 * copying them. Offsets are relative to the buffer's position.
+	 *
+	 * @param buffer
+	 */
+	public InputStream(ByteBuffer buffer)
+	{
+		this.buffer = buffer.slice();
+	}
+
 	public byte[] getArray()
 	{
 		assert buffer.hasArray();
@@ -25,9 +25,17 @@
 package net.runelite.cache.region;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import net.runelite.cache.IndexType;
 import net.runelite.cache.definitions.LocationsDefinition;
 import net.runelite.cache.definitions.MapDefinition;
@@ -37,6 +45,8 @@ import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.util.Djb2;
+import net.runelite.cache.util.IntObjectMap;
 import net.runelite.cache.util.XteaKeyManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +57,19 @@ public class RegionLoader
 
 	private static final int MAX_REGION = 32768;
 
+	/**
+	 * region ids by the name hash of their map archive
+	 */
+	private static final IntObjectMap<Integer> MAP_NAMES = new IntObjectMap<>(MAX_REGION);
+
+	static
+	{
+		for (int i = 0; i < MAX_REGION; ++i)
+		{
+			MAP_NAMES.put(Djb2.hash("m" + (i >> 8) + "_" + (i & 0xFF)), i);
+		}
+	}
+
 	private final Store store;
 	private final Index index;
 	private final XteaKeyManager keyManager;
@@ -63,9 +86,40 @@ public class RegionLoader
 		keyManager.loadKeys();
 	}
 
+	/**
+	 * Find the ids of regions with a map archive, by walking the archives
+	 * of the index instead of probing every possible region name.
+	 *
+	 * @return sorted region ids
+	 */
+	public List<Integer> findRegionIds()
+	{
+		return findRegionIds(index);
+	}
+
+	/**
+	 * Find the ids of regions with a map archive in the given maps index.
+	 *
+	 * @param index maps index
+	 * @return sorted region ids
+	 */
+	public static List<Integer> findRegionIds(Index index)
+	{
+		Set<Integer> ids = new TreeSet<>();
+		for (Archive archive : index.getArchives())
+		{
+			Integer regionId = MAP_NAMES.get(archive.getNameHash());
+			if (regionId != null)
+			{
+				ids.add(regionId);
+			}
+		}
+		return new ArrayList<>(ids);
+	}
+
 	public void loadRegions() throws IOException
 	{
-		for (int i = 0; i < MAX_REGION; ++i)
+		for (int i : findRegionIds())
 		{
 			Region region = this.loadRegionFromArchive(i);
 			if (region != null)
@@ -75,6 +129,79 @@ public class RegionLoader
 		}
 	}
 
+	/**
+	 * Load all regions, reading and decoding the map archives in parallel
+	 * on the given executor.
+	 *
+	 * @param executor
+	 * @throws IOException
+	 */
+	public void loadRegions(Executor executor) throws IOException
+	{
+		Storage storage = store.getStorage();
+		List<Integer> ids = new ArrayList<>();
+		List<Archive> archives = new ArrayList<>();
+
+		for (int i : findRegionIds())
+		{
+			int x = i >> 8;
+			int y = i & 0xFF;
+
+			Archive map = index.findArchiveByName("m" + x + "_" + y);
+			Archive land = index.findArchiveByName("l" + x + "_" + y);
+
+			assert (map == null) == (land == null);
+
+			if (map == null || land == null)
+			{
+				continue;
+			}
+
+			ids.add(i);
+			archives.add(map);
+			archives.add(land);
+		}
+
+		List<CompletableFuture<byte[]>> data = storage.loadArchives(archives, executor);
+		List<CompletableFuture<Region>> futures = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); ++i)
+		{
+			int regionId = ids.get(i);
+			Archive map = archives.get(i * 2);
+			Archive land = archives.get(i * 2 + 1);
+			CompletableFuture<byte[]> landData = data.get(i * 2 + 1);
+
+			futures.add(data.get(i * 2).thenCombineAsync(landData, (mapBytes, landBytes) ->
+			{
+				try
+				{
+					return loadRegion(regionId, map, mapBytes, land, landBytes);
+				}
+				catch (IOException ex)
+				{
+					throw new UncheckedIOException(ex);
+				}
+			}, executor));
+		}
+
+		try
+		{
+			for (CompletableFuture<Region> future : futures)
+			{
+				Region region = future.join();
+				regions.put(region.getRegionID(), region);
+			}
+		}
+		catch (CompletionException ex)
+		{
+			if (ex.getCause() instanceof UncheckedIOException)
+			{
+				throw ((UncheckedIOException) ex.getCause()).getCause();
+			}
+			throw ex;
+		}
+	}
+
 	public Region loadRegionFromArchive(int i) throws IOException
 	{
 		int x = i >> 8;
@@ -91,7 +218,15 @@ public class RegionLoader
 			return null;
 		}
 
-		byte[] data = map.decompress(storage.loadArchive(map));
+		return loadRegion(i, map, storage.loadArchive(map), land, storage.loadArchive(land));
+	}
+
+	private Region loadRegion(int i, Archive map, byte[] mapData, Archive land, byte[] landData) throws IOException
+	{
+		int x = i >> 8;
+		int y = i & 0xFF;
+
+		byte[] data = map.decompress(mapData);
 
 		MapDefinition mapDef = new MapLoader().load(x, y, data);
 
@@ -103,7 +238,7 @@ public class RegionLoader
 		{
 			try
 			{
-				data = land.decompress(storage.loadArchive(land), keys);
+				data = land.decompress(landData, keys);
 				LocationsDefinition locDef = new LocationsLoader().load(x, y, data);
 				region.loadLocations(locDef);
 			}
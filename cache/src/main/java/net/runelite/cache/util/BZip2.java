@@ -29,6 +29,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.util.Arrays;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
@@ -47,6 +48,10 @@ public class BZip2
 		'1'       // block size
 	};
 
+	// magic of the first block, or of the end of stream if there are no blocks
+	private static final long BLOCK_MAGIC = 0x314159265359L;
+	private static final long EOS_MAGIC = 0x177245385090L;
+
 	public static byte[] compress(byte[] bytes) throws IOException
 	{
 		InputStream is = new ByteArrayInputStream(bytes);
@@ -68,19 +73,80 @@ public class BZip2
 
 	public static byte[] decompress(byte[] bytes, int len) throws IOException
 	{
-		byte[] data = new byte[len + BZIP_HEADER.length];
-
-		// add header
-		System.arraycopy(BZIP_HEADER, 0, data, 0, BZIP_HEADER.length);
-		System.arraycopy(bytes, 0, data, BZIP_HEADER.length, len);
-
 		ByteArrayOutputStream os = new ByteArrayOutputStream();
 
-		try (InputStream is = new BZip2CompressorInputStream(new ByteArrayInputStream(data)))
+		try (InputStream is = new BZip2CompressorInputStream(headerStream(bytes, 0, len)))
 		{
 			IOUtils.copy(is, os);
 		}
 
 		return os.toByteArray();
 	}
+
+	/**
+	 * Check if headerless bzip2 data starts with a valid block
+	 *
+	 * @param in
+	 * @param off
+	 * @param len
+	 * @return
+	 */
+	public static boolean hasHeader(byte[] in, int off, int len)
+	{
+		if (len < 6)
+		{
+			return false;
+		}
+
+		long magic = 0;
+		for (int i = 0; i < 6; ++i)
+		{
+			magic = (magic << 8) | (in[off + i] & 0xFF);
+		}
+		return magic == BLOCK_MAGIC || magic == EOS_MAGIC;
+	}
+
+	/**
+	 * Decompress headerless bzip2 data directly into the given output
+	 * array. The decompressed size must be known up front.
+	 *
+	 * @param in
+	 * @param off
+	 * @param len
+	 * @param out
+	 * @param outOff
+	 * @param outLen expected decompressed size
+	 * @throws IOException
+	 */
+	public static void decompress(byte[] in, int off, int len, byte[] out, int outOff, int outLen) throws IOException
+	{
+		try (InputStream is = new BZip2CompressorInputStream(headerStream(in, off, len)))
+		{
+			int read = 0;
+			while (read < outLen)
+			{
+				int i = is.read(out, outOff + read, outLen - read);
+				if (i == -1)
+				{
+					break;
+				}
+				read += i;
+			}
+
+			if (read != outLen)
+			{
+				throw new IOException("Short read, expected " + outLen + " but got " + read);
+			}
+		}
+	}
+
+	/**
+	 * The bzip2 header is stripped from the data in the cache, so it has to
+	 * be put back before decompressing. This streams it in front of the data
+	 * instead of copying the data.
+	 */
+	private static InputStream headerStream(byte[] bytes, int off, int len)
+	{
+		return new SequenceInputStream(new ByteArrayInputStream(BZIP_HEADER), new ByteArrayInputStream(bytes, off, len));
+	}
 }
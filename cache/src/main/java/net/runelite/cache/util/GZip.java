@@ -30,8 +30,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 import org.apache.commons.compress.utils.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +43,14 @@ public class GZip
 {
 	private static final Logger logger = LoggerFactory.getLogger(GZip.class);
 
+	private static final int GZIP_MAGIC = 0x8B1F;
+	private static final int FHCRC = 2;
+	private static final int FEXTRA = 4;
+	private static final int FNAME = 8;
+	private static final int FCOMMENT = 16;
+
+	private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+
 	public static byte[] compress(byte[] bytes) throws IOException
 	{
 		InputStream is = new ByteArrayInputStream(bytes);
@@ -64,4 +75,103 @@ public class GZip
 
 		return os.toByteArray();
 	}
+
+	/**
+	 * Decompress a gzip stream into the given output array, using an
+	 * inflater which is reused by the calling thread. The decompressed
+	 * size must be known up front. The gzip trailer is not checked.
+	 *
+	 * @param in
+	 * @param off offset of the gzip stream in {@code in}
+	 * @param len length of the gzip stream
+	 * @param out
+	 * @param outOff
+	 * @param outLen expected decompressed size
+	 * @throws IOException
+	 */
+	public static void decompress(byte[] in, int off, int len, byte[] out, int outOff, int outLen) throws IOException
+	{
+		int headerLen = headerLength(in, off, len);
+
+		Inflater inflater = INFLATER.get();
+		inflater.reset();
+		inflater.setInput(in, off + headerLen, len - headerLen);
+
+		try
+		{
+			int read = 0;
+			while (read < outLen)
+			{
+				int i = inflater.inflate(out, outOff + read, outLen - read);
+				if (i == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+				{
+					break;
+				}
+				read += i;
+			}
+
+			if (read != outLen)
+			{
+				throw new IOException("Short inflate, expected " + outLen + " but got " + read);
+			}
+		}
+		catch (DataFormatException ex)
+		{
+			throw new IOException(ex);
+		}
+	}
+
+	/**
+	 * Check if the data starts with a gzip header
+	 *
+	 * @param in
+	 * @param off
+	 * @param len
+	 * @return
+	 */
+	public static boolean hasHeader(byte[] in, int off, int len)
+	{
+		return len >= 10
+			&& ((in[off] & 0xFF) | (in[off + 1] & 0xFF) << 8) == GZIP_MAGIC
+			&& in[off + 2] == Deflater.DEFLATED;
+	}
+
+	private static int headerLength(byte[] in, int off, int len) throws IOException
+	{
+		if (!hasHeader(in, off, len))
+		{
+			throw new IOException("Not in GZIP format");
+		}
+
+		int flags = in[off + 3] & 0xFF;
+		int pos = 10;
+
+		if ((flags & FEXTRA) != 0)
+		{
+			pos += 2 + ((in[off + pos] & 0xFF) | (in[off + pos + 1] & 0xFF) << 8);
+		}
+		if ((flags & FNAME) != 0)
+		{
+			while (pos < len && in[off + pos++] != 0)
+			{
+			}
+		}
+		if ((flags & FCOMMENT) != 0)
+		{
+			while (pos < len && in[off + pos++] != 0)
+			{
+			}
+		}
+		if ((flags & FHCRC) != 0)
+		{
+			pos += 2;
+		}
+
+		if (pos >= len)
+		{
+			throw new IOException("Truncated GZIP header");
+		}
+
+		return pos;
+	}
 }
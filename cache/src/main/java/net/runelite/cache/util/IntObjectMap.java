@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from int keys to non-null values, avoiding
+ * the boxing of a {@code HashMap<Integer, V>}.
+ *
+ * @param <V> value type
+ */
+public class IntObjectMap<V>
+{
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] keys;
+	private Object[] values; // null marks a free slot
+	private int size;
+
+	public IntObjectMap()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	public IntObjectMap(int expectedSize)
+	{
+		int capacity = Integer.highestOneBit(Math.max(expectedSize * 2 - 1, DEFAULT_CAPACITY - 1)) << 1;
+		keys = new int[capacity];
+		values = new Object[capacity];
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(int key)
+	{
+		int mask = keys.length - 1;
+		for (int i = mix(key) & mask; values[i] != null; i = (i + 1) & mask)
+		{
+			if (keys[i] == key)
+			{
+				return (V) values[i];
+			}
+		}
+		return null;
+	}
+
+	public boolean containsKey(int key)
+	{
+		return get(key) != null;
+	}
+
+	/**
+	 * @param key
+	 * @param value
+	 * @return the previous value for the key, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value)
+	{
+		if (value == null)
+		{
+			throw new NullPointerException("value");
+		}
+
+		int mask = keys.length - 1;
+		int i = mix(key) & mask;
+		for (; values[i] != null; i = (i + 1) & mask)
+		{
+			if (keys[i] == key)
+			{
+				V old = (V) values[i];
+				values[i] = value;
+				return old;
+			}
+		}
+
+		keys[i] = key;
+		values[i] = value;
+
+		// keep the load factor at or below 1/2
+		if (++size > keys.length >> 1)
+		{
+			resize(keys.length << 1);
+		}
+		return null;
+	}
+
+	/**
+	 * @param key
+	 * @return the removed value, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int key)
+	{
+		int mask = keys.length - 1;
+		int i = mix(key) & mask;
+		for (; values[i] != null; i = (i + 1) & mask)
+		{
+			if (keys[i] == key)
+			{
+				break;
+			}
+		}
+
+		if (values[i] == null)
+		{
+			return null;
+		}
+
+		V old = (V) values[i];
+		values[i] = null;
+		--size;
+
+		// shift back following entries of the probe sequence, so that
+		// lookups never stop early at the freed slot
+		for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask)
+		{
+			int home = mix(keys[j]) & mask;
+			// move the entry if its home slot is not cyclically in (i, j]
+			if (i <= j ? (home <= i || home > j) : (home <= i && home > j))
+			{
+				keys[i] = keys[j];
+				values[i] = values[j];
+				values[j] = null;
+				i = j;
+			}
+		}
+		return old;
+	}
+
+	public void clear()
+	{
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	private void resize(int capacity)
+	{
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+
+		keys = new int[capacity];
+		values = new Object[capacity];
+
+		int mask = capacity - 1;
+		for (int j = 0; j < oldKeys.length; ++j)
+		{
+			if (oldValues[j] != null)
+			{
+				int i = mix(oldKeys[j]) & mask;
+				while (values[i] != null)
+				{
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+
+	private static int mix(int key)
+	{
+		// spread sequential ids and hashes over the table
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -24,8 +24,8 @@
  */
 package net.runelite.cache.util;
 
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class Xtea
 {
@@ -42,13 +42,35 @@ public class Xtea
 
 	public byte[] encrypt(byte[] data, int len)
 	{
-		ByteBuf buf = Unpooled.wrappedBuffer(data, 0, len);
-		ByteBuf out = Unpooled.buffer(len);
+		byte[] out = Arrays.copyOf(data, len);
+		encrypt(ByteBuffer.wrap(out), 0, len);
+		return out;
+	}
+
+	public byte[] decrypt(byte[] data, int len)
+	{
+		byte[] out = Arrays.copyOf(data, len);
+		decrypt(ByteBuffer.wrap(out), 0, len);
+		return out;
+	}
+
+	/**
+	 * Encrypt {@code len} bytes of the buffer in place, starting at the
+	 * absolute position {@code off}. Trailing bytes which don't fill a
+	 * whole block are left as is. The buffer position is not modified.
+	 *
+	 * @param buf
+	 * @param off
+	 * @param len
+	 */
+	public void encrypt(ByteBuffer buf, int off, int len)
+	{
 		int numBlocks = len / 8;
 		for (int block = 0; block < numBlocks; ++block)
 		{
-			int v0 = buf.readInt();
-			int v1 = buf.readInt();
+			int pos = off + block * 8;
+			int v0 = buf.getInt(pos);
+			int v1 = buf.getInt(pos + 4);
 			int sum = 0;
 			for (int i = 0; i < ROUNDS; ++i)
 			{
@@ -56,22 +78,28 @@ public class Xtea
 				sum += GOLDEN_RATIO;
 				v1 += (((v0 << 4) ^ (v0 >>> 5)) + v0) ^ (sum + key[(sum >>> 11) & 3]);
 			}
-			out.writeInt(v0);
-			out.writeInt(v1);
+			buf.putInt(pos, v0);
+			buf.putInt(pos + 4, v1);
 		}
-		out.writeBytes(buf);
-		return out.array();
 	}
 
-	public byte[] decrypt(byte[] data, int len)
+	/**
+	 * Decrypt {@code len} bytes of the buffer in place, starting at the
+	 * absolute position {@code off}. Trailing bytes which don't fill a
+	 * whole block are left as is. The buffer position is not modified.
+	 *
+	 * @param buf
+	 * @param off
+	 * @param len
+	 */
+	public void decrypt(ByteBuffer buf, int off, int len)
 	{
-		ByteBuf buf = Unpooled.wrappedBuffer(data, 0, len);
-		ByteBuf out = Unpooled.buffer(len);
 		int numBlocks = len / 8;
 		for (int block = 0; block < numBlocks; ++block)
 		{
-			int v0 = buf.readInt();
-			int v1 = buf.readInt();
+			int pos = off + block * 8;
+			int v0 = buf.getInt(pos);
+			int v1 = buf.getInt(pos + 4);
 			int sum = GOLDEN_RATIO * ROUNDS;
 			for (int i = 0; i < ROUNDS; ++i)
 			{
@@ -79,10 +107,8 @@ public class Xtea
 				sum -= GOLDEN_RATIO;
 				v0 -= (((v1 << 4) ^ (v1 >>> 5)) + v1) ^ (sum + key[sum & 3]);
 			}
-			out.writeInt(v0);
-			out.writeInt(v1);
+			buf.putInt(pos, v0);
+			buf.putInt(pos + 4, v1);
 		}
-		out.writeBytes(buf);
-		return out.array();
 	}
 }
@@ -27,6 +27,8 @@ package net.runelite.cache;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.imageio.ImageIO;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.region.Region;
@@ -97,4 +99,32 @@ public class MapImageDumperTest
 			}
 		}
 	}
+
+	@Test
+	@Ignore
+	public void dumpTiles() throws IOException
+	{
+		File base = StoreLocation.LOCATION,
+			outDir = folder.newFolder();
+
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try (Store store = new Store(base))
+		{
+			store.load();
+
+			MapImageDumper dumper = new MapImageDumper(store);
+			dumper.load();
+
+			for (int i = 0; i < Region.Z; ++i)
+			{
+				File planeDir = new File(outDir, Integer.toString(i));
+				dumper.dumpTiles(planeDir, i, executor);
+				logger.info("Wrote tiles {}", planeDir);
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
 }
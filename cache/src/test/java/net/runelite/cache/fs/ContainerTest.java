@@ -25,9 +25,18 @@
 package net.runelite.cache.fs;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Random;
+import static net.runelite.cache.fs.jagex.CompressionType.BZ2;
 import static net.runelite.cache.fs.jagex.CompressionType.GZ;
+import static net.runelite.cache.fs.jagex.CompressionType.NONE;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Test;
 
 public class ContainerTest
@@ -52,4 +61,127 @@ public class ContainerTest
 		assertArrayEquals(data, container.data);
 	}
 
+	@Test
+	public void testDecompressInPlace() throws IOException
+	{
+		int[] keys = new int[]
+		{
+			4, 8, 15, 16
+		};
+		Random random = new Random(42L);
+		byte[] data = new byte[1024];
+		random.nextBytes(data);
+
+		for (int compression : new int[]{NONE, BZ2, GZ})
+		{
+			Container container = new Container(compression, 42);
+			container.compress(data, keys);
+			byte[] compressedData = container.data;
+
+			Container expected = Container.decompress(compressedData, keys);
+
+			container = Container.decompressInPlace(ByteBuffer.wrap(compressedData), keys);
+			byte[] decompressedData = new byte[container.buffer.remaining()];
+			container.buffer.get(decompressedData);
+
+			assertArrayEquals(data, decompressedData);
+			assertEquals(expected.crc, container.crc);
+			assertEquals(42, container.revision);
+		}
+	}
+
+	@Test
+	public void testPooling() throws IOException
+	{
+		Random random = new Random(42L);
+		byte[] data = new byte[1024];
+		random.nextBytes(data);
+
+		Container container = new Container(GZ, -1);
+		container.compress(data, null);
+		byte[] compressedData = container.data;
+
+		// each container gets its own buffer unless pooling is enabled
+		byte[] first = Container.decompressInPlace(ByteBuffer.wrap(compressedData), null).buffer.array();
+		byte[] second = Container.decompressInPlace(ByteBuffer.wrap(compressedData), null).buffer.array();
+		assertNotSame(first, second);
+
+		Container.setPooling(true);
+		try
+		{
+			first = Container.decompressInPlace(ByteBuffer.wrap(compressedData), null).buffer.array();
+			second = Container.decompressInPlace(ByteBuffer.wrap(compressedData), null).buffer.array();
+			assertSame(first, second);
+		}
+		finally
+		{
+			Container.setPooling(false);
+		}
+	}
+
+	@Test
+	public void testCheckKeys() throws IOException
+	{
+		int[] keys = new int[]
+		{
+			4, 8, 15, 16
+		};
+		int[] badKeys = new int[]
+		{
+			23, 42, 0, 0
+		};
+		Random random = new Random(42L);
+		byte[] data = new byte[1024];
+		random.nextBytes(data);
+
+		for (int compression : new int[]{BZ2, GZ})
+		{
+			Container container = new Container(compression, 42);
+			container.compress(data, keys);
+
+			assertTrue(Container.checkKeys(container.data, keys));
+			assertFalse(Container.checkKeys(container.data, badKeys));
+		}
+
+		Container container = new Container(NONE, -1);
+		container.compress(data, keys);
+		assertTrue(Container.checkKeys(container.data, badKeys));
+	}
+
+	@Test
+	public void testDecompressBadKeys() throws IOException
+	{
+		int[] keys = new int[]
+		{
+			4, 8, 15, 16
+		};
+		int[] badKeys = new int[]
+		{
+			23, 42, 0, 0
+		};
+		Random random = new Random(42L);
+		byte[] data = new byte[1024];
+		random.nextBytes(data);
+
+		for (int compression : new int[]{BZ2, GZ})
+		{
+			Container container = new Container(compression, 42);
+			container.compress(data, keys);
+			byte[] compressedData = container.data.clone();
+
+			try
+			{
+				Container.decompress(container.data, badKeys);
+				fail("decompressed with bad keys");
+			}
+			catch (IOException ex)
+			{
+				// expected
+			}
+
+			// the caller's data is left alone
+			assertArrayEquals(compressedData, container.data);
+		}
+	}
+
 }
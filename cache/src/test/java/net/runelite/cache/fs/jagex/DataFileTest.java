@@ -167,4 +167,35 @@ public class DataFileTest
 		Assert.assertEquals("testtesttesttest1", str);
 		Assert.assertEquals(42, res2.revision);
 	}
+
+	@Test
+	public void testMapped() throws IOException
+	{
+		byte[] b = new byte[4096];
+		for (int i = 0; i < b.length; ++i)
+		{
+			b[i] = (byte) i;
+		}
+
+		DataFile df = new DataFile(folder.newFile(), true);
+
+		Container container = new Container(CompressionType.NONE, 0);
+		container.compress("test".getBytes(), null);
+		DataFileWriteResult res = df.write(42, 3, container.data);
+
+		// the first read maps the file
+		byte[] compressedData = df.read(42, 3, res.sector, res.compressedLength);
+		Assert.assertEquals("test", new String(Container.decompress(compressedData, null).data));
+
+		// writing more data has to remap it
+		container = new Container(CompressionType.NONE, 0);
+		container.compress(b, null);
+		DataFileWriteResult res2 = df.write(42, 0x1FFFF, container.data);
+
+		compressedData = df.read(42, 0x1FFFF, res2.sector, res2.compressedLength);
+		Assert.assertArrayEquals(b, Container.decompress(compressedData, null).data);
+
+		compressedData = df.read(42, 3, res.sector, res.compressedLength);
+		Assert.assertEquals("test", new String(Container.decompress(compressedData, null).data));
+	}
 }
@@ -25,8 +25,13 @@
 package net.runelite.cache.fs.jagex;
 
 import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import net.runelite.cache.StoreLocation;
 import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.ArchiveFiles;
 import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Store;
@@ -99,4 +104,47 @@ public class DiskStorageTest
 		}
 	}
 
+	@Test
+	public void testLoadArchives() throws Exception
+	{
+		File file = folder.newFolder();
+		DiskStorage storage = new DiskStorage(file);
+		try (Store store = new Store(storage))
+		{
+			Index index = store.addIndex(0);
+			for (int i = 0; i < 16; ++i)
+			{
+				Archive archive = index.addArchive(i);
+				FileData[] fileData = new FileData[1];
+				fileData[0] = new FileData();
+				archive.setFileData(fileData);
+
+				Container container = new Container(archive.getCompression(), -1);
+				container.compress(("test" + i).getBytes(), null);
+				storage.saveArchive(archive, container.data);
+			}
+
+			store.save();
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		storage = new DiskStorage(file, true);
+		try (Store store = new Store(storage))
+		{
+			store.load(executor);
+			Index index = store.findIndex(0);
+			assertEquals(16, index.getArchives().size());
+
+			List<CompletableFuture<ArchiveFiles>> futures = storage.loadArchiveFiles(index.getArchives(), executor);
+			for (int i = 0; i < futures.size(); ++i)
+			{
+				ArchiveFiles files = futures.get(i).get();
+				assertArrayEquals(("test" + i).getBytes(), files.getFiles().get(0).getContents());
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
 }
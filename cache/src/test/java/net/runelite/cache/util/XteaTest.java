@@ -24,6 +24,8 @@
  */
 package net.runelite.cache.util;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import static org.junit.Assert.assertArrayEquals;
 import org.junit.Test;
 
@@ -52,4 +54,27 @@ public class XteaTest
 
 		assertArrayEquals(data, decData);
 	}
+
+	@Test
+	public void testInPlace()
+	{
+		byte[] data = "testtesttest1".getBytes();
+
+		int[] key = new int[]
+		{
+			4, 8, 15, 16
+		};
+		byte[] encrypted = new byte[]
+		{
+			121, -18, 48, 64, 120, -42, -113, 77, 116, 101, 115, 116, 49
+		};
+
+		Xtea xtea = new Xtea(key);
+		byte[] buf = Arrays.copyOf(data, data.length);
+		xtea.encrypt(ByteBuffer.wrap(buf), 0, buf.length);
+		assertArrayEquals(encrypted, buf);
+
+		xtea.decrypt(ByteBuffer.wrap(buf), 0, buf.length);
+		assertArrayEquals(data, buf);
+	}
 }
@@ -45,6 +45,7 @@ public class ConfigClient
 	private static final Logger logger = LoggerFactory.getLogger(ConfigClient.class);
 
 	private static final MediaType TEXT_PLAIN = MediaType.parse("text/plain");
+	private static final MediaType JSON = MediaType.parse("application/json");
 
 	private final UUID uuid;
 
@@ -54,6 +55,54 @@ public class ConfigClient
 	}
 
 	public Configuration get() throws IOException
+	{
+		return get(0);
+	}
+
+	/**
+	 * Get the configuration changes since the given version, or all of
+	 * the configuration if it is 0
+	 *
+	 * @param since
+	 * @return
+	 * @throws IOException
+	 */
+	public Configuration get(long since) throws IOException
+	{
+		HttpUrl.Builder builder = RuneLiteAPI.getApiBase().newBuilder()
+			.addPathSegment("config");
+		if (since > 0)
+		{
+			builder.addQueryParameter("since", Long.toString(since));
+		}
+		HttpUrl url = builder.build();
+
+		logger.debug("Built URI: {}", url);
+
+		Request request = new Request.Builder()
+			.header(RuneLiteAPI.RUNELITE_AUTH, uuid.toString())
+			.url(url)
+			.build();
+
+		try (Response response = RuneLiteAPI.CLIENT.newCall(request).execute())
+		{
+			InputStream in = response.body().byteStream();
+			return RuneLiteAPI.GSON.fromJson(new InputStreamReader(in), Configuration.class);
+		}
+		catch (JsonParseException ex)
+		{
+			throw new IOException(ex);
+		}
+	}
+
+	/**
+	 * Apply a batch of changes
+	 *
+	 * @param patch
+	 * @return the new configuration version
+	 * @throws IOException
+	 */
+	public long patch(ConfigPatch patch) throws IOException
 	{
 		HttpUrl url = RuneLiteAPI.getApiBase().newBuilder()
 			.addPathSegment("config")
@@ -62,14 +111,20 @@ public class ConfigClient
 		logger.debug("Built URI: {}", url);
 
 		Request request = new Request.Builder()
+			.patch(RequestBody.create(JSON, RuneLiteAPI.GSON.toJson(patch)))
 			.header(RuneLiteAPI.RUNELITE_AUTH, uuid.toString())
 			.url(url)
 			.build();
 
 		try (Response response = RuneLiteAPI.CLIENT.newCall(request).execute())
 		{
+			if (!response.isSuccessful())
+			{
+				throw new IOException("Unable to patch configuration: " + response.code());
+			}
+
 			InputStream in = response.body().byteStream();
-			return RuneLiteAPI.GSON.fromJson(new InputStreamReader(in), Configuration.class);
+			return RuneLiteAPI.GSON.fromJson(new InputStreamReader(in), long.class);
 		}
 		catch (JsonParseException ex)
 		{
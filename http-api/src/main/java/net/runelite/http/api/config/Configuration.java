@@ -30,14 +30,36 @@ import java.util.List;
 public class Configuration
 {
 	private List<ConfigEntry> config = new ArrayList<>();
+	/**
+	 * version of the configuration on the server, to pass back when
+	 * asking for only the changes since this
+	 */
+	private long version;
 
 	public Configuration(List<ConfigEntry> config)
 	{
 		this.config = config;
 	}
 
+	public Configuration(List<ConfigEntry> config, long version)
+	{
+		this.config = config;
+		this.version = version;
+	}
+
+	/**
+	 * The configuration entries. When fetching changes since a version,
+	 * keys which have been unset have a null value.
+	 *
+	 * @return
+	 */
 	public List<ConfigEntry> getConfig()
 	{
 		return config;
 	}
+
+	public long getVersion()
+	{
+		return version;
+	}
 }
@@ -24,25 +24,56 @@
  */
 package net.runelite.http.service.account;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.io.IOException;
 import net.runelite.http.service.account.beans.SessionEntry;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import net.runelite.http.api.RuneLiteAPI;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.sql2o.Connection;
+import org.sql2o.Query;
 import org.sql2o.Sql2o;
+import org.sql2o.Sql2oException;
 
 @Service
+@Slf4j
 public class AuthFilter
 {
+	private static final int SESSION_CACHE_SECONDS = 30;
+
 	private final Sql2o sql2o;
 
+	/**
+	 * Sessions recently authenticated. Logging out through this instance
+	 * invalidates the session here too. A session removed any other way,
+	 * such as a logout handled by another instance, keeps authenticating
+	 * here until it expires, so entries are only kept for a short time.
+	 */
+	private final Cache<UUID, SessionEntry> sessions = CacheBuilder.newBuilder()
+		.expireAfterWrite(SESSION_CACHE_SECONDS, TimeUnit.SECONDS)
+		.maximumSize(65536)
+		.build();
+
+	/**
+	 * last_used times not yet written, a session used several times
+	 * between flushes is only written once
+	 */
+	private final Map<UUID, Instant> lastUsed = new ConcurrentHashMap<>();
+
 	@Autowired
 	public AuthFilter(@Qualifier("Runelite SQL2O") Sql2o sql2o)
 	{
@@ -60,11 +91,15 @@ public class AuthFilter
 
 		UUID uuid = UUID.fromString(runeliteAuth);
 
-		try (Connection con = sql2o.open())
+		SessionEntry sessionEntry = sessions.getIfPresent(uuid);
+		if (sessionEntry == null)
 		{
-			SessionEntry sessionEntry = con.createQuery("select user, uuid, created from sessions where uuid = :uuid")
-				.addParameter("uuid", uuid.toString())
-				.executeAndFetchFirst(SessionEntry.class);
+			try (Connection con = sql2o.open())
+			{
+				sessionEntry = con.createQuery("select user, uuid, created from sessions where uuid = :uuid")
+					.addParameter("uuid", uuid.toString())
+					.executeAndFetchFirst(SessionEntry.class);
+			}
 
 			if (sessionEntry == null)
 			{
@@ -72,17 +107,65 @@ public class AuthFilter
 				return null;
 			}
 
-			Instant now = Instant.now();
+			sessions.put(uuid, sessionEntry);
+		}
 
-			con.createQuery("update sessions set last_used = :last_used where uuid = :uuid")
-				.addParameter("last_used", Timestamp.from(now))
-				.addParameter("uuid", uuid.toString())
-				.executeUpdate();
+		Instant now = Instant.now();
+		lastUsed.put(uuid, now);
 
-			sessionEntry.setLastUsed(now);
+		// the cached entry is shared, so hand out a copy
+		SessionEntry result = new SessionEntry();
+		result.setUser(sessionEntry.getUser());
+		result.setUuid(sessionEntry.getUuid());
+		result.setCreated(sessionEntry.getCreated());
+		result.setLastUsed(now);
+		return result;
+	}
 
-			return sessionEntry;
+	public void invalidate(UUID uuid)
+	{
+		sessions.invalidate(uuid);
+		lastUsed.remove(uuid);
+	}
+
+	@Scheduled(fixedDelay = 10_000)
+	public synchronized void flushLastUsed()
+	{
+		if (lastUsed.isEmpty())
+		{
+			return;
 		}
+
+		Map<UUID, Instant> batch = new HashMap<>(lastUsed);
+
+		try (Connection con = sql2o.beginTransaction())
+		{
+			Query query = con.createQuery("update sessions set last_used = :last_used where uuid = :uuid");
+
+			for (Map.Entry<UUID, Instant> entry : batch.entrySet())
+			{
+				query.addParameter("last_used", Timestamp.from(entry.getValue()))
+					.addParameter("uuid", entry.getKey().toString())
+					.addToBatch();
+			}
+
+			query.executeBatch();
+			con.commit();
+		}
+		catch (Sql2oException ex)
+		{
+			// the entries are kept and written on the next flush
+			log.warn("unable to write last used time of {} sessions", batch.size(), ex);
+			return;
+		}
+
+		// leaves entries for sessions which have been used again since
+		batch.forEach(lastUsed::remove);
 	}
 
+	@PreDestroy
+	public void shutdown()
+	{
+		flushLastUsed();
+	}
 }
@@ -24,57 +24,49 @@
  */
 package net.runelite.http.service.cache;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
-import javax.imageio.ImageIO;
 import lombok.extern.slf4j.Slf4j;
-import net.runelite.cache.ConfigType;
-import net.runelite.cache.IndexType;
 import net.runelite.cache.definitions.ItemDefinition;
-import net.runelite.cache.definitions.ModelDefinition;
 import net.runelite.cache.definitions.NpcDefinition;
 import net.runelite.cache.definitions.ObjectDefinition;
-import net.runelite.cache.definitions.SpriteDefinition;
-import net.runelite.cache.definitions.TextureDefinition;
-import net.runelite.cache.definitions.loaders.ItemLoader;
-import net.runelite.cache.definitions.loaders.ModelLoader;
-import net.runelite.cache.definitions.loaders.NpcLoader;
-import net.runelite.cache.definitions.loaders.ObjectLoader;
-import net.runelite.cache.definitions.loaders.SpriteLoader;
-import net.runelite.cache.definitions.loaders.TextureLoader;
-import net.runelite.cache.definitions.providers.ItemProvider;
-import net.runelite.cache.definitions.providers.ModelProvider;
-import net.runelite.cache.definitions.providers.SpriteProvider;
-import net.runelite.cache.definitions.providers.TextureProvider;
-import net.runelite.cache.fs.ArchiveFiles;
-import net.runelite.cache.fs.Container;
-import net.runelite.cache.fs.FSFile;
-import net.runelite.cache.item.ItemSpriteFactory;
 import net.runelite.http.api.cache.Cache;
 import net.runelite.http.api.cache.CacheArchive;
 import net.runelite.http.api.cache.CacheIndex;
 import net.runelite.http.service.cache.beans.ArchiveEntry;
 import net.runelite.http.service.cache.beans.CacheEntry;
 import net.runelite.http.service.cache.beans.IndexEntry;
+import net.runelite.http.service.util.exception.BadRequestException;
 import net.runelite.http.service.util.exception.NotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/cache")
 @Slf4j
 public class CacheController
 {
+	private static final int MAX_BATCH_IMAGES = 256;
+
 	@Autowired
 	private CacheService cacheService;
 
+	@Autowired
+	private DefinitionSnapshotService definitionSnapshotService;
+
+	@Autowired
+	private ItemImageService itemImageService;
+
 	@RequestMapping("/")
 	public List<Cache> listCaches()
 	{
@@ -177,140 +169,101 @@ public class CacheController
 		return cacheService.getArchive(archiveEntry);
 	}
 
-	private ArchiveEntry findConfig(ConfigType config)
+	private DefinitionSnapshot getSnapshot() throws IOException
 	{
-		CacheEntry cache = cacheService.findMostRecent();
-		if (cache == null)
-		{
-			throw new NotFoundException();
-		}
-
-		IndexEntry indexEntry = cacheService.findIndexForCache(cache, IndexType.CONFIGS.getNumber());
-		if (indexEntry == null)
+		DefinitionSnapshot snapshot = definitionSnapshotService.getSnapshot();
+		if (snapshot == null)
 		{
 			throw new NotFoundException();
 		}
+		return snapshot;
+	}
 
-		ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(indexEntry, config.getId());
-		if (archiveEntry == null)
+	@RequestMapping("item/{itemId}")
+	public ItemDefinition getItem(@PathVariable int itemId) throws IOException
+	{
+		ItemDefinition itemdef = getSnapshot().getItem(itemId);
+		if (itemdef == null)
 		{
 			throw new NotFoundException();
 		}
-
-		return archiveEntry;
+		return itemdef;
 	}
 
-	@RequestMapping("item/{itemId}")
-	public ItemDefinition getItem(@PathVariable int itemId) throws IOException
+	@RequestMapping(path = "item/{itemId}/image", produces = "image/png")
+	public ResponseEntity<byte[]> getItemImage(
+		WebRequest webRequest,
+		@PathVariable int itemId,
+		@RequestParam(defaultValue = "1") int quantity,
+		@RequestParam(defaultValue = "1") int border,
+		@RequestParam(defaultValue = "3153952") int shadowColor
+	) throws IOException
 	{
-		ArchiveEntry archiveEntry = findConfig(ConfigType.ITEM);
-
-		ArchiveFiles archiveFiles = cacheService.getArchiveFiles(archiveEntry);
-		if (archiveFiles == null)
+		String etag = itemImageETag(new int[]{itemId}, quantity, border, shadowColor);
+		if (webRequest.checkNotModified(etag))
 		{
-			throw new NotFoundException();
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
 		}
 
-		FSFile file = archiveFiles.findFile(itemId);
-		if (file == null)
+		byte[] png = itemImageService.getItemImage(itemId, quantity, border, shadowColor);
+		if (png == null)
 		{
 			throw new NotFoundException();
 		}
 
-		ItemDefinition itemdef = new ItemLoader().load(itemId, file.getContents());
-		return itemdef;
+		return ResponseEntity.ok()
+			.eTag(etag)
+			.body(png);
 	}
 
-	@RequestMapping(path = "item/{itemId}/image", produces = "image/png")
-	public ResponseEntity<byte[]> getItemImage(
-		@PathVariable int itemId,
+	@RequestMapping("item/images")
+	public ResponseEntity<Map<Integer, byte[]>> getItemImages(
+		WebRequest webRequest,
+		@RequestParam("id") int[] itemIds,
 		@RequestParam(defaultValue = "1") int quantity,
 		@RequestParam(defaultValue = "1") int border,
 		@RequestParam(defaultValue = "3153952") int shadowColor
 	) throws IOException
 	{
-		final CacheEntry cache = cacheService.findMostRecent();
-		ItemProvider itemProvider = new ItemProvider()
+		if (itemIds.length > MAX_BATCH_IMAGES)
 		{
-			@Override
-			public ItemDefinition provide(int itemId)
-			{
-				try
-				{
-					return getItem(itemId);
-				}
-				catch (IOException ex)
-				{
-					log.warn(null, ex);
-					return null;
-				}
-			}
-		};
-		ModelProvider modelProvider = new ModelProvider()
+			throw new BadRequestException();
+		}
+
+		String etag = itemImageETag(itemIds, quantity, border, shadowColor);
+		if (webRequest.checkNotModified(etag))
 		{
-			@Override
-			public ModelDefinition provide(int modelId) throws IOException
-			{
-				IndexEntry indexEntry = cacheService.findIndexForCache(cache, IndexType.MODELS.getNumber());
-				ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(indexEntry, modelId);
-				byte[] archiveData = Container.decompress(cacheService.getArchive(archiveEntry), null).data;
-				return new ModelLoader().load(modelId, archiveData);
-			}
-		};
-		SpriteProvider spriteProvider = new SpriteProvider()
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+		}
+
+		Map<Integer, byte[]> images = itemImageService.getItemImages(itemIds, quantity, border, shadowColor);
+		return ResponseEntity.ok()
+			.eTag(etag)
+			.body(images);
+	}
+
+	/**
+	 * images of a cache never change, so the etag is derived from the cache
+	 * id and the render parameters
+	 */
+	private String itemImageETag(int[] itemIds, int quantity, int border, int shadowColor) throws IOException
+	{
+		int cacheId = itemImageService.getCacheId();
+		if (cacheId == -1)
 		{
-			@Override
-			public SpriteDefinition provide(int spriteId, int frameId)
-			{
-				try
-				{
-					IndexEntry indexEntry = cacheService.findIndexForCache(cache, IndexType.SPRITES.getNumber());
-					ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(indexEntry, spriteId);
-					byte[] archiveData = Container.decompress(cacheService.getArchive(archiveEntry), null).data;
-					SpriteDefinition[] defs = new SpriteLoader().load(spriteId, archiveData);
-					return defs[frameId];
-				}
-				catch (Exception ex)
-				{
-					log.warn(null, ex);
-					return null;
-				}
-			}
-		};
-
-		TextureProvider textureProvider2 = new TextureProvider()
+			throw new NotFoundException();
+		}
+
+		Hasher hasher = Hashing.murmur3_128().newHasher()
+			.putInt(cacheId)
+			.putInt(quantity)
+			.putInt(border)
+			.putInt(shadowColor);
+		for (int itemId : itemIds)
 		{
-			@Override
-			public TextureDefinition[] provide()
-			{
-				try
-				{
-					IndexEntry indexEntry = cacheService.findIndexForCache(cache, IndexType.TEXTURES.getNumber());
-					ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(indexEntry, 0);
-					ArchiveFiles archiveFiles = cacheService.getArchiveFiles(archiveEntry);
-					TextureLoader loader = new TextureLoader();
-					TextureDefinition[] defs = new TextureDefinition[archiveFiles.getFiles().size()];
-					int i = 0;
-					for (FSFile file : archiveFiles.getFiles())
-					{
-						TextureDefinition def = loader.load(file.getFileId(), file.getContents());
-						defs[i++] = def;
-					}
-					return defs;
-				}
-				catch (Exception ex)
-				{
-					log.warn(null, ex);
-					return null;
-				}
-			}
-		};
-
-		BufferedImage itemImage = ItemSpriteFactory.createSprite(itemProvider, modelProvider, spriteProvider, textureProvider2,
-			itemId, quantity, border, shadowColor, false);
-		ByteArrayOutputStream bao = new ByteArrayOutputStream();
-		ImageIO.write(itemImage, "png", bao);
-		return ResponseEntity.ok(bao.toByteArray());
+			hasher.putInt(itemId);
+		}
+		return "\"" + hasher.hash() + "\"";
 	}
 
 	@RequestMapping("object/{objectId}")
@@ -318,21 +271,11 @@ public class CacheController
 		@PathVariable int objectId
 	) throws IOException
 	{
-		ArchiveEntry archiveEntry = findConfig(ConfigType.OBJECT);
-
-		ArchiveFiles archiveFiles = cacheService.getArchiveFiles(archiveEntry);
-		if (archiveFiles == null)
-		{
-			throw new NotFoundException();
-		}
-
-		FSFile file = archiveFiles.findFile(objectId);
-		if (file == null)
+		ObjectDefinition objectdef = getSnapshot().getObject(objectId);
+		if (objectdef == null)
 		{
 			throw new NotFoundException();
 		}
-
-		ObjectDefinition objectdef = new ObjectLoader().load(objectId, file.getContents());
 		return objectdef;
 	}
 
@@ -341,21 +284,11 @@ public class CacheController
 		@PathVariable int npcId
 	) throws IOException
 	{
-		ArchiveEntry archiveEntry = findConfig(ConfigType.NPC);
-
-		ArchiveFiles archiveFiles = cacheService.getArchiveFiles(archiveEntry);
-		if (archiveFiles == null)
+		NpcDefinition npcdef = getSnapshot().getNpc(npcId);
+		if (npcdef == null)
 		{
 			throw new NotFoundException();
 		}
-
-		FSFile file = archiveFiles.findFile(npcId);
-		if (file == null)
-		{
-			throw new NotFoundException();
-		}
-
-		NpcDefinition npcdef = new NpcLoader().load(npcId, file.getContents());
 		return npcdef;
 	}
 }
@@ -24,6 +24,10 @@
  */
 package net.runelite.http.service.cache;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
 import com.google.common.io.BaseEncoding;
 import com.google.common.io.ByteStreams;
@@ -38,15 +42,18 @@ import io.minio.errors.InvalidPortException;
 import io.minio.errors.NoResponseException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
-import net.runelite.cache.ConfigType;
 import net.runelite.cache.IndexType;
-import net.runelite.cache.definitions.ItemDefinition;
-import net.runelite.cache.definitions.loaders.ItemLoader;
 import net.runelite.cache.fs.ArchiveFiles;
 import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.FSFile;
@@ -68,23 +75,60 @@ import org.xmlpull.v1.XmlPullParserException;
 @Slf4j
 public class CacheService
 {
-	@Autowired
-	@Qualifier("Runelite Cache SQL2O")
-	private Sql2o sql2o;
+	private final Sql2o sql2o;
+	private final MinioClient minioClient;
+	private final String minioBucket;
+	private final CacheDAO cacheDao;
 
-	@Value("${minio.bucket}")
-	private String minioBucket;
+	/**
+	 * directory raw archive blobs are spilled to, or null if disabled
+	 */
+	private final Path spillDir;
 
-	private final MinioClient minioClient;
+	/**
+	 * decoded archives, keyed by the base16 archive hash. Archives are
+	 * immutable per hash, so entries never need invalidating.
+	 */
+	private final Cache<String, ArchiveFiles> archiveFilesCache;
+
+	private final Cache<Long, IndexEntry> indexCache = CacheBuilder.newBuilder()
+		.maximumSize(1024)
+		.build();
+
+	private final Cache<Long, ArchiveEntry> archiveCache = CacheBuilder.newBuilder()
+		.maximumSize(65536)
+		.build();
+
+	private final Supplier<CacheEntry> mostRecent = Suppliers.memoizeWithExpiration(this::loadMostRecent, 1, TimeUnit.MINUTES);
+	private int mostRecentId = -1;
 
 	@Autowired
 	public CacheService(
+		@Qualifier("Runelite Cache SQL2O") Sql2o sql2o,
 		@Value("${minio.endpoint}") String minioEndpoint,
 		@Value("${minio.accesskey}") String accessKey,
-		@Value("${minio.secretkey}") String secretKey
+		@Value("${minio.secretkey}") String secretKey,
+		@Value("${minio.bucket}") String minioBucket,
+		@Value("${cache.archive-cache-bytes:134217728}") long archiveCacheBytes,
+		@Value("${cache.spill-dir:}") String spillDir
 	) throws InvalidEndpointException, InvalidPortException
 	{
-		this.minioClient = new MinioClient(minioEndpoint, accessKey, secretKey);
+		this(sql2o, new MinioClient(minioEndpoint, accessKey, secretKey), minioBucket, new CacheDAO(),
+			archiveCacheBytes, spillDir.isEmpty() ? null : Paths.get(spillDir));
+	}
+
+	CacheService(Sql2o sql2o, MinioClient minioClient, String minioBucket, CacheDAO cacheDao,
+		long archiveCacheBytes, Path spillDir)
+	{
+		this.sql2o = sql2o;
+		this.minioClient = minioClient;
+		this.minioBucket = minioBucket;
+		this.cacheDao = cacheDao;
+		this.spillDir = spillDir;
+		this.archiveFilesCache = CacheBuilder.newBuilder()
+			.maximumWeight(archiveCacheBytes)
+			.weigher((String hash, ArchiveFiles files) -> weigh(files))
+			.build();
 	}
 
 	@Bean
@@ -108,9 +152,23 @@ public class CacheService
 			.append(hashStr.substring(2))
 			.toString();
 
+		Path spillFile = spillDir != null ? spillDir.resolve(path) : null;
+		if (spillFile != null && Files.exists(spillFile))
+		{
+			try
+			{
+				return Files.readAllBytes(spillFile);
+			}
+			catch (IOException ex)
+			{
+				log.warn("unable to read spilled archive {}", spillFile, ex);
+			}
+		}
+
+		byte[] data;
 		try (InputStream in = minioClient.getObject(minioBucket, path))
 		{
-			return ByteStreams.toByteArray(in);
+			data = ByteStreams.toByteArray(in);
 		}
 		catch (InvalidBucketNameException | NoSuchAlgorithmException | InsufficientDataException
 			| IOException | InvalidKeyException | NoResponseException | XmlPullParserException
@@ -119,12 +177,88 @@ public class CacheService
 			log.warn(null, ex);
 			return null;
 		}
+
+		if (spillFile != null)
+		{
+			spill(spillFile, data);
+		}
+		return data;
 	}
 
+	/**
+	 * write an archive blob to the spill directory. The blob is written to a
+	 * temporary file first and moved into place so concurrent readers never
+	 * observe a partial file.
+	 *
+	 * @param file
+	 * @param data
+	 */
+	private static void spill(Path file, byte[] data)
+	{
+		try
+		{
+			Files.createDirectories(file.getParent());
+			Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+			try
+			{
+				Files.write(tmp, data);
+				Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally
+			{
+				Files.deleteIfExists(tmp);
+			}
+		}
+		catch (IOException ex)
+		{
+			log.warn("unable to spill archive {}", file, ex);
+		}
+	}
+
+	private static int weigh(ArchiveFiles archiveFiles)
+	{
+		int size = 0;
+		for (FSFile file : archiveFiles.getFiles())
+		{
+			byte[] contents = file.getContents();
+			if (contents != null)
+			{
+				size += contents.length;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * retrieve and decode the files of an archive. The returned files are
+	 * shared between callers and must not be modified.
+	 *
+	 * @param archiveEntry
+	 * @return
+	 * @throws IOException
+	 */
 	public ArchiveFiles getArchiveFiles(ArchiveEntry archiveEntry) throws IOException
 	{
-		CacheDAO cacheDao = new CacheDAO();
+		if (archiveEntry.getHash() == null)
+		{
+			return loadArchiveFiles(archiveEntry);
+		}
+
+		String hash = BaseEncoding.base16().encode(archiveEntry.getHash());
+		ArchiveFiles archiveFiles = archiveFilesCache.getIfPresent(hash);
+		if (archiveFiles == null)
+		{
+			archiveFiles = loadArchiveFiles(archiveEntry);
+			if (archiveFiles != null)
+			{
+				archiveFilesCache.put(hash, archiveFiles);
+			}
+		}
+		return archiveFiles;
+	}
 
+	private ArchiveFiles loadArchiveFiles(ArchiveEntry archiveEntry) throws IOException
+	{
 		try (Connection con = sql2o.open();
 			ResultSetIterable<FileEntry> files = cacheDao.findFilesForArchive(con, archiveEntry))
 		{
@@ -135,13 +269,8 @@ public class CacheService
 				return null;
 			}
 
-			Container result = Container.decompress(archiveData, null);
-			if (result == null)
-			{
-				return null;
-			}
-
-			byte[] decompressedData = result.data;
+			// the archive data is ours, so it can be decompressed in place
+			Container result = Container.decompressInPlace(ByteBuffer.wrap(archiveData), null);
 
 			ArchiveFiles archiveFiles = new ArchiveFiles();
 			for (FileEntry fileEntry : files)
@@ -150,7 +279,7 @@ public class CacheService
 				archiveFiles.addFile(file);
 				file.setNameHash(fileEntry.getNameHash());
 			}
-			archiveFiles.loadContents(decompressedData);
+			archiveFiles.loadContents(result.buffer);
 			return archiveFiles;
 		}
 	}
@@ -159,7 +288,6 @@ public class CacheService
 	{
 		try (Connection con = sql2o.open())
 		{
-			CacheDAO cacheDao = new CacheDAO();
 			return cacheDao.listCaches(con);
 		}
 	}
@@ -168,43 +296,75 @@ public class CacheService
 	{
 		try (Connection con = sql2o.open())
 		{
-			CacheDAO cacheDao = new CacheDAO();
 			return cacheDao.findCache(con, cacheId);
 		}
 	}
 
+	/**
+	 * find the most recent cache. The result is memoized for a minute, and
+	 * the index and archive metadata caches are dropped when it changes.
+	 *
+	 * @return
+	 */
 	public CacheEntry findMostRecent()
 	{
+		return mostRecent.get();
+	}
+
+	synchronized CacheEntry loadMostRecent()
+	{
+		CacheEntry cacheEntry;
 		try (Connection con = sql2o.open())
 		{
-			CacheDAO cacheDao = new CacheDAO();
-			return cacheDao.findMostRecent(con);
+			cacheEntry = cacheDao.findMostRecent(con);
 		}
+
+		if (cacheEntry != null && cacheEntry.getId() != mostRecentId)
+		{
+			if (mostRecentId != -1)
+			{
+				log.debug("Most recent cache changed from {} to {}", mostRecentId, cacheEntry.getId());
+				indexCache.invalidateAll();
+				archiveCache.invalidateAll();
+			}
+			mostRecentId = cacheEntry.getId();
+		}
+		return cacheEntry;
 	}
 
 	public List<IndexEntry> findIndexesForCache(CacheEntry cacheEntry)
 	{
 		try (Connection con = sql2o.open())
 		{
-			CacheDAO cacheDao = new CacheDAO();
 			return cacheDao.findIndexesForCache(con, cacheEntry);
 		}
 	}
 
 	public IndexEntry findIndexForCache(CacheEntry cahceEntry, int indexId)
 	{
+		long key = ((long) cahceEntry.getId() << 32) | (indexId & 0xffffffffL);
+		IndexEntry indexEntry = indexCache.getIfPresent(key);
+		if (indexEntry != null)
+		{
+			return indexEntry;
+		}
+
 		try (Connection con = sql2o.open())
 		{
-			CacheDAO cacheDao = new CacheDAO();
-			return cacheDao.findIndexForCache(con, cahceEntry, indexId);
+			indexEntry = cacheDao.findIndexForCache(con, cahceEntry, indexId);
+		}
+
+		if (indexEntry != null)
+		{
+			indexCache.put(key, indexEntry);
 		}
+		return indexEntry;
 	}
 
 	public List<ArchiveEntry> findArchivesForIndex(IndexEntry indexEntry)
 	{
 		try (Connection con = sql2o.open())
 		{
-			CacheDAO cacheDao = new CacheDAO();
 			ResultSetIterable<ArchiveEntry> archiveEntries = cacheDao.findArchivesForIndex(con, indexEntry);
 			List<ArchiveEntry> archives = new ArrayList<>();
 			Iterables.addAll(archives, archiveEntries);
@@ -214,35 +374,30 @@ public class CacheService
 
 	public ArchiveEntry findArchiveForIndex(IndexEntry indexEntry, int archiveId)
 	{
-		try (Connection con = sql2o.open())
+		long key = ((long) indexEntry.getId() << 32) | (archiveId & 0xffffffffL);
+		ArchiveEntry archiveEntry = archiveCache.getIfPresent(key);
+		if (archiveEntry != null)
 		{
-			CacheDAO cacheDao = new CacheDAO();
-			return cacheDao.findArchiveForIndex(con, indexEntry, archiveId);
+			return archiveEntry;
 		}
-	}
 
-	public ArchiveEntry findArchiveForTypeAndName(CacheEntry cache, IndexType index, int nameHash)
-	{
 		try (Connection con = sql2o.open())
 		{
-			CacheDAO cacheDao = new CacheDAO();
-			return cacheDao.findArchiveByName(con, cache, index, nameHash);
+			archiveEntry = cacheDao.findArchiveForIndex(con, indexEntry, archiveId);
 		}
+
+		if (archiveEntry != null)
+		{
+			archiveCache.put(key, archiveEntry);
+		}
+		return archiveEntry;
 	}
 
-	public List<ItemDefinition> getItems() throws IOException
+	public ArchiveEntry findArchiveForTypeAndName(CacheEntry cache, IndexType index, int nameHash)
 	{
-		CacheEntry cache = findMostRecent();
-		IndexEntry indexEntry = findIndexForCache(cache, IndexType.CONFIGS.getNumber());
-		ArchiveEntry archiveEntry = findArchiveForIndex(indexEntry, ConfigType.ITEM.getId());
-		ArchiveFiles archiveFiles = getArchiveFiles(archiveEntry);
-		final ItemLoader itemLoader = new ItemLoader();
-		final List<ItemDefinition> result = new ArrayList<>(archiveFiles.getFiles().size());
-		for (FSFile file : archiveFiles.getFiles())
+		try (Connection con = sql2o.open())
 		{
-			ItemDefinition itemDef = itemLoader.load(file.getFileId(), file.getContents());
-			result.add(itemDef);
+			return cacheDao.findArchiveByName(con, cache, index, nameHash);
 		}
-		return result;
 	}
 }
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.Getter;
+import net.runelite.cache.definitions.ItemDefinition;
+import net.runelite.cache.definitions.NpcDefinition;
+import net.runelite.cache.definitions.ObjectDefinition;
+import net.runelite.cache.definitions.loaders.ItemLoader;
+import net.runelite.cache.definitions.loaders.NpcLoader;
+import net.runelite.cache.definitions.loaders.ObjectLoader;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.FSFile;
+
+/**
+ * Decoded item, npc and object definitions of a single cache, held in arrays
+ * indexed by id. The encoded definitions are kept alongside so the snapshot
+ * can be written out and decoded again without touching the database or
+ * storage.
+ */
+public class DefinitionSnapshot
+{
+	private static final int MAGIC = 0x52444653; // RDFS
+	private static final int VERSION = 1;
+
+	@Getter
+	private final int cacheId;
+
+	@Getter
+	private final int revision;
+
+	private final byte[][] itemData;
+	private final byte[][] objectData;
+	private final byte[][] npcData;
+
+	private final ItemDefinition[] items;
+	private final ObjectDefinition[] objects;
+	private final NpcDefinition[] npcs;
+
+	@Getter
+	private final List<ItemDefinition> itemList;
+
+	private DefinitionSnapshot(int cacheId, int revision, byte[][] itemData, byte[][] objectData, byte[][] npcData)
+	{
+		this.cacheId = cacheId;
+		this.revision = revision;
+		this.itemData = itemData;
+		this.objectData = objectData;
+		this.npcData = npcData;
+
+		ItemLoader itemLoader = new ItemLoader();
+		items = new ItemDefinition[itemData.length];
+		List<ItemDefinition> itemList = new ArrayList<>(itemData.length);
+		for (int i = 0; i < itemData.length; ++i)
+		{
+			if (itemData[i] != null)
+			{
+				items[i] = itemLoader.load(i, itemData[i]);
+				itemList.add(items[i]);
+			}
+		}
+		this.itemList = Collections.unmodifiableList(itemList);
+
+		ObjectLoader objectLoader = new ObjectLoader();
+		objects = new ObjectDefinition[objectData.length];
+		for (int i = 0; i < objectData.length; ++i)
+		{
+			if (objectData[i] != null)
+			{
+				objects[i] = objectLoader.load(i, objectData[i]);
+			}
+		}
+
+		NpcLoader npcLoader = new NpcLoader();
+		npcs = new NpcDefinition[npcData.length];
+		for (int i = 0; i < npcData.length; ++i)
+		{
+			if (npcData[i] != null)
+			{
+				npcs[i] = npcLoader.load(i, npcData[i]);
+			}
+		}
+	}
+
+	/**
+	 * build a snapshot from the item, object and npc config archives
+	 *
+	 * @param cacheId
+	 * @param revision
+	 * @param items
+	 * @param objects
+	 * @param npcs
+	 * @return
+	 */
+	public static DefinitionSnapshot build(int cacheId, int revision, ArchiveFiles items, ArchiveFiles objects, ArchiveFiles npcs)
+	{
+		return new DefinitionSnapshot(cacheId, revision, toArray(items), toArray(objects), toArray(npcs));
+	}
+
+	private static byte[][] toArray(ArchiveFiles archiveFiles)
+	{
+		int max = -1;
+		for (FSFile file : archiveFiles.getFiles())
+		{
+			max = Math.max(max, file.getFileId());
+		}
+
+		byte[][] data = new byte[max + 1][];
+		for (FSFile file : archiveFiles.getFiles())
+		{
+			data[file.getFileId()] = file.getContents();
+		}
+		return data;
+	}
+
+	public ItemDefinition getItem(int id)
+	{
+		return id >= 0 && id < items.length ? items[id] : null;
+	}
+
+	/**
+	 * decode a private copy of an item definition, for callers which modify
+	 * the definition, such as the item sprite renderer
+	 *
+	 * @param id
+	 * @return
+	 */
+	public ItemDefinition decodeItem(int id)
+	{
+		if (id < 0 || id >= itemData.length || itemData[id] == null)
+		{
+			return null;
+		}
+		return new ItemLoader().load(id, itemData[id]);
+	}
+
+	public ObjectDefinition getObject(int id)
+	{
+		return id >= 0 && id < objects.length ? objects[id] : null;
+	}
+
+	public NpcDefinition getNpc(int id)
+	{
+		return id >= 0 && id < npcs.length ? npcs[id] : null;
+	}
+
+	public void write(DataOutputStream out) throws IOException
+	{
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(cacheId);
+		out.writeInt(revision);
+		writeEntries(out, itemData);
+		writeEntries(out, objectData);
+		writeEntries(out, npcData);
+	}
+
+	private static void writeEntries(DataOutputStream out, byte[][] data) throws IOException
+	{
+		out.writeInt(data.length);
+		for (byte[] b : data)
+		{
+			if (b == null)
+			{
+				out.writeInt(-1);
+				continue;
+			}
+
+			out.writeInt(b.length);
+			out.write(b);
+		}
+	}
+
+	public static DefinitionSnapshot read(DataInputStream in) throws IOException
+	{
+		if (in.readInt() != MAGIC || in.readInt() != VERSION)
+		{
+			throw new IOException("Invalid snapshot header");
+		}
+
+		int cacheId = in.readInt();
+		int revision = in.readInt();
+		byte[][] itemData = readEntries(in);
+		byte[][] objectData = readEntries(in);
+		byte[][] npcData = readEntries(in);
+		return new DefinitionSnapshot(cacheId, revision, itemData, objectData, npcData);
+	}
+
+	private static byte[][] readEntries(DataInputStream in) throws IOException
+	{
+		int count = in.readInt();
+		if (count < 0)
+		{
+			throw new IOException("Invalid snapshot entry count " + count);
+		}
+
+		byte[][] data = new byte[count][];
+		for (int i = 0; i < count; ++i)
+		{
+			int len = in.readInt();
+			if (len >= 0)
+			{
+				data[i] = new byte[len];
+				in.readFully(data[i]);
+			}
+		}
+		return data;
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.cache;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.cache.ConfigType;
+import net.runelite.cache.IndexType;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.http.service.cache.beans.ArchiveEntry;
+import net.runelite.http.service.cache.beans.CacheEntry;
+import net.runelite.http.service.cache.beans.IndexEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serves item, npc and object definitions of the most recent cache from an
+ * in memory {@link DefinitionSnapshot}, rebuilt once per cache.
+ */
+@Service
+@Slf4j
+public class DefinitionSnapshotService
+{
+	private final CacheService cacheService;
+	private final Path snapshotDir;
+
+	private final Supplier<DefinitionSnapshot> current = Suppliers.memoizeWithExpiration(this::loadSnapshot, 1, TimeUnit.MINUTES);
+	private DefinitionSnapshot snapshot;
+
+	@Autowired
+	public DefinitionSnapshotService(
+		CacheService cacheService,
+		@Value("${cache.snapshot-dir:}") String snapshotDir
+	)
+	{
+		this.cacheService = cacheService;
+		this.snapshotDir = snapshotDir.isEmpty() ? null : Paths.get(snapshotDir);
+	}
+
+	/**
+	 * get the snapshot for the most recent cache. The most recent cache is
+	 * checked at most once a minute, so requests in between are served
+	 * without touching the cache service.
+	 *
+	 * @return the snapshot, or null if there is no cache
+	 * @throws IOException
+	 */
+	public DefinitionSnapshot getSnapshot() throws IOException
+	{
+		try
+		{
+			return current.get();
+		}
+		catch (UncheckedIOException ex)
+		{
+			throw ex.getCause();
+		}
+	}
+
+	synchronized DefinitionSnapshot loadSnapshot()
+	{
+		CacheEntry cache = cacheService.findMostRecent();
+		if (cache == null)
+		{
+			return null;
+		}
+
+		if (snapshot == null || snapshot.getCacheId() != cache.getId())
+		{
+			try
+			{
+				snapshot = load(cache);
+			}
+			catch (IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		}
+		return snapshot;
+	}
+
+	private DefinitionSnapshot load(CacheEntry cache) throws IOException
+	{
+		Path file = snapshotDir != null ? snapshotDir.resolve(cache.getId() + ".snapshot") : null;
+		if (file != null && Files.exists(file))
+		{
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+			{
+				DefinitionSnapshot snapshot = DefinitionSnapshot.read(in);
+				log.debug("Loaded definition snapshot for cache {} from {}", cache.getId(), file);
+				return snapshot;
+			}
+			catch (IOException ex)
+			{
+				log.warn("unable to read definition snapshot {}", file, ex);
+			}
+		}
+
+		IndexEntry indexEntry = cacheService.findIndexForCache(cache, IndexType.CONFIGS.getNumber());
+		if (indexEntry == null)
+		{
+			throw new IOException("No config index for cache " + cache.getId());
+		}
+
+		DefinitionSnapshot snapshot = DefinitionSnapshot.build(cache.getId(), cache.getRevision(),
+			getConfig(indexEntry, ConfigType.ITEM),
+			getConfig(indexEntry, ConfigType.OBJECT),
+			getConfig(indexEntry, ConfigType.NPC));
+		log.debug("Built definition snapshot for cache {}", cache.getId());
+
+		if (file != null)
+		{
+			save(file, snapshot);
+		}
+		return snapshot;
+	}
+
+	private ArchiveFiles getConfig(IndexEntry indexEntry, ConfigType configType) throws IOException
+	{
+		ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(indexEntry, configType.getId());
+		if (archiveEntry == null)
+		{
+			throw new IOException("No " + configType + " config archive");
+		}
+
+		ArchiveFiles archiveFiles = cacheService.getArchiveFiles(archiveEntry);
+		if (archiveFiles == null)
+		{
+			throw new IOException("Unable to load " + configType + " config archive");
+		}
+		return archiveFiles;
+	}
+
+	private static void save(Path file, DefinitionSnapshot snapshot)
+	{
+		try
+		{
+			Files.createDirectories(file.getParent());
+			Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+			try
+			{
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))
+				{
+					snapshot.write(out);
+				}
+				Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally
+			{
+				Files.deleteIfExists(tmp);
+			}
+		}
+		catch (IOException ex)
+		{
+			log.warn("unable to write definition snapshot {}", file, ex);
+		}
+	}
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.cache;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.cache.IndexType;
+import net.runelite.cache.definitions.ModelDefinition;
+import net.runelite.cache.definitions.SpriteDefinition;
+import net.runelite.cache.definitions.TextureDefinition;
+import net.runelite.cache.definitions.loaders.ModelLoader;
+import net.runelite.cache.definitions.loaders.SpriteLoader;
+import net.runelite.cache.definitions.loaders.TextureLoader;
+import net.runelite.cache.definitions.providers.ItemProvider;
+import net.runelite.cache.definitions.providers.ModelProvider;
+import net.runelite.cache.definitions.providers.SpriteProvider;
+import net.runelite.cache.definitions.providers.TextureProvider;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.FSFile;
+import net.runelite.cache.item.ItemSpriteFactory;
+import net.runelite.http.service.cache.beans.ArchiveEntry;
+import net.runelite.http.service.cache.beans.CacheEntry;
+import net.runelite.http.service.cache.beans.IndexEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Renders item sprites of the most recent cache. Rendering inputs are
+ * memoized per cache, and encoded images are cached by item and render
+ * parameters.
+ */
+@Service
+@Slf4j
+public class ItemImageService
+{
+	private static final long MAX_IMAGE_CACHE_BYTES = 32 * 1024 * 1024;
+	private static final long MAX_MODEL_CACHE_BYTES = 64 * 1024 * 1024;
+	private static final byte[] EMPTY = new byte[0];
+
+	@Value
+	private static class ImageKey
+	{
+		int cacheId;
+		int itemId;
+		int quantity;
+		int border;
+		int shadowColor;
+	}
+
+	private final CacheService cacheService;
+	private final DefinitionSnapshotService definitionSnapshotService;
+
+	private final Cache<ImageKey, byte[]> images = CacheBuilder.newBuilder()
+		.maximumWeight(MAX_IMAGE_CACHE_BYTES)
+		.weigher((ImageKey key, byte[] png) -> png.length)
+		.build();
+
+	private final ExecutorService executor;
+
+	private volatile RenderSource source;
+
+	@Autowired
+	public ItemImageService(CacheService cacheService, DefinitionSnapshotService definitionSnapshotService)
+	{
+		this.cacheService = cacheService;
+		this.definitionSnapshotService = definitionSnapshotService;
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(1024),
+			new ThreadFactoryBuilder()
+				.setNameFormat("item-image-%d")
+				.setDaemon(true)
+				.build(),
+			new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	@PreDestroy
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+
+	/**
+	 * get the id of the cache images are currently rendered from
+	 *
+	 * @return the cache id, or -1 if there is no cache
+	 * @throws IOException
+	 */
+	public int getCacheId() throws IOException
+	{
+		RenderSource source = getSource();
+		return source != null ? source.cacheId : -1;
+	}
+
+	/**
+	 * render an item sprite to png
+	 *
+	 * @param itemId
+	 * @param quantity
+	 * @param border
+	 * @param shadowColor
+	 * @return the png image, or null if the item can't be rendered
+	 * @throws IOException
+	 */
+	public byte[] getItemImage(int itemId, int quantity, int border, int shadowColor) throws IOException
+	{
+		RenderSource source = getSource();
+		if (source == null)
+		{
+			return null;
+		}
+
+		ImageKey key = new ImageKey(source.cacheId, itemId, quantity, border, shadowColor);
+		byte[] png = images.getIfPresent(key);
+		if (png == null)
+		{
+			png = render(source, itemId, quantity, border, shadowColor);
+			images.put(key, png);
+		}
+		return png.length > 0 ? png : null;
+	}
+
+	/**
+	 * render many item sprites in parallel. Items which can't be rendered
+	 * are omitted from the result.
+	 *
+	 * @param itemIds
+	 * @param quantity
+	 * @param border
+	 * @param shadowColor
+	 * @return map of item id to png image, in request order
+	 * @throws IOException
+	 */
+	public Map<Integer, byte[]> getItemImages(int[] itemIds, int quantity, int border, int shadowColor) throws IOException
+	{
+		List<Future<byte[]>> futures = new ArrayList<>(itemIds.length);
+		for (int itemId : itemIds)
+		{
+			futures.add(executor.submit(() -> getItemImage(itemId, quantity, border, shadowColor)));
+		}
+
+		Map<Integer, byte[]> result = new LinkedHashMap<>();
+		try
+		{
+			for (int i = 0; i < itemIds.length; ++i)
+			{
+				try
+				{
+					byte[] png = futures.get(i).get();
+					if (png != null)
+					{
+						result.put(itemIds[i], png);
+					}
+				}
+				catch (ExecutionException ex)
+				{
+					log.warn("unable to render item {}", itemIds[i], ex.getCause());
+				}
+			}
+		}
+		catch (InterruptedException ex)
+		{
+			futures.forEach(f -> f.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+		return result;
+	}
+
+	private RenderSource getSource() throws IOException
+	{
+		DefinitionSnapshot snapshot = definitionSnapshotService.getSnapshot();
+		if (snapshot == null)
+		{
+			return null;
+		}
+
+		RenderSource current = source;
+		if (current != null && current.snapshot == snapshot)
+		{
+			return current;
+		}
+
+		synchronized (this)
+		{
+			current = source;
+			if (current == null || current.snapshot != snapshot)
+			{
+				CacheEntry cache = cacheService.findCache(snapshot.getCacheId());
+				if (cache == null)
+				{
+					return null;
+				}
+
+				current = new RenderSource(cache, snapshot);
+				source = current;
+			}
+			return current;
+		}
+	}
+
+	private static byte[] render(RenderSource source, int itemId, int quantity, int border, int shadowColor) throws IOException
+	{
+		if (source.snapshot.getItem(itemId) == null)
+		{
+			return EMPTY;
+		}
+
+		BufferedImage image = ItemSpriteFactory.createSprite(source.itemProvider, source.modelProvider,
+			source.spriteProvider, source.textureProvider,
+			itemId, quantity, border, shadowColor, false);
+		if (image == null)
+		{
+			return EMPTY;
+		}
+
+		ByteArrayOutputStream bao = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", bao);
+		return bao.toByteArray();
+	}
+
+	/**
+	 * Rendering inputs for a single cache. The sprite renderer modifies item,
+	 * model and texture definitions, so those are decoded per render from
+	 * memoized data, while sprites are shared.
+	 */
+	private class RenderSource
+	{
+		private final int cacheId;
+		private final DefinitionSnapshot snapshot;
+
+		private final LoadingCache<Integer, byte[]> models;
+		private final LoadingCache<Integer, SpriteDefinition[]> sprites;
+		private final Supplier<List<FSFile>> textures;
+
+		private final ItemProvider itemProvider;
+		private final ModelProvider modelProvider = this::getModel;
+		private final SpriteProvider spriteProvider = this::getSprite;
+		private final TextureProvider textureProvider = this::getTextures;
+
+		RenderSource(CacheEntry cache, DefinitionSnapshot snapshot)
+		{
+			this.cacheId = cache.getId();
+			this.snapshot = snapshot;
+			this.itemProvider = snapshot::decodeItem;
+
+			models = CacheBuilder.newBuilder()
+				.maximumWeight(MAX_MODEL_CACHE_BYTES)
+				.weigher((Integer id, byte[] data) -> data.length)
+				.build(new CacheLoader<Integer, byte[]>()
+				{
+					@Override
+					public byte[] load(Integer modelId) throws IOException
+					{
+						byte[] archiveData = getArchive(cache, IndexType.MODELS, modelId);
+						return archiveData != null ? Container.decompress(archiveData, null).data : EMPTY;
+					}
+				});
+
+			sprites = CacheBuilder.newBuilder()
+				.maximumSize(4096)
+				.build(new CacheLoader<Integer, SpriteDefinition[]>()
+				{
+					@Override
+					public SpriteDefinition[] load(Integer spriteId) throws IOException
+					{
+						byte[] archiveData = getArchive(cache, IndexType.SPRITES, spriteId);
+						return archiveData != null
+							? new SpriteLoader().load(spriteId, Container.decompress(archiveData, null).data)
+							: new SpriteDefinition[0];
+					}
+				});
+
+			textures = Suppliers.memoize(() ->
+			{
+				try
+				{
+					IndexEntry indexEntry = cacheService.findIndexForCache(cache, IndexType.TEXTURES.getNumber());
+					ArchiveEntry archiveEntry = indexEntry != null ? cacheService.findArchiveForIndex(indexEntry, 0) : null;
+					ArchiveFiles archiveFiles = archiveEntry != null ? cacheService.getArchiveFiles(archiveEntry) : null;
+					return archiveFiles != null ? archiveFiles.getFiles() : Collections.emptyList();
+				}
+				catch (IOException ex)
+				{
+					log.warn("unable to load textures", ex);
+					return Collections.emptyList();
+				}
+			});
+		}
+
+		private byte[] getArchive(CacheEntry cache, IndexType indexType, int archiveId)
+		{
+			IndexEntry indexEntry = cacheService.findIndexForCache(cache, indexType.getNumber());
+			if (indexEntry == null)
+			{
+				return null;
+			}
+
+			ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(indexEntry, archiveId);
+			if (archiveEntry == null)
+			{
+				return null;
+			}
+
+			return cacheService.getArchive(archiveEntry);
+		}
+
+		private ModelDefinition getModel(int modelId) throws IOException
+		{
+			byte[] data;
+			try
+			{
+				data = models.get(modelId);
+			}
+			catch (ExecutionException | UncheckedExecutionException ex)
+			{
+				throw new IOException(ex.getCause());
+			}
+			return data.length > 0 ? new ModelLoader().load(modelId, data) : null;
+		}
+
+		private SpriteDefinition getSprite(int spriteId, int frameId)
+		{
+			SpriteDefinition[] defs;
+			try
+			{
+				defs = sprites.getUnchecked(spriteId);
+			}
+			catch (UncheckedExecutionException ex)
+			{
+				// the container couldn't be decompressed, treat it as missing
+				log.warn("unable to load sprite {}", spriteId, ex.getCause());
+				return null;
+			}
+			return frameId >= 0 && frameId < defs.length ? defs[frameId] : null;
+		}
+
+		private TextureDefinition[] getTextures()
+		{
+			List<FSFile> files = textures.get();
+			TextureLoader loader = new TextureLoader();
+			TextureDefinition[] defs = new TextureDefinition[files.size()];
+			int i = 0;
+			for (FSFile file : files)
+			{
+				defs[i++] = loader.load(file.getFileId(), file.getContents());
+			}
+			return defs;
+		}
+	}
+}
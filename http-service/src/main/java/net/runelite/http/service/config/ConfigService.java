@@ -26,9 +26,11 @@ package net.runelite.http.service.config;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import net.runelite.http.api.config.ConfigEntry;
+import net.runelite.http.api.config.ConfigPatch;
 import net.runelite.http.api.config.Configuration;
 import net.runelite.http.service.account.AuthFilter;
 import net.runelite.http.service.account.beans.SessionEntry;
@@ -38,9 +40,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import static org.springframework.web.bind.annotation.RequestMethod.DELETE;
+import static org.springframework.web.bind.annotation.RequestMethod.PATCH;
 import static org.springframework.web.bind.annotation.RequestMethod.PUT;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.sql2o.Connection;
+import org.sql2o.Query;
 import org.sql2o.Sql2o;
 import org.sql2o.Sql2oException;
 
@@ -52,12 +57,38 @@ public class ConfigService
 		+ "  `user` int(11) NOT NULL,\n"
 		+ "  `key` tinytext NOT NULL,\n"
 		+ "  `value` text NOT NULL,\n"
-		+ "  UNIQUE KEY `user_key` (`user`,`key`(64))\n"
+		+ "  `version` bigint(20) NOT NULL DEFAULT 0,\n"
+		+ "  `deleted` tinyint(1) NOT NULL DEFAULT 0,\n"
+		+ "  UNIQUE KEY `user_key` (`user`,`key`(64)),\n"
+		+ "  KEY `user_version` (`user`,`version`)\n"
 		+ ") ENGINE=InnoDB;";
 
+	private static final String CONFIG_VERSION = "ALTER TABLE `config`\n"
+		+ "  ADD COLUMN `version` bigint(20) NOT NULL DEFAULT 0,\n"
+		+ "  ADD COLUMN `deleted` tinyint(1) NOT NULL DEFAULT 0,\n"
+		+ "  ADD KEY `user_version` (`user`,`version`);";
+
 	private static final String CONFIG_FK = "ALTER TABLE `config`\n"
 		+ "  ADD CONSTRAINT `user_fk` FOREIGN KEY (`user`) REFERENCES `users` (`id`) ON DELETE CASCADE ON UPDATE CASCADE;";
 
+	/**
+	 * Current configuration version of each user. Patches bump the
+	 * version by updating this one row, rather than locking the range of
+	 * the user's config rows, which deadlocks concurrent first patches.
+	 */
+	private static final String CREATE_CONFIG_VERSION = "CREATE TABLE IF NOT EXISTS `config_version` (\n"
+		+ "  `user` int(11) NOT NULL,\n"
+		+ "  `version` bigint(20) NOT NULL,\n"
+		+ "  PRIMARY KEY (`user`)\n"
+		+ ") ENGINE=InnoDB;";
+
+	private static final String CONFIG_VERSION_FK = "ALTER TABLE `config_version`\n"
+		+ "  ADD CONSTRAINT `config_version_user_fk` FOREIGN KEY (`user`) REFERENCES `users` (`id`) ON DELETE CASCADE ON UPDATE CASCADE;";
+
+	// versions of config written before the version table existed
+	private static final String SEED_CONFIG_VERSION = "INSERT IGNORE INTO `config_version` (`user`, `version`)\n"
+		+ "  SELECT `user`, max(`version`) FROM `config` GROUP BY `user`;";
+
 	private final Sql2o sql2o;
 	private final AuthFilter auth;
 
@@ -84,11 +115,46 @@ public class ConfigService
 			{
 				// Ignore, happens when index already exists
 			}
+
+			try
+			{
+				con.createQuery(CONFIG_VERSION)
+					.executeUpdate();
+			}
+			catch (Sql2oException ex)
+			{
+				// Ignore, happens when the columns already exist
+			}
+
+			con.createQuery(CREATE_CONFIG_VERSION)
+				.executeUpdate();
+
+			try
+			{
+				con.createQuery(CONFIG_VERSION_FK)
+					.executeUpdate();
+			}
+			catch (Sql2oException ex)
+			{
+				// Ignore, happens when index already exists
+			}
+
+			con.createQuery(SEED_CONFIG_VERSION)
+				.executeUpdate();
 		}
 	}
 
+	/**
+	 * Get the user's configuration. If {@code since} is given, only the
+	 * keys changed after that version are returned, with unset keys
+	 * having a null value.
+	 */
 	@RequestMapping
-	public Configuration get(HttpServletRequest request, HttpServletResponse response) throws IOException
+	public Configuration get(
+		HttpServletRequest request,
+		HttpServletResponse response,
+		@RequestParam(required = false, defaultValue = "0") long since
+	) throws IOException
 	{
 		SessionEntry session = auth.handle(request, response);
 
@@ -98,15 +164,51 @@ public class ConfigService
 		}
 
 		List<ConfigEntry> config;
+		long version;
 
 		try (Connection con = sql2o.open())
 		{
-			config = con.createQuery("select `key`, value from config where user = :user")
-				.addParameter("user", session.getUser())
-				.executeAndFetch(ConfigEntry.class);
+			version = findVersion(con, session.getUser());
+
+			if (since <= 0)
+			{
+				config = con.createQuery("select `key`, value from config where user = :user and deleted = 0")
+					.addParameter("user", session.getUser())
+					.executeAndFetch(ConfigEntry.class);
+			}
+			else
+			{
+				config = con.createQuery("select `key`, if(deleted, null, value) as value from config "
+					+ "where user = :user and version > :since")
+					.addParameter("user", session.getUser())
+					.addParameter("since", since)
+					.executeAndFetch(ConfigEntry.class);
+			}
 		}
 
-		return new Configuration(config);
+		return new Configuration(config, version);
+	}
+
+	/**
+	 * Apply a batch of changes in one transaction
+	 *
+	 * @return the new configuration version
+	 */
+	@RequestMapping(method = PATCH)
+	public Long patch(
+		HttpServletRequest request,
+		HttpServletResponse response,
+		@RequestBody ConfigPatch patch
+	) throws IOException
+	{
+		SessionEntry session = auth.handle(request, response);
+
+		if (session == null)
+		{
+			return null;
+		}
+
+		return applyPatch(session.getUser(), patch);
 	}
 
 	@RequestMapping(path = "/{key:.+}", method = PUT)
@@ -124,14 +226,9 @@ public class ConfigService
 			return;
 		}
 
-		try (Connection con = sql2o.open())
-		{
-			con.createQuery("insert into config (user, `key`, value) values (:user, :key, :value) on duplicate key update value = :value")
-				.addParameter("user", session.getUser())
-				.addParameter("key", key)
-				.addParameter("value", value != null ? value : "")
-				.executeUpdate();
-		}
+		ConfigPatch patch = new ConfigPatch();
+		patch.getEdit().put(key, value);
+		applyPatch(session.getUser(), patch);
 	}
 
 	@RequestMapping(path = "/{key:.+}", method = DELETE)
@@ -148,12 +245,74 @@ public class ConfigService
 			return;
 		}
 
-		try (Connection con = sql2o.open())
+		ConfigPatch patch = new ConfigPatch();
+		patch.getUnset().add(key);
+		applyPatch(session.getUser(), patch);
+	}
+
+	private long findVersion(Connection con, int user)
+	{
+		Long version = con.createQuery("select version from config_version where user = :user")
+			.addParameter("user", user)
+			.executeScalar(Long.class);
+		return version != null ? version : 0L;
+	}
+
+	private long applyPatch(int user, ConfigPatch patch)
+	{
+		try (Connection con = sql2o.beginTransaction())
 		{
-			con.createQuery("delete from config where user = :user and `key` = :key")
-				.addParameter("user", session.getUser())
-				.addParameter("key", key)
+			if (patch.isEmpty())
+			{
+				return findVersion(con, user);
+			}
+
+			// locks the user's version row, so concurrent patches get distinct versions
+			con.createQuery("insert into config_version (user, version) values (:user, 1) "
+				+ "on duplicate key update version = version + 1")
+				.addParameter("user", user)
 				.executeUpdate();
+
+			long version = findVersion(con, user);
+
+			if (!patch.getEdit().isEmpty())
+			{
+				Query query = con.createQuery("insert into config (user, `key`, value, version, deleted) "
+					+ "values (:user, :key, :value, :version, 0) "
+					+ "on duplicate key update value = VALUES(value), version = VALUES(version), deleted = 0");
+
+				for (Map.Entry<String, String> entry : patch.getEdit().entrySet())
+				{
+					String value = entry.getValue();
+
+					query.addParameter("user", user)
+						.addParameter("key", entry.getKey())
+						.addParameter("value", value != null ? value : "")
+						.addParameter("version", version)
+						.addToBatch();
+				}
+
+				query.executeBatch();
+			}
+
+			if (!patch.getUnset().isEmpty())
+			{
+				Query query = con.createQuery("update config set deleted = 1, version = :version "
+					+ "where user = :user and `key` = :key and deleted = 0");
+
+				for (String key : patch.getUnset())
+				{
+					query.addParameter("user", user)
+						.addParameter("key", key)
+						.addParameter("version", version)
+						.addToBatch();
+				}
+
+				query.executeBatch();
+			}
+
+			con.commit();
+			return version;
 		}
 	}
 }
@@ -50,6 +50,12 @@ public class HiscoreController
 	@Autowired
 	private XpTrackerService xpTrackerService;
 
+	@RequestMapping("/stats")
+	public HiscoreCacheStats stats()
+	{
+		return hiscoreService.getCacheStats();
+	}
+
 	@RequestMapping("/{endpoint}")
 	public HiscoreResult lookup(@PathVariable HiscoreEndpoint endpoint, @RequestParam String username) throws IOException
 	{
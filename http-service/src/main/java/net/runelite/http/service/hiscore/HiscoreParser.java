@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.hiscore;
+
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.http.api.hiscore.HiscoreSkill;
+import net.runelite.http.api.hiscore.Skill;
+
+/**
+ * Parser for the Jagex hiscore lite CSV format. Each line is
+ * {@code rank,level[,experience]}; lines past the known skills are ignored,
+ * and skills missing from a short response are null.
+ * Numbers are read straight out of the response without splitting it into
+ * lines or fields first.
+ */
+@Slf4j
+final class HiscoreParser
+{
+	private static final int SKILL_COUNT = HiscoreSkill.values().length;
+
+	private final String data;
+	private int pos;
+
+	private HiscoreParser(String data)
+	{
+		this.data = data;
+	}
+
+	static Skill[] parse(String data) throws IOException
+	{
+		return new HiscoreParser(data).parse();
+	}
+
+	private Skill[] parse() throws IOException
+	{
+		Skill[] skills = new Skill[SKILL_COUNT];
+		int count = 0;
+		int length = data.length();
+
+		while (pos < length)
+		{
+			char c = data.charAt(pos);
+			if (c == '\n' || c == '\r')
+			{
+				// blank line or line terminator
+				++pos;
+				continue;
+			}
+
+			if (count >= SKILL_COUNT)
+			{
+				log.warn("Jagex Hiscore API returned unexpected data");
+				break; // rest is other things?
+			}
+
+			// rank, level, experience
+			int rank = (int) readNumber();
+			expect(',');
+			int level = (int) readNumber();
+
+			// items that are not skills do not have an experience parameter
+			long experience = -1;
+			if (pos < length && data.charAt(pos) == ',')
+			{
+				++pos;
+				experience = readNumber();
+			}
+
+			if (pos < length && data.charAt(pos) != '\n' && data.charAt(pos) != '\r')
+			{
+				throw error("end of line");
+			}
+
+			skills[count++] = new Skill(rank, level, experience);
+		}
+
+		if (count < SKILL_COUNT)
+		{
+			// the remaining skills are left null
+			log.warn("Jagex Hiscore API returned {} entries, expected {}", count, SKILL_COUNT);
+		}
+
+		return skills;
+	}
+
+	private long readNumber() throws IOException
+	{
+		int length = data.length();
+		boolean negative = false;
+
+		if (pos < length && data.charAt(pos) == '-')
+		{
+			negative = true;
+			++pos;
+		}
+
+		int start = pos;
+		long value = 0;
+
+		while (pos < length)
+		{
+			char c = data.charAt(pos);
+			if (c < '0' || c > '9')
+			{
+				break;
+			}
+
+			if (value > (Long.MAX_VALUE - (c - '0')) / 10)
+			{
+				throw error("number in range");
+			}
+
+			value = value * 10 + (c - '0');
+			++pos;
+		}
+
+		if (pos == start)
+		{
+			throw error("digit");
+		}
+
+		return negative ? -value : value;
+	}
+
+	private void expect(char c) throws IOException
+	{
+		if (pos >= data.length() || data.charAt(pos) != c)
+		{
+			throw error("'" + c + "'");
+		}
+		++pos;
+	}
+
+	private IOException error(String expected)
+	{
+		return new IOException("Malformed hiscore data: expected " + expected + " at offset " + pos);
+	}
+}
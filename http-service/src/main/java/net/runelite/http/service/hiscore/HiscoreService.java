@@ -24,20 +24,26 @@
  */
 package net.runelite.http.service.hiscore;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.http.api.RuneLiteAPI;
 import net.runelite.http.api.hiscore.HiscoreEndpoint;
-import net.runelite.http.api.hiscore.HiscoreSkill;
 import net.runelite.http.api.hiscore.Skill;
 import net.runelite.http.service.util.exception.InternalServerErrorException;
 import net.runelite.http.service.util.exception.NotFoundException;
 import okhttp3.HttpUrl;
 import okhttp3.Request;
 import okhttp3.Response;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -45,12 +51,90 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class HiscoreService
 {
+	private static final int MAX_CACHED_LOOKUPS = 1024;
+	private static final long LOOKUP_EXPIRY_SECONDS = 60;
+
+	@Value
+	private static class LookupKey
+	{
+		private final HttpUrl hiscoreUrl;
+		private final String username;
+	}
+
+	/**
+	 * Recent lookups. Concurrent lookups of the same name block on the
+	 * first caller's upstream request rather than each making their own.
+	 * Failed lookups are not cached.
+	 */
+	private final LoadingCache<LookupKey, Skill[]> lookups = CacheBuilder.newBuilder()
+		.maximumSize(MAX_CACHED_LOOKUPS)
+		.expireAfterWrite(LOOKUP_EXPIRY_SECONDS, TimeUnit.SECONDS)
+		.recordStats()
+		.build(new CacheLoader<LookupKey, Skill[]>()
+		{
+			@Override
+			public Skill[] load(LookupKey key) throws IOException
+			{
+				return fetch(key.getUsername(), key.getHiscoreUrl());
+			}
+		});
+
 	public HiscoreResultBuilder lookupUsername(String username, HiscoreEndpoint endpoint) throws IOException
 	{
 		return lookupUsername(username, endpoint.getHiscoreURL());
 	}
 
 	public HiscoreResultBuilder lookupUsername(String username, HttpUrl hiscoreUrl) throws IOException
+	{
+		Skill[] skills;
+
+		try
+		{
+			skills = lookups.get(new LookupKey(hiscoreUrl, normalize(username)));
+		}
+		catch (ExecutionException | UncheckedExecutionException ex)
+		{
+			Throwable cause = ex.getCause();
+			Throwables.throwIfInstanceOf(cause, IOException.class);
+			Throwables.throwIfUnchecked(cause);
+			throw new IOException(cause);
+		}
+
+		HiscoreResultBuilder hiscoreBuilder = new HiscoreResultBuilder();
+		hiscoreBuilder.setPlayer(username);
+
+		for (Skill skill : skills)
+		{
+			hiscoreBuilder.setNextSkill(skill);
+		}
+
+		return hiscoreBuilder;
+	}
+
+	public HiscoreCacheStats getCacheStats()
+	{
+		CacheStats stats = lookups.stats();
+		// every caller which waits on a load counts as a miss, but only
+		// the first of them actually performs the load
+		long loads = stats.loadCount();
+		return new HiscoreCacheStats(stats.hitCount(), stats.missCount(), loads,
+			Math.max(0, stats.missCount() - loads), stats.loadExceptionCount(), lookups.size());
+	}
+
+	/**
+	 * Normalize a display name to the form the hiscores treat as equal:
+	 * case insensitive, with underscores and non-breaking spaces the same
+	 * as spaces
+	 */
+	static String normalize(String username)
+	{
+		return username.trim()
+			.replace('_', ' ')
+			.replace('\u00A0', ' ')
+			.toLowerCase(Locale.ROOT);
+	}
+
+	private Skill[] fetch(String username, HttpUrl hiscoreUrl) throws IOException
 	{
 		HttpUrl url = hiscoreUrl.newBuilder()
 			.addQueryParameter("player", username)
@@ -80,37 +164,6 @@ public class HiscoreService
 			responseStr = okresponse.body().string();
 		}
 
-		CSVParser parser = CSVParser.parse(responseStr, CSVFormat.DEFAULT);
-
-		HiscoreResultBuilder hiscoreBuilder = new HiscoreResultBuilder();
-		hiscoreBuilder.setPlayer(username);
-
-		int count = 0;
-
-		for (CSVRecord record : parser.getRecords())
-		{
-			if (count++ >= HiscoreSkill.values().length)
-			{
-				log.warn("Jagex Hiscore API returned unexpected data");
-				break; // rest is other things?
-			}
-
-			// rank, level, experience
-			int rank = Integer.parseInt(record.get(0));
-			int level = Integer.parseInt(record.get(1));
-
-			// items that are not skills do not have an experience parameter
-			long experience = -1;
-			if (record.size() == 3)
-			{
-				experience = Long.parseLong(record.get(2));
-			}
-
-			Skill skill = new Skill(rank, level, experience);
-			hiscoreBuilder.setNextSkill(skill);
-		}
-
-		return hiscoreBuilder;
+		return HiscoreParser.parse(responseStr);
 	}
-
 }
@@ -40,7 +40,8 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.cache.definitions.ItemDefinition;
 import net.runelite.http.api.RuneLiteAPI;
 import net.runelite.http.api.item.ItemType;
-import net.runelite.http.service.cache.CacheService;
+import net.runelite.http.service.cache.DefinitionSnapshot;
+import net.runelite.http.service.cache.DefinitionSnapshotService;
 import okhttp3.HttpUrl;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -85,7 +86,7 @@ public class ItemService
 	private static final int MAX_PENDING = 512;
 
 	private final Sql2o sql2o;
-	private final CacheService cacheService;
+	private final DefinitionSnapshotService definitionSnapshotService;
 
 	private final ConcurrentLinkedQueue<PendingLookup> pendingLookups = new ConcurrentLinkedQueue<PendingLookup>();
 	private int[] tradeableItems;
@@ -93,10 +94,10 @@ public class ItemService
 
 	@Autowired
 	public ItemService(@Qualifier("Runelite SQL2O") Sql2o sql2o,
-		CacheService cacheService)
+		DefinitionSnapshotService definitionSnapshotService)
 	{
 		this.sql2o = sql2o;
-		this.cacheService = cacheService;
+		this.definitionSnapshotService = definitionSnapshotService;
 
 		try (Connection con = sql2o.open())
 		{
@@ -479,7 +480,13 @@ public class ItemService
 	@Scheduled(fixedDelay = 1_8000_000) // 30 minutes
 	public void reloadItems() throws IOException
 	{
-		List<ItemDefinition> items = cacheService.getItems();
+		DefinitionSnapshot snapshot = definitionSnapshotService.getSnapshot();
+		if (snapshot == null)
+		{
+			return;
+		}
+
+		List<ItemDefinition> items = snapshot.getItemList();
 		tradeableItems = items.stream()
 			.filter(item -> item.isTradeable)
 			.mapToInt(item -> item.id)
@@ -25,19 +25,32 @@
 package net.runelite.http.service.session;
 
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.sql2o.Connection;
+import org.sql2o.Query;
 import org.sql2o.Sql2o;
+import org.sql2o.Sql2oException;
 
 @Service
+@Slf4j
 public class SessionService
 {
 	private final Sql2o sql2o;
 
+	/**
+	 * last times not yet written, flushed well within the expiry interval
+	 */
+	private final Map<UUID, Instant> pendingLast = new ConcurrentHashMap<>();
+
 	@Autowired
 	public SessionService(
 		@Qualifier("Runelite SQL2O") Sql2o sql2o
@@ -78,18 +91,48 @@ public class SessionService
 				.addParameter("uuid", session.getUuid().toString())
 				.executeUpdate();
 		}
+
+		pendingLast.remove(session.getUuid());
 	}
 
 	public void updateLast(UUID session)
 	{
-		try (Connection con = sql2o.open())
+		pendingLast.put(session, Instant.now());
+	}
+
+	@Scheduled(fixedDelay = 10_000)
+	public synchronized void flushLast()
+	{
+		if (pendingLast.isEmpty())
 		{
-			Instant last = Instant.now();
-			con.createQuery("update session set last = :last where uuid = :uuid")
-				.addParameter("last", last)
-				.addParameter("uuid", session.toString())
-				.executeUpdate();
+			return;
 		}
+
+		Map<UUID, Instant> batch = new HashMap<>(pendingLast);
+
+		try (Connection con = sql2o.beginTransaction())
+		{
+			Query query = con.createQuery("update session set last = :last where uuid = :uuid");
+
+			for (Map.Entry<UUID, Instant> entry : batch.entrySet())
+			{
+				query.addParameter("last", entry.getValue())
+					.addParameter("uuid", entry.getKey().toString())
+					.addToBatch();
+			}
+
+			query.executeBatch();
+			con.commit();
+		}
+		catch (Sql2oException ex)
+		{
+			// the entries are kept and written on the next flush
+			log.warn("unable to write last time of {} sessions", batch.size(), ex);
+			return;
+		}
+
+		// leaves entries for sessions which have been updated again since
+		batch.forEach(pendingLast::remove);
 	}
 
 	private void deleteExpired()
@@ -115,4 +158,10 @@ public class SessionService
 	{
 		deleteExpired();
 	}
+
+	@PreDestroy
+	public void shutdown()
+	{
+		flushLast();
+	}
 }
@@ -24,11 +24,23 @@
  */
 package net.runelite.http.service.xp;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.http.api.hiscore.HiscoreEndpoint;
 import net.runelite.http.api.hiscore.HiscoreResult;
+import net.runelite.http.api.hiscore.HiscoreSkill;
+import static net.runelite.http.api.hiscore.HiscoreSkill.*;
 import net.runelite.http.api.xp.XpData;
 import net.runelite.http.service.hiscore.HiscoreResultBuilder;
 import net.runelite.http.service.hiscore.HiscoreService;
@@ -36,14 +48,42 @@ import net.runelite.http.service.xp.beans.PlayerEntity;
 import net.runelite.http.service.xp.beans.XpEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.sql2o.Connection;
+import org.sql2o.Query;
 import org.sql2o.Sql2o;
+import org.sql2o.Sql2oException;
 
 @Service
 @Slf4j
 public class XpTrackerService
 {
+	private static final int MAX_PENDING = 8192;
+	private static final int BATCH_SIZE = 512; // rows per insert, each with 48 placeholders of the 65535 allowed
+	private static final int MAX_CACHED_PLAYERS = 65536;
+	private static final int MAX_ATTEMPTS = 3;
+
+	private static final String[] XP_COLUMNS =
+	{
+		"player", "attack_xp", "defence_xp", "strength_xp", "hitpoints_xp", "ranged_xp", "prayer_xp", "magic_xp", "cooking_xp",
+		"woodcutting_xp", "fletching_xp", "fishing_xp", "firemaking_xp", "crafting_xp", "smithing_xp", "mining_xp", "herblore_xp",
+		"agility_xp", "thieving_xp", "slayer_xp", "farming_xp", "runecraft_xp", "hunter_xp", "construction_xp", "attack_rank",
+		"defence_rank", "strength_rank", "hitpoints_rank", "ranged_rank", "prayer_rank", "magic_rank", "cooking_rank",
+		"woodcutting_rank", "fletching_rank", "fishing_rank", "firemaking_rank", "crafting_rank", "smithing_rank", "mining_rank",
+		"herblore_rank", "agility_rank", "thieving_rank", "slayer_rank", "farming_rank", "runecraft_rank", "hunter_rank",
+		"construction_rank", "overall_rank"
+	};
+
+	/**
+	 * Skills written to the tracker, in the order of their xp and rank columns
+	 */
+	private static final HiscoreSkill[] XP_SKILLS =
+	{
+		ATTACK, DEFENCE, STRENGTH, HITPOINTS, RANGED, PRAYER, MAGIC, COOKING, WOODCUTTING, FLETCHING, FISHING, FIREMAKING,
+		CRAFTING, SMITHING, MINING, HERBLORE, AGILITY, THIEVING, SLAYER, FARMING, RUNECRAFT, HUNTER, CONSTRUCTION
+	};
+
 	@Autowired
 	@Qualifier("Runelite XP Tracker SQL2O")
 	private Sql2o sql2o;
@@ -51,6 +91,30 @@ public class XpTrackerService
 	@Autowired
 	private HiscoreService hiscoreService;
 
+	/**
+	 * Hiscore results waiting to be written, by player. A player updated
+	 * several times between flushes only has their latest result written.
+	 */
+	private final Map<String, HiscoreResult> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * Failed write attempts of queued updates, by player. Only accessed
+	 * while flushing.
+	 */
+	private final Map<String, Integer> attempts = new HashMap<>();
+
+	private final Cache<String, Integer> playerIds = CacheBuilder.newBuilder()
+		.maximumSize(MAX_CACHED_PLAYERS)
+		.build();
+
+	/**
+	 * The most recent xp written for each player id, used to skip writing
+	 * rows identical to the previous one
+	 */
+	private final Cache<Integer, XpData> lastXp = CacheBuilder.newBuilder()
+		.maximumSize(MAX_CACHED_PLAYERS)
+		.build();
+
 	public void update(String username) throws IOException
 	{
 		HiscoreResultBuilder hiscoreResultBuilder = hiscoreService.lookupUsername(username, HiscoreEndpoint.NORMAL);
@@ -58,88 +122,262 @@ public class XpTrackerService
 		update(username, hiscoreResult);
 	}
 
+	/**
+	 * Queue a hiscore result to be written to the tracker. The write
+	 * happens on the next flush, so this never touches the database.
+	 */
 	public void update(String username, HiscoreResult hiscoreResult)
 	{
-		try (Connection con = sql2o.open())
+		if (pending.size() >= MAX_PENDING && !pending.containsKey(username))
+		{
+			log.debug("Xp tracker queue full, dropping update for {}", username);
+			return;
+		}
+
+		pending.put(username, hiscoreResult);
+	}
+
+	int getPendingCount()
+	{
+		return pending.size();
+	}
+
+	@Scheduled(fixedDelay = 1000)
+	public synchronized void flush()
+	{
+		flushBatch();
+	}
+
+	/**
+	 * Write up to {@link #BATCH_SIZE} pending updates in one transaction.
+	 * If the write fails each update is retried in its own transaction, so
+	 * a row which can never be written doesn't hold back the rest of the
+	 * batch. Updates which still fail are queued again, unless a newer
+	 * update for the same player was queued in the meantime, and are
+	 * dropped after {@link #MAX_ATTEMPTS} failed attempts.
+	 *
+	 * @return false if no update could be written
+	 */
+	private synchronized boolean flushBatch()
+	{
+		if (pending.isEmpty())
+		{
+			return true;
+		}
+
+		Map<String, HiscoreResult> batch = new HashMap<>();
+		Iterator<Map.Entry<String, HiscoreResult>> it = pending.entrySet().iterator();
+		while (it.hasNext() && batch.size() < BATCH_SIZE)
+		{
+			Map.Entry<String, HiscoreResult> entry = it.next();
+			it.remove();
+			batch.put(entry.getKey(), entry.getValue());
+		}
+
+		if (batch.size() > 1)
+		{
+			try
+			{
+				write(batch);
+				attempts.keySet().removeAll(batch.keySet());
+				return true;
+			}
+			catch (Sql2oException ex)
+			{
+				log.warn("unable to write {} xp tracker updates, retrying individually", batch.size(), ex);
+			}
+		}
+
+		boolean written = false;
+		for (Map.Entry<String, HiscoreResult> entry : batch.entrySet())
 		{
-			PlayerEntity playerEntity = findOrCreatePlayer(con, username);
+			String username = entry.getKey();
+			HiscoreResult result = entry.getValue();
 
-			XpEntity currentXp = findXpAtTime(con, username, Instant.now());
-			if (currentXp != null)
+			try
+			{
+				write(Collections.singletonMap(username, result));
+				attempts.remove(username);
+				written = true;
+			}
+			catch (Sql2oException ex)
 			{
-				XpData hiscoreData = XpMapper.INSTANCE.hiscoreResultToXpData(hiscoreResult);
-				XpData existingData = XpMapper.INSTANCE.xpEntityToXpData(currentXp);
+				log.debug("unable to write xp tracker update for {}", username, ex);
+				requeue(username, result);
+			}
+		}
+		return written;
+	}
+
+	private void requeue(String username, HiscoreResult result)
+	{
+		int count = attempts.merge(username, 1, Integer::sum);
+		if (count >= MAX_ATTEMPTS)
+		{
+			attempts.remove(username);
+			log.warn("Dropping xp tracker update for {} after {} failed attempts", username, count);
+			return;
+		}
+
+		// keep any newer update queued since the batch was taken
+		pending.putIfAbsent(username, result);
+	}
+
+	/**
+	 * Write hiscore results to the tracker in one transaction. The caches
+	 * are only updated once the transaction commits.
+	 */
+	private void write(Map<String, HiscoreResult> batch)
+	{
+		Map<String, Integer> resolved = new HashMap<>();
+		Map<Integer, XpData> written = new HashMap<>();
+		List<Object[]> rows = new ArrayList<>();
+
+		try (Connection con = sql2o.beginTransaction())
+		{
+			Instant now = Instant.now();
+
+			for (Map.Entry<String, HiscoreResult> entry : batch.entrySet())
+			{
+				String username = entry.getKey();
+				HiscoreResult result = entry.getValue();
+
+				if (!hasXpSkills(result))
+				{
+					log.warn("Hiscore for {} is missing skills, not tracking", username);
+					continue;
+				}
+
+				Integer playerId = playerIds.getIfPresent(username);
+				if (playerId == null)
+				{
+					playerId = findOrCreatePlayer(con, username).getId();
+					resolved.put(username, playerId);
+				}
+
+				XpData hiscoreData = XpMapper.INSTANCE.hiscoreResultToXpData(result);
+				XpData existingData = written.get(playerId);
+				if (existingData == null)
+				{
+					existingData = lastXp.getIfPresent(playerId);
+				}
+				if (existingData == null)
+				{
+					XpEntity currentXp = findXpAtTime(con, username, now);
+					existingData = currentXp != null ? XpMapper.INSTANCE.xpEntityToXpData(currentXp) : null;
+				}
 
 				if (hiscoreData.equals(existingData))
 				{
 					log.debug("Hiscore for {} already up to date", username);
-					return;
+					continue;
 				}
+
+				rows.add(xpRow(playerId, result));
+				written.put(playerId, hiscoreData);
 			}
 
-			con.createQuery("insert into xp (player,attack_xp,defence_xp,strength_xp,hitpoints_xp,ranged_xp,prayer_xp,magic_xp,cooking_xp,woodcutting_xp,"
-				+ "fletching_xp,fishing_xp,firemaking_xp,crafting_xp,smithing_xp,mining_xp,herblore_xp,agility_xp,thieving_xp,slayer_xp,farming_xp,"
-				+ "runecraft_xp,hunter_xp,construction_xp,attack_rank,defence_rank,strength_rank,hitpoints_rank,ranged_rank,prayer_rank,magic_rank,"
-				+ "cooking_rank,woodcutting_rank,fletching_rank,fishing_rank,firemaking_rank,crafting_rank,smithing_rank,mining_rank,herblore_rank,"
-				+ "agility_rank,thieving_rank,slayer_rank,farming_rank,runecraft_rank,hunter_rank,construction_rank,overall_rank) values (:player,:attack_xp,:defence_xp,"
-				+ ":strength_xp,:hitpoints_xp,:ranged_xp,:prayer_xp,:magic_xp,:cooking_xp,:woodcutting_xp,:fletching_xp,:fishing_xp,:firemaking_xp,"
-				+ ":crafting_xp,:smithing_xp,:mining_xp,:herblore_xp,:agility_xp,:thieving_xp,:slayer_xp,:farming_xp,:runecraft_xp,:hunter_xp,"
-				+ ":construction_xp,:attack_rank,:defence_rank,:strength_rank,:hitpoints_rank,:ranged_rank,:prayer_rank,:magic_rank,:cooking_rank,"
-				+ ":woodcutting_rank,:fletching_rank,:fishing_rank,:firemaking_rank,:crafting_rank,:smithing_rank,:mining_rank,:herblore_rank,"
-				+ ":agility_rank,:thieving_rank,:slayer_rank,:farming_rank,:runecraft_rank,:hunter_rank,:construction_rank,:overall_rank)")
-				.addParameter("player", playerEntity.getId())
-				.addParameter("attack_xp", hiscoreResult.getAttack().getExperience())
-				.addParameter("defence_xp", hiscoreResult.getDefence().getExperience())
-				.addParameter("strength_xp", hiscoreResult.getStrength().getExperience())
-				.addParameter("hitpoints_xp", hiscoreResult.getHitpoints().getExperience())
-				.addParameter("ranged_xp", hiscoreResult.getRanged().getExperience())
-				.addParameter("prayer_xp", hiscoreResult.getPrayer().getExperience())
-				.addParameter("magic_xp", hiscoreResult.getMagic().getExperience())
-				.addParameter("cooking_xp", hiscoreResult.getCooking().getExperience())
-				.addParameter("woodcutting_xp", hiscoreResult.getWoodcutting().getExperience())
-				.addParameter("fletching_xp", hiscoreResult.getFletching().getExperience())
-				.addParameter("fishing_xp", hiscoreResult.getFishing().getExperience())
-				.addParameter("firemaking_xp", hiscoreResult.getFiremaking().getExperience())
-				.addParameter("crafting_xp", hiscoreResult.getCrafting().getExperience())
-				.addParameter("smithing_xp", hiscoreResult.getSmithing().getExperience())
-				.addParameter("mining_xp", hiscoreResult.getMining().getExperience())
-				.addParameter("herblore_xp", hiscoreResult.getHerblore().getExperience())
-				.addParameter("agility_xp", hiscoreResult.getAgility().getExperience())
-				.addParameter("thieving_xp", hiscoreResult.getThieving().getExperience())
-				.addParameter("slayer_xp", hiscoreResult.getSlayer().getExperience())
-				.addParameter("farming_xp", hiscoreResult.getFarming().getExperience())
-				.addParameter("runecraft_xp", hiscoreResult.getRunecraft().getExperience())
-				.addParameter("hunter_xp", hiscoreResult.getHunter().getExperience())
-				.addParameter("construction_xp", hiscoreResult.getConstruction().getExperience())
-				.addParameter("attack_rank", hiscoreResult.getAttack().getRank())
-				.addParameter("defence_rank", hiscoreResult.getDefence().getRank())
-				.addParameter("strength_rank", hiscoreResult.getStrength().getRank())
-				.addParameter("hitpoints_rank", hiscoreResult.getHitpoints().getRank())
-				.addParameter("ranged_rank", hiscoreResult.getRanged().getRank())
-				.addParameter("prayer_rank", hiscoreResult.getPrayer().getRank())
-				.addParameter("magic_rank", hiscoreResult.getMagic().getRank())
-				.addParameter("cooking_rank", hiscoreResult.getCooking().getRank())
-				.addParameter("woodcutting_rank", hiscoreResult.getWoodcutting().getRank())
-				.addParameter("fletching_rank", hiscoreResult.getFletching().getRank())
-				.addParameter("fishing_rank", hiscoreResult.getFishing().getRank())
-				.addParameter("firemaking_rank", hiscoreResult.getFiremaking().getRank())
-				.addParameter("crafting_rank", hiscoreResult.getCrafting().getRank())
-				.addParameter("smithing_rank", hiscoreResult.getSmithing().getRank())
-				.addParameter("mining_rank", hiscoreResult.getMining().getRank())
-				.addParameter("herblore_rank", hiscoreResult.getHerblore().getRank())
-				.addParameter("agility_rank", hiscoreResult.getAgility().getRank())
-				.addParameter("thieving_rank", hiscoreResult.getThieving().getRank())
-				.addParameter("slayer_rank", hiscoreResult.getSlayer().getRank())
-				.addParameter("farming_rank", hiscoreResult.getFarming().getRank())
-				.addParameter("runecraft_rank", hiscoreResult.getRunecraft().getRank())
-				.addParameter("hunter_rank", hiscoreResult.getHunter().getRank())
-				.addParameter("construction_rank", hiscoreResult.getConstruction().getRank())
-				.addParameter("overall_rank", hiscoreResult.getOverall().getRank())
-				.executeUpdate();
+			if (!rows.isEmpty())
+			{
+				insertXp(con, rows);
+			}
+
+			con.commit();
+		}
+
+		playerIds.putAll(resolved);
+		lastXp.putAll(written);
+
+		log.debug("Wrote {} of {} xp tracker updates", written.size(), batch.size());
+	}
+
+	@PreDestroy
+	public synchronized void shutdown()
+	{
+		while (!pending.isEmpty())
+		{
+			if (!flushBatch())
+			{
+				log.warn("Dropping {} xp tracker updates", pending.size());
+				pending.clear();
+				attempts.clear();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Insert xp rows with a single multi-row insert statement, rather than
+	 * a batch, which the driver only rewrites into one statement when
+	 * {@code rewriteBatchedStatements} is set on the connection.
+	 */
+	private static void insertXp(Connection con, List<Object[]> rows)
+	{
+		StringBuilder sql = new StringBuilder("insert into xp (")
+			.append(String.join(",", XP_COLUMNS))
+			.append(") values ");
+
+		for (int i = 0; i < rows.size(); ++i)
+		{
+			sql.append(i == 0 ? "(" : ",(");
+			for (int j = 0; j < XP_COLUMNS.length; ++j)
+			{
+				sql.append(j == 0 ? ":" : ",:").append(XP_COLUMNS[j]).append(i);
+			}
+			sql.append(')');
+		}
+
+		Query insert = con.createQuery(sql.toString());
+		for (int i = 0; i < rows.size(); ++i)
+		{
+			Object[] row = rows.get(i);
+			for (int j = 0; j < XP_COLUMNS.length; ++j)
+			{
+				insert.addParameter(XP_COLUMNS[j] + i, row[j]);
+			}
+		}
+		insert.executeUpdate();
+	}
+
+	private static boolean hasXpSkills(HiscoreResult result)
+	{
+		if (result.getOverall() == null)
+		{
+			return false;
+		}
+
+		for (HiscoreSkill skill : XP_SKILLS)
+		{
+			if (result.getSkill(skill) == null)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the values of an xp row, in the order of {@link #XP_COLUMNS}
+	 */
+	private static Object[] xpRow(int playerId, HiscoreResult result)
+	{
+		Object[] row = new Object[XP_COLUMNS.length];
+		int idx = 0;
+
+		row[idx++] = playerId;
+		for (HiscoreSkill skill : XP_SKILLS)
+		{
+			row[idx++] = result.getSkill(skill).getExperience();
+		}
+		for (HiscoreSkill skill : XP_SKILLS)
+		{
+			row[idx++] = result.getSkill(skill).getRank();
 		}
+		row[idx] = result.getOverall().getRank();
+		return row;
 	}
 
-	private synchronized PlayerEntity findOrCreatePlayer(Connection con, String username)
+	private PlayerEntity findOrCreatePlayer(Connection con, String username)
 	{
 		PlayerEntity playerEntity = con.createQuery("select * from player where name = :name")
 			.addParameter("name", username)
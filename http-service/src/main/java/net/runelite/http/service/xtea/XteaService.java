@@ -24,9 +24,18 @@
  */
 package net.runelite.http.service.xtea;
 
-import java.io.IOException;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import lombok.Value;
 import net.runelite.cache.IndexType;
 import net.runelite.cache.fs.Container;
 import net.runelite.cache.util.Djb2;
@@ -69,9 +78,43 @@ public class XteaService
 		+ "  KEY `region` (`region`,`time`)\n"
 		+ ") ENGINE=InnoDB";
 
+	private static final int RECENT_KEY_MINUTES = 10;
+	private static final long MAX_LANDSCAPE_CACHE_BYTES = 64 * 1024 * 1024;
+
+	@Value
+	private static class RecentKey
+	{
+		private final int region;
+		private final int[] keys;
+	}
+
+	@Value
+	private static class LandscapeKey
+	{
+		private final int cacheId;
+		private final int region;
+	}
+
 	private final Sql2o sql2o;
 	private final CacheService cacheService;
 
+	/**
+	 * Keys recently submitted and either stored or found to already be
+	 * the latest, used as a concurrent set
+	 */
+	private final Cache<RecentKey, Boolean> recentKeys = CacheBuilder.newBuilder()
+		.expireAfterWrite(RECENT_KEY_MINUTES, TimeUnit.MINUTES)
+		.maximumSize(65536)
+		.build();
+
+	/**
+	 * encrypted landscape archives, for checking submitted keys against
+	 */
+	private final Cache<LandscapeKey, byte[]> landscapes = CacheBuilder.newBuilder()
+		.maximumWeight(MAX_LANDSCAPE_CACHE_BYTES)
+		.weigher((LandscapeKey key, byte[] data) -> data.length)
+		.build();
+
 	@Autowired
 	public XteaService(
 		@Qualifier("Runelite SQL2O") Sql2o sql2o,
@@ -88,59 +131,113 @@ public class XteaService
 		}
 	}
 
-	private XteaEntry findLatestXtea(Connection con, int region)
+	/**
+	 * Find the latest keys for each of the given regions
+	 */
+	private Map<Integer, XteaEntry> findLatestXteas(Connection con, Collection<Integer> regions)
 	{
-		return con.createQuery("select region, time, key1, key2, key3, key4 from xtea "
-			+ "where region = :region "
-			+ "order by time desc "
-			+ "limit 1")
-			.addParameter("region", region)
-			.executeAndFetchFirst(XteaEntry.class);
+		// the regions are ints, so are safe to inline
+		String in = regions.stream()
+			.map(String::valueOf)
+			.collect(Collectors.joining(","));
+
+		List<XteaEntry> entries = con.createQuery(
+			"select t1.region, t1.time, t2.key1, t2.key2, t2.key3, t2.key4 from " +
+				"(select region,max(time) as time from xtea where region in (" + in + ") group by region) t1 " +
+				"join xtea t2 on t1.region = t2.region and t1.time = t2.time")
+			.executeAndFetch(XteaEntry.class);
+
+		Map<Integer, XteaEntry> latest = new HashMap<>();
+		for (XteaEntry entry : entries)
+		{
+			latest.put(entry.getRegion(), entry);
+		}
+		return latest;
 	}
 
 	@RequestMapping(method = POST)
 	public void submit(@RequestBody XteaRequest xteaRequest)
 	{
-		try (Connection con = sql2o.beginTransaction())
+		Map<Integer, int[]> submitted = new HashMap<>();
+
+		for (XteaKey key : xteaRequest.getKeys())
 		{
-			CacheEntry cache = cacheService.findMostRecent();
+			int region = key.getRegion();
+			int[] keys = key.getKeys();
+
+			if (keys.length != 4)
+			{
+				throw new IllegalArgumentException("Key length must be 4");
+			}
 
-			if (cache == null)
+			// most submissions are keys other clients have just sent
+			if (recentKeys.getIfPresent(new RecentKey(region, keys)) == null)
 			{
-				throw new InternalServerErrorException("No most recent cache");
+				submitted.put(region, keys);
 			}
+		}
+
+		if (submitted.isEmpty())
+		{
+			return;
+		}
+
+		CacheEntry cache = cacheService.findMostRecent();
+
+		if (cache == null)
+		{
+			throw new InternalServerErrorException("No most recent cache");
+		}
+
+		Map<Integer, XteaEntry> latest;
+		try (Connection con = sql2o.open())
+		{
+			latest = findLatestXteas(con, submitted.keySet());
+		}
+
+		Map<Integer, int[]> valid = new HashMap<>();
+
+		for (Map.Entry<Integer, int[]> entry : submitted.entrySet())
+		{
+			int region = entry.getKey();
+			int[] keys = entry.getValue();
+
+			XteaEntry xteaEntry = latest.get(region);
 
+			// already have these?
+			if (xteaEntry != null
+				&& xteaEntry.getKey1() == keys[0]
+				&& xteaEntry.getKey2() == keys[1]
+				&& xteaEntry.getKey3() == keys[2]
+				&& xteaEntry.getKey4() == keys[3])
+			{
+				recentKeys.put(new RecentKey(region, keys), Boolean.TRUE);
+				continue;
+			}
+
+			if (!checkKeys(cache, region, keys))
+			{
+				continue;
+			}
+
+			valid.put(region, keys);
+		}
+
+		if (valid.isEmpty())
+		{
+			return;
+		}
+
+		try (Connection con = sql2o.beginTransaction())
+		{
 			Query query = con.createQuery("insert into xtea (region, rev, key1, key2, key3, key4) "
 				+ "values (:region, :rev, :key1, :key2, :key3, :key4)");
 
-			for (XteaKey key : xteaRequest.getKeys())
+			for (Map.Entry<Integer, int[]> entry : valid.entrySet())
 			{
-				int region = key.getRegion();
-				int[] keys = key.getKeys();
-
-				XteaEntry xteaEntry = findLatestXtea(con, region);
-
-				if (keys.length != 4)
-				{
-					throw new IllegalArgumentException("Key length must be 4");
-				}
-
-				// already have these?
-				if (xteaEntry != null
-					&& xteaEntry.getKey1() == keys[0]
-					&& xteaEntry.getKey2() == keys[1]
-					&& xteaEntry.getKey3() == keys[2]
-					&& xteaEntry.getKey4() == keys[3])
-				{
-					continue;
-				}
-
-				if (!checkKeys(cache, region, keys))
-				{
-					continue;
-				}
-
-				query.addParameter("region", region)
+				int[] keys = entry.getValue();
+
+				query.addParameter("region", entry.getKey())
 					.addParameter("rev", xteaRequest.getRevision())
 					.addParameter("key1", keys[0])
 					.addParameter("key2", keys[1])
@@ -152,6 +249,11 @@ public class XteaService
 			query.executeBatch();
 			con.commit(false);
 		}
+
+		for (Map.Entry<Integer, int[]> entry : valid.entrySet())
+		{
+			recentKeys.put(new RecentKey(entry.getKey(), entry.getValue()), Boolean.TRUE);
+		}
 	}
 
 	@RequestMapping
@@ -193,6 +295,23 @@ public class XteaService
 	}
 
 	private boolean checkKeys(CacheEntry cache, int regionId, int[] keys)
+	{
+		byte[] data;
+
+		try
+		{
+			data = landscapes.get(new LandscapeKey(cache.getId(), regionId), () -> loadLandscape(cache, regionId));
+		}
+		catch (ExecutionException | UncheckedExecutionException ex)
+		{
+			Throwables.throwIfUnchecked(ex.getCause());
+			throw new InternalServerErrorException("Unable to get archive data");
+		}
+
+		return Container.checkKeys(data, keys);
+	}
+
+	private byte[] loadLandscape(CacheEntry cache, int regionId)
 	{
 		int x = regionId >>> 8;
 		int y = regionId & 0xFF;
@@ -217,15 +336,7 @@ public class XteaService
 			throw new InternalServerErrorException("Unable to get archive data");
 		}
 
-		try
-		{
-			Container.decompress(data, keys);
-			return true;
-		}
-		catch (IOException ex)
-		{
-			return false;
-		}
+		return data;
 	}
 
 	private static XteaKey entryToKey(XteaEntry xe)
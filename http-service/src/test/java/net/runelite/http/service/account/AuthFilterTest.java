@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.account;
+
+import java.util.UUID;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import net.runelite.http.api.RuneLiteAPI;
+import net.runelite.http.service.account.beans.SessionEntry;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import org.mockito.Mock;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.sql2o.Connection;
+import org.sql2o.Query;
+import org.sql2o.Sql2o;
+import org.sql2o.Sql2oException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AuthFilterTest
+{
+	private final UUID uuid = UUID.randomUUID();
+
+	@Mock
+	private Sql2o sql2o;
+
+	@Mock
+	private Connection con;
+
+	@Mock
+	private HttpServletRequest request;
+
+	@Mock
+	private HttpServletResponse response;
+
+	// sql2o queries are built fluently, so return the query from its builder methods
+	private final Query query = mock(Query.class, (Answer<Object>) invocation ->
+		invocation.getMethod().getReturnType() == Query.class ? invocation.getMock() : RETURNS_DEFAULTS.answer(invocation));
+
+	private AuthFilter authFilter;
+
+	@Before
+	public void before()
+	{
+		SessionEntry session = new SessionEntry();
+		session.setUser(42);
+		session.setUuid(uuid);
+
+		when(sql2o.open()).thenReturn(con);
+		when(sql2o.beginTransaction()).thenReturn(con);
+		when(con.createQuery(anyString())).thenReturn(query);
+		when(query.executeAndFetchFirst(SessionEntry.class)).thenReturn(session);
+		when(request.getHeader(RuneLiteAPI.RUNELITE_AUTH)).thenReturn(uuid.toString());
+
+		authFilter = new AuthFilter(sql2o);
+	}
+
+	@Test
+	public void testSessionCached() throws Exception
+	{
+		SessionEntry first = authFilter.handle(request, response);
+		SessionEntry second = authFilter.handle(request, response);
+
+		assertEquals(42, first.getUser());
+		assertEquals(42, second.getUser());
+		// callers get their own copy of the cached session
+		assertNotSame(first, second);
+		verify(sql2o, times(1)).open();
+
+		// logging out drops the cached session
+		authFilter.invalidate(uuid);
+		authFilter.handle(request, response);
+		verify(sql2o, times(2)).open();
+
+		verify(response, never()).sendError(anyInt(), anyString());
+	}
+
+	@Test
+	public void testUnknownSession() throws Exception
+	{
+		when(query.executeAndFetchFirst(SessionEntry.class)).thenReturn(null);
+
+		assertNull(authFilter.handle(request, response));
+		assertNull(authFilter.handle(request, response));
+
+		// unknown sessions are not cached
+		verify(sql2o, times(2)).open();
+		verify(response, times(2)).sendError(401, "Access denied");
+
+		authFilter.flushLastUsed();
+		verify(sql2o, never()).beginTransaction();
+	}
+
+	@Test
+	public void testFlushLastUsed() throws Exception
+	{
+		authFilter.handle(request, response);
+		authFilter.handle(request, response);
+
+		// nothing is written until the flush
+		verify(sql2o, never()).beginTransaction();
+
+		authFilter.flushLastUsed();
+
+		// a session used several times is written once
+		verify(query, times(1)).addToBatch();
+		verify(query).executeBatch();
+		verify(con).commit();
+
+		// and is no longer pending
+		authFilter.flushLastUsed();
+		verify(sql2o, times(1)).beginTransaction();
+	}
+
+	@Test
+	public void testFlushFailure() throws Exception
+	{
+		when(query.executeBatch())
+			.thenThrow(new Sql2oException("database unavailable"))
+			.thenReturn(con);
+
+		authFilter.handle(request, response);
+
+		authFilter.flushLastUsed();
+		verify(con, never()).commit();
+
+		// the failed write is retried on the next flush
+		authFilter.flushLastUsed();
+		verify(query, times(2)).addToBatch();
+		verify(con).commit();
+
+		authFilter.flushLastUsed();
+		verify(sql2o, times(2)).beginTransaction();
+	}
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.cache;
+
+import com.google.common.io.BaseEncoding;
+import io.minio.MinioClient;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.FSFile;
+import net.runelite.cache.fs.jagex.CompressionType;
+import net.runelite.http.service.cache.beans.ArchiveEntry;
+import net.runelite.http.service.cache.beans.CacheEntry;
+import net.runelite.http.service.cache.beans.FileEntry;
+import net.runelite.http.service.cache.beans.IndexEntry;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.sql2o.Connection;
+import org.sql2o.ResultSetIterable;
+import org.sql2o.Sql2o;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CacheServiceTest
+{
+	private static final String BUCKET = "cache";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Mock
+	private Sql2o sql2o;
+
+	@Mock
+	private Connection con;
+
+	@Mock
+	private MinioClient minioClient;
+
+	@Mock
+	private CacheDAO cacheDao;
+
+	@Before
+	public void before()
+	{
+		when(sql2o.open()).thenReturn(con);
+	}
+
+	@Test
+	public void testArchiveFilesCachedByWeight() throws Exception
+	{
+		// the weight is split between the cache segments, so the large
+		// archive is heavier than any segment can hold
+		CacheService cacheService = new CacheService(sql2o, minioClient, BUCKET, cacheDao, 1 << 20, null);
+
+		ArchiveEntry small = archive(1, 16);
+		ArchiveEntry large = archive(2, 1 << 20);
+
+		ArchiveFiles files = cacheService.getArchiveFiles(small);
+		assertEquals(16, files.getFiles().get(0).getContents().length);
+		assertSame(files, cacheService.getArchiveFiles(small));
+		verify(minioClient, times(1)).getObject(BUCKET, path(small));
+
+		files = cacheService.getArchiveFiles(large);
+		assertEquals(1 << 20, files.getFiles().get(0).getContents().length);
+		cacheService.getArchiveFiles(large);
+		verify(minioClient, times(2)).getObject(BUCKET, path(large));
+	}
+
+	@Test
+	public void testSpill() throws Exception
+	{
+		Path spillDir = folder.newFolder().toPath();
+		ArchiveEntry archiveEntry = archive(1, 64);
+
+		CacheService cacheService = new CacheService(sql2o, minioClient, BUCKET, cacheDao, 1 << 20, spillDir);
+		byte[] data = cacheService.getArchive(archiveEntry);
+		verify(minioClient, times(1)).getObject(BUCKET, path(archiveEntry));
+		assertTrue(Files.exists(spillDir.resolve(path(archiveEntry))));
+
+		// a new service reads the spilled blob instead of fetching it again
+		MinioClient otherClient = mock(MinioClient.class);
+		cacheService = new CacheService(sql2o, otherClient, BUCKET, cacheDao, 1 << 20, spillDir);
+		assertArrayEquals(data, cacheService.getArchive(archiveEntry));
+		verifyZeroInteractions(otherClient);
+	}
+
+	@Test
+	public void testFindMostRecentMemoized()
+	{
+		CacheEntry cacheEntry = cache(1);
+		when(cacheDao.findMostRecent(con)).thenReturn(cacheEntry);
+
+		CacheService cacheService = new CacheService(sql2o, minioClient, BUCKET, cacheDao, 1 << 20, null);
+		assertSame(cacheEntry, cacheService.findMostRecent());
+		assertSame(cacheEntry, cacheService.findMostRecent());
+
+		verify(cacheDao, times(1)).findMostRecent(con);
+	}
+
+	@Test
+	public void testMetadataRefreshedOnNewCache()
+	{
+		CacheEntry cacheEntry = cache(1);
+		IndexEntry indexEntry = new IndexEntry();
+		indexEntry.setId(10);
+		ArchiveEntry archiveEntry = new ArchiveEntry();
+		archiveEntry.setId(100);
+
+		when(cacheDao.findMostRecent(con)).thenReturn(cacheEntry);
+		when(cacheDao.findIndexForCache(any(Connection.class), any(CacheEntry.class), anyInt())).thenReturn(indexEntry);
+		when(cacheDao.findArchiveForIndex(any(Connection.class), any(IndexEntry.class), anyInt())).thenReturn(archiveEntry);
+
+		CacheService cacheService = new CacheService(sql2o, minioClient, BUCKET, cacheDao, 1 << 20, null);
+		cacheService.loadMostRecent();
+
+		assertSame(indexEntry, cacheService.findIndexForCache(cacheEntry, 2));
+		assertSame(indexEntry, cacheService.findIndexForCache(cacheEntry, 2));
+		assertSame(archiveEntry, cacheService.findArchiveForIndex(indexEntry, 5));
+		assertSame(archiveEntry, cacheService.findArchiveForIndex(indexEntry, 5));
+		verify(cacheDao, times(1)).findIndexForCache(con, cacheEntry, 2);
+		verify(cacheDao, times(1)).findArchiveForIndex(con, indexEntry, 5);
+
+		// the same cache again keeps the metadata
+		cacheService.loadMostRecent();
+		cacheService.findIndexForCache(cacheEntry, 2);
+		cacheService.findArchiveForIndex(indexEntry, 5);
+		verify(cacheDao, times(1)).findIndexForCache(con, cacheEntry, 2);
+		verify(cacheDao, times(1)).findArchiveForIndex(con, indexEntry, 5);
+
+		// a new cache drops it
+		when(cacheDao.findMostRecent(con)).thenReturn(cache(2));
+		cacheService.loadMostRecent();
+		cacheService.findIndexForCache(cacheEntry, 2);
+		cacheService.findArchiveForIndex(indexEntry, 5);
+		verify(cacheDao, times(2)).findIndexForCache(con, cacheEntry, 2);
+		verify(cacheDao, times(2)).findArchiveForIndex(con, indexEntry, 5);
+	}
+
+	private static CacheEntry cache(int id)
+	{
+		CacheEntry cacheEntry = new CacheEntry();
+		cacheEntry.setId(id);
+		return cacheEntry;
+	}
+
+	/**
+	 * create an archive with a single file of the given size, stored
+	 * uncompressed in the mocked minio client
+	 */
+	private ArchiveEntry archive(int id, int size) throws Exception
+	{
+		FSFile file = new FSFile(0);
+		file.setContents(new byte[size]);
+		ArchiveFiles archiveFiles = new ArchiveFiles();
+		archiveFiles.addFile(file);
+
+		Container container = new Container(CompressionType.NONE, -1);
+		container.compress(archiveFiles.saveContents(), null);
+		byte[] data = container.data;
+
+		ArchiveEntry archiveEntry = new ArchiveEntry();
+		archiveEntry.setId(id);
+		archiveEntry.setHash(new byte[]
+		{
+			(byte) id, 1, 2, 3
+		});
+
+		FileEntry fileEntry = new FileEntry();
+		fileEntry.setFileId(0);
+		when(cacheDao.findFilesForArchive(con, archiveEntry)).thenAnswer(invocation -> files(fileEntry));
+		when(minioClient.getObject(BUCKET, path(archiveEntry))).thenAnswer(invocation -> new ByteArrayInputStream(data));
+		return archiveEntry;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ResultSetIterable<FileEntry> files(FileEntry... entries)
+	{
+		List<FileEntry> list = new ArrayList<>();
+		for (FileEntry entry : entries)
+		{
+			list.add(entry);
+		}
+
+		ResultSetIterable<FileEntry> iterable = mock(ResultSetIterable.class);
+		when(iterable.iterator()).thenReturn(list.iterator());
+		return iterable;
+	}
+
+	private static String path(ArchiveEntry archiveEntry)
+	{
+		String hash = BaseEncoding.base16().encode(archiveEntry.getHash());
+		return hash.substring(0, 2) + "/" + hash.substring(2);
+	}
+}
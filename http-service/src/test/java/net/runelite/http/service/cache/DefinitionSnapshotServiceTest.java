@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import net.runelite.cache.ConfigType;
+import net.runelite.cache.fs.ArchiveFiles;
+import static net.runelite.http.service.cache.DefinitionSnapshotTest.config;
+import net.runelite.http.service.cache.beans.ArchiveEntry;
+import net.runelite.http.service.cache.beans.CacheEntry;
+import net.runelite.http.service.cache.beans.IndexEntry;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DefinitionSnapshotServiceTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Mock
+	private CacheService cacheService;
+
+	private final IndexEntry indexEntry = new IndexEntry();
+
+	@Before
+	public void before() throws IOException
+	{
+		when(cacheService.findIndexForCache(any(CacheEntry.class), anyInt())).thenReturn(indexEntry);
+		configArchive(ConfigType.ITEM, config(4151, "Abyssal whip"));
+		configArchive(ConfigType.OBJECT, config(10083, "Bank booth"));
+		configArchive(ConfigType.NPC, config(394, "Banker"));
+	}
+
+	@Test
+	public void testGetSnapshot() throws IOException
+	{
+		when(cacheService.findMostRecent()).thenReturn(cache(1));
+
+		DefinitionSnapshotService service = new DefinitionSnapshotService(cacheService, "");
+		DefinitionSnapshot snapshot = service.getSnapshot();
+		assertEquals(1, snapshot.getCacheId());
+		assertEquals("Abyssal whip", snapshot.getItem(4151).name);
+
+		// the most recent cache lookup is memoized along with the snapshot
+		assertSame(snapshot, service.getSnapshot());
+		verify(cacheService, times(1)).findMostRecent();
+		verify(cacheService, times(1)).findIndexForCache(any(CacheEntry.class), anyInt());
+	}
+
+	@Test
+	public void testRebuildOnNewCache() throws IOException
+	{
+		when(cacheService.findMostRecent()).thenReturn(cache(1));
+
+		DefinitionSnapshotService service = new DefinitionSnapshotService(cacheService, "");
+		DefinitionSnapshot snapshot = service.loadSnapshot();
+		assertEquals(1, snapshot.getCacheId());
+
+		// same cache, same snapshot
+		assertSame(snapshot, service.loadSnapshot());
+		verify(cacheService, times(1)).findIndexForCache(any(CacheEntry.class), anyInt());
+
+		when(cacheService.findMostRecent()).thenReturn(cache(2));
+		DefinitionSnapshot rebuilt = service.loadSnapshot();
+		assertNotSame(snapshot, rebuilt);
+		assertEquals(2, rebuilt.getCacheId());
+		verify(cacheService, times(2)).findIndexForCache(any(CacheEntry.class), anyInt());
+	}
+
+	@Test
+	public void testSnapshotDir() throws IOException
+	{
+		Path snapshotDir = folder.newFolder().toPath();
+		when(cacheService.findMostRecent()).thenReturn(cache(1));
+
+		DefinitionSnapshotService service = new DefinitionSnapshotService(cacheService, snapshotDir.toString());
+		service.getSnapshot();
+		assertTrue(Files.exists(snapshotDir.resolve("1.snapshot")));
+
+		// a new service reads the snapshot back instead of rebuilding it
+		service = new DefinitionSnapshotService(cacheService, snapshotDir.toString());
+		DefinitionSnapshot snapshot = service.getSnapshot();
+		assertEquals("Banker", snapshot.getNpc(394).name);
+		verify(cacheService, times(1)).findIndexForCache(any(CacheEntry.class), anyInt());
+	}
+
+	@Test(expected = IOException.class)
+	public void testMissingIndex() throws IOException
+	{
+		when(cacheService.findMostRecent()).thenReturn(cache(1));
+		when(cacheService.findIndexForCache(any(CacheEntry.class), anyInt())).thenReturn(null);
+
+		new DefinitionSnapshotService(cacheService, "").getSnapshot();
+	}
+
+	private void configArchive(ConfigType configType, ArchiveFiles archiveFiles) throws IOException
+	{
+		ArchiveEntry archiveEntry = new ArchiveEntry();
+		archiveEntry.setArchiveId(configType.getId());
+		when(cacheService.findArchiveForIndex(indexEntry, configType.getId())).thenReturn(archiveEntry);
+		when(cacheService.getArchiveFiles(archiveEntry)).thenReturn(archiveFiles);
+	}
+
+	private static CacheEntry cache(int id)
+	{
+		CacheEntry cacheEntry = new CacheEntry();
+		cacheEntry.setId(id);
+		cacheEntry.setRevision(150);
+		return cacheEntry;
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.FSFile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+public class DefinitionSnapshotTest
+{
+	@Test
+	public void testBuild()
+	{
+		DefinitionSnapshot snapshot = build(42);
+
+		assertEquals(42, snapshot.getCacheId());
+		assertEquals(150, snapshot.getRevision());
+		assertEquals("Abyssal whip", snapshot.getItem(4151).name);
+		assertEquals("Bank booth", snapshot.getObject(10083).getName());
+		assertEquals("Banker", snapshot.getNpc(394).name);
+		assertEquals(1, snapshot.getItemList().size());
+
+		assertNull(snapshot.getItem(0));
+		assertNull(snapshot.getItem(-1));
+		assertNull(snapshot.getItem(4152));
+
+		// decoded items are private copies
+		assertEquals("Abyssal whip", snapshot.decodeItem(4151).name);
+		assertNotSame(snapshot.getItem(4151), snapshot.decodeItem(4151));
+	}
+
+	@Test
+	public void testWriteRead() throws IOException
+	{
+		DefinitionSnapshot snapshot = build(42);
+
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bout))
+		{
+			snapshot.write(out);
+		}
+
+		DefinitionSnapshot read = DefinitionSnapshot.read(new DataInputStream(new ByteArrayInputStream(bout.toByteArray())));
+		assertEquals(42, read.getCacheId());
+		assertEquals(150, read.getRevision());
+		assertEquals("Abyssal whip", read.getItem(4151).name);
+		assertEquals("Bank booth", read.getObject(10083).getName());
+		assertEquals("Banker", read.getNpc(394).name);
+		assertNull(read.getItem(0));
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadInvalid() throws IOException
+	{
+		DefinitionSnapshot.read(new DataInputStream(new ByteArrayInputStream(new byte[8])));
+	}
+
+	static DefinitionSnapshot build(int cacheId)
+	{
+		return DefinitionSnapshot.build(cacheId, 150,
+			config(4151, "Abyssal whip"),
+			config(10083, "Bank booth"),
+			config(394, "Banker"));
+	}
+
+	/**
+	 * create a config archive with a single definition which only has a name
+	 */
+	static ArchiveFiles config(int id, String name)
+	{
+		byte[] str = name.getBytes(StandardCharsets.ISO_8859_1);
+		byte[] data = new byte[str.length + 3];
+		data[0] = 2; // name
+		System.arraycopy(str, 0, data, 1, str.length);
+		// string terminator and end of definition are already zero
+
+		FSFile file = new FSFile(id);
+		file.setContents(data);
+		ArchiveFiles archiveFiles = new ArchiveFiles();
+		archiveFiles.addFile(file);
+		return archiveFiles;
+	}
+}
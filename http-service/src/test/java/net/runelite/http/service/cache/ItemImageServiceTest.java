@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.cache;
+
+import java.io.IOException;
+import java.util.Map;
+import net.runelite.http.service.cache.beans.CacheEntry;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.mockito.Matchers.anyInt;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ItemImageServiceTest
+{
+	@Mock
+	private CacheService cacheService;
+
+	@Mock
+	private DefinitionSnapshotService definitionSnapshotService;
+
+	private ItemImageService itemImageService;
+
+	@Before
+	public void before()
+	{
+		when(cacheService.findCache(anyInt())).thenAnswer(invocation ->
+		{
+			CacheEntry cacheEntry = new CacheEntry();
+			cacheEntry.setId((Integer) invocation.getArguments()[0]);
+			return cacheEntry;
+		});
+
+		itemImageService = new ItemImageService(cacheService, definitionSnapshotService);
+	}
+
+	@After
+	public void after()
+	{
+		itemImageService.shutdown();
+	}
+
+	@Test
+	public void testImageCached() throws IOException
+	{
+		DefinitionSnapshot snapshot = spy(DefinitionSnapshotTest.build(1));
+		when(definitionSnapshotService.getSnapshot()).thenReturn(snapshot);
+
+		// the snapshot has no models, so nothing renders, but the result is
+		// still cached
+		assertNull(itemImageService.getItemImage(4151, 1, 1, 0));
+		assertNull(itemImageService.getItemImage(4151, 1, 1, 0));
+		verify(snapshot, times(1)).decodeItem(4151);
+
+		// different render parameters are cached separately
+		assertNull(itemImageService.getItemImage(4151, 1, 2, 0));
+		verify(snapshot, times(2)).decodeItem(4151);
+
+		// unknown items are never decoded
+		assertNull(itemImageService.getItemImage(4152, 1, 1, 0));
+		verify(snapshot, never()).decodeItem(4152);
+
+		verify(cacheService, times(1)).findCache(1);
+	}
+
+	@Test
+	public void testNewCache() throws IOException
+	{
+		DefinitionSnapshot snapshot = spy(DefinitionSnapshotTest.build(1));
+		when(definitionSnapshotService.getSnapshot()).thenReturn(snapshot);
+
+		itemImageService.getItemImage(4151, 1, 1, 0);
+		assertEquals(1, itemImageService.getCacheId());
+
+		DefinitionSnapshot newSnapshot = spy(DefinitionSnapshotTest.build(2));
+		when(definitionSnapshotService.getSnapshot()).thenReturn(newSnapshot);
+
+		itemImageService.getItemImage(4151, 1, 1, 0);
+		assertEquals(2, itemImageService.getCacheId());
+		verify(snapshot, times(1)).decodeItem(4151);
+		verify(newSnapshot, times(1)).decodeItem(4151);
+	}
+
+	@Test
+	public void testNoCache() throws IOException
+	{
+		assertNull(itemImageService.getItemImage(4151, 1, 1, 0));
+		assertEquals(-1, itemImageService.getCacheId());
+	}
+
+	@Test
+	public void testGetItemImages() throws IOException
+	{
+		DefinitionSnapshot snapshot = spy(DefinitionSnapshotTest.build(1));
+		when(definitionSnapshotService.getSnapshot()).thenReturn(snapshot);
+
+		Map<Integer, byte[]> images = itemImageService.getItemImages(new int[]{4151, 4152}, 1, 1, 0);
+		assertTrue(images.isEmpty());
+
+		// the batch shares the image cache
+		itemImageService.getItemImage(4151, 1, 1, 0);
+		verify(snapshot, times(1)).decodeItem(4151);
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.config;
+
+import java.util.Collections;
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import net.runelite.http.api.config.ConfigEntry;
+import net.runelite.http.api.config.ConfigPatch;
+import net.runelite.http.api.config.Configuration;
+import net.runelite.http.service.account.AuthFilter;
+import net.runelite.http.service.account.beans.SessionEntry;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Matchers.startsWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.sql2o.Connection;
+import org.sql2o.Query;
+import org.sql2o.Sql2o;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConfigServiceTest
+{
+	private static final int USER = 42;
+
+	@Mock
+	private Sql2o sql2o;
+
+	@Mock
+	private Connection con;
+
+	@Mock
+	private AuthFilter auth;
+
+	@Mock
+	private HttpServletRequest request;
+
+	@Mock
+	private HttpServletResponse response;
+
+	// sql2o queries are built fluently, so return the query from its builder methods
+	private final Query query = mock(Query.class, (Answer<Object>) invocation ->
+		invocation.getMethod().getReturnType() == Query.class ? invocation.getMock() : RETURNS_DEFAULTS.answer(invocation));
+
+	private ConfigService configService;
+
+	@Before
+	public void before() throws Exception
+	{
+		SessionEntry session = new SessionEntry();
+		session.setUser(USER);
+
+		when(sql2o.open()).thenReturn(con);
+		when(sql2o.beginTransaction()).thenReturn(con);
+		when(con.createQuery(anyString())).thenReturn(query);
+		when(auth.handle(request, response)).thenReturn(session);
+
+		configService = new ConfigService(sql2o, auth);
+	}
+
+	@Test
+	public void testPatch() throws Exception
+	{
+		when(query.executeScalar(Long.class)).thenReturn(5L);
+
+		ConfigPatch patch = new ConfigPatch();
+		patch.getEdit().put("a", "1");
+		patch.getEdit().put("b", null);
+		patch.getUnset().add("c");
+
+		assertEquals(5L, (long) configService.patch(request, response, patch));
+
+		// the version is bumped once for the whole patch
+		verify(con).createQuery(startsWith("insert into config_version"));
+		verify(query, times(3)).addParameter("version", 5L);
+
+		verify(query).addParameter("key", "a");
+		verify(query).addParameter("value", "1");
+		verify(query).addParameter("key", "b");
+		verify(query).addParameter("value", "");
+		verify(query).addParameter("key", "c");
+		verify(query, times(3)).addToBatch();
+		verify(query, times(2)).executeBatch();
+		verify(con).commit();
+	}
+
+	@Test
+	public void testDelete() throws Exception
+	{
+		when(query.executeScalar(Long.class)).thenReturn(3L);
+
+		configService.unsetKey(request, response, "c");
+
+		verify(con).createQuery(startsWith("insert into config_version"));
+		// unset keys leave a tombstone for fetches of changes
+		verify(con).createQuery(startsWith("update config set deleted = 1"));
+		verify(query).addParameter("key", "c");
+		verify(query).addParameter("version", 3L);
+		verify(query, times(1)).executeBatch();
+		verify(con).commit();
+	}
+
+	@Test
+	public void testEmptyPatch() throws Exception
+	{
+		when(query.executeScalar(Long.class)).thenReturn(7L);
+
+		assertEquals(7L, (long) configService.patch(request, response, new ConfigPatch()));
+
+		verify(con, never()).createQuery(startsWith("insert into config_version"));
+		verify(query, never()).executeBatch();
+	}
+
+	@Test
+	public void testNoVersion() throws Exception
+	{
+		// users who have never saved any config
+		when(query.executeScalar(Long.class)).thenReturn(null);
+
+		Configuration configuration = configService.get(request, response, 0);
+		assertEquals(0L, configuration.getVersion());
+	}
+
+	@Test
+	public void testGetSince() throws Exception
+	{
+		List<ConfigEntry> changes = Collections.singletonList(new ConfigEntry());
+		when(query.executeScalar(Long.class)).thenReturn(9L);
+		when(query.executeAndFetch(ConfigEntry.class)).thenReturn(changes);
+
+		Configuration configuration = configService.get(request, response, 6);
+
+		verify(con).createQuery(contains("version > :since"));
+		verify(query).addParameter("since", 6L);
+		assertSame(changes, configuration.getConfig());
+		assertEquals(9L, configuration.getVersion());
+
+		// a full fetch skips unset keys
+		configService.get(request, response, 0);
+		verify(con).createQuery(contains("deleted = 0"));
+	}
+}
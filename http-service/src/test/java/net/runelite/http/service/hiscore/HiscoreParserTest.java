@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.hiscore;
+
+import java.io.IOException;
+import net.runelite.http.api.hiscore.HiscoreSkill;
+import net.runelite.http.api.hiscore.Skill;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+public class HiscoreParserTest
+{
+	private static String lines(int count, String line)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; ++i)
+		{
+			sb.append(line).append("\r\n");
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void testParse() throws IOException
+	{
+		int count = HiscoreSkill.values().length;
+		Skill[] skills = HiscoreParser.parse("1,2277,4600000000\n" + lines(count - 2, "-1,-1") + "254,92\n");
+
+		assertEquals(count, skills.length);
+		assertEquals(1, skills[0].getRank());
+		assertEquals(2277, skills[0].getLevel());
+		assertEquals(4600000000L, skills[0].getExperience());
+		assertEquals(-1, skills[1].getRank());
+		assertEquals(-1, skills[1].getExperience());
+		assertEquals(92, skills[count - 1].getLevel());
+	}
+
+	@Test
+	public void testTrailingEntries() throws IOException
+	{
+		int count = HiscoreSkill.values().length;
+		Skill[] skills = HiscoreParser.parse(lines(count + 3, "5,6,7"));
+		assertEquals(count, skills.length);
+	}
+
+	@Test(expected = IOException.class)
+	public void testMalformed() throws IOException
+	{
+		HiscoreParser.parse(lines(HiscoreSkill.values().length, "1,x,3"));
+	}
+
+	@Test
+	public void testTruncated() throws IOException
+	{
+		Skill[] skills = HiscoreParser.parse(lines(3, "1,2,3"));
+		assertEquals(HiscoreSkill.values().length, skills.length);
+		assertEquals(2, skills[2].getLevel());
+		assertNull(skills[3]);
+	}
+}
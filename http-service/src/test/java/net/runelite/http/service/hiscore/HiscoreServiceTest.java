@@ -25,8 +25,16 @@
 package net.runelite.http.service.hiscore;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import net.runelite.http.api.hiscore.HiscoreEndpoint;
 import net.runelite.http.api.hiscore.HiscoreResult;
+import net.runelite.http.service.util.exception.NotFoundException;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.After;
@@ -100,4 +108,105 @@ public class HiscoreServiceTest
 		Assert.assertEquals(254, result.getClueScrollMaster().getRank());
 	}
 
+	@Test
+	public void testCachedLookup() throws Exception
+	{
+		HiscoreTestService hiscores = new HiscoreTestService(server.url("/"));
+
+		HiscoreResult first = hiscores.lookupUsername("Zezima", HiscoreEndpoint.NORMAL).build();
+		HiscoreResult second = hiscores.lookupUsername(" zezima", HiscoreEndpoint.NORMAL).build();
+
+		Assert.assertEquals(1, server.getRequestCount());
+		Assert.assertEquals("Zezima", first.getPlayer());
+		Assert.assertEquals(" zezima", second.getPlayer());
+		Assert.assertEquals(first.getFishing().getExperience(), second.getFishing().getExperience());
+
+		HiscoreCacheStats stats = hiscores.getCacheStats();
+		Assert.assertEquals(1, stats.getHits());
+		Assert.assertEquals(1, stats.getMisses());
+		Assert.assertEquals(1, stats.getLoads());
+	}
+
+	@Test
+	public void testCoalescedLookup() throws Exception
+	{
+		final int threads = 8;
+
+		try (MockWebServer slowServer = new MockWebServer())
+		{
+			slowServer.enqueue(new MockResponse().setBody(RESPONSE).setBodyDelay(250, TimeUnit.MILLISECONDS));
+			slowServer.start();
+
+			HiscoreTestService hiscores = new HiscoreTestService(slowServer.url("/"));
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			CountDownLatch start = new CountDownLatch(1);
+
+			try
+			{
+				List<Future<HiscoreResult>> results = new ArrayList<>();
+				for (int i = 0; i < threads; ++i)
+				{
+					String name = i % 2 == 0 ? "zezima" : "Zezima";
+					results.add(executor.submit(() ->
+					{
+						start.await();
+						return hiscores.lookupUsername(name, HiscoreEndpoint.NORMAL).build();
+					}));
+				}
+
+				start.countDown();
+
+				for (Future<HiscoreResult> result : results)
+				{
+					Assert.assertEquals(50, result.get(5, TimeUnit.SECONDS).getAttack().getLevel());
+				}
+			}
+			finally
+			{
+				executor.shutdownNow();
+			}
+
+			Assert.assertEquals(1, slowServer.getRequestCount());
+
+			HiscoreCacheStats stats = hiscores.getCacheStats();
+			Assert.assertEquals(1, stats.getLoads());
+			Assert.assertEquals(threads, stats.getHits() + stats.getMisses());
+			Assert.assertEquals(stats.getMisses() - 1, stats.getCoalesced());
+		}
+	}
+
+	@Test
+	public void testFailedLookupNotCached() throws Exception
+	{
+		try (MockWebServer failServer = new MockWebServer())
+		{
+			failServer.enqueue(new MockResponse().setResponseCode(404));
+			failServer.enqueue(new MockResponse().setBody(RESPONSE));
+			failServer.start();
+
+			HiscoreTestService hiscores = new HiscoreTestService(failServer.url("/"));
+
+			try
+			{
+				hiscores.lookupUsername("zezima", HiscoreEndpoint.NORMAL);
+				Assert.fail();
+			}
+			catch (NotFoundException ex)
+			{
+				// expected
+			}
+
+			HiscoreResult result = hiscores.lookupUsername("zezima", HiscoreEndpoint.NORMAL).build();
+			Assert.assertEquals(50, result.getAttack().getLevel());
+			Assert.assertEquals(2, failServer.getRequestCount());
+			Assert.assertEquals(1, hiscores.getCacheStats().getLoadFailures());
+		}
+	}
+
+	@Test
+	public void testNormalize()
+	{
+		Assert.assertEquals("lynx titan", HiscoreService.normalize("Lynx_Titan"));
+		Assert.assertEquals("lynx titan", HiscoreService.normalize(" Lynx\u00A0Titan "));
+	}
 }
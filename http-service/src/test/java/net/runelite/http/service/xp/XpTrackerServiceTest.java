@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.xp;
+
+import java.util.List;
+import static java.util.stream.Collectors.toList;
+import net.runelite.http.api.hiscore.HiscoreResult;
+import net.runelite.http.api.hiscore.HiscoreSkill;
+import net.runelite.http.api.hiscore.Skill;
+import net.runelite.http.service.hiscore.HiscoreResultBuilder;
+import net.runelite.http.service.hiscore.HiscoreService;
+import net.runelite.http.service.xp.beans.PlayerEntity;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.startsWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.sql2o.Connection;
+import org.sql2o.Query;
+import org.sql2o.Sql2o;
+import org.sql2o.Sql2oException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class XpTrackerServiceTest
+{
+	@Mock
+	private Sql2o sql2o;
+
+	@Mock
+	private HiscoreService hiscoreService;
+
+	@InjectMocks
+	private XpTrackerService xpTrackerService;
+
+	private final Connection con = mock(Connection.class);
+
+	// sql2o queries are built fluently, so return the query from its builder methods
+	private final Query query = mock(Query.class, (Answer<Object>) invocation ->
+		invocation.getMethod().getReturnType() == Query.class ? invocation.getMock() : RETURNS_DEFAULTS.answer(invocation));
+
+	@Before
+	public void before()
+	{
+		when(sql2o.beginTransaction()).thenReturn(con);
+		when(con.createQuery(anyString())).thenReturn(query);
+		when(query.executeAndFetchFirst(PlayerEntity.class)).thenReturn(player(1), player(2));
+	}
+
+	@Test
+	public void testCoalesced()
+	{
+		xpTrackerService.update("zezima", result(1));
+		xpTrackerService.update("zezima", result(2));
+		xpTrackerService.update("lynx titan", result(3));
+
+		// nothing is written until the flush
+		verifyZeroInteractions(sql2o);
+		assertEquals(2, xpTrackerService.getPendingCount());
+
+		xpTrackerService.flush();
+
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		verify(con, atLeastOnce()).createQuery(sql.capture());
+		List<String> inserts = sql.getAllValues().stream()
+			.filter(s -> s.startsWith("insert into xp "))
+			.collect(toList());
+
+		// a single insert with one row for each player
+		assertEquals(1, inserts.size());
+		assertTrue(inserts.get(0).contains(":player1"));
+		assertFalse(inserts.get(0).contains(":player2"));
+
+		// only the latest update for zezima is written
+		verify(query).addParameter(startsWith("attack_xp"), eq((Object) 2L));
+		verify(query).addParameter(startsWith("attack_xp"), eq((Object) 3L));
+		verify(query, never()).addParameter(startsWith("attack_xp"), eq((Object) 1L));
+		verify(con).commit();
+
+		assertEquals(0, xpTrackerService.getPendingCount());
+	}
+
+	@Test
+	public void testRequeued()
+	{
+		xpTrackerService.update("zezima", result(1));
+		xpTrackerService.update("lynx titan", result(3));
+
+		when(sql2o.beginTransaction()).thenAnswer(invocation ->
+		{
+			// a newer update arrives while the batch is being written
+			xpTrackerService.update("zezima", result(2));
+			throw new Sql2oException("database unavailable");
+		});
+
+		xpTrackerService.flush();
+		assertEquals(2, xpTrackerService.getPendingCount());
+
+		doReturn(con).when(sql2o).beginTransaction();
+		xpTrackerService.flush();
+
+		verify(query).addParameter(startsWith("attack_xp"), eq((Object) 2L));
+		verify(query).addParameter(startsWith("attack_xp"), eq((Object) 3L));
+		verify(query, never()).addParameter(startsWith("attack_xp"), eq((Object) 1L));
+		assertEquals(0, xpTrackerService.getPendingCount());
+	}
+
+	@Test
+	public void testFailingRowDropped()
+	{
+		xpTrackerService.update("zezima", result(1));
+		xpTrackerService.update("bad", result(3));
+
+		// the player lookup for one of the updates always fails
+		doThrow(new Sql2oException("bad row")).when(query).addParameter("name", "bad");
+
+		xpTrackerService.flush();
+
+		// the rest of the batch is still written
+		verify(query).addParameter(startsWith("attack_xp"), eq((Object) 1L));
+		assertEquals(1, xpTrackerService.getPendingCount());
+
+		xpTrackerService.flush();
+		assertEquals(1, xpTrackerService.getPendingCount());
+
+		xpTrackerService.flush();
+		assertEquals(0, xpTrackerService.getPendingCount());
+
+		verify(query, never()).addParameter(startsWith("attack_xp"), eq((Object) 3L));
+	}
+
+	@Test
+	public void testUpdateBounded()
+	{
+		for (int i = 0; i < 10_000; ++i)
+		{
+			xpTrackerService.update("player" + i, new HiscoreResult());
+		}
+
+		int pending = xpTrackerService.getPendingCount();
+		assertEquals(8192, pending);
+
+		// players already queued can still be updated
+		xpTrackerService.update("player0", new HiscoreResult());
+		assertEquals(pending, xpTrackerService.getPendingCount());
+	}
+
+	private static PlayerEntity player(int id)
+	{
+		PlayerEntity player = new PlayerEntity();
+		player.setId(id);
+		return player;
+	}
+
+	private static HiscoreResult result(long experience)
+	{
+		HiscoreResultBuilder builder = new HiscoreResultBuilder();
+		for (int i = 0; i < HiscoreSkill.values().length; ++i)
+		{
+			builder.setNextSkill(new Skill(1, 1, experience));
+		}
+		return builder.build();
+	}
+}
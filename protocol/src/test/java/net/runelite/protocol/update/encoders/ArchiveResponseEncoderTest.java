@@ -73,4 +73,14 @@ public class ArchiveResponseEncoderTest
 		Assert.assertArrayEquals(data, decompressedData);
 	}
 
+	@Test
+	public void testEncodedSize()
+	{
+		for (int length : new int[]{0, 1, 509, 510, 1020, 1021, 5000})
+		{
+			ByteBuf buf = Unpooled.buffer();
+			ArchiveResponseEncoder.encode(0, 1, Unpooled.wrappedBuffer(new byte[length]), buf);
+			Assert.assertEquals(buf.readableBytes(), ArchiveResponseEncoder.encodedSize(length));
+		}
+	}
 }
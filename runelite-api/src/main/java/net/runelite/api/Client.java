@@ -29,6 +29,7 @@ import java.awt.Dimension;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import net.runelite.api.annotations.VisibleForDevtools;
 import net.runelite.api.coords.LocalPoint;
@@ -71,6 +72,59 @@ public interface Client extends GameEngine
 	 */
 	List<NPC> getNpcs();
 
+	/**
+	 * Calls the consumer with each player from the player cache, without
+	 * allocating a list. Empty slots of the cache are skipped.
+	 *
+	 * @param consumer the consumer
+	 */
+	void forEachPlayer(Consumer<? super Player> consumer);
+
+	/**
+	 * Copies the players from the player cache into a buffer, which can be
+	 * reused across calls. Empty slots of the cache are skipped, so the
+	 * players are packed at the start of the buffer, and entries past the
+	 * returned count are left as they were.
+	 *
+	 * @param buffer the buffer to copy players into
+	 * @return the number of players, which may be more than fit in the buffer
+	 */
+	int getPlayers(Player[] buffer);
+
+	/**
+	 * Calls the consumer with each NPC from the NPC cache, without
+	 * allocating a list. Empty slots of the cache are skipped.
+	 *
+	 * @param consumer the consumer
+	 */
+	void forEachNpc(Consumer<? super NPC> consumer);
+
+	/**
+	 * Copies the NPCs from the NPC cache into a buffer, which can be
+	 * reused across calls. Empty slots of the cache are skipped, so the
+	 * NPCs are packed at the start of the buffer, and entries past the
+	 * returned count are left as they were.
+	 *
+	 * @param buffer the buffer to copy NPCs into
+	 * @return the number of NPCs, which may be more than fit in the buffer
+	 */
+	int getNpcs(NPC[] buffer);
+
+	/**
+	 * Calls the consumer with each tile of the scene on the current plane.
+	 *
+	 * @param consumer the consumer
+	 */
+	void forEachTile(Consumer<? super Tile> consumer);
+
+	/**
+	 * Calls the consumer with each game object of the scene on the current
+	 * plane. Game objects which span several tiles are only visited once.
+	 *
+	 * @param consumer the consumer
+	 */
+	void forEachGameObject(Consumer<? super GameObject> consumer);
+
 	/**
 	 * Gets an array of all cached NPCs.
 	 *
@@ -654,6 +708,15 @@ public interface Client extends GameEngine
 	@VisibleForDevtools
 	int getVarbitValue(int[] varps, int varbitId);
 
+	/**
+	 * Gets the index of the varp a variable is stored in.
+	 *
+	 * @param varbitId the variable ID
+	 * @return the index in the varp array
+	 * @see Varbits#id
+	 */
+	int getVarbitIndex(int varbitId);
+
 	/**
 	 * Gets the value of a given VarPlayer.
 	 *
@@ -46,4 +46,73 @@ public interface Model extends Renderable
 	 * @return the triangle
 	 */
 	List<Triangle> getTriangles();
+
+	/**
+	 * Gets the number of vertices in the model.
+	 *
+	 * @return the vertex count
+	 */
+	int getVerticesCount();
+
+	/**
+	 * Gets the x-axis coordinates of the model vertices.
+	 * <p>
+	 * The returned array is the model's backing array and may be longer
+	 * than {@link #getVerticesCount()}.
+	 *
+	 * @return the vertex x coordinates
+	 */
+	int[] getVerticesX();
+
+	/**
+	 * Gets the y-axis coordinates of the model vertices.
+	 *
+	 * @return the vertex y coordinates
+	 * @see #getVerticesX()
+	 */
+	int[] getVerticesY();
+
+	/**
+	 * Gets the z-axis coordinates of the model vertices.
+	 *
+	 * @return the vertex z coordinates
+	 * @see #getVerticesX()
+	 */
+	int[] getVerticesZ();
+
+	/**
+	 * Gets a counter which changes whenever the vertices of the model are
+	 * modified in place, such as when it is animated.
+	 *
+	 * @return the vertex revision
+	 */
+	int getVerticesRevision();
+
+	/**
+	 * Gets the number of triangles in the model.
+	 *
+	 * @return the triangle count
+	 */
+	int getTrianglesCount();
+
+	/**
+	 * Gets the index of the first vertex of each triangle.
+	 *
+	 * @return the first vertex indices
+	 */
+	int[] getTrianglesX();
+
+	/**
+	 * Gets the index of the second vertex of each triangle.
+	 *
+	 * @return the second vertex indices
+	 */
+	int[] getTrianglesY();
+
+	/**
+	 * Gets the index of the third vertex of each triangle.
+	 *
+	 * @return the third vertex indices
+	 */
+	int[] getTrianglesZ();
 }
@@ -27,19 +27,13 @@ package net.runelite.api;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Polygon;
-import java.awt.Rectangle;
 import java.awt.geom.Area;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.model.Jarvis;
-import net.runelite.api.model.Triangle;
-import net.runelite.api.model.Vertex;
 import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetInfo;
 
@@ -61,6 +55,8 @@ public class Perspective
 	public static final int[] SINE = new int[2048]; // sine angles for each of the 2048 units, * 65536 and stored as an int
 	public static final int[] COSINE = new int[2048]; // cosine
 
+	private static final RotatedModelCache ROTATED_MODELS = new RotatedModelCache();
+
 	static
 	{
 		for (int i = 0; i < 2048; ++i)
@@ -508,177 +504,166 @@ public class Perspective
 			return null;
 		}
 
-		List<Triangle> triangles = model.getTriangles().stream()
-			.map(triangle -> triangle.rotate(orientation))
-			.collect(Collectors.toList());
-
-		List<Vertex> vertices = model.getVertices().stream()
-				.map(v -> v.rotate(orientation))
-				.collect(Collectors.toList());
-
-		Area clickBox = get2DGeometry(client, triangles, orientation, localX, localY);
-		Area visibleAABB = getAABB(client, vertices, orientation, localX, localY);
+		final RotatedModelCache.Entry geometry = ROTATED_MODELS.get(model, orientation);
+		final int tileHeight = getTileHeight(client, localX, localY, client.getPlane());
 
-		if (visibleAABB == null || clickBox == null)
+		Polygon visibleAABB = getAABB(client, geometry, localX, localY, tileHeight);
+		if (visibleAABB == null)
 		{
 			return null;
 		}
 
-		clickBox.intersect(visibleAABB);
-		return clickBox;
+		final int count = geometry.count;
+		final int[] canvasX = new int[count];
+		final int[] canvasY = new int[count];
+		modelToCanvas(client, geometry, localX, localY, tileHeight, canvasX, canvasY);
+
+		return get2DGeometry(client, model, canvasX, canvasY).toArea(visibleAABB);
+	}
+
+	/**
+	 * Project the rotated vertices of a model placed at ({@code localX},
+	 * {@code localY}) to the canvas. Vertices which can't be projected
+	 * have their x coordinate set to {@link Integer#MIN_VALUE}.
+	 */
+	private static void modelToCanvas(
+		@Nonnull Client client,
+		@Nonnull RotatedModelCache.Entry geometry,
+		int localX,
+		int localY,
+		int tileHeight,
+		int[] canvasX,
+		int[] canvasY
+	)
+	{
+		final int cameraX = client.getCameraX();
+		final int cameraY = client.getCameraY();
+		final int cameraZ = client.getCameraZ();
+
+		final int cameraPitch = client.getCameraPitch();
+		final int cameraYaw = client.getCameraYaw();
+
+		final int pitchSin = SINE[cameraPitch];
+		final int pitchCos = COSINE[cameraPitch];
+		final int yawSin = SINE[cameraYaw];
+		final int yawCos = COSINE[cameraYaw];
+
+		final int scale = client.getScale();
+		final int viewportHalfWidth = client.getViewportWidth() / 2;
+		final int viewportHalfHeight = client.getViewportHeight() / 2;
+
+		for (int i = 0; i < geometry.count; ++i)
+		{
+			int x = localX - geometry.verticesX[i];
+			int y = localY - geometry.verticesZ[i];
+			int z = tileHeight + geometry.verticesY[i];
+
+			canvasX[i] = Integer.MIN_VALUE;
+
+			// same as localToCanvas, with the camera state hoisted out of the loop
+			if (x >= 128 && y >= 128 && x <= 13056 && y <= 13056)
+			{
+				x -= cameraX;
+				y -= cameraY;
+				z -= cameraZ;
+
+				int var8 = yawCos * x + y * yawSin >> 16;
+				y = yawCos * y - yawSin * x >> 16;
+				x = var8;
+				var8 = pitchCos * z - y * pitchSin >> 16;
+				y = z * pitchSin + y * pitchCos >> 16;
+
+				if (y >= 50)
+				{
+					canvasX[i] = viewportHalfWidth + x * scale / y;
+					canvasY[i] = viewportHalfHeight + var8 * scale / y;
+				}
+			}
+		}
 	}
 
 	/**
 	 * Determine if a given point is off-screen.
 	 *
 	 * @param client
-	 * @param point
+	 * @param x
+	 * @param y
 	 * @return
 	 */
-	private static boolean isOffscreen(@Nonnull Client client, @Nonnull Point point)
+	private static boolean isOffscreen(@Nonnull Client client, int x, int y)
 	{
-		return (point.getX() < 0 || point.getX() >= client.getViewportWidth())
-			&& (point.getY() < 0 || point.getY() >= client.getViewportHeight());
+		return (x < 0 || x >= client.getViewportWidth())
+			&& (y < 0 || y >= client.getViewportHeight());
 	}
 
-	private static Area get2DGeometry(
+	private static RectangleUnion get2DGeometry(
 		@Nonnull Client client,
-		@Nonnull List<Triangle> triangles,
-		int orientation,
-		int localX,
-		int localY
+		@Nonnull Model model,
+		@Nonnull int[] canvasX,
+		@Nonnull int[] canvasY
 	)
 	{
 		int radius = 5;
-		Area geometry = new Area();
+		RectangleUnion geometry = new RectangleUnion();
 
-		final int tileHeight = getTileHeight(client, localX, localY, client.getPlane());
+		final int count = model.getTrianglesCount();
+		final int[] trianglesX = model.getTrianglesX();
+		final int[] trianglesY = model.getTrianglesY();
+		final int[] trianglesZ = model.getTrianglesZ();
 
-		for (Triangle triangle : triangles)
-		{
-			Vertex _a = triangle.getA();
-			Point a = localToCanvas(client,
-				localX - _a.getX(),
-				localY - _a.getZ(),
-				tileHeight + _a.getY());
-			if (a == null)
-			{
-				continue;
-			}
+		final int offsetX = client.isResized() ? 0 : client.getViewportXOffset();
+		final int offsetY = client.isResized() ? 0 : client.getViewportYOffset();
 
-			Vertex _b = triangle.getB();
-			Point b = localToCanvas(client,
-				localX - _b.getX(),
-				localY - _b.getZ(),
-				tileHeight + _b.getY());
-			if (b == null)
-			{
-				continue;
-			}
+		for (int i = 0; i < count; ++i)
+		{
+			final int a = trianglesX[i];
+			final int b = trianglesY[i];
+			final int c = trianglesZ[i];
 
-			Vertex _c = triangle.getC();
-			Point c = localToCanvas(client,
-				localX - _c.getX(),
-				localY - _c.getZ(),
-				tileHeight + _c.getY());
-			if (c == null)
+			if (canvasX[a] == Integer.MIN_VALUE || canvasX[b] == Integer.MIN_VALUE || canvasX[c] == Integer.MIN_VALUE)
 			{
 				continue;
 			}
 
-			if (isOffscreen(client, a) && isOffscreen(client, b) && isOffscreen(client, c))
+			if (isOffscreen(client, canvasX[a], canvasY[a])
+				&& isOffscreen(client, canvasX[b], canvasY[b])
+				&& isOffscreen(client, canvasX[c], canvasY[c]))
 			{
 				continue;
 			}
 
-			int minX = Math.min(Math.min(a.getX(), b.getX()), c.getX());
-			int minY = Math.min(Math.min(a.getY(), b.getY()), c.getY());
+			int minX = Math.min(Math.min(canvasX[a], canvasX[b]), canvasX[c]);
+			int minY = Math.min(Math.min(canvasY[a], canvasY[b]), canvasY[c]);
 
 			// For some reason, this calculation is always 4 pixels short of the actual in-client one
-			int maxX = Math.max(Math.max(a.getX(), b.getX()), c.getX()) + 4;
-			int maxY = Math.max(Math.max(a.getY(), b.getY()), c.getY()) + 4;
+			int maxX = Math.max(Math.max(canvasX[a], canvasX[b]), canvasX[c]) + 4;
+			int maxY = Math.max(Math.max(canvasY[a], canvasY[b]), canvasY[c]) + 4;
 
 			// ...and the rectangles in the fixed client are shifted 4 pixels right and down
-			if (!client.isResized())
-			{
-				minX += client.getViewportXOffset();
-				minY += client.getViewportYOffset();
-				maxX += client.getViewportXOffset();
-				maxY += client.getViewportYOffset();
-			}
-
-			Rectangle clickableRect = new Rectangle(
-				minX - radius, minY - radius,
-				maxX - minX + radius, maxY - minY + radius
+			geometry.add(
+				minX - radius + offsetX, minY - radius + offsetY,
+				maxX + offsetX, maxY + offsetY
 			);
-
-			if (geometry.contains(clickableRect))
-			{
-				continue;
-			}
-
-			geometry.add(new Area(clickableRect));
 		}
 
 		return geometry;
 	}
 
-	private static Area getAABB(
+	private static Polygon getAABB(
 		@Nonnull Client client,
-		@Nonnull List<Vertex> vertices,
-		int orientation,
+		@Nonnull RotatedModelCache.Entry geometry,
 		int localX,
-		int localY
+		int localY,
+		int tileHeight
 	)
 	{
-		int maxX = 0;
-		int minX = 0;
-		int maxY = 0;
-		int minY = 0;
-		int maxZ = 0;
-		int minZ = 0;
-
-		for (Vertex vertex : vertices)
-		{
-			int x = vertex.getX();
-			int y = vertex.getY();
-			int z = vertex.getZ();
-
-			if (x > maxX)
-			{
-				maxX = x;
-			}
-			if (x < minX)
-			{
-				minX = x;
-			}
-
-			if (y > maxY)
-			{
-				maxY = y;
-			}
-			if (y < minY)
-			{
-				minY = y;
-			}
-
-			if (z > maxZ)
-			{
-				maxZ = z;
-			}
-			if (z < minZ)
-			{
-				minZ = z;
-			}
-		}
+		int centerX = (geometry.minX + geometry.maxX) / 2;
+		int centerY = (geometry.minY + geometry.maxY) / 2;
+		int centerZ = (geometry.minZ + geometry.maxZ) / 2;
 
-		int centerX = (minX + maxX) / 2;
-		int centerY = (minY + maxY) / 2;
-		int centerZ = (minZ + maxZ) / 2;
-
-		int extremeX = (maxX - minX + 1) / 2;
-		int extremeY = (maxY - minY + 1) / 2;
-		int extremeZ = (maxZ - minZ + 1) / 2;
+		int extremeX = (geometry.maxX - geometry.minX + 1) / 2;
+		int extremeY = (geometry.maxY - geometry.minY + 1) / 2;
+		int extremeZ = (geometry.maxZ - geometry.minZ + 1) / 2;
 
 		if (extremeX < 32)
 		{
@@ -698,53 +683,40 @@ public class Perspective
 		int y2 = centerY + extremeY;
 		int z2 = localY - (centerZ + extremeZ);
 
-		final int tileHeight = getTileHeight(client, localX, localY, client.getPlane());
-
-		Point p1 = localToCanvas(client, x1, z1, tileHeight + y1);
-		Point p2 = localToCanvas(client, x1, z2, tileHeight + y1);
-		Point p3 = localToCanvas(client, x2, z2, tileHeight + y1);
-
-		Point p4 = localToCanvas(client, x2, z1, tileHeight + y1);
-		Point p5 = localToCanvas(client, x1, z1, tileHeight + y2);
-		Point p6 = localToCanvas(client, x1, z2, tileHeight + y2);
-		Point p7 = localToCanvas(client, x2, z2, tileHeight + y2);
-		Point p8 = localToCanvas(client, x2, z1, tileHeight + y2);
-
-		List<Point> points = new ArrayList<>(8);
-		points.add(p1);
-		points.add(p2);
-		points.add(p3);
-		points.add(p4);
-		points.add(p5);
-		points.add(p6);
-		points.add(p7);
-		points.add(p8);
-
-		try
+		Point[] corners =
 		{
-			points = Jarvis.convexHull(points);
-		}
-		catch (NullPointerException e)
+			localToCanvas(client, x1, z1, tileHeight + y1),
+			localToCanvas(client, x1, z2, tileHeight + y1),
+			localToCanvas(client, x2, z2, tileHeight + y1),
+			localToCanvas(client, x2, z1, tileHeight + y1),
+			localToCanvas(client, x1, z1, tileHeight + y2),
+			localToCanvas(client, x1, z2, tileHeight + y2),
+			localToCanvas(client, x2, z2, tileHeight + y2),
+			localToCanvas(client, x2, z1, tileHeight + y2)
+		};
+
+		int[] xs = new int[corners.length];
+		int[] ys = new int[corners.length];
+		for (int i = 0; i < corners.length; ++i)
 		{
-			// No non-null screen points for this AABB e.g. for an way off-screen model
-			return null;
-		}
+			if (corners[i] == null)
+			{
+				// Points can be null if they are behind or very close to the camera,
+				// e.g. for an way off-screen model
+				return null;
+			}
 
-		if (points == null)
-		{
-			return null;
+			xs[i] = corners[i].getX();
+			ys[i] = corners[i].getY();
 		}
 
-		Polygon hull = new Polygon();
-		for (Point p : points)
+		int size = Jarvis.convexHull(xs, ys, corners.length);
+		if (size < 0)
 		{
-			if (p != null)
-			{
-				hull.addPoint(p.getX(), p.getY());
-			}
+			return null;
 		}
 
-		return new Area(hull);
+		return new Polygon(xs, ys, size);
 	}
 
 	/**
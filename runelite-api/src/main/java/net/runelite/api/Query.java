@@ -24,6 +24,9 @@
  */
 package net.runelite.api;
 
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
 
 /**
@@ -36,6 +39,17 @@ public abstract class Query<EntityType, QueryType>
 {
 	protected Predicate<EntityType> predicate = x -> true;
 
+	/**
+	 * Collects the objects passed to it which evaluate true using
+	 * {@link #predicate}, for {@link #collected(IntFunction)}. Null objects
+	 * are skipped.
+	 */
+	protected final Consumer<EntityType> collector = this::collect;
+
+	// matching objects, reused across executions of the query
+	private Object[] buffer = new Object[16];
+	private int count;
+
 	protected Query()
 	{
 	}
@@ -64,4 +78,42 @@ public abstract class Query<EntityType, QueryType>
 		}
 		return predicate.and(other);
 	}
+
+	private void collect(EntityType object)
+	{
+		if (object == null || !predicate.test(object))
+		{
+			return;
+		}
+
+		if (count == buffer.length)
+		{
+			buffer = Arrays.copyOf(buffer, count * 2);
+		}
+		buffer[count++] = object;
+	}
+
+	/**
+	 * Returns the objects collected since the last {@link #reset()}.
+	 *
+	 * @param generator creates the result array of the given size
+	 * @return the collected objects
+	 */
+	protected EntityType[] collected(IntFunction<EntityType[]> generator)
+	{
+		EntityType[] result = generator.apply(count);
+		System.arraycopy(buffer, 0, result, 0, count);
+		return result;
+	}
+
+	/**
+	 * Clears the collected objects. Queries call this in a finally block,
+	 * so objects collected by a pass which threw, such as from the
+	 * predicate, are not returned by the next execution.
+	 */
+	protected void reset()
+	{
+		Arrays.fill(buffer, 0, count, null);
+		count = 0;
+	}
 }
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api;
+
+import java.awt.Polygon;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * Computes the union of a set of axis-aligned rectangles without
+ * {@link Area} boolean operations.
+ * <p>
+ * The rectangles are swept top to bottom with a segment tree over their
+ * x coordinates, producing horizontal bands of disjoint spans. Each span
+ * is optionally clipped to a convex polygon, and the resulting pieces are
+ * turned into a single {@link Area}. This runs in O(n log n) in the number
+ * of rectangles, rather than the O(n^2) or worse of repeated {@link Area#add}.
+ */
+final class RectangleUnion
+{
+	// x1, y1, x2, y2 of each rectangle
+	private int[] rectangles = new int[64];
+	private int count;
+
+	// segment tree state
+	private int[] xs;
+	private int[] cover;
+	private int[] length;
+
+	// spans of the current band, as x1, x2 pairs
+	private int[] spans = new int[16];
+	private int spanCount;
+
+	/**
+	 * Add a rectangle spanning [{@code x1}, {@code x2}) x [{@code y1}, {@code y2}).
+	 * Empty rectangles are ignored.
+	 */
+	void add(int x1, int y1, int x2, int y2)
+	{
+		if (x1 >= x2 || y1 >= y2)
+		{
+			return;
+		}
+
+		if ((count + 1) * 4 > rectangles.length)
+		{
+			rectangles = Arrays.copyOf(rectangles, rectangles.length * 2);
+		}
+
+		int i = count++ * 4;
+		rectangles[i] = x1;
+		rectangles[i + 1] = y1;
+		rectangles[i + 2] = x2;
+		rectangles[i + 3] = y2;
+	}
+
+	/**
+	 * Build the union of the added rectangles.
+	 *
+	 * @param clip a convex polygon to intersect the union with, or null
+	 * @return the union
+	 */
+	Area toArea(@Nullable Polygon clip)
+	{
+		final Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, count * 4);
+		if (count == 0)
+		{
+			return new Area(path);
+		}
+
+		// distinct x coordinates
+		int[] x = new int[count * 2];
+		for (int i = 0; i < count; ++i)
+		{
+			x[i * 2] = rectangles[i * 4];
+			x[i * 2 + 1] = rectangles[i * 4 + 2];
+		}
+		Arrays.sort(x);
+		int n = 0;
+		for (int i = 0; i < x.length; ++i)
+		{
+			if (n == 0 || x[n - 1] != x[i])
+			{
+				x[n++] = x[i];
+			}
+		}
+		xs = x;
+		cover = new int[4 * n];
+		length = new int[4 * n];
+
+		// events sorted by y, with the rectangle index in the low bits
+		// and whether it is the bottom edge in bit 31
+		long[] events = new long[count * 2];
+		for (int i = 0; i < count; ++i)
+		{
+			events[i * 2] = (long) rectangles[i * 4 + 1] << 32 | i;
+			events[i * 2 + 1] = (long) rectangles[i * 4 + 3] << 32 | 0x80000000L | i;
+		}
+		Arrays.sort(events);
+
+		final PolygonClipper clipper = clip != null ? new PolygonClipper(clip) : null;
+		int[] band = new int[16];
+		int bandCount = 0;
+		int bandY = 0;
+
+		for (int e = 0; e < events.length; )
+		{
+			final int y = (int) (events[e] >> 32);
+
+			do
+			{
+				final long event = events[e];
+				final int r = (int) (event & 0x7fffffffL) * 4;
+				final int delta = (event & 0x80000000L) != 0 ? -1 : 1;
+				update(1, 0, n - 1,
+					Arrays.binarySearch(xs, 0, n, rectangles[r]),
+					Arrays.binarySearch(xs, 0, n, rectangles[r + 2]),
+					delta);
+			}
+			while (++e < events.length && (int) (events[e] >> 32) == y);
+
+			spanCount = 0;
+			collect(1, 0, n - 1);
+
+			if (spanCount == bandCount && rangeEquals(spans, band, spanCount * 2))
+			{
+				continue;
+			}
+
+			// close the previous band and start a new one at this y
+			for (int i = 0; i < bandCount; ++i)
+			{
+				emit(path, clipper, band[i * 2], bandY, band[i * 2 + 1], y);
+			}
+
+			if (band.length < spans.length)
+			{
+				band = new int[spans.length];
+			}
+			System.arraycopy(spans, 0, band, 0, spanCount * 2);
+			bandCount = spanCount;
+			bandY = y;
+		}
+
+		xs = null;
+		cover = null;
+		length = null;
+
+		return new Area(path);
+	}
+
+	private void update(int node, int lo, int hi, int from, int to, int delta)
+	{
+		// node covers the segments [xs[lo], xs[hi]]
+		if (from <= lo && hi <= to)
+		{
+			cover[node] += delta;
+		}
+		else
+		{
+			int mid = (lo + hi) >>> 1;
+			if (from < mid)
+			{
+				update(node * 2, lo, mid, from, to, delta);
+			}
+			if (to > mid)
+			{
+				update(node * 2 + 1, mid, hi, from, to, delta);
+			}
+		}
+
+		if (cover[node] > 0)
+		{
+			length[node] = xs[hi] - xs[lo];
+		}
+		else if (hi - lo == 1)
+		{
+			length[node] = 0;
+		}
+		else
+		{
+			length[node] = length[node * 2] + length[node * 2 + 1];
+		}
+	}
+
+	private void collect(int node, int lo, int hi)
+	{
+		if (cover[node] > 0)
+		{
+			addSpan(xs[lo], xs[hi]);
+		}
+		else if (length[node] > 0)
+		{
+			int mid = (lo + hi) >>> 1;
+			collect(node * 2, lo, mid);
+			collect(node * 2 + 1, mid, hi);
+		}
+	}
+
+	private void addSpan(int x1, int x2)
+	{
+		if (spanCount > 0 && spans[spanCount * 2 - 1] == x1)
+		{
+			// extend the previous span
+			spans[spanCount * 2 - 1] = x2;
+			return;
+		}
+
+		if ((spanCount + 1) * 2 > spans.length)
+		{
+			spans = Arrays.copyOf(spans, spans.length * 2);
+		}
+		spans[spanCount * 2] = x1;
+		spans[spanCount * 2 + 1] = x2;
+		++spanCount;
+	}
+
+	private static boolean rangeEquals(int[] a, int[] b, int length)
+	{
+		for (int i = 0; i < length; ++i)
+		{
+			if (a[i] != b[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void emit(Path2D.Double path, @Nullable PolygonClipper clipper, int x1, int y1, int x2, int y2)
+	{
+		if (clipper == null)
+		{
+			path.moveTo(x1, y1);
+			path.lineTo(x2, y1);
+			path.lineTo(x2, y2);
+			path.lineTo(x1, y2);
+			path.closePath();
+			return;
+		}
+
+		clipper.clip(x1, y1, x2, y2);
+		if (clipper.size < 3)
+		{
+			return;
+		}
+
+		path.moveTo(clipper.xs[0], clipper.ys[0]);
+		for (int i = 1; i < clipper.size; ++i)
+		{
+			path.lineTo(clipper.xs[i], clipper.ys[i]);
+		}
+		path.closePath();
+	}
+
+	/**
+	 * Clips a convex polygon to axis-aligned rectangles, one edge at a time.
+	 */
+	private static final class PolygonClipper
+	{
+		private final double[] polygonX;
+		private final double[] polygonY;
+		private final int polygonSize;
+		private final double minX, minY, maxX, maxY;
+
+		private double[] xs;
+		private double[] ys;
+		private double[] tmpX;
+		private double[] tmpY;
+		private int size;
+
+		PolygonClipper(Polygon polygon)
+		{
+			polygonSize = polygon.npoints;
+			polygonX = new double[polygonSize];
+			polygonY = new double[polygonSize];
+
+			double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+			double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+			for (int i = 0; i < polygonSize; ++i)
+			{
+				polygonX[i] = polygon.xpoints[i];
+				polygonY[i] = polygon.ypoints[i];
+				minX = Math.min(minX, polygonX[i]);
+				minY = Math.min(minY, polygonY[i]);
+				maxX = Math.max(maxX, polygonX[i]);
+				maxY = Math.max(maxY, polygonY[i]);
+			}
+			this.minX = minX;
+			this.minY = minY;
+			this.maxX = maxX;
+			this.maxY = maxY;
+
+			// each of the four clipping edges can add at most one vertex
+			xs = new double[polygonSize + 4];
+			ys = new double[polygonSize + 4];
+			tmpX = new double[polygonSize + 4];
+			tmpY = new double[polygonSize + 4];
+		}
+
+		void clip(double x1, double y1, double x2, double y2)
+		{
+			size = 0;
+			if (x2 <= minX || x1 >= maxX || y2 <= minY || y1 >= maxY)
+			{
+				return;
+			}
+
+			System.arraycopy(polygonX, 0, xs, 0, polygonSize);
+			System.arraycopy(polygonY, 0, ys, 0, polygonSize);
+			size = polygonSize;
+
+			clipEdge(x1, true, true);
+			clipEdge(x2, true, false);
+			clipEdge(y1, false, true);
+			clipEdge(y2, false, false);
+		}
+
+		/**
+		 * Sutherland-Hodgman against a single axis-aligned edge.
+		 *
+		 * @param value the coordinate of the edge
+		 * @param vertical whether the edge is x = value, rather than y = value
+		 * @param keepAbove whether points >= value are inside
+		 */
+		private void clipEdge(double value, boolean vertical, boolean keepAbove)
+		{
+			if (size == 0)
+			{
+				return;
+			}
+
+			int out = 0;
+			double px = xs[size - 1];
+			double py = ys[size - 1];
+			boolean pIn = inside(vertical ? px : py, value, keepAbove);
+
+			for (int i = 0; i < size; ++i)
+			{
+				double cx = xs[i];
+				double cy = ys[i];
+				boolean cIn = inside(vertical ? cx : cy, value, keepAbove);
+
+				if (cIn != pIn)
+				{
+					if (vertical)
+					{
+						tmpX[out] = value;
+						tmpY[out] = py + (cy - py) * (value - px) / (cx - px);
+					}
+					else
+					{
+						tmpX[out] = px + (cx - px) * (value - py) / (cy - py);
+						tmpY[out] = value;
+					}
+					++out;
+				}
+
+				if (cIn)
+				{
+					tmpX[out] = cx;
+					tmpY[out] = cy;
+					++out;
+				}
+
+				px = cx;
+				py = cy;
+				pIn = cIn;
+			}
+
+			double[] swap = xs;
+			xs = tmpX;
+			tmpX = swap;
+			swap = ys;
+			ys = tmpY;
+			tmpY = swap;
+			size = out;
+		}
+
+		private static boolean inside(double coordinate, double value, boolean keepAbove)
+		{
+			return keepAbove ? coordinate >= value : coordinate <= value;
+		}
+	}
+}
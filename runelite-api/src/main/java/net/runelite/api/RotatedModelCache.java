@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * A small direct-mapped cache of model vertices rotated to a given
+ * orientation, used by {@link Perspective#getClickbox}.
+ * <p>
+ * Entries are keyed by model identity and orientation. Since models
+ * may be animated in place, each entry also records the
+ * {@link Model#getVerticesRevision() vertex revision} of the model and
+ * is recomputed when it changes.
+ */
+final class RotatedModelCache
+{
+	private static final int SIZE = 256; // must be a power of two
+
+	static final class Entry
+	{
+		private final WeakReference<Model> model;
+		private final int orientation;
+		private final int revision;
+
+		final int count;
+		final int[] verticesX;
+		final int[] verticesY;
+		final int[] verticesZ;
+
+		int minX, maxX;
+		int minY, maxY;
+		int minZ, maxZ;
+
+		private Entry(Model model, int orientation, int revision, int count)
+		{
+			this.model = new WeakReference<>(model);
+			this.orientation = orientation;
+			this.revision = revision;
+			this.count = count;
+			this.verticesX = new int[count];
+			this.verticesY = new int[count];
+			this.verticesZ = new int[count];
+		}
+	}
+
+	private final Entry[] entries = new Entry[SIZE];
+
+	/**
+	 * Get the vertices of {@code model} rotated to {@code orientation}.
+	 * The returned entry must not be modified.
+	 *
+	 * @param model the model
+	 * @param orientation the orientation of the model (0-2048, where 0 is north)
+	 * @return the rotated vertices
+	 */
+	synchronized Entry get(Model model, int orientation)
+	{
+		final int count = model.getVerticesCount();
+		final int revision = model.getVerticesRevision();
+		final int slot = (System.identityHashCode(model) * 31 + orientation) & (SIZE - 1);
+
+		Entry entry = entries[slot];
+		if (entry != null && entry.orientation == orientation && entry.revision == revision
+			&& entry.count == count && entry.model.get() == model)
+		{
+			return entry;
+		}
+
+		entry = rotate(model, orientation, revision, count);
+		entries[slot] = entry;
+		return entry;
+	}
+
+	private static Entry rotate(Model model, int orientation, int revision, int count)
+	{
+		final int[] verticesX = model.getVerticesX();
+		final int[] verticesY = model.getVerticesY();
+		final int[] verticesZ = model.getVerticesZ();
+		final Entry entry = new Entry(model, orientation, revision, count);
+
+		// models are orientated north (1024) and there are 2048 angles total
+		final int angle = (orientation + 1024) % 2048;
+		final int sin = Perspective.SINE[angle];
+		final int cos = Perspective.COSINE[angle];
+
+		int minX = 0, maxX = 0;
+		int minY = 0, maxY = 0;
+		int minZ = 0, maxZ = 0;
+
+		for (int i = 0; i < count; ++i)
+		{
+			int x = verticesX[i];
+			int y = verticesY[i];
+			int z = verticesZ[i];
+
+			if (angle != 0)
+			{
+				int rx = x * cos + z * sin >> 16;
+				z = z * cos - x * sin >> 16;
+				x = rx;
+			}
+
+			entry.verticesX[i] = x;
+			entry.verticesY[i] = y;
+			entry.verticesZ[i] = z;
+
+			minX = Math.min(minX, x);
+			maxX = Math.max(maxX, x);
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+			minZ = Math.min(minZ, z);
+			maxZ = Math.max(maxZ, z);
+		}
+
+		entry.minX = minX;
+		entry.maxX = maxX;
+		entry.minY = minY;
+		entry.maxY = maxY;
+		entry.minZ = minZ;
+		entry.maxZ = maxZ;
+		return entry;
+	}
+}
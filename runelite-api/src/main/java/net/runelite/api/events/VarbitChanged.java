@@ -34,4 +34,9 @@ import lombok.Data;
 @Data
 public class VarbitChanged
 {
+	/**
+	 * Index in the varp array that was changed, or -1 if the
+	 * whole array may have changed.
+	 */
+	private int index = -1;
 }
\ No newline at end of file
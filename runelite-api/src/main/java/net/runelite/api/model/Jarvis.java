@@ -104,6 +104,78 @@ public class Jarvis
 		return ch;
 	}
 
+	/**
+	 * Computes the convex hull of the first {@code count} points described
+	 * by {@code xs} and {@code ys}.
+	 * <p>
+	 * The points on the hull are written back to the start of the passed
+	 * arrays, in the same order as {@link #convexHull(List)}.
+	 *
+	 * @param xs x coordinates of the points
+	 * @param ys y coordinates of the points
+	 * @param count the number of points
+	 * @return the number of points on the hull, or -1 if there are fewer
+	 * than 3 points
+	 */
+	public static int convexHull(int[] xs, int[] ys, int count)
+	{
+		if (count < 3)
+		{
+			return -1;
+		}
+
+		// find the left most point
+		int left = 0;
+		for (int i = 1; i < count; ++i)
+		{
+			if (xs[i] < xs[left] || (xs[i] == xs[left] && ys[i] < ys[left]))
+			{
+				left = i;
+			}
+		}
+
+		final int[] hull = new int[count];
+		int size = 0;
+		int current = left;
+
+		do
+		{
+			if (size == count)
+			{
+				// Just to make sure we never somehow get stuck in this loop
+				return -1;
+			}
+			hull[size++] = current;
+
+			// the next point - all points are to the right of the
+			// line between current and next
+			int next = 0;
+			for (int p = 1; p < count; ++p)
+			{
+				long cp = crossProduct(xs[current], ys[current], xs[p], ys[p], xs[next], ys[next]);
+				if (cp > 0 || (cp == 0 && distanceSquared(xs[current], ys[current], xs[p], ys[p])
+					> distanceSquared(xs[current], ys[current], xs[next], ys[next])))
+				{
+					next = p;
+				}
+			}
+
+			current = next;
+		}
+		while (xs[current] != xs[left] || ys[current] != ys[left]);
+
+		final int[] hullX = new int[size];
+		final int[] hullY = new int[size];
+		for (int i = 0; i < size; ++i)
+		{
+			hullX[i] = xs[hull[i]];
+			hullY[i] = ys[hull[i]];
+		}
+		System.arraycopy(hullX, 0, xs, 0, size);
+		System.arraycopy(hullY, 0, ys, 0, size);
+		return size;
+	}
+
 	private static Point findLeftMost(List<Point> points)
 	{
 		Point left = null;
@@ -129,4 +201,17 @@ public class Jarvis
 			- (long)(q.getX() - p.getX()) * (r.getY() - q.getY());
 		return val;
 	}
+
+	private static long crossProduct(int px, int py, int qx, int qy, int rx, int ry)
+	{
+		return (long) (qy - py) * (rx - qx)
+			- (long) (qx - px) * (ry - qy);
+	}
+
+	private static long distanceSquared(int px, int py, int qx, int qy)
+	{
+		long dx = qx - px;
+		long dy = qy - py;
+		return dx * dx + dy * dy;
+	}
 }
@@ -24,33 +24,26 @@
  */
 package net.runelite.api.queries;
 
+import java.util.function.Consumer;
 import net.runelite.api.Client;
 import net.runelite.api.DecorativeObject;
 import net.runelite.api.Tile;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Objects;
-
 public class DecorativeObjectQuery extends TileObjectQuery<DecorativeObject, DecorativeObjectQuery>
 {
+	private final Consumer<Tile> visitor = tile -> collector.accept(tile.getDecorativeObject());
+
 	@Override
 	public DecorativeObject[] result(Client client)
 	{
-		return getDecorativeObjects(client).stream()
-			.filter(Objects::nonNull)
-			.filter(predicate)
-			.distinct()
-			.toArray(DecorativeObject[]::new);
-	}
-
-	private Collection<DecorativeObject> getDecorativeObjects(Client client)
-	{
-		Collection<DecorativeObject> objects = new ArrayList<>();
-		for (Tile tile : getTiles(client))
+		try
+		{
+			client.forEachTile(visitor);
+			return collected(DecorativeObject[]::new);
+		}
+		finally
 		{
-			objects.add(tile.getDecorativeObject());
+			reset();
 		}
-		return objects;
 	}
 }
@@ -26,36 +26,20 @@ package net.runelite.api.queries;
 
 import net.runelite.api.Client;
 import net.runelite.api.GameObject;
-import net.runelite.api.Tile;
-
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Objects;
 
 public class GameObjectQuery extends TileObjectQuery<GameObject, GameObjectQuery>
 {
 	@Override
 	public GameObject[] result(Client client)
 	{
-		return getGameObjects(client).stream()
-			.filter(Objects::nonNull)
-			.filter(predicate)
-			.distinct()
-			.toArray(GameObject[]::new);
-	}
-
-	private Collection<GameObject> getGameObjects(Client client)
-	{
-		Collection<GameObject> objects = new ArrayList<>();
-		for (Tile tile : getTiles(client))
+		try
+		{
+			client.forEachGameObject(collector);
+			return collected(GameObject[]::new);
+		}
+		finally
 		{
-			GameObject[] gameObjects = tile.getGameObjects();
-			if (gameObjects != null)
-			{
-				objects.addAll(Arrays.asList(gameObjects));
-			}
+			reset();
 		}
-		return objects;
 	}
 }
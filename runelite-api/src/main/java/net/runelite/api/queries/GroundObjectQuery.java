@@ -24,33 +24,26 @@
  */
 package net.runelite.api.queries;
 
+import java.util.function.Consumer;
 import net.runelite.api.Client;
 import net.runelite.api.GroundObject;
 import net.runelite.api.Tile;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Objects;
-
 public class GroundObjectQuery extends TileObjectQuery<GroundObject, GroundObjectQuery>
 {
+	private final Consumer<Tile> visitor = tile -> collector.accept(tile.getGroundObject());
+
 	@Override
 	public GroundObject[] result(Client client)
 	{
-		return getGroundObjects(client).stream()
-			.filter(Objects::nonNull)
-			.filter(predicate)
-			.distinct()
-			.toArray(GroundObject[]::new);
-	}
-
-	private Collection<GroundObject> getGroundObjects(Client client)
-	{
-		Collection<GroundObject> objects = new ArrayList<>();
-		for (Tile tile : getTiles(client))
+		try
+		{
+			client.forEachTile(visitor);
+			return collected(GroundObject[]::new);
+		}
+		finally
 		{
-			objects.add(tile.getGroundObject());
+			reset();
 		}
-		return objects;
 	}
 }
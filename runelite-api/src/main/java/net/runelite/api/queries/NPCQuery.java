@@ -33,9 +33,15 @@ public class NPCQuery extends ActorQuery<NPC, NPCQuery>
 	@Override
 	public NPC[] result(Client client)
 	{
-		return client.getNpcs().stream()
-				.filter(predicate)
-				.toArray(NPC[]::new);
+		try
+		{
+			client.forEachNpc(collector);
+			return collected(NPC[]::new);
+		}
+		finally
+		{
+			reset();
+		}
 	}
 	
 	@SuppressWarnings("unchecked")
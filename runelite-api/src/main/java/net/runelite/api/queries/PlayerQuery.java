@@ -32,8 +32,14 @@ public class PlayerQuery extends ActorQuery<Player, PlayerQuery>
 	@Override
 	public Player[] result(Client client)
 	{
-		return client.getPlayers().stream()
-			.filter(predicate)
-			.toArray(Player[]::new);
+		try
+		{
+			client.forEachPlayer(collector);
+			return collected(Player[]::new);
+		}
+		finally
+		{
+			reset();
+		}
 	}
 }
@@ -25,41 +25,13 @@
 package net.runelite.api.queries;
 
 import static java.lang.Math.abs;
-import net.runelite.api.Client;
-import net.runelite.api.Constants;
 import net.runelite.api.Query;
-import net.runelite.api.Scene;
-import net.runelite.api.Tile;
 import net.runelite.api.TileObject;
-
-import java.util.ArrayList;
-import java.util.List;
 import net.runelite.api.coords.LocalPoint;
 import net.runelite.api.coords.WorldPoint;
 
 public abstract class TileObjectQuery<EntityType extends TileObject, QueryType> extends Query<EntityType, QueryType>
 {
-	protected List<Tile> getTiles(Client client)
-	{
-		List<Tile> tilesList = new ArrayList<>();
-		Scene scene = client.getScene();
-		Tile[][][] tiles = scene.getTiles();
-		int z = client.getPlane();
-		for (int x = 0; x < Constants.SCENE_SIZE; ++x)
-		{
-			for (int y = 0; y < Constants.SCENE_SIZE; ++y)
-			{
-				Tile tile = tiles[z][x][y];
-				if (tile == null)
-				{
-					continue;
-				}
-				tilesList.add(tile);
-			}
-		}
-		return tilesList;
-	}
-
 	@SuppressWarnings("unchecked")
 	public QueryType idEquals(int... ids)
 	{
@@ -24,33 +24,26 @@
  */
 package net.runelite.api.queries;
 
+import java.util.function.Consumer;
 import net.runelite.api.Client;
-import net.runelite.api.Tile;
 import net.runelite.api.WallObject;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Objects;
+import net.runelite.api.Tile;
 
 public class WallObjectQuery extends TileObjectQuery<WallObject, WallObjectQuery>
 {
+	private final Consumer<Tile> visitor = tile -> collector.accept(tile.getWallObject());
+
 	@Override
 	public WallObject[] result(Client client)
 	{
-		return getWallObjects(client).stream()
-			.filter(Objects::nonNull)
-			.filter(predicate)
-			.distinct()
-			.toArray(WallObject[]::new);
-	}
-
-	private Collection<WallObject> getWallObjects(Client client)
-	{
-		Collection<WallObject> objects = new ArrayList<>();
-		for (Tile tile : getTiles(client))
+		try
+		{
+			client.forEachTile(visitor);
+			return collected(WallObject[]::new);
+		}
+		finally
 		{
-			objects.add(tile.getWallObject());
+			reset();
 		}
-		return objects;
 	}
 }
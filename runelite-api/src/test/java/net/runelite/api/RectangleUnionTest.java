@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api;
+
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.geom.Area;
+import java.util.Random;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class RectangleUnionTest
+{
+	@Test
+	public void testEmpty()
+	{
+		RectangleUnion union = new RectangleUnion();
+		union.add(10, 10, 10, 20);
+		assertTrue(union.toArea(null).isEmpty());
+	}
+
+	@Test
+	public void testUnion()
+	{
+		Random random = new Random(42);
+		for (int i = 0; i < 100; ++i)
+		{
+			RectangleUnion union = new RectangleUnion();
+			Area expected = new Area();
+			addRandom(random, union, expected);
+
+			assertSameShape(expected, union.toArea(null));
+		}
+	}
+
+	@Test
+	public void testClippedUnion()
+	{
+		Polygon clip = new Polygon(
+			new int[]{10, 60, 110, 40},
+			new int[]{20, 0, 70, 120},
+			4
+		);
+
+		Random random = new Random(42);
+		for (int i = 0; i < 100; ++i)
+		{
+			RectangleUnion union = new RectangleUnion();
+			Area expected = new Area();
+			addRandom(random, union, expected);
+			expected.intersect(new Area(clip));
+
+			assertSameShape(expected, union.toArea(clip));
+		}
+	}
+
+	private static void addRandom(Random random, RectangleUnion union, Area area)
+	{
+		int count = 1 + random.nextInt(30);
+		for (int i = 0; i < count; ++i)
+		{
+			int x = random.nextInt(120) - 10;
+			int y = random.nextInt(120) - 10;
+			int width = 1 + random.nextInt(30);
+			int height = 1 + random.nextInt(30);
+
+			union.add(x, y, x + width, y + height);
+			area.add(new Area(new Rectangle(x, y, width, height)));
+		}
+	}
+
+	private static void assertSameShape(Area expected, Area actual)
+	{
+		Area difference = new Area(expected);
+		difference.exclusiveOr(actual);
+
+		Rectangle bounds = difference.getBounds();
+		for (int y = bounds.y; y < bounds.y + bounds.height; ++y)
+		{
+			for (int x = bounds.x; x < bounds.x + bounds.width; ++x)
+			{
+				assertFalse("differs at " + x + ", " + y, difference.contains(x + .37, y + .61));
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api;
+
+import java.lang.reflect.Proxy;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+public class RotatedModelCacheTest
+{
+	private final int[] verticesX = {10, -10, 0};
+	private final int[] verticesY = {0, 0, -50};
+	private final int[] verticesZ = {0, 20, 5};
+	private int revision;
+
+	@Test
+	public void testCached()
+	{
+		RotatedModelCache cache = new RotatedModelCache();
+		Model model = model();
+
+		RotatedModelCache.Entry entry = cache.get(model, 0);
+		assertSame(entry, cache.get(model, 0));
+		assertNotSame(entry, cache.get(model, 512));
+	}
+
+	@Test
+	public void testRevision()
+	{
+		RotatedModelCache cache = new RotatedModelCache();
+		Model model = model();
+
+		// north facing models are rotated by 180 degrees
+		RotatedModelCache.Entry entry = cache.get(model, 0);
+		assertArrayEquals(new int[]{-10, 10, 0}, entry.verticesX);
+
+		// animating the model in place bumps its revision
+		verticesX[0] = 30;
+		++revision;
+
+		RotatedModelCache.Entry animated = cache.get(model, 0);
+		assertNotSame(entry, animated);
+		assertArrayEquals(new int[]{-30, 10, 0}, animated.verticesX);
+		assertArrayEquals(verticesY, animated.verticesY);
+	}
+
+	private Model model()
+	{
+		return (Model) Proxy.newProxyInstance(RotatedModelCacheTest.class.getClassLoader(), new Class<?>[]
+		{
+			Model.class
+		}, (proxy, method, args) ->
+		{
+			switch (method.getName())
+			{
+				case "getVerticesCount":
+					return verticesX.length;
+				case "getVerticesX":
+					return verticesX;
+				case "getVerticesY":
+					return verticesY;
+				case "getVerticesZ":
+					return verticesZ;
+				case "getVerticesRevision":
+					return revision;
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				default:
+					throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+}
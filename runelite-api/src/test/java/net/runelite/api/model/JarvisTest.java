@@ -107,4 +107,16 @@ public class JarvisTest
 		};
 		Jarvis.convexHull(Arrays.asList(points));
 	}
+
+	@Test
+	public void testPrimitive()
+	{
+		int[] xs = {0, 4, 3, 5, 3, 1, 1, 2};
+		int[] ys = {3, 2, 5, 3, 0, 1, 2, 2};
+
+		int size = Jarvis.convexHull(xs, ys, xs.length);
+		Assert.assertEquals(5, size);
+		Assert.assertArrayEquals(new int[]{0, 3, 5, 3, 1}, Arrays.copyOf(xs, size));
+		Assert.assertArrayEquals(new int[]{3, 5, 3, 0, 1}, Arrays.copyOf(ys, size));
+	}
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api.queries;
+
+import java.lang.reflect.Proxy;
+import java.util.function.Consumer;
+import net.runelite.api.Client;
+import net.runelite.api.GroundObject;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.Tile;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public class QueryTest
+{
+	@Test
+	public void testNullsSkipped()
+	{
+		Player zezima = player("Zezima");
+		Player lynx = player("Lynx Titan");
+		Client client = client(new Player[]
+		{
+			zezima, null, lynx
+		}, new NPC[0], new Tile[0]);
+
+		PlayerQuery query = new PlayerQuery();
+		assertArrayEquals(new Player[]
+		{
+			zezima, lynx
+		}, query.result(client));
+
+		// the query is reusable, and its buffer doesn't leak into the next result
+		assertArrayEquals(new Player[]
+		{
+			lynx
+		}, query.nameEquals("Lynx Titan").result(client));
+	}
+
+	@Test
+	public void testBufferGrows()
+	{
+		NPC[] npcs = new NPC[100];
+		for (int i = 0; i < npcs.length; ++i)
+		{
+			npcs[i] = npc(i % 2 == 0 ? "Man" : "Woman", i);
+		}
+		Client client = client(new Player[0], npcs, new Tile[0]);
+
+		NPCQuery query = new NPCQuery();
+		assertArrayEquals(npcs, query.result(client));
+		assertEquals(50, query.nameEquals("Man").result(client).length);
+	}
+
+	@Test
+	public void testPredicateThrows()
+	{
+		NPC man = npc("Man", 1);
+		NPC broken = npc(null, 2);
+		NPC goblin = npc("Goblin", 3);
+
+		// getName() throws on the broken npc
+		NPCQuery query = new NPCQuery().nameEquals("Man", "Goblin");
+
+		try
+		{
+			query.result(client(new Player[0], new NPC[]
+			{
+				man, broken, goblin
+			}, new Tile[0]));
+			fail();
+		}
+		catch (IllegalStateException ex)
+		{
+			// expected
+		}
+
+		// the npcs collected before the exception are not returned
+		assertArrayEquals(new NPC[]
+		{
+			goblin
+		}, query.result(client(new Player[0], new NPC[]
+		{
+			goblin
+		}, new Tile[0])));
+	}
+
+	@Test
+	public void testTiles()
+	{
+		GroundObject groundObject = proxy(GroundObject.class, (method, args) -> null);
+		Tile empty = proxy(Tile.class, (method, args) -> null);
+		Tile tile = proxy(Tile.class, (method, args) -> method.equals("getGroundObject") ? groundObject : null);
+
+		Client client = client(new Player[0], new NPC[0], new Tile[]
+		{
+			empty, tile, empty
+		});
+
+		assertArrayEquals(new GroundObject[]
+		{
+			groundObject
+		}, new GroundObjectQuery().result(client));
+	}
+
+	private static Player player(String name)
+	{
+		return proxy(Player.class, (method, args) -> method.equals("getName") ? name : null);
+	}
+
+	private static NPC npc(String name, int id)
+	{
+		return proxy(NPC.class, (method, args) ->
+		{
+			switch (method)
+			{
+				case "getName":
+					if (name == null)
+					{
+						throw new IllegalStateException();
+					}
+					return name;
+				case "getId":
+					return id;
+				default:
+					return null;
+			}
+		});
+	}
+
+	/**
+	 * a client which only implements the entity visitors
+	 */
+	@SuppressWarnings("unchecked")
+	private static Client client(Player[] players, NPC[] npcs, Tile[] tiles)
+	{
+		return proxy(Client.class, (method, args) ->
+		{
+			switch (method)
+			{
+				case "forEachPlayer":
+					for (Player player : players)
+					{
+						((Consumer<Player>) args[0]).accept(player);
+					}
+					return null;
+				case "forEachNpc":
+					for (NPC npc : npcs)
+					{
+						((Consumer<NPC>) args[0]).accept(npc);
+					}
+					return null;
+				case "forEachTile":
+					for (Tile tile : tiles)
+					{
+						((Consumer<Tile>) args[0]).accept(tile);
+					}
+					return null;
+				default:
+					throw new UnsupportedOperationException(method);
+			}
+		});
+	}
+
+	private interface Handler
+	{
+		Object invoke(String method, Object[] args);
+	}
+
+	private static <T> T proxy(Class<T> clazz, Handler handler)
+	{
+		return clazz.cast(Proxy.newProxyInstance(QueryTest.class.getClassLoader(), new Class<?>[]
+		{
+			clazz
+		}, (proxy, method, args) ->
+		{
+			switch (method.getName())
+			{
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return clazz.getSimpleName();
+				default:
+					return handler.invoke(method.getName(), args);
+			}
+		}));
+	}
+}
@@ -33,6 +33,7 @@ import com.google.inject.Inject;
 import com.google.inject.Injector;
 import java.io.File;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import javax.inject.Provider;
 import javax.inject.Singleton;
@@ -50,6 +51,7 @@ import net.runelite.client.config.ConfigManager;
 import net.runelite.client.discord.DiscordService;
 import net.runelite.client.game.ClanManager;
 import net.runelite.client.game.ItemManager;
+import net.runelite.client.game.VarManager;
 import net.runelite.client.menus.MenuManager;
 import net.runelite.client.plugins.PluginManager;
 import net.runelite.client.rs.ClientUpdateCheckMode;
@@ -120,6 +122,9 @@ public class RuneLite
 	@Inject
 	private ClanManager clanManager;
 
+	@Inject
+	private VarManager varManager;
+
 	@Inject
 	private InfoBoxManager infoBoxManager;
 
@@ -259,6 +264,7 @@ public class RuneLite
 		eventBus.register(chatMessageManager);
 		eventBus.register(commandManager);
 		eventBus.register(clanManager);
+		eventBus.register(varManager);
 		eventBus.register(infoBoxManager);
 
 		if (!isOutdated)
@@ -279,6 +285,7 @@ public class RuneLite
 
 	public void shutdown()
 	{
+		configManager.sendConfig(5, TimeUnit.SECONDS);
 		clientSessionManager.shutdown();
 		discordService.close();
 	}
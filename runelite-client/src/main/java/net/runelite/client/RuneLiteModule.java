@@ -25,15 +25,17 @@
 package net.runelite.client;
 
 import com.google.common.eventbus.EventBus;
-import com.google.common.eventbus.SubscriberExceptionContext;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.name.Names;
 import java.applet.Applet;
+import java.lang.management.ManagementFactory;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import javax.annotation.Nullable;
 import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.hooks.Callbacks;
@@ -49,6 +51,7 @@ import net.runelite.client.plugins.PluginManager;
 import net.runelite.client.rs.ClientUpdateCheckMode;
 import net.runelite.client.rs.ClientLoader;
 import net.runelite.client.task.Scheduler;
+import net.runelite.client.util.ClientEventBus;
 import net.runelite.client.util.DeferredEventBus;
 import net.runelite.client.util.QueryRunner;
 import org.slf4j.Logger;
@@ -127,11 +130,17 @@ public class RuneLiteModule extends AbstractModule
 	@Singleton
 	EventBus provideEventBus()
 	{
-		return new EventBus(RuneLiteModule::eventExceptionHandler);
-	}
+		final ClientEventBus eventBus = new ClientEventBus();
 
-	private static void eventExceptionHandler(Throwable exception, SubscriberExceptionContext context)
-	{
-		log.warn("uncaught exception in event subscriber", exception);
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().registerMBean(eventBus, new ObjectName("net.runelite.client:type=EventBus"));
+		}
+		catch (JMException ex)
+		{
+			log.warn("Unable to register event bus MBean", ex);
+		}
+
+		return eventBus;
 	}
 }
@@ -34,6 +34,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.time.Instant;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import lombok.Getter;
@@ -175,6 +176,9 @@ public class SessionManager
 
 		log.debug("Logging out of account {}", accountSession.getUsername());
 
+		// send pending config changes while the session is still valid
+		configManager.sendConfig(5, TimeUnit.SECONDS);
+
 		AccountClient client = new AccountClient(accountSession.getUuid());
 		try
 		{
@@ -148,6 +148,9 @@ public class Hooks implements Callbacks
 
 		clientThread.invoke();
 
+		// tick pending scheduled tasks
+		scheduler.tick();
+
 		long now = System.currentTimeMillis();
 
 		if (now - lastCheck < CHECK)
@@ -159,9 +162,6 @@ public class Hooks implements Callbacks
 
 		try
 		{
-			// tick pending scheduled tasks
-			scheduler.tick();
-
 			// cull infoboxes
 			infoBoxManager.cull();
 
@@ -49,8 +49,8 @@ import net.runelite.api.Varbits;
 import net.runelite.api.events.ConfigChanged;
 import net.runelite.api.events.ResizeableChanged;
 import net.runelite.api.events.SetMessage;
-import net.runelite.api.events.VarbitChanged;
 import net.runelite.client.config.ChatColorConfig;
+import net.runelite.client.game.VarManager;
 
 @Slf4j
 @Singleton
@@ -60,28 +60,17 @@ public class ChatMessageManager
 	private final Provider<Client> clientProvider;
 	private final ScheduledExecutorService executor;
 	private final ChatColorConfig chatColorConfig;
-	private int transparencyVarbit = -1;
 	private final Queue<QueuedMessage> queuedMessages = new ConcurrentLinkedQueue<>();
 
 	@Inject
 	private ChatMessageManager(Provider<Client> clientProvider, ScheduledExecutorService executor,
-		ChatColorConfig chatColorConfig)
+		ChatColorConfig chatColorConfig, VarManager varManager)
 	{
 		this.clientProvider = clientProvider;
 		this.executor = executor;
 		this.chatColorConfig = chatColorConfig;
-	}
-
-	@Subscribe
-	public void onVarbitChanged(VarbitChanged event)
-	{
-		int setting = clientProvider.get().getVar(Varbits.TRANSPARENT_CHATBOX);
 
-		if (transparencyVarbit != setting)
-		{
-			transparencyVarbit = setting;
-			refreshAll();
-		}
+		varManager.subscribe(Varbits.TRANSPARENT_CHATBOX, transparent -> refreshAll());
 	}
 
 	@Subscribe
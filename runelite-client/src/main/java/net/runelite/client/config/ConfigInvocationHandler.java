@@ -24,18 +24,43 @@
  */
 package net.runelite.client.config;
 
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 class ConfigInvocationHandler implements InvocationHandler
 {
+	// Cached value of a getter which returned null
+	private static final Object NULL = new Object();
+
 	private final ConfigManager manager;
 
+	/**
+	 * Resolved annotations of each config method
+	 */
+	private final Map<Method, ConfigMethod> methods = new ConcurrentHashMap<>();
+
+	/**
+	 * Typed values returned by config getters, removed when the key changes
+	 */
+	private final Map<Method, Object> values = new ConcurrentHashMap<>();
+
+	/**
+	 * Incremented on each invalidation, so a getter which raced with a
+	 * change to its key does not cache the value it read before the change
+	 */
+	private final AtomicLong invalidations = new AtomicLong();
+
 	public ConfigInvocationHandler(ConfigManager manager)
 	{
 		this.manager = manager;
@@ -44,54 +69,45 @@ class ConfigInvocationHandler implements InvocationHandler
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
 	{
-		Class<?> iface = proxy.getClass().getInterfaces()[0];
-
-		ConfigGroup group = iface.getAnnotation(ConfigGroup.class);
-		ConfigItem item = method.getAnnotation(ConfigItem.class);
-
-		if (group == null)
+		ConfigMethod configMethod = methods.get(method);
+		boolean cache = true;
+		if (configMethod == null || configMethod.proxyClass != proxy.getClass())
 		{
-			log.warn("Configuration proxy class {} has no @ConfigGroup!", proxy.getClass());
-			return null;
-		}
+			configMethod = resolve(proxy, method);
+			if (configMethod == null)
+			{
+				return null;
+			}
 
-		if (item == null)
-		{
-			log.warn("Configuration method {} has no @ConfigItem!", method);
-			return null;
+			// values of inherited methods are only cached for the first proxy class to call them
+			cache = methods.get(method) == configMethod;
 		}
 
 		if (args == null)
 		{
 			// Getting configuration item
-			String value = manager.getConfiguration(group.value(), item.keyName());
+			cache &= configMethod.cacheable;
 
-			if (value == null)
+			Object value = cache ? values.get(method) : null;
+			if (value != null)
 			{
-				if (method.isDefault())
-				{
-					return callDefaultMethod(proxy, method, null);
-				}
-
-				return null;
+				return value == NULL ? null : value;
 			}
 
-			// Convert value to return type
-			Class<?> returnType = method.getReturnType();
-			
-			try
-			{
-				return ConfigManager.stringToObject(value, returnType);
-			}
-			catch (Exception e)
+			long invalidation = invalidations.get();
+			value = getValue(proxy, method, configMethod);
+
+			if (cache)
 			{
-				log.warn("Unable to unmarshal {}.{} ", group.value(), item.keyName(), e);
-				if (method.isDefault())
+				values.put(method, value == null ? NULL : value);
+				if (invalidations.get() != invalidation)
 				{
-					return callDefaultMethod(proxy, method, null);
+					// the key may have changed after it was read
+					values.remove(method);
 				}
-				return null;
 			}
+
+			return value;
 		}
 		else
 		{
@@ -102,10 +118,12 @@ class ConfigInvocationHandler implements InvocationHandler
 				throw new RuntimeException("Invalid number of arguents to configuration method");
 			}
 
+			String groupName = configMethod.group;
+			String keyName = configMethod.key;
 			Object newValue = args[0];
 
 			Class<?> type = method.getParameterTypes()[0];
-			Object oldValue = manager.getConfiguration(group.value(), item.keyName(), type);
+			Object oldValue = manager.getConfiguration(groupName, keyName, type);
 
 			if (Objects.equals(oldValue, newValue))
 			{
@@ -120,22 +138,127 @@ class ConfigInvocationHandler implements InvocationHandler
 				if (Objects.equals(newValue, defaultValue))
 				{
 					// Just unset if it goes back to the default
-					manager.unsetConfiguration(group.value(), item.keyName());
+					manager.unsetConfiguration(groupName, keyName);
 					return null;
 				}
 			}
 
 			if (newValue == null)
 			{
-				manager.unsetConfiguration(group.value(), item.keyName());
+				manager.unsetConfiguration(groupName, keyName);
 			}
 			else
 			{
 				String newValueStr = ConfigManager.objectToString(newValue);
-				manager.setConfiguration(group.value(), item.keyName(), newValueStr);
+				manager.setConfiguration(groupName, keyName, newValueStr);
+			}
+			return null;
+		}
+	}
+
+	private Object getValue(Object proxy, Method method, ConfigMethod configMethod) throws Throwable
+	{
+		String value = manager.getConfiguration(configMethod.groupAndKey);
+
+		if (value == null)
+		{
+			if (method.isDefault())
+			{
+				return callDefaultMethod(proxy, method, null);
 			}
+
 			return null;
 		}
+
+		// Convert value to return type
+		try
+		{
+			return ConfigManager.stringToObject(value, method.getReturnType());
+		}
+		catch (Exception e)
+		{
+			log.warn("Unable to unmarshal {} ", configMethod.groupAndKey, e);
+			if (method.isDefault())
+			{
+				return callDefaultMethod(proxy, method, null);
+			}
+			return null;
+		}
+	}
+
+	private ConfigMethod resolve(Object proxy, Method method)
+	{
+		Class<?> iface = proxy.getClass().getInterfaces()[0];
+
+		ConfigGroup group = iface.getAnnotation(ConfigGroup.class);
+		ConfigItem item = method.getAnnotation(ConfigItem.class);
+
+		if (group == null)
+		{
+			log.warn("Configuration proxy class {} has no @ConfigGroup!", proxy.getClass());
+			return null;
+		}
+
+		if (item == null)
+		{
+			log.warn("Configuration method {} has no @ConfigItem!", method);
+			return null;
+		}
+
+		ConfigMethod configMethod = new ConfigMethod(proxy.getClass(), group.value(), item.keyName(), isImmutable(method.getReturnType()));
+		ConfigMethod existing = methods.putIfAbsent(method, configMethod);
+		return existing != null && existing.proxyClass == configMethod.proxyClass ? existing : configMethod;
+	}
+
+	/**
+	 * Drop the cached values of the getters for a key
+	 *
+	 * @param groupAndKey
+	 */
+	void invalidate(String groupAndKey)
+	{
+		invalidations.incrementAndGet();
+
+		for (Map.Entry<Method, ConfigMethod> entry : methods.entrySet())
+		{
+			if (entry.getValue().groupAndKey.equals(groupAndKey))
+			{
+				values.remove(entry.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Drop the cached values of all getters
+	 */
+	void invalidateAll()
+	{
+		invalidations.incrementAndGet();
+		values.clear();
+	}
+
+	private static boolean isImmutable(Class<?> type)
+	{
+		// getters of mutable types return a new instance on each call
+		return type != Dimension.class && type != Point.class && type != Rectangle.class;
+	}
+
+	private static class ConfigMethod
+	{
+		private final Class<?> proxyClass;
+		private final String group;
+		private final String key;
+		private final String groupAndKey;
+		private final boolean cacheable;
+
+		ConfigMethod(Class<?> proxyClass, String group, String key, boolean cacheable)
+		{
+			this.proxyClass = proxyClass;
+			this.group = group;
+			this.key = key;
+			this.groupAndKey = group + "." + key;
+			this.cacheable = cacheable;
+		}
 	}
 
 	static Object callDefaultMethod(Object proxy, Method method, Object[] args) throws Throwable
@@ -24,6 +24,7 @@
  */
 package net.runelite.client.config;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.eventbus.EventBus;
@@ -42,11 +43,17 @@ import java.lang.reflect.Proxy;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -56,6 +63,7 @@ import net.runelite.client.RuneLite;
 import net.runelite.client.account.AccountSession;
 import net.runelite.http.api.config.ConfigClient;
 import net.runelite.http.api.config.ConfigEntry;
+import net.runelite.http.api.config.ConfigPatch;
 import net.runelite.http.api.config.Configuration;
 
 @Singleton
@@ -64,6 +72,27 @@ public class ConfigManager
 {
 	private static final String SETTINGS_FILE_NAME = "settings.properties";
 
+	/**
+	 * How long changes are collected for before being sent to the server
+	 */
+	private static final int SYNC_DELAY_MS = 1000;
+
+	/**
+	 * How long to wait before sending changes again after failing to
+	 */
+	private static final int SYNC_RETRY_DELAY_MS = 30_000;
+
+	/**
+	 * How long switching sessions waits for the old session's changes to be sent
+	 */
+	private static final int SWITCH_SEND_TIMEOUT_SECONDS = 5;
+
+	/**
+	 * How often changes made to the configuration on the server, such as
+	 * by another client logged in to the same account, are loaded
+	 */
+	private static final int REFRESH_INTERVAL_MINUTES = 5;
+
 	@Inject
 	EventBus eventBus;
 
@@ -71,12 +100,28 @@ public class ConfigManager
 	ScheduledExecutorService executor;
 
 	private AccountSession session;
-	private ConfigClient client;
+	private volatile ConfigClient client;
 	private File propertiesFile;
 
-	private final ConfigInvocationHandler handler = new ConfigInvocationHandler(this);
+	final ConfigInvocationHandler handler = new ConfigInvocationHandler(this);
 	private final Properties properties = new Properties();
 
+	/**
+	 * changes not yet sent to the server, with null values for unset keys
+	 */
+	private final Map<String, String> pendingChanges = new HashMap<>();
+	private boolean syncScheduled;
+	/**
+	 * held while sending changes or loading the configuration from the
+	 * server, so a load can't overwrite changes which are being sent
+	 */
+	private final Object syncLock = new Object();
+	/**
+	 * version of the server configuration last loaded, or 0
+	 */
+	private volatile long configVersion;
+	private ScheduledFuture<?> refreshFuture;
+
 	public ConfigManager()
 	{
 		this.propertiesFile = getPropertiesFile();
@@ -84,20 +129,45 @@ public class ConfigManager
 
 	public final void switchSession(AccountSession session)
 	{
-		if (session == null)
-		{
-			this.session = null;
-			this.client = null;
-		}
-		else
+		// pending changes belong to the old session, so send them while it
+		// is still valid and drop any which couldn't be sent
+		sendConfig(SWITCH_SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+		synchronized (pendingChanges)
 		{
-			this.session = session;
-			this.client = new ConfigClient(session.getUuid());
+			pendingChanges.clear();
+			configVersion = 0;
+
+			if (session == null)
+			{
+				this.session = null;
+				this.client = null;
+			}
+			else
+			{
+				this.session = session;
+				this.client = new ConfigClient(session.getUuid());
+			}
 		}
 
 		this.propertiesFile = getPropertiesFile();
 
 		load(); // load profile specific config
+
+		synchronized (pendingChanges)
+		{
+			if (refreshFuture != null)
+			{
+				refreshFuture.cancel(false);
+				refreshFuture = null;
+			}
+
+			if (session != null)
+			{
+				refreshFuture = executor.scheduleWithFixedDelay(this::refresh,
+					REFRESH_INTERVAL_MINUTES, REFRESH_INTERVAL_MINUTES, TimeUnit.MINUTES);
+			}
+		}
 	}
 
 	private File getPropertiesFile()
@@ -122,11 +192,40 @@ public class ConfigManager
 			return;
 		}
 
+		synchronized (syncLock)
+		{
+			loadFromServer();
+		}
+	}
+
+	/**
+	 * Load the changes made to the configuration on the server since it
+	 * was last loaded. Nothing is loaded unless the configuration has been
+	 * loaded from the server before.
+	 */
+	@VisibleForTesting
+	void refresh()
+	{
+		synchronized (syncLock)
+		{
+			if (client != null && configVersion > 0)
+			{
+				loadFromServer();
+			}
+		}
+	}
+
+	private void loadFromServer()
+	{
+		// don't let the server's copy overwrite changes not yet sent
+		sendConfig();
+
 		Configuration configuration;
+		long since = configVersion;
 
 		try
 		{
-			configuration = client.get();
+			configuration = client.get(since);
 		}
 		catch (IOException ex)
 		{
@@ -135,6 +234,21 @@ public class ConfigManager
 			return;
 		}
 
+		if (since > 0)
+		{
+			if (configuration.getVersion() < since)
+			{
+				// the server has lost changes we have seen, start over
+				log.debug("Configuration version went backwards from {} to {}", since, configuration.getVersion());
+				configVersion = 0;
+				loadFromServer();
+				return;
+			}
+
+			loadChanges(configuration);
+			return;
+		}
+
 		if (configuration.getConfig().isEmpty())
 		{
 			log.debug("No configuration from client, using saved configuration on disk");
@@ -143,6 +257,8 @@ public class ConfigManager
 		}
 
 		properties.clear();
+		handler.invalidateAll();
+		configVersion = configuration.getVersion();
 
 		for (ConfigEntry entry : configuration.getConfig())
 		{
@@ -152,6 +268,7 @@ public class ConfigManager
 			final String key = split[1];
 			final String value = entry.getValue();
 			final String oldValue = (String) properties.setProperty(entry.getKey(), value);
+			handler.invalidate(entry.getKey());
 
 			ConfigChanged configChanged = new ConfigChanged();
 			configChanged.setGroup(groupName);
@@ -173,6 +290,48 @@ public class ConfigManager
 		}
 	}
 
+	private void loadChanges(Configuration configuration)
+	{
+		configVersion = configuration.getVersion();
+
+		if (configuration.getConfig().isEmpty())
+		{
+			return;
+		}
+
+		for (ConfigEntry entry : configuration.getConfig())
+		{
+			log.debug("Loading configuration change from client {}: {}", entry.getKey(), entry.getValue());
+			final String[] split = entry.getKey().split("\\.", 2);
+			if (split.length != 2)
+			{
+				continue;
+			}
+
+			final String value = entry.getValue();
+			final String oldValue = value != null
+				? (String) properties.setProperty(entry.getKey(), value)
+				: (String) properties.remove(entry.getKey());
+			handler.invalidate(entry.getKey());
+
+			ConfigChanged configChanged = new ConfigChanged();
+			configChanged.setGroup(split[0]);
+			configChanged.setKey(split[1]);
+			configChanged.setOldValue(oldValue);
+			configChanged.setNewValue(value);
+			eventBus.post(configChanged);
+		}
+
+		try
+		{
+			saveToFile();
+		}
+		catch (IOException ex)
+		{
+			log.warn("Unable to update configuration on disk", ex);
+		}
+	}
+
 	private synchronized void loadFromFile()
 	{
 		properties.clear();
@@ -190,6 +349,8 @@ public class ConfigManager
 			log.warn("Unable to load settings", ex);
 		}
 
+		handler.invalidateAll();
+
 		try
 		{
 			Map<String, String> copy = (Map) ImmutableMap.copyOf(properties);
@@ -246,7 +407,12 @@ public class ConfigManager
 
 	public String getConfiguration(String groupName, String key)
 	{
-		return properties.getProperty(groupName + "." + key);
+		return getConfiguration(groupName + "." + key);
+	}
+
+	String getConfiguration(String groupAndKey)
+	{
+		return properties.getProperty(groupAndKey);
 	}
 
 	public <T> T getConfiguration(String groupName, String key, Class<T> clazz)
@@ -271,10 +437,11 @@ public class ConfigManager
 		log.debug("Setting configuration value for {}.{} to {}", groupName, key, value);
 
 		String oldValue = (String) properties.setProperty(groupName + "." + key, value);
+		handler.invalidate(groupName + "." + key);
 
 		if (client != null)
 		{
-			client.set(groupName + "." + key, value);
+			queueSync(groupName + "." + key, value);
 		}
 
 		Runnable task = () ->
@@ -309,10 +476,11 @@ public class ConfigManager
 		log.debug("Unsetting configuration value for {}.{}", groupName, key);
 
 		String oldValue = (String) properties.remove(groupName + "." + key);
+		handler.invalidate(groupName + "." + key);
 
 		if (client != null)
 		{
-			client.unset(groupName + "." + key);
+			queueSync(groupName + "." + key, null);
 		}
 
 		Runnable task = () ->
@@ -336,6 +504,132 @@ public class ConfigManager
 		eventBus.post(configChanged);
 	}
 
+	private void queueSync(String groupAndKey, String value)
+	{
+		synchronized (pendingChanges)
+		{
+			pendingChanges.put(groupAndKey, value);
+			scheduleSync(SYNC_DELAY_MS);
+		}
+	}
+
+	private void scheduleSync(int delayMs)
+	{
+		synchronized (pendingChanges)
+		{
+			if (!syncScheduled)
+			{
+				syncScheduled = true;
+				executor.schedule(() -> sendConfig(), delayMs, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Send any pending configuration changes to the server as one batch.
+	 * Changes are only dropped once the server has them; if sending fails
+	 * they are sent again later.
+	 */
+	public void sendConfig()
+	{
+		synchronized (syncLock)
+		{
+			final ConfigClient client = this.client;
+			final Map<String, String> sent;
+			final ConfigPatch patch = new ConfigPatch();
+
+			synchronized (pendingChanges)
+			{
+				syncScheduled = false;
+				sent = new HashMap<>(pendingChanges);
+			}
+
+			if (client == null || sent.isEmpty())
+			{
+				return;
+			}
+
+			for (Map.Entry<String, String> entry : sent.entrySet())
+			{
+				if (entry.getValue() != null)
+				{
+					patch.getEdit().put(entry.getKey(), entry.getValue());
+				}
+				else
+				{
+					patch.getUnset().add(entry.getKey());
+				}
+			}
+
+			final long version;
+			try
+			{
+				version = client.patch(patch);
+			}
+			catch (IOException ex)
+			{
+				log.warn("Unable to synchronize configuration", ex);
+				scheduleSync(SYNC_RETRY_DELAY_MS);
+				return;
+			}
+
+			log.debug("Synchronized {} configuration changes, now at version {}", sent.size(), version);
+
+			synchronized (pendingChanges)
+			{
+				// keep keys which have been changed again since
+				sent.forEach(pendingChanges::remove);
+
+				// only skip our own changes on the next load if nothing else
+				// changed the configuration in between
+				if (client == this.client && configVersion > 0 && version == configVersion + 1)
+				{
+					configVersion = version;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Send any pending configuration changes from the executor, waiting at
+	 * most the given time for them to be sent. This is for callers, such as
+	 * logout and shutdown, which need the changes sent while the session is
+	 * still valid but must not hang on the network. Changes not sent in
+	 * time are left to the executor.
+	 *
+	 * @param timeout the maximum time to wait
+	 * @param unit the unit of {@code timeout}
+	 */
+	public void sendConfig(long timeout, TimeUnit unit)
+	{
+		Future<?> future = executor.submit(() -> sendConfig());
+
+		try
+		{
+			future.get(timeout, unit);
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException | TimeoutException ex)
+		{
+			log.warn("Unable to synchronize configuration in time", ex);
+		}
+	}
+
+	@VisibleForTesting
+	void setClient(ConfigClient client)
+	{
+		this.client = client;
+	}
+
+	@VisibleForTesting
+	void setPropertiesFile(File propertiesFile)
+	{
+		this.propertiesFile = propertiesFile;
+	}
+
 	public ConfigDescriptor getConfigDescriptor(Object configurationProxy)
 	{
 		Class<?> inter = configurationProxy.getClass().getInterfaces()[0];
@@ -239,4 +239,26 @@ public interface RuneLiteConfig extends Config
 	{
 		return 35;
 	}
-}
\ No newline at end of file
+
+	@ConfigItem(
+		keyName = "throttleSlowOverlays",
+		name = "Throttle slow overlays",
+		description = "Renders overlays which repeatedly exceed the overlay render budget at half rate",
+		position = 40
+	)
+	default boolean throttleSlowOverlays()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "overlayRenderBudget",
+		name = "Overlay render budget (us)",
+		description = "Configures how long in microseconds an overlay may take to render before it is throttled",
+		position = 41
+	)
+	default int overlayRenderBudget()
+	{
+		return 2000;
+	}
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import com.google.common.eventbus.Subscribe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntConsumer;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.VarPlayer;
+import net.runelite.api.Varbits;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.VarbitChanged;
+
+/**
+ * Dispatches changes of single varbits and varps to listeners, so a varp
+ * write only wakes the listeners of the variables stored in that varp,
+ * and only if their value has changed.
+ */
+@Singleton
+@Slf4j
+public class VarManager
+{
+	private final Provider<Client> clientProvider;
+
+	/**
+	 * Listeners by the index of the varp their variable is stored in
+	 */
+	private List<VarListener>[] listeners;
+
+	/**
+	 * Varbit listeners whose varp index is not known yet. Varbits are
+	 * decoded from the cache, which is only loaded once the game has
+	 * started, so they are resolved when the login screen is reached or
+	 * on the first change after that.
+	 */
+	private final List<VarListener> unresolved = new ArrayList<>();
+
+	private boolean preloaded;
+
+	@Inject
+	@SuppressWarnings("unchecked")
+	private VarManager(Provider<Client> clientProvider)
+	{
+		this.clientProvider = clientProvider;
+		this.listeners = new List[0];
+	}
+
+	/**
+	 * Call the listener with the new value of the varbit each time it changes.
+	 *
+	 * @param varbit
+	 * @param listener
+	 */
+	public synchronized void subscribe(Varbits varbit, IntConsumer listener)
+	{
+		unresolved.add(new VarListener(varbit.getId(), true, listener));
+	}
+
+	/**
+	 * Call the listener with the new value of the varp each time it changes.
+	 *
+	 * @param varp
+	 * @param listener
+	 */
+	public synchronized void subscribe(VarPlayer varp, IntConsumer listener)
+	{
+		add(varp.getId(), new VarListener(varp.getId(), false, listener));
+	}
+
+	public synchronized void unsubscribe(IntConsumer listener)
+	{
+		unresolved.removeIf(l -> l.listener == listener);
+		for (List<VarListener> list : listeners)
+		{
+			if (list != null)
+			{
+				list.removeIf(l -> l.listener == listener);
+			}
+		}
+	}
+
+	@Subscribe
+	public void onGameStateChanged(GameStateChanged event)
+	{
+		if (preloaded || event.getGameState() != GameState.LOGIN_SCREEN)
+		{
+			return;
+		}
+
+		// the varbit definitions can be read once the cache has loaded, so
+		// decode the known varbits now instead of on their first use
+		Client client = clientProvider.get();
+		for (Varbits varbit : Varbits.values())
+		{
+			try
+			{
+				client.getVarbitIndex(varbit.getId());
+			}
+			catch (RuntimeException ex)
+			{
+				log.debug("Unable to preload varbit {}", varbit, ex);
+			}
+		}
+		preloaded = true;
+
+		synchronized (this)
+		{
+			resolve(client);
+		}
+	}
+
+	@Subscribe
+	public void onVarbitChanged(VarbitChanged event)
+	{
+		Client client = clientProvider.get();
+		int[] varps = client.getVarps();
+		List<Runnable> calls = new ArrayList<>();
+
+		synchronized (this)
+		{
+			if (!unresolved.isEmpty())
+			{
+				resolve(client);
+			}
+
+			int index = event.getIndex();
+			if (index == -1)
+			{
+				for (List<VarListener> list : listeners)
+				{
+					collect(client, varps, list, calls);
+				}
+			}
+			else if (index < listeners.length)
+			{
+				collect(client, varps, listeners[index], calls);
+			}
+		}
+
+		// listeners are called without the lock held, so they may
+		// subscribe or unsubscribe from any thread
+		for (Runnable call : calls)
+		{
+			call.run();
+		}
+	}
+
+	private void resolve(Client client)
+	{
+		for (Iterator<VarListener> it = unresolved.iterator(); it.hasNext(); )
+		{
+			VarListener listener = it.next();
+			int index;
+
+			try
+			{
+				index = client.getVarbitIndex(listener.id);
+			}
+			catch (RuntimeException ex)
+			{
+				log.debug("Unable to resolve varbit {}", listener.id, ex);
+				continue;
+			}
+
+			add(index, listener);
+			it.remove();
+		}
+	}
+
+	private void add(int index, VarListener listener)
+	{
+		if (index >= listeners.length)
+		{
+			listeners = Arrays.copyOf(listeners, index + 1);
+		}
+
+		List<VarListener> list = listeners[index];
+		if (list == null)
+		{
+			list = listeners[index] = new ArrayList<>();
+		}
+		list.add(listener);
+	}
+
+	private static void collect(Client client, int[] varps, List<VarListener> list, List<Runnable> calls)
+	{
+		if (list == null)
+		{
+			return;
+		}
+
+		for (VarListener listener : list)
+		{
+			int value = listener.varbit
+				? client.getVarbitValue(varps, listener.id)
+				: client.getVarpValue(varps, listener.id);
+
+			if (!listener.hasValue || value != listener.value)
+			{
+				listener.hasValue = true;
+				listener.value = value;
+
+				IntConsumer consumer = listener.listener;
+				calls.add(() -> consumer.accept(value));
+			}
+		}
+	}
+
+	private static class VarListener
+	{
+		private final int id;
+		private final boolean varbit;
+		private final IntConsumer listener;
+		private boolean hasValue;
+		private int value;
+
+		VarListener(int id, boolean varbit, IntConsumer listener)
+		{
+			this.id = id;
+			this.varbit = varbit;
+			this.listener = listener;
+		}
+	}
+}
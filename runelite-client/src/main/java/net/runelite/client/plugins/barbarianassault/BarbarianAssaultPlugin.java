@@ -30,6 +30,7 @@ import java.awt.Font;
 import java.awt.Image;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
 import javax.imageio.ImageIO;
 import javax.inject.Inject;
 import net.runelite.api.ChatMessageType;
@@ -39,9 +40,9 @@ import net.runelite.api.MenuEntry;
 import net.runelite.api.Varbits;
 import net.runelite.api.events.ChatMessage;
 import net.runelite.api.events.GameTick;
-import net.runelite.api.events.VarbitChanged;
 import net.runelite.api.kit.KitType;
 import net.runelite.client.config.ConfigManager;
+import net.runelite.client.game.VarManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.FontManager;
@@ -61,6 +62,7 @@ public class BarbarianAssaultPlugin extends Plugin
 	private Font font;
 	private Image clockImage;
 	private int inGameBit = 0;
+	private final IntConsumer inGameListener = this::onInGameChanged;
 
 	@Inject
 	private Client client;
@@ -68,6 +70,9 @@ public class BarbarianAssaultPlugin extends Plugin
 	@Inject
 	private OverlayManager overlayManager;
 
+	@Inject
+	private VarManager varManager;
+
 	@Inject
 	private BarbarianAssaultConfig config;
 
@@ -84,6 +89,7 @@ public class BarbarianAssaultPlugin extends Plugin
 	protected void startUp() throws Exception
 	{
 		overlayManager.add(overlay);
+		varManager.subscribe(Varbits.IN_GAME_BA, inGameListener);
 		font = FontManager.getRunescapeFont()
 			.deriveFont(Font.BOLD, 24);
 
@@ -97,6 +103,7 @@ public class BarbarianAssaultPlugin extends Plugin
 	protected void shutDown() throws Exception
 	{
 		overlayManager.remove(overlay);
+		varManager.unsubscribe(inGameListener);
 	}
 
 	@Subscribe
@@ -124,11 +131,8 @@ public class BarbarianAssaultPlugin extends Plugin
 		}
 	}
 
-	@Subscribe
-	public void onVarbitChange(VarbitChanged event)
+	private void onInGameChanged(int inGame)
 	{
-		int inGame = client.getVar(Varbits.IN_GAME_BA);
-
 		if (inGameBit != inGame && inGameBit == 1)
 		{
 			// end of game
@@ -43,15 +43,18 @@ public class DevToolsPanel extends PluginPanel
 
 	private final WidgetInspector widgetInspector;
 	private final VarInspector varInspector;
+	private final OverlayProfilerInspector overlayProfilerInspector;
 
 	@Inject
-	public DevToolsPanel(Client client, DevToolsPlugin plugin, WidgetInspector widgetInspector, VarInspector varInspector)
+	public DevToolsPanel(Client client, DevToolsPlugin plugin, WidgetInspector widgetInspector, VarInspector varInspector,
+		OverlayProfilerInspector overlayProfilerInspector)
 	{
 		super();
 		this.client = client;
 		this.plugin = plugin;
 		this.widgetInspector = widgetInspector;
 		this.varInspector = varInspector;
+		this.overlayProfilerInspector = overlayProfilerInspector;
 
 		setBackground(ColorScheme.DARK_GRAY_COLOR);
 
@@ -160,6 +163,13 @@ public class DevToolsPanel extends PluginPanel
 		});
 		container.add(varInspectorBtn);
 
+		final JButton overlayProfilerBtn = new JButton("Overlay Profiler");
+		overlayProfilerBtn.addActionListener(e ->
+		{
+			overlayProfilerInspector.open();
+		});
+		container.add(overlayProfilerBtn);
+
 		final JButton chunkBordersBtn = new JButton("Chunk borders");
 		chunkBordersBtn.addActionListener(e ->
 		{
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.plugins.devtools;
+
+import com.google.inject.Inject;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import net.runelite.client.ui.ClientUI;
+import net.runelite.client.ui.overlay.OverlayProfiler;
+import net.runelite.client.ui.overlay.OverlayTiming;
+
+class OverlayProfilerInspector extends JFrame
+{
+	private static final int REFRESH_INTERVAL = 1000;
+
+	private static final String[] COLUMNS =
+	{
+		"Overlay", "Layer", "Samples", "Avg (us)", "p50 (us)", "p95 (us)", "p99 (us)", "Max (us)", "Alloc (B)", "Overruns", "Throttled"
+	};
+
+	private final OverlayProfiler overlayProfiler;
+	private final TimingTableModel model = new TimingTableModel();
+	private final Timer refreshTimer = new Timer(REFRESH_INTERVAL, e -> refresh());
+
+	@Inject
+	OverlayProfilerInspector(OverlayProfiler overlayProfiler)
+	{
+		this.overlayProfiler = overlayProfiler;
+
+		setTitle("RuneLite Overlay Profiler");
+		setIconImage(ClientUI.ICON);
+
+		setLayout(new BorderLayout());
+
+		setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+		addWindowListener(new WindowAdapter()
+		{
+			@Override
+			public void windowClosing(WindowEvent e)
+			{
+				close();
+			}
+		});
+
+		final JTable table = new JTable(model);
+		table.setAutoCreateRowSorter(true);
+
+		final JScrollPane scrollPane = new JScrollPane(table);
+		scrollPane.setPreferredSize(new Dimension(800, 400));
+		add(scrollPane, BorderLayout.CENTER);
+
+		final JButton resetBtn = new JButton("Reset");
+		resetBtn.addActionListener(e ->
+		{
+			overlayProfiler.reset();
+			refresh();
+		});
+		add(resetBtn, BorderLayout.SOUTH);
+
+		pack();
+	}
+
+	private void refresh()
+	{
+		final List<OverlayTiming> timings = new ArrayList<>(overlayProfiler.getLayerTimings());
+		timings.addAll(overlayProfiler.getOverlayTimings());
+		model.setTimings(timings);
+	}
+
+	public void open()
+	{
+		overlayProfiler.setEnabled(true);
+		refreshTimer.start();
+		refresh();
+		setVisible(true);
+		toFront();
+		repaint();
+	}
+
+	public void close()
+	{
+		refreshTimer.stop();
+		overlayProfiler.setEnabled(false);
+		setVisible(false);
+	}
+
+	private static class TimingTableModel extends AbstractTableModel
+	{
+		private List<OverlayTiming> timings = new ArrayList<>();
+
+		void setTimings(List<OverlayTiming> timings)
+		{
+			this.timings = timings;
+			fireTableDataChanged();
+		}
+
+		@Override
+		public String getColumnName(int col)
+		{
+			return COLUMNS[col];
+		}
+
+		@Override
+		public Class<?> getColumnClass(int col)
+		{
+			switch (col)
+			{
+				case 0:
+				case 1:
+					return String.class;
+				case 2:
+				case 8:
+				case 9:
+					return Long.class;
+				case 10:
+					return Boolean.class;
+				default:
+					return Double.class;
+			}
+		}
+
+		@Override
+		public int getColumnCount()
+		{
+			return COLUMNS.length;
+		}
+
+		@Override
+		public int getRowCount()
+		{
+			return timings.size();
+		}
+
+		@Override
+		public Object getValueAt(int rowIndex, int columnIndex)
+		{
+			final OverlayTiming timing = timings.get(rowIndex);
+			switch (columnIndex)
+			{
+				case 0:
+					return timing.getName();
+				case 1:
+					return timing.getLayer();
+				case 2:
+					return timing.getSamples();
+				case 3:
+					return round(timing.getAverage());
+				case 4:
+					return round(timing.getP50());
+				case 5:
+					return round(timing.getP95());
+				case 6:
+					return round(timing.getP99());
+				case 7:
+					return round(timing.getMax());
+				case 8:
+					return timing.getAllocatedBytes();
+				case 9:
+					return timing.getOverruns();
+				case 10:
+					return timing.isThrottled();
+				default:
+					return null;
+			}
+		}
+
+		private static double round(double value)
+		{
+			return Math.round(value * 10) / 10d;
+		}
+	}
+}
@@ -32,11 +32,11 @@ import net.runelite.client.util.WildcardMatcher;
 
 class WildcardMatchLoader extends CacheLoader<String, Boolean>
 {
-	private final List<String> nameFilters;
+	private final WildcardMatcher matcher;
 
 	WildcardMatchLoader(List<String> nameFilters)
 	{
-		this.nameFilters = nameFilters;
+		this.matcher = WildcardMatcher.compile(nameFilters);
 	}
 
 	@Override
@@ -48,15 +48,6 @@ class WildcardMatchLoader extends CacheLoader<String, Boolean>
 		}
 
 		final String filteredName = key.trim();
-
-		for (final String filter : nameFilters)
-		{
-			if (WildcardMatcher.matches(filter, filteredName))
-			{
-				return true;
-			}
-		}
-
-		return false;
+		return matcher.matches(filteredName);
 	}
 }
@@ -135,9 +135,9 @@ public class NpcIndicatorsPlugin extends Plugin
 	private final Map<Integer, MemorizedNpc> memorizedNpcs = new HashMap<>();
 
 	/**
-	 * Highlight strings from the configuration
+	 * Highlight strings from the configuration, compiled into a matcher
 	 */
-	private List<String> highlights = new ArrayList<>();
+	private WildcardMatcher highlights = WildcardMatcher.compile(Collections.emptyList());
 
 	/**
 	 * NPC ids marked with the Tag option
@@ -296,15 +296,11 @@ public class NpcIndicatorsPlugin extends Plugin
 				return;
 			}
 
-			for (String highlight : highlights)
+			if (highlights.matches(npcName))
 			{
-				if (WildcardMatcher.matches(highlight, npcName))
-				{
-					memorizeNpc(npc);
-					highlightedNpcs.add(npc);
-					spawnedNpcsThisTick.add(npc);
-					break;
-				}
+				memorizeNpc(npc);
+				highlightedNpcs.add(npc);
+				spawnedNpcsThisTick.add(npc);
 			}
 		}
 	}
@@ -419,16 +415,16 @@ public class NpcIndicatorsPlugin extends Plugin
 		hotKeyPressed = pressed;
 	}
 
-	private List<String> getHighlights()
+	private WildcardMatcher getHighlights()
 	{
 		final String configNpcs = config.getNpcToHighlight().toLowerCase();
 
 		if (configNpcs.isEmpty())
 		{
-			return Collections.emptyList();
+			return WildcardMatcher.compile(Collections.emptyList());
 		}
 
-		return COMMA_SPLITTER.splitToList(configNpcs);
+		return WildcardMatcher.compile(COMMA_SPLITTER.splitToList(configNpcs));
 	}
 
 	private void rebuildAllNpcs()
@@ -443,7 +439,6 @@ public class NpcIndicatorsPlugin extends Plugin
 			return;
 		}
 
-		outer:
 		for (NPC npc : client.getNpcs())
 		{
 			final String npcName = npc.getName();
@@ -459,14 +454,11 @@ public class NpcIndicatorsPlugin extends Plugin
 				continue;
 			}
 
-			for (String highlight : highlights)
+			if (highlights.matches(npcName))
 			{
-				if (WildcardMatcher.matches(highlight, npcName))
-				{
-					memorizeNpc(npc);
-					highlightedNpcs.add(npc);
-					continue outer;
-				}
+				memorizeNpc(npc);
+				highlightedNpcs.add(npc);
+				continue;
 			}
 
 			// NPC is not highlighted
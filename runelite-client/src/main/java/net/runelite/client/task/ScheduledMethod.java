@@ -24,21 +24,93 @@
  */
 package net.runelite.client.task;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ScheduledMethod
 {
 	private final Schedule schedule;
 	private final Method method;
 	private final Object object;
-	private Instant last = Instant.now();
+	private final MethodHandle handle;
+	private final long periodNanos;
+
+	// next time the method is due, in System.nanoTime() terms, and its timer wheel bucket.
+	// Guarded by the scheduler
+	long deadline;
+	int bucket;
+	// whether an asynchronous run is queued or in progress
+	final AtomicBoolean running = new AtomicBoolean();
+
+	// run time metrics, only written by the thread running the method
+	private volatile long runs;
+	private volatile long skipped;
+	private volatile long totalNanos;
+	private volatile long maxNanos;
+	private volatile long lastNanos;
 
 	public ScheduledMethod(Schedule schedule, Method method, Object object)
 	{
 		this.schedule = schedule;
 		this.method = method;
 		this.object = object;
+		this.handle = bind(method, object);
+		this.periodNanos = schedule.unit().getDuration().multipliedBy(schedule.period()).toNanos();
+	}
+
+	private static MethodHandle bind(Method method, Object object)
+	{
+		method.setAccessible(true);
+
+		try
+		{
+			return MethodHandles.lookup().unreflect(method)
+				.bindTo(object)
+				.asType(MethodType.methodType(void.class));
+		}
+		catch (IllegalAccessException ex)
+		{
+			throw new IllegalArgumentException("unable to access scheduled method " + method, ex);
+		}
+	}
+
+	void invoke() throws Throwable
+	{
+		handle.invokeExact();
+	}
+
+	void recordRun(long nanos)
+	{
+		runs = runs + 1;
+		totalNanos = totalNanos + nanos;
+		lastNanos = nanos;
+		if (nanos > maxNanos)
+		{
+			maxNanos = nanos;
+		}
+	}
+
+	void recordSkip()
+	{
+		skipped = skipped + 1;
+	}
+
+	ScheduledTaskTiming getTiming()
+	{
+		final long runs = this.runs;
+		return new ScheduledTaskTiming(
+			object.getClass().getSimpleName() + "." + method.getName(),
+			schedule.unit().getDuration().multipliedBy(schedule.period()).toMillis(),
+			schedule.asynchronous(),
+			runs,
+			skipped,
+			runs == 0 ? 0 : totalNanos / (double) runs / 1000d,
+			maxNanos / 1000d,
+			lastNanos / 1000d
+		);
 	}
 
 	@Override
@@ -62,13 +134,8 @@ public class ScheduledMethod
 		return object;
 	}
 
-	public Instant getLast()
-	{
-		return last;
-	}
-
-	public void setLast(Instant last)
+	public long getPeriodNanos()
 	{
-		this.last = last;
+		return periodNanos;
 	}
 }
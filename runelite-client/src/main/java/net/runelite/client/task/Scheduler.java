@@ -24,35 +24,107 @@
  */
 package net.runelite.client.task;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.time.Duration;
-import java.time.Instant;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ScheduledExecutorService;
-import javax.inject.Inject;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Runs {@link Schedule} annotated methods.
+ * <p>
+ * Scheduled methods are kept in a hashed timer wheel keyed on
+ * {@link System#nanoTime()}, so each {@link #tick()} only visits the
+ * buckets which have come due since the previous tick. Synchronous methods
+ * run on the thread calling {@link #tick()}, which is the client thread,
+ * and asynchronous methods run on a small bounded thread pool.
+ */
 @Singleton
 @Slf4j
-public class Scheduler
+public class Scheduler implements SchedulerMXBean
 {
+	private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final int WHEEL_SIZE = 512; // must be a power of two
+	private static final int ASYNC_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+	private static final int ASYNC_QUEUE_SIZE = 64;
+
 	private final List<ScheduledMethod> scheduledMethods = new CopyOnWriteArrayList<>();
+	private final long startNanos;
+	private final ExecutorService asyncExecutor;
+
+	// guarded by wheel
+	private final List<ScheduledMethod>[] wheel;
+	private long lastTick;
+
+	public Scheduler()
+	{
+		this(System.nanoTime());
+
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("net.runelite.client:type=Scheduler"));
+		}
+		catch (JMException ex)
+		{
+			log.warn("Unable to register scheduler MBean", ex);
+		}
+	}
 
-	@Inject
-	ScheduledExecutorService executor;
+	@SuppressWarnings("unchecked")
+	Scheduler(long startNanos)
+	{
+		this.startNanos = startNanos;
+		this.wheel = new List[WHEEL_SIZE];
+		for (int i = 0; i < WHEEL_SIZE; ++i)
+		{
+			wheel[i] = new ArrayList<>();
+		}
+
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(ASYNC_THREADS, ASYNC_THREADS,
+			60, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<>(ASYNC_QUEUE_SIZE),
+			new ThreadFactoryBuilder()
+				.setNameFormat("scheduler-async-%d")
+				.setDaemon(true)
+				.build());
+		executor.allowCoreThreadTimeOut(true);
+		this.asyncExecutor = executor;
+	}
 
 	public void addScheduledMethod(ScheduledMethod method)
 	{
+		addScheduledMethod(method, System.nanoTime());
+	}
+
+	void addScheduledMethod(ScheduledMethod method, long now)
+	{
+		synchronized (wheel)
+		{
+			method.deadline = now + method.getPeriodNanos();
+			insert(method);
+		}
+
 		scheduledMethods.add(method);
 	}
 
 	public void removeScheduledMethod(ScheduledMethod method)
 	{
 		scheduledMethods.remove(method);
+
+		synchronized (wheel)
+		{
+			wheel[method.bucket].remove(method);
+		}
 	}
 
 	public List<ScheduledMethod> getScheduledMethods()
@@ -60,52 +132,133 @@ public class Scheduler
 		return Collections.unmodifiableList(scheduledMethods);
 	}
 
+	@Override
+	public List<ScheduledTaskTiming> getTaskTimings()
+	{
+		final List<ScheduledTaskTiming> timings = new ArrayList<>(scheduledMethods.size());
+		for (ScheduledMethod method : scheduledMethods)
+		{
+			timings.add(method.getTiming());
+		}
+		return timings;
+	}
+
 	public void tick()
 	{
-		Instant now = Instant.now();
+		tick(System.nanoTime());
+	}
+
+	void tick(long now)
+	{
+		final List<ScheduledMethod> due = new ArrayList<>();
 
-		for (ScheduledMethod scheduledMethod : scheduledMethods)
+		synchronized (wheel)
 		{
-			Instant last = scheduledMethod.getLast();
+			final long tick = (now - startNanos) / TICK_NANOS;
+			if (tick <= lastTick)
+			{
+				return;
+			}
 
-			Duration difference = Duration.between(last, now);
+			// after a long pause every bucket is visited once
+			final long from = Math.max(lastTick + 1, tick - WHEEL_SIZE + 1);
+			for (long t = from; t <= tick; ++t)
+			{
+				final List<ScheduledMethod> bucket = wheel[(int) (t & (WHEEL_SIZE - 1))];
+				for (int i = bucket.size() - 1; i >= 0; --i)
+				{
+					final ScheduledMethod method = bucket.get(i);
+					if (method.deadline - now <= 0)
+					{
+						bucket.remove(i);
+						due.add(method);
+					}
+				}
+			}
 
-			Schedule schedule = scheduledMethod.getSchedule();
-			Duration timeSinceRun = Duration.of(schedule.period(), schedule.unit());
+			lastTick = tick;
 
-			if (difference.compareTo(timeSinceRun) > 0)
+			for (ScheduledMethod method : due)
 			{
-				log.trace("Scheduled task triggered: {}", scheduledMethod);
+				method.deadline += method.getPeriodNanos();
+				if (method.deadline - now <= 0)
+				{
+					// skip runs missed while the client was busy
+					method.deadline = now + method.getPeriodNanos();
+				}
+				insert(method);
+			}
+		}
+
+		for (ScheduledMethod method : due)
+		{
+			log.trace("Scheduled task triggered: {}", method);
+
+			if (method.getSchedule().asynchronous())
+			{
+				runAsync(method);
+			}
+			else
+			{
+				run(method);
+			}
+		}
+	}
 
-				scheduledMethod.setLast(now);
+	private void insert(ScheduledMethod method)
+	{
+		// round up, and never into a bucket which has already been visited this revolution
+		long tick = (method.deadline - startNanos + TICK_NANOS - 1) / TICK_NANOS;
+		tick = Math.max(tick, lastTick + 1);
 
-				if (schedule.asynchronous())
+		method.bucket = (int) (tick & (WHEEL_SIZE - 1));
+		wheel[method.bucket].add(method);
+	}
+
+	private void runAsync(ScheduledMethod method)
+	{
+		if (!method.running.compareAndSet(false, true))
+		{
+			log.debug("Skipping scheduled task {}, previous run has not finished", method);
+			method.recordSkip();
+			return;
+		}
+
+		try
+		{
+			asyncExecutor.execute(() ->
+			{
+				try
 				{
-					executor.submit(() -> run(scheduledMethod));
+					run(method);
 				}
-				else
+				finally
 				{
-					run(scheduledMethod);
+					method.running.set(false);
 				}
-			}
+			});
+		}
+		catch (RejectedExecutionException ex)
+		{
+			log.warn("Unable to run scheduled task {}, too many tasks queued", method);
+			method.running.set(false);
+			method.recordSkip();
 		}
 	}
 
 	private void run(ScheduledMethod scheduledMethod)
 	{
-		Method method = scheduledMethod.getMethod();
+		final long start = System.nanoTime();
 
 		try
 		{
-			method.invoke(scheduledMethod.getObject());
-		}
-		catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex)
-		{
-			log.warn("error invoking scheduled task", ex);
+			scheduledMethod.invoke();
 		}
-		catch (Exception ex)
+		catch (Throwable ex)
 		{
 			log.warn("error during scheduled task", ex);
 		}
+
+		scheduledMethod.recordRun(System.nanoTime() - start);
 	}
 }
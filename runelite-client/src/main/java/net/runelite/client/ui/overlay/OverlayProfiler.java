@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.ui.overlay;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.config.RuneLiteConfig;
+
+/**
+ * Records how long each overlay and overlay layer takes to render, and
+ * throttles overlays which repeatedly exceed the configured render budget.
+ * <p>
+ * Timings are only recorded while profiling is enabled, either through the
+ * developer tools or over JMX, or while overlay throttling is enabled.
+ */
+@Singleton
+@Slf4j
+public class OverlayProfiler implements OverlayProfilerMXBean
+{
+	private static final String MBEAN_NAME = "net.runelite.client:type=OverlayProfiler";
+
+	// number of recent samples percentiles are computed over
+	private static final int WINDOW_SIZE = 256;
+	// consecutive renders over budget before an overlay is throttled
+	private static final int THROTTLE_THRESHOLD = 5;
+	// consecutive renders within budget before a throttled overlay is restored
+	private static final int RESTORE_THRESHOLD = 50;
+
+	private final RuneLiteConfig runeLiteConfig;
+	private final Map<Overlay, Stats> overlayStats = Collections.synchronizedMap(new WeakHashMap<>());
+	private final Map<OverlayLayer, Stats> layerStats = new EnumMap<>(OverlayLayer.class);
+	private final com.sun.management.ThreadMXBean allocationBean;
+
+	@Getter
+	@Setter
+	private volatile boolean enabled;
+
+	// configuration for the layer currently being rendered
+	private boolean throttling;
+	private long budgetNanos;
+
+	@Inject
+	OverlayProfiler(final RuneLiteConfig runeLiteConfig)
+	{
+		this.runeLiteConfig = runeLiteConfig;
+
+		for (OverlayLayer layer : OverlayLayer.values())
+		{
+			layerStats.put(layer, new Stats(layer.name(), layer));
+		}
+
+		allocationBean = getAllocationBean();
+
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(MBEAN_NAME));
+		}
+		catch (JMException | SecurityException ex)
+		{
+			log.warn("Unable to register overlay profiler MBean", ex);
+		}
+	}
+
+	private static com.sun.management.ThreadMXBean getAllocationBean()
+	{
+		try
+		{
+			final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+			if (threadBean instanceof com.sun.management.ThreadMXBean)
+			{
+				final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+				if (bean.isThreadAllocatedMemorySupported())
+				{
+					bean.setThreadAllocatedMemoryEnabled(true);
+					return bean;
+				}
+			}
+		}
+		catch (LinkageError | UnsupportedOperationException | SecurityException ex)
+		{
+			log.debug("Thread allocation counters are not supported", ex);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Called at the start of rendering a layer.
+	 *
+	 * @return true if the overlays of the layer should be timed
+	 */
+	boolean beginLayer()
+	{
+		throttling = runeLiteConfig.throttleSlowOverlays();
+		budgetNanos = TimeUnit.MICROSECONDS.toNanos(runeLiteConfig.overlayRenderBudget());
+		return enabled || throttling;
+	}
+
+	void endLayer(OverlayLayer layer, long nanos)
+	{
+		layerStats.get(layer).record(nanos, -1, false);
+	}
+
+	Stats getStats(Overlay overlay)
+	{
+		return overlayStats.computeIfAbsent(overlay, o -> new Stats(o.getName(), o.getLayer()));
+	}
+
+	/**
+	 * Get the bytes allocated so far by the current thread, or -1 if
+	 * allocations are not being measured.
+	 */
+	long allocatedBytes()
+	{
+		if (!enabled || allocationBean == null)
+		{
+			return -1;
+		}
+
+		return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Whether the overlay should reuse its previous frame instead of being
+	 * rendered this frame. Throttled overlays are rendered every other frame.
+	 */
+	boolean shouldSkip(Stats stats)
+	{
+		if (!throttling || !stats.throttled || stats.frameCache == null)
+		{
+			return false;
+		}
+
+		stats.skipped = !stats.skipped;
+		return stats.skipped;
+	}
+
+	boolean isThrottled(Stats stats)
+	{
+		return throttling && stats.throttled;
+	}
+
+	void record(Stats stats, long nanos, long allocated)
+	{
+		final boolean overrun = budgetNanos > 0 && nanos > budgetNanos;
+		stats.record(nanos, allocated, overrun);
+
+		if (!throttling || budgetNanos <= 0)
+		{
+			stats.restore();
+			return;
+		}
+
+		if (overrun)
+		{
+			stats.underruns = 0;
+			if (++stats.overruns >= THROTTLE_THRESHOLD && !stats.throttled)
+			{
+				log.debug("Throttling overlay {} after {} renders over budget", stats.name, stats.overruns);
+				stats.throttled = true;
+			}
+		}
+		else
+		{
+			stats.overruns = 0;
+			if (stats.throttled && ++stats.underruns >= RESTORE_THRESHOLD)
+			{
+				log.debug("Restoring overlay {}", stats.name);
+				stats.restore();
+			}
+		}
+	}
+
+	@Override
+	public List<OverlayTiming> getOverlayTimings()
+	{
+		final List<Stats> stats;
+		synchronized (overlayStats)
+		{
+			stats = new ArrayList<>(overlayStats.values());
+		}
+
+		final List<OverlayTiming> timings = new ArrayList<>(stats.size());
+		for (Stats s : stats)
+		{
+			timings.add(s.snapshot());
+		}
+
+		timings.sort(Comparator.comparingDouble(OverlayTiming::getP95).reversed());
+		return timings;
+	}
+
+	@Override
+	public List<OverlayTiming> getLayerTimings()
+	{
+		final List<OverlayTiming> timings = new ArrayList<>(layerStats.size());
+		for (Stats s : layerStats.values())
+		{
+			timings.add(s.snapshot());
+		}
+		return timings;
+	}
+
+	@Override
+	public void reset()
+	{
+		synchronized (overlayStats)
+		{
+			overlayStats.values().forEach(Stats::reset);
+		}
+		layerStats.values().forEach(Stats::reset);
+	}
+
+	static final class Stats
+	{
+		private final String name;
+		private final OverlayLayer layer;
+
+		// guarded by this
+		private final long[] window = new long[WINDOW_SIZE];
+		private long samples;
+		private long totalNanos;
+		private long maxNanos;
+		private long allocatedBytes;
+		private long allocationSamples;
+		private long totalOverruns;
+
+		// throttling state, only accessed from the render thread
+		private int overruns;
+		private int underruns;
+		private volatile boolean throttled;
+		private boolean skipped;
+		BufferedImage frameCache;
+		Dimension frameDimension;
+
+		private Stats(String name, OverlayLayer layer)
+		{
+			this.name = name;
+			this.layer = layer;
+		}
+
+		private synchronized void record(long nanos, long allocated, boolean overrun)
+		{
+			window[(int) (samples % WINDOW_SIZE)] = nanos;
+			++samples;
+			totalNanos += nanos;
+			maxNanos = Math.max(maxNanos, nanos);
+
+			if (allocated >= 0)
+			{
+				allocatedBytes += allocated;
+				++allocationSamples;
+			}
+
+			if (overrun)
+			{
+				++totalOverruns;
+			}
+		}
+
+		private void restore()
+		{
+			throttled = false;
+			overruns = 0;
+			underruns = 0;
+			frameCache = null;
+			frameDimension = null;
+		}
+
+		private synchronized void reset()
+		{
+			samples = 0;
+			totalNanos = 0;
+			maxNanos = 0;
+			allocatedBytes = 0;
+			allocationSamples = 0;
+			totalOverruns = 0;
+		}
+
+		private synchronized OverlayTiming snapshot()
+		{
+			final int count = (int) Math.min(samples, WINDOW_SIZE);
+			final long[] sorted = Arrays.copyOf(window, count);
+			Arrays.sort(sorted);
+
+			return new OverlayTiming(
+				name,
+				layer.name(),
+				samples,
+				samples == 0 ? 0 : micros(totalNanos / (double) samples),
+				micros(percentile(sorted, 0.50)),
+				micros(percentile(sorted, 0.95)),
+				micros(percentile(sorted, 0.99)),
+				micros(maxNanos),
+				allocationSamples == 0 ? -1 : allocatedBytes / allocationSamples,
+				totalOverruns,
+				throttled
+			);
+		}
+
+		private static long percentile(long[] sorted, double percentile)
+		{
+			if (sorted.length == 0)
+			{
+				return 0;
+			}
+
+			final int index = (int) Math.ceil(percentile * sorted.length) - 1;
+			return sorted[Math.max(index, 0)];
+		}
+
+		private static double micros(double nanos)
+		{
+			return nanos / 1000d;
+		}
+	}
+}
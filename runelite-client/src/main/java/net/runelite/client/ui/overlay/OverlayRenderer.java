@@ -26,6 +26,7 @@ package net.runelite.client.ui.overlay;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.eventbus.Subscribe;
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
@@ -33,6 +34,7 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
 import java.util.List;
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -71,6 +73,7 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 	private final Provider<Client> clientProvider;
 	private final OverlayManager overlayManager;
 	private final RuneLiteConfig runeLiteConfig;
+	private final OverlayProfiler overlayProfiler;
 
 	// Overlay movement variables
 	private final Point overlayOffset = new Point();
@@ -90,12 +93,14 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 		final Provider<Client> clientProvider,
 		final OverlayManager overlayManager,
 		final RuneLiteConfig runeLiteConfig,
+		final OverlayProfiler overlayProfiler,
 		final MouseManager mouseManager,
 		final KeyManager keyManager)
 	{
 		this.clientProvider = clientProvider;
 		this.overlayManager = overlayManager;
 		this.runeLiteConfig = runeLiteConfig;
+		this.overlayProfiler = overlayProfiler;
 		keyManager.registerKeyListener(this);
 		mouseManager.registerMouseListener(this);
 	}
@@ -133,6 +138,9 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 		OverlayBounds snapCorners = new OverlayBounds(this.snapCorners);
 		OverlayUtil.setGraphicProperties(graphics);
 
+		final boolean profiling = overlayProfiler.beginLayer();
+		final long layerStart = profiling ? System.nanoTime() : 0;
+
 		// Draw snap corners
 		if (layer == OverlayLayer.UNDER_WIDGETS && movedOverlay != null && movedOverlay.getPosition() != OverlayPosition.DETACHED)
 		{
@@ -170,7 +178,7 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 
 			if (overlayPosition == OverlayPosition.DYNAMIC || overlayPosition == OverlayPosition.TOOLTIP)
 			{
-				safeRender(client, overlay, layer, graphics, new Point());
+				safeRender(client, overlay, layer, graphics, new Point(), profiling);
 			}
 			else
 			{
@@ -204,7 +212,7 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 					overlay.getBounds().setSize(overlay.getPreferredSize());
 				}
 
-				safeRender(client, overlay, layer, graphics, location);
+				safeRender(client, overlay, layer, graphics, location, profiling);
 				final Rectangle bounds = overlay.getBounds();
 
 				if (bounds.isEmpty())
@@ -221,6 +229,11 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 				}
 			}
 		}
+
+		if (profiling)
+		{
+			overlayProfiler.endLayer(layer, System.nanoTime() - layerStart);
+		}
 	}
 
 	@Override
@@ -363,7 +376,88 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 		}
 	}
 
-	private void safeRender(Client client, Overlay overlay, OverlayLayer layer, Graphics2D graphics, Point point)
+	private void safeRender(Client client, Overlay overlay, OverlayLayer layer, Graphics2D graphics, Point point, boolean profiling)
+	{
+		if (!profiling)
+		{
+			overlay.setBounds(new Rectangle(point, renderOverlay(client, overlay, layer, graphics, point, null)));
+			return;
+		}
+
+		final OverlayProfiler.Stats stats = overlayProfiler.getStats(overlay);
+
+		// Dynamic overlays may draw anywhere on the canvas, so their frame
+		// can't be cached and they are rendered every frame
+		final OverlayPosition position = overlay.getPosition();
+		final boolean cacheable = position != OverlayPosition.DYNAMIC && position != OverlayPosition.TOOLTIP;
+
+		if (cacheable && overlayProfiler.shouldSkip(stats))
+		{
+			// Throttled overlays reuse the frame they rendered last time
+			graphics.drawImage(stats.frameCache, point.x, point.y, null);
+			overlay.setBounds(new Rectangle(point, stats.frameDimension));
+			return;
+		}
+
+		final Dimension dimension = cacheable && overlayProfiler.isThrottled(stats)
+			? renderCached(client, overlay, layer, graphics, point, stats)
+			: renderOverlay(client, overlay, layer, graphics, point, stats);
+		overlay.setBounds(new Rectangle(point, dimension));
+	}
+
+	/**
+	 * Render an overlay into an image covering its last bounds, and keep
+	 * the image to be drawn again on the frames the overlay is skipped. The
+	 * image is reused while the overlay fits in it.
+	 */
+	private Dimension renderCached(Client client, Overlay overlay, OverlayLayer layer, Graphics2D graphics, Point point, OverlayProfiler.Stats stats)
+	{
+		final Dimension size = overlay.getBounds().getSize();
+		if (size.width <= 0 || size.height <= 0)
+		{
+			stats.frameCache = null;
+			return renderOverlay(client, overlay, layer, graphics, point, stats);
+		}
+
+		BufferedImage image = stats.frameCache;
+		if (image == null || image.getWidth() < size.width || image.getHeight() < size.height)
+		{
+			image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+		}
+
+		final Graphics2D imageGraphics = image.createGraphics();
+		imageGraphics.setComposite(AlphaComposite.Clear);
+		imageGraphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+		imageGraphics.setComposite(AlphaComposite.SrcOver);
+		imageGraphics.setRenderingHints(graphics.getRenderingHints());
+		imageGraphics.setColor(graphics.getColor());
+		imageGraphics.setStroke(graphics.getStroke());
+		// the image starts at the overlay's location on the canvas
+		imageGraphics.translate(-point.x, -point.y);
+
+		final Dimension dimension = renderOverlay(client, overlay, layer, imageGraphics, point, stats);
+		imageGraphics.dispose();
+
+		if (dimension.width > image.getWidth() || dimension.height > image.getHeight())
+		{
+			// The overlay grew, so the image has clipped it. Render it
+			// directly this frame, and cache it at its new size the next
+			// time it is rendered.
+			stats.frameCache = null;
+			return renderOverlay(client, overlay, layer, graphics, point, null);
+		}
+
+		graphics.drawImage(image, point.x, point.y, null);
+		stats.frameCache = image;
+		stats.frameDimension = dimension;
+		return dimension;
+	}
+
+	/**
+	 * Render an overlay, recording how long it took in {@code stats} if
+	 * it is being profiled.
+	 */
+	private Dimension renderOverlay(Client client, Overlay overlay, OverlayLayer layer, Graphics2D graphics, Point point, OverlayProfiler.Stats stats)
 	{
 		final Graphics2D subGraphics = (Graphics2D) graphics.create();
 
@@ -392,9 +486,18 @@ public class OverlayRenderer extends MouseListener implements KeyListener
 		}
 
 		subGraphics.translate(point.x, point.y);
+
+		// only the overlay itself is timed, not the frame cache around it
+		final long allocated = stats != null ? overlayProfiler.allocatedBytes() : -1;
+		final long start = System.nanoTime();
 		final Dimension dimension = MoreObjects.firstNonNull(overlay.render(subGraphics), new Dimension());
+		if (stats != null)
+		{
+			overlayProfiler.record(stats, System.nanoTime() - start, allocated < 0 ? -1 : overlayProfiler.allocatedBytes() - allocated);
+		}
+
 		subGraphics.dispose();
-		overlay.setBounds(new Rectangle(point, dimension));
+		return dimension;
 	}
 
 	private boolean shouldInvalidateBounds()
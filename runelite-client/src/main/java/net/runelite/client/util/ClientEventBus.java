@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.eventbus.DeadEvent;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.reflect.TypeToken;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An {@link EventBus} which dispatches events without reflection.
+ * <p>
+ * Each {@link Subscribe} method is invoked through a {@link BiConsumer}
+ * generated once per method with {@link LambdaMetafactory}. The subscribers
+ * of each event type, including those subscribed to its supertypes, are
+ * resolved into an array the first time the type is posted and reused
+ * until a subscriber is registered or unregistered.
+ * <p>
+ * Dispatch semantics otherwise match the default Guava event bus: events
+ * posted while dispatching are queued per thread and delivered after the
+ * current event, events with no subscribers are reposted as a
+ * {@link DeadEvent}, and subscriber exceptions are logged. Unlike Guava,
+ * errors thrown by subscribers are logged too rather than propagated, and
+ * subscribers are not locked while they are invoked, as if every
+ * subscriber had {@code @AllowConcurrentEvents}.
+ */
+@Slf4j
+public class ClientEventBus extends EventBus implements ClientEventBusMXBean
+{
+	private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+	private static final ClassValue<SubscriberMethod[]> SUBSCRIBER_METHODS = new ClassValue<SubscriberMethod[]>()
+	{
+		@Override
+		protected SubscriberMethod[] computeValue(Class<?> type)
+		{
+			return findSubscriberMethods(type);
+		}
+	};
+
+	// subscribers by the event type they subscribe to, guarded by this
+	private final Map<Class<?>, Subscriber[]> subscribers = new HashMap<>();
+	// subscribers by posted event type, including subscribers to supertypes
+	private volatile Map<Class<?>, Dispatch> dispatchCache = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Timing> timings = new ConcurrentHashMap<>();
+	private final ThreadLocal<DispatchQueue> dispatchQueue = ThreadLocal.withInitial(DispatchQueue::new);
+
+	public ClientEventBus()
+	{
+		super("client");
+	}
+
+	@Override
+	public void register(Object object)
+	{
+		final SubscriberMethod[] methods = SUBSCRIBER_METHODS.get(object.getClass());
+		if (methods.length == 0)
+		{
+			return;
+		}
+
+		synchronized (this)
+		{
+			for (SubscriberMethod method : methods)
+			{
+				final Subscriber[] current = subscribers.getOrDefault(method.eventType, NO_SUBSCRIBERS);
+				if (indexOf(current, object, method) != -1)
+				{
+					continue;
+				}
+
+				final Subscriber[] updated = Arrays.copyOf(current, current.length + 1);
+				updated[current.length] = new Subscriber(object, method);
+				subscribers.put(method.eventType, updated);
+			}
+
+			dispatchCache = new ConcurrentHashMap<>();
+		}
+	}
+
+	@Override
+	public void unregister(Object object)
+	{
+		final SubscriberMethod[] methods = SUBSCRIBER_METHODS.get(object.getClass());
+		if (methods.length == 0)
+		{
+			return;
+		}
+
+		synchronized (this)
+		{
+			for (SubscriberMethod method : methods)
+			{
+				final Subscriber[] current = subscribers.getOrDefault(method.eventType, NO_SUBSCRIBERS);
+				final int index = indexOf(current, object, method);
+				if (index == -1)
+				{
+					throw new IllegalArgumentException(
+						"missing event subscriber for an annotated method. Is " + object + " registered?");
+				}
+
+				if (current.length == 1)
+				{
+					subscribers.remove(method.eventType);
+					continue;
+				}
+
+				final Subscriber[] updated = new Subscriber[current.length - 1];
+				System.arraycopy(current, 0, updated, 0, index);
+				System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+				subscribers.put(method.eventType, updated);
+			}
+
+			dispatchCache = new ConcurrentHashMap<>();
+		}
+	}
+
+	@Override
+	public void post(Object event)
+	{
+		Preconditions.checkNotNull(event);
+
+		final Dispatch dispatch = getDispatch(event.getClass());
+		if (dispatch.subscribers.length == 0)
+		{
+			if (!(event instanceof DeadEvent))
+			{
+				post(new DeadEvent(this, event));
+			}
+			return;
+		}
+
+		final DispatchQueue queue = dispatchQueue.get();
+		queue.events.add(event);
+		queue.events.add(dispatch);
+
+		if (queue.dispatching)
+		{
+			return;
+		}
+
+		queue.dispatching = true;
+		try
+		{
+			Object next;
+			while ((next = queue.events.poll()) != null)
+			{
+				dispatch(next, (Dispatch) queue.events.poll());
+			}
+		}
+		finally
+		{
+			queue.dispatching = false;
+			queue.events.clear();
+		}
+	}
+
+	private void dispatch(Object event, Dispatch dispatch)
+	{
+		final long start = System.nanoTime();
+
+		for (Subscriber subscriber : dispatch.subscribers)
+		{
+			try
+			{
+				subscriber.invoke(event);
+			}
+			catch (Throwable ex)
+			{
+				log.warn("uncaught exception in event subscriber {}", subscriber.method, ex);
+			}
+		}
+
+		dispatch.timing.record(System.nanoTime() - start);
+	}
+
+	private Dispatch getDispatch(Class<?> eventType)
+	{
+		final Map<Class<?>, Dispatch> cache = dispatchCache;
+		final Dispatch dispatch = cache.get(eventType);
+		if (dispatch != null)
+		{
+			return dispatch;
+		}
+
+		synchronized (this)
+		{
+			final List<Subscriber> resolved = new ArrayList<>();
+			for (Class<?> type : TypeToken.of(eventType).getTypes().rawTypes())
+			{
+				resolved.addAll(Arrays.asList(subscribers.getOrDefault(type, NO_SUBSCRIBERS)));
+			}
+
+			final Dispatch created = new Dispatch(
+				resolved.toArray(NO_SUBSCRIBERS),
+				timings.computeIfAbsent(eventType, t -> new Timing()));
+			// don't populate a cache which has been invalidated since it was read
+			if (cache == dispatchCache)
+			{
+				cache.put(eventType, created);
+			}
+			return created;
+		}
+	}
+
+	@Override
+	public List<EventTiming> getEventTimings()
+	{
+		final List<EventTiming> result = new ArrayList<>(timings.size());
+		for (Map.Entry<Class<?>, Timing> entry : timings.entrySet())
+		{
+			final Class<?> eventType = entry.getKey();
+			final Timing timing = entry.getValue();
+			final long posts = timing.posts.sum();
+
+			result.add(new EventTiming(
+				eventType.getName(),
+				getDispatch(eventType).subscribers.length,
+				posts,
+				posts == 0 ? 0 : timing.nanos.sum() / (double) posts / 1000d,
+				timing.max / 1000d
+			));
+		}
+
+		result.sort(Comparator.comparingDouble(t -> -t.getAverage() * t.getPosts()));
+		return result;
+	}
+
+	@Override
+	public void resetEventTimings()
+	{
+		for (Timing timing : timings.values())
+		{
+			timing.posts.reset();
+			timing.nanos.reset();
+			timing.max = 0;
+		}
+	}
+
+	private static int indexOf(Subscriber[] subscribers, Object target, SubscriberMethod method)
+	{
+		for (int i = 0; i < subscribers.length; ++i)
+		{
+			if (subscribers[i].target == target && subscribers[i].method == method)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static SubscriberMethod[] findSubscriberMethods(Class<?> type)
+	{
+		// methods by name and parameters, so overridden subscribers are only registered once
+		final Map<List<Object>, SubscriberMethod> methods = new LinkedHashMap<>();
+
+		for (Class<?> supertype : TypeToken.of(type).getTypes().rawTypes())
+		{
+			for (Method method : supertype.getDeclaredMethods())
+			{
+				if (!method.isAnnotationPresent(Subscribe.class) || method.isSynthetic())
+				{
+					continue;
+				}
+
+				final Class<?>[] parameterTypes = method.getParameterTypes();
+				Preconditions.checkArgument(parameterTypes.length == 1,
+					"Method %s has @Subscribe annotation but has %s parameters."
+						+ "Subscriber methods must have exactly 1 parameter.",
+					method, parameterTypes.length);
+
+				final List<Object> key = Arrays.asList(method.getName(), parameterTypes[0]);
+				if (!methods.containsKey(key))
+				{
+					methods.put(key, new SubscriberMethod(method));
+				}
+			}
+		}
+
+		return methods.values().toArray(new SubscriberMethod[0]);
+	}
+
+	private static final class SubscriberMethod
+	{
+		private final Method method;
+		private final Class<?> eventType;
+		private final BiConsumer<Object, Object> invoker;
+
+		private SubscriberMethod(Method method)
+		{
+			this.method = method;
+			this.eventType = method.getParameterTypes()[0];
+			this.invoker = createInvoker(method);
+		}
+
+		@Override
+		public String toString()
+		{
+			return method.toString();
+		}
+	}
+
+	private static final class Subscriber
+	{
+		private final Object target;
+		private final SubscriberMethod method;
+
+		private Subscriber(Object target, SubscriberMethod method)
+		{
+			this.target = target;
+			this.method = method;
+		}
+
+		private void invoke(Object event)
+		{
+			method.invoker.accept(target, event);
+		}
+	}
+
+	private static final class Dispatch
+	{
+		private final Subscriber[] subscribers;
+		private final Timing timing;
+
+		private Dispatch(Subscriber[] subscribers, Timing timing)
+		{
+			this.subscribers = subscribers;
+			this.timing = timing;
+		}
+	}
+
+	private static final class Timing
+	{
+		private final LongAdder posts = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+		private volatile long max;
+
+		private void record(long elapsed)
+		{
+			posts.increment();
+			nanos.add(elapsed);
+			if (elapsed > max)
+			{
+				max = elapsed;
+			}
+		}
+	}
+
+	private static final class DispatchQueue
+	{
+		// alternating events and their dispatch
+		private final ArrayDeque<Object> events = new ArrayDeque<>();
+		private boolean dispatching;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static BiConsumer<Object, Object> createInvoker(Method method)
+	{
+		final Class<?> declaringClass = method.getDeclaringClass();
+
+		if (!Modifier.isStatic(method.getModifiers()))
+		{
+			try
+			{
+				final MethodHandles.Lookup lookup = privateLookupIn(declaringClass);
+				final MethodHandle handle = lookup.unreflect(method);
+				final CallSite site = LambdaMetafactory.metafactory(
+					lookup,
+					"accept",
+					MethodType.methodType(BiConsumer.class),
+					MethodType.methodType(void.class, Object.class, Object.class),
+					handle,
+					MethodType.methodType(void.class, declaringClass, method.getParameterTypes()[0]));
+				return (BiConsumer<Object, Object>) site.getTarget().invoke();
+			}
+			catch (Throwable ex)
+			{
+				log.debug("Unable to generate invoker for {}, falling back to reflection", method, ex);
+			}
+		}
+
+		method.setAccessible(true);
+		return (target, event) ->
+		{
+			try
+			{
+				method.invoke(target, event);
+			}
+			catch (InvocationTargetException ex)
+			{
+				final Throwable cause = ex.getCause();
+				if (cause instanceof Error)
+				{
+					throw (Error) cause;
+				}
+				throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+			}
+			catch (IllegalAccessException ex)
+			{
+				throw new IllegalStateException(ex);
+			}
+		};
+	}
+
+	private static MethodHandles.Lookup privateLookupIn(Class<?> type) throws ReflectiveOperationException
+	{
+		try
+		{
+			// Java 9+
+			final Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+			return (MethodHandles.Lookup) privateLookupIn.invoke(null, type, MethodHandles.lookup());
+		}
+		catch (NoSuchMethodException ex)
+		{
+			// Java 8
+			final Constructor<MethodHandles.Lookup> constructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+			constructor.setAccessible(true);
+			return constructor.newInstance(type, MethodHandles.Lookup.PUBLIC | MethodHandles.Lookup.PRIVATE
+				| MethodHandles.Lookup.PROTECTED | MethodHandles.Lookup.PACKAGE);
+		}
+	}
+}
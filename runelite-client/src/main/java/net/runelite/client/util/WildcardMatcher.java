@@ -24,9 +24,29 @@
  */
 package net.runelite.client.util;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Case insensitive glob matching, where * matches any run of characters.
+ * <p>
+ * A list of patterns can be compiled once with {@link #compile(Collection)}
+ * to find which pattern matches a name in a single pass over it. Patterns
+ * without a wildcard are looked up in a hash table. The other patterns are
+ * split on their wildcards, and the longest literal of each is added to an
+ * Aho-Corasick automaton, so only the patterns whose literal occurs in the
+ * name have their literals matched in order against it.
+ */
 public class WildcardMatcher
 {
 	private static final Pattern WILDCARD_PATTERN = Pattern.compile("(?i)[^*]+|(\\*)");
@@ -54,4 +74,295 @@ public class WildcardMatcher
 
 		return text.matches(replaced);
 	}
+
+	/**
+	 * Compile a list of patterns into a matcher.
+	 *
+	 * @param patterns patterns, in order of precedence
+	 * @return matcher
+	 */
+	public static WildcardMatcher compile(Collection<String> patterns)
+	{
+		return new WildcardMatcher(new ArrayList<>(patterns));
+	}
+
+	private final List<String> patterns;
+
+	/**
+	 * Index of the first pattern without a wildcard, by its lowercase text
+	 */
+	private final Map<String, Integer> literals = new HashMap<>();
+
+	/**
+	 * Lowercase literals between the wildcards of each pattern, or null for
+	 * patterns without a wildcard
+	 */
+	private final String[][] segments;
+
+	/**
+	 * Patterns which are only wildcards, and so have no literal to search for
+	 */
+	private final int[] unkeyed;
+
+	/**
+	 * Sorted characters of the automaton keywords. Other characters map
+	 * to the last column of the transition table.
+	 */
+	private final char[] alphabet;
+
+	/**
+	 * Transitions of the keyword automaton, alphabet.length + 1 columns per state
+	 */
+	private final int[] transitions;
+
+	/**
+	 * Patterns to verify when reaching each state, in ascending order
+	 */
+	private final int[][] outputs;
+
+	private WildcardMatcher(List<String> patterns)
+	{
+		this.patterns = patterns;
+		this.segments = new String[patterns.size()][];
+
+		// patterns by the literal searched for in the text
+		Map<String, List<Integer>> keywords = new TreeMap<>();
+		List<Integer> unkeyed = new ArrayList<>();
+
+		for (int i = 0; i < patterns.size(); ++i)
+		{
+			String pattern = patterns.get(i).toLowerCase();
+
+			if (pattern.indexOf('*') == -1)
+			{
+				literals.putIfAbsent(pattern, i);
+				continue;
+			}
+
+			String[] parts = pattern.split("\\*", -1);
+			segments[i] = parts;
+
+			String keyword = "";
+			for (String part : parts)
+			{
+				if (part.length() > keyword.length())
+				{
+					keyword = part;
+				}
+			}
+
+			if (keyword.isEmpty())
+			{
+				unkeyed.add(i);
+			}
+			else
+			{
+				keywords.computeIfAbsent(keyword, k -> new ArrayList<>()).add(i);
+			}
+		}
+
+		this.unkeyed = unkeyed.stream().mapToInt(Integer::intValue).toArray();
+
+		TreeSet<Character> chars = new TreeSet<>();
+		for (String keyword : keywords.keySet())
+		{
+			for (char c : keyword.toCharArray())
+			{
+				chars.add(c);
+			}
+		}
+
+		alphabet = new char[chars.size()];
+		int n = 0;
+		for (char c : chars)
+		{
+			alphabet[n++] = c;
+		}
+
+		// build the keyword trie, state 0 is the root
+		final int width = alphabet.length + 1;
+		List<int[]> trie = new ArrayList<>();
+		List<TreeSet<Integer>> output = new ArrayList<>();
+		trie.add(newState(width));
+		output.add(new TreeSet<>());
+
+		for (Map.Entry<String, List<Integer>> entry : keywords.entrySet())
+		{
+			int state = 0;
+			for (char c : entry.getKey().toCharArray())
+			{
+				int column = column(c);
+				int next = trie.get(state)[column];
+				if (next == -1)
+				{
+					next = trie.size();
+					trie.get(state)[column] = next;
+					trie.add(newState(width));
+					output.add(new TreeSet<>());
+				}
+				state = next;
+			}
+			output.get(state).addAll(entry.getValue());
+		}
+
+		// compute failure links breadth first, and turn the trie into a dfa
+		int[] fail = new int[trie.size()];
+		Queue<Integer> queue = new ArrayDeque<>();
+
+		int[] root = trie.get(0);
+		for (int column = 0; column < width; ++column)
+		{
+			if (root[column] == -1)
+			{
+				root[column] = 0;
+			}
+			else
+			{
+				queue.add(root[column]);
+			}
+		}
+
+		while (!queue.isEmpty())
+		{
+			int state = queue.poll();
+			int[] row = trie.get(state);
+			output.get(state).addAll(output.get(fail[state]));
+
+			for (int column = 0; column < width; ++column)
+			{
+				int next = row[column];
+				if (next == -1)
+				{
+					row[column] = trie.get(fail[state])[column];
+				}
+				else
+				{
+					fail[next] = trie.get(fail[state])[column];
+					queue.add(next);
+				}
+			}
+		}
+
+		transitions = new int[trie.size() * width];
+		outputs = new int[trie.size()][];
+		for (int state = 0; state < trie.size(); ++state)
+		{
+			System.arraycopy(trie.get(state), 0, transitions, state * width, width);
+			outputs[state] = output.get(state).stream().mapToInt(Integer::intValue).toArray();
+		}
+	}
+
+	private static int[] newState(int width)
+	{
+		int[] state = new int[width];
+		Arrays.fill(state, -1);
+		return state;
+	}
+
+	private int column(char c)
+	{
+		int idx = Arrays.binarySearch(alphabet, c);
+		return idx < 0 ? alphabet.length : idx;
+	}
+
+	/**
+	 * Find the first pattern which matches the text.
+	 *
+	 * @param text text to match
+	 * @return index of the pattern, or -1 if no pattern matches
+	 */
+	public int indexOf(String text)
+	{
+		final String lower = text.toLowerCase();
+
+		Integer literal = literals.get(lower);
+		int best = literal != null ? literal : Integer.MAX_VALUE;
+
+		for (int i : unkeyed)
+		{
+			if (i >= best)
+			{
+				break;
+			}
+
+			if (matchSegments(segments[i], lower))
+			{
+				best = i;
+				break;
+			}
+		}
+
+		final int width = alphabet.length + 1;
+		int state = 0;
+		for (int i = 0; i < lower.length(); ++i)
+		{
+			state = transitions[state * width + column(lower.charAt(i))];
+
+			for (int pattern : outputs[state])
+			{
+				if (pattern >= best)
+				{
+					break;
+				}
+
+				if (matchSegments(segments[pattern], lower))
+				{
+					best = pattern;
+					break;
+				}
+			}
+		}
+
+		return best == Integer.MAX_VALUE ? -1 : best;
+	}
+
+	/**
+	 * Find the first pattern which matches the text.
+	 *
+	 * @param text text to match
+	 * @return the pattern, or null if no pattern matches
+	 */
+	public String match(String text)
+	{
+		int idx = indexOf(text);
+		return idx == -1 ? null : patterns.get(idx);
+	}
+
+	public boolean matches(String text)
+	{
+		return indexOf(text) != -1;
+	}
+
+	/**
+	 * Match the literals between the wildcards of a pattern against a text,
+	 * with the first literal anchored at the start, the last anchored at the
+	 * end, and the others found leftmost in order.
+	 */
+	private static boolean matchSegments(String[] segments, String text)
+	{
+		String first = segments[0];
+		String last = segments[segments.length - 1];
+
+		if (text.length() < first.length() + last.length()
+			|| !text.startsWith(first)
+			|| !text.endsWith(last))
+		{
+			return false;
+		}
+
+		int from = first.length();
+		int to = text.length() - last.length();
+		for (int i = 1; i < segments.length - 1; ++i)
+		{
+			String segment = segments[i];
+			int idx = text.indexOf(segment, from);
+			if (idx == -1 || idx + segment.length() > to)
+			{
+				return false;
+			}
+			from = idx + segment.length();
+		}
+
+		return true;
+	}
 }
@@ -30,15 +30,31 @@ import com.google.inject.testing.fieldbinder.Bind;
 import com.google.inject.testing.fieldbinder.BoundFieldModule;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.UUID;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import net.runelite.client.account.AccountSession;
+import net.runelite.http.api.config.ConfigClient;
+import net.runelite.http.api.config.ConfigEntry;
+import net.runelite.http.api.config.ConfigPatch;
+import net.runelite.http.api.config.Configuration;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import org.mockito.runners.MockitoJUnitRunner;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -59,6 +75,9 @@ public class ConfigManagerTest
 	@Inject
 	ConfigManager manager;
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Before
 	public void before()
 	{
@@ -99,6 +118,19 @@ public class ConfigManagerTest
 		Assert.assertEquals("new value", conf.key());
 	}
 
+	@Test
+	public void testGetConfigInvalidated() throws IOException
+	{
+		TestConfig conf = manager.getConfig(TestConfig.class);
+		Assert.assertEquals("default", conf.key());
+
+		manager.setConfiguration("test", "key", "moo");
+		Assert.assertEquals("moo", conf.key());
+
+		manager.unsetConfiguration("test", "key");
+		Assert.assertEquals("default", conf.key());
+	}
+
 	@Test
 	public void testGetConfigDescriptor() throws IOException
 	{
@@ -109,4 +141,92 @@ public class ConfigManagerTest
 		ConfigDescriptor descriptor = manager.getConfigDescriptor(conf);
 		Assert.assertEquals(1, descriptor.getItems().size());
 	}
+
+	@Test
+	public void testSendConfigRetry() throws IOException
+	{
+		ConfigClient configClient = mock(ConfigClient.class);
+		when(configClient.patch(any(ConfigPatch.class)))
+			.thenThrow(new IOException("unavailable"))
+			.thenReturn(1L);
+		manager.setClient(configClient);
+
+		manager.setConfiguration("test", "key", "moo");
+		// changes are sent in a batch later
+		verify(executor).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+		// the change is kept when sending it fails, and is sent again later
+		manager.sendConfig();
+		verify(executor, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+		manager.sendConfig();
+		ArgumentCaptor<ConfigPatch> captor = ArgumentCaptor.forClass(ConfigPatch.class);
+		verify(configClient, times(2)).patch(captor.capture());
+		Assert.assertEquals("moo", captor.getValue().getEdit().get("test.key"));
+
+		// nothing is left to send
+		manager.sendConfig();
+		verify(configClient, times(2)).patch(any(ConfigPatch.class));
+	}
+
+	@Test
+	public void testSendConfigKeepsNewer() throws IOException
+	{
+		ConfigClient configClient = mock(ConfigClient.class);
+		when(configClient.patch(any(ConfigPatch.class)))
+			.thenAnswer(invocation ->
+			{
+				// changed again while the first change is being sent
+				manager.setConfiguration("test", "key", "cow");
+				return 1L;
+			})
+			.thenReturn(2L);
+		manager.setClient(configClient);
+
+		manager.setConfiguration("test", "key", "moo");
+		manager.sendConfig();
+		manager.sendConfig();
+
+		ArgumentCaptor<ConfigPatch> captor = ArgumentCaptor.forClass(ConfigPatch.class);
+		verify(configClient, times(2)).patch(captor.capture());
+		Assert.assertEquals("moo", captor.getAllValues().get(0).getEdit().get("test.key"));
+		Assert.assertEquals("cow", captor.getAllValues().get(1).getEdit().get("test.key"));
+	}
+
+	@Test
+	public void testRefresh() throws IOException
+	{
+		ConfigClient configClient = mock(ConfigClient.class);
+		when(configClient.get(0)).thenReturn(new Configuration(Arrays.asList(entry("test.key", "moo")), 3));
+		when(configClient.get(3)).thenReturn(new Configuration(Arrays.asList(entry("test.key", "cow")), 4));
+		when(configClient.get(4)).thenReturn(new Configuration(Arrays.asList(entry("test.key", null)), 5));
+		manager.setClient(configClient);
+		manager.setPropertiesFile(folder.newFile());
+
+		TestConfig conf = manager.getConfig(TestConfig.class);
+
+		// nothing to refresh until the configuration has been loaded
+		manager.refresh();
+		verify(configClient, never()).get(anyLong());
+
+		manager.load();
+		Assert.assertEquals("moo", conf.key());
+
+		// only the changes since the last load are fetched
+		manager.refresh();
+		verify(configClient).get(3);
+		Assert.assertEquals("cow", conf.key());
+
+		manager.refresh();
+		verify(configClient).get(4);
+		Assert.assertEquals("default", conf.key());
+	}
+
+	private static ConfigEntry entry(String key, String value)
+	{
+		ConfigEntry entry = new ConfigEntry();
+		entry.setKey(key);
+		entry.setValue(value);
+		return entry;
+	}
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.game;
+
+import com.google.inject.Guice;
+import com.google.inject.testing.fieldbinder.Bind;
+import com.google.inject.testing.fieldbinder.BoundFieldModule;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import javax.inject.Inject;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.VarPlayer;
+import net.runelite.api.Varbits;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.VarbitChanged;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class VarManagerTest
+{
+	private static final int VARBIT_INDEX = 5;
+
+	@Mock
+	@Bind
+	Client client;
+
+	@Mock
+	IntConsumer listener;
+
+	@Inject
+	VarManager varManager;
+
+	private final int[] varps = new int[10];
+
+	@Before
+	public void before()
+	{
+		Guice.createInjector(BoundFieldModule.of(this)).injectMembers(this);
+
+		when(client.getVarps()).thenReturn(varps);
+		when(client.getVarbitIndex(Varbits.IN_GAME_BA.getId())).thenReturn(VARBIT_INDEX);
+		when(client.getVarbitValue(any(int[].class), eq(Varbits.IN_GAME_BA.getId())))
+			.thenAnswer(invocation -> varps[VARBIT_INDEX]);
+	}
+
+	@Test
+	public void testVarbitDispatch()
+	{
+		varManager.subscribe(Varbits.IN_GAME_BA, listener);
+
+		varps[VARBIT_INDEX] = 1;
+		varManager.onVarbitChanged(changed(VARBIT_INDEX));
+		verify(listener).accept(1);
+
+		// other varps do not wake the listener
+		varManager.onVarbitChanged(changed(VARBIT_INDEX + 1));
+		verify(client, times(1)).getVarbitValue(any(int[].class), anyInt());
+
+		// neither does a write of the same value
+		varManager.onVarbitChanged(changed(VARBIT_INDEX));
+		verify(listener, times(1)).accept(anyInt());
+
+		varps[VARBIT_INDEX] = 0;
+		varManager.onVarbitChanged(changed(-1));
+		verify(listener).accept(0);
+	}
+
+	@Test
+	public void testUnsubscribe()
+	{
+		int varpId = VarPlayer.ATTACK_STYLE.getId();
+		when(client.getVarps()).thenReturn(new int[varpId + 1]);
+		when(client.getVarpValue(any(int[].class), eq(varpId))).thenReturn(2);
+
+		varManager.subscribe(VarPlayer.ATTACK_STYLE, listener);
+		varManager.unsubscribe(listener);
+
+		varManager.onVarbitChanged(changed(varpId));
+		verify(listener, never()).accept(anyInt());
+	}
+
+	@Test
+	public void testPreload()
+	{
+		varManager.subscribe(Varbits.IN_GAME_BA, listener);
+
+		GameStateChanged gameStateChanged = new GameStateChanged();
+		gameStateChanged.setGameState(GameState.LOGIN_SCREEN);
+		varManager.onGameStateChanged(gameStateChanged);
+
+		// every known varbit is decoded, and the listener is resolved
+		for (Varbits varbit : Varbits.values())
+		{
+			verify(client, atLeastOnce()).getVarbitIndex(varbit.getId());
+		}
+
+		varManager.onGameStateChanged(gameStateChanged);
+		varManager.onVarbitChanged(changed(VARBIT_INDEX + 1));
+		verify(client, times(Varbits.values().length + 1)).getVarbitIndex(anyInt());
+
+		varps[VARBIT_INDEX] = 1;
+		varManager.onVarbitChanged(changed(VARBIT_INDEX));
+		verify(listener).accept(1);
+	}
+
+	@Test
+	public void testDispatchUnlocked() throws InterruptedException
+	{
+		AtomicBoolean subscribed = new AtomicBoolean();
+		IntConsumer subscriber = value ->
+		{
+			// subscribing from another thread would deadlock if the
+			// listener was called with the lock held
+			Thread thread = new Thread(() ->
+			{
+				varManager.subscribe(VarPlayer.ATTACK_STYLE, listener);
+				subscribed.set(true);
+			});
+			thread.start();
+			try
+			{
+				thread.join(5000);
+			}
+			catch (InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		varManager.subscribe(Varbits.IN_GAME_BA, subscriber);
+
+		varps[VARBIT_INDEX] = 1;
+		varManager.onVarbitChanged(changed(VARBIT_INDEX));
+		assertTrue(subscribed.get());
+	}
+
+	private static VarbitChanged changed(int index)
+	{
+		VarbitChanged event = new VarbitChanged();
+		event.setIndex(index);
+		return event;
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.task;
+
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class SchedulerTest
+{
+	private static final long START = 1_000_000_000L;
+
+	public static class Tasks
+	{
+		private int fast;
+		private int slow;
+		private final CountDownLatch async = new CountDownLatch(1);
+
+		@Schedule(period = 100, unit = ChronoUnit.MILLIS)
+		public void fast()
+		{
+			++fast;
+		}
+
+		@Schedule(period = 10, unit = ChronoUnit.SECONDS)
+		public void slow()
+		{
+			++slow;
+		}
+
+		@Schedule(period = 50, unit = ChronoUnit.MILLIS, asynchronous = true)
+		public void async()
+		{
+			async.countDown();
+		}
+	}
+
+	private final Scheduler scheduler = new Scheduler(START);
+	private final Tasks tasks = new Tasks();
+
+	private ScheduledMethod schedule(String name) throws NoSuchMethodException
+	{
+		final ScheduledMethod method = new ScheduledMethod(
+			Tasks.class.getMethod(name).getAnnotation(Schedule.class),
+			Tasks.class.getMethod(name),
+			tasks);
+		scheduler.addScheduledMethod(method, START);
+		return method;
+	}
+
+	private void runFor(long millis, long stepMillis)
+	{
+		for (long t = stepMillis; t <= millis; t += stepMillis)
+		{
+			scheduler.tick(START + TimeUnit.MILLISECONDS.toNanos(t));
+		}
+	}
+
+	@Test
+	public void testShortPeriod() throws Exception
+	{
+		schedule("fast");
+		runFor(1000, 20);
+
+		assertEquals(10, tasks.fast);
+		assertEquals(10, scheduler.getTaskTimings().get(0).getRuns());
+	}
+
+	@Test
+	public void testMissedRunsSkipped() throws Exception
+	{
+		schedule("fast");
+
+		scheduler.tick(START + TimeUnit.MILLISECONDS.toNanos(1000));
+		assertEquals(1, tasks.fast);
+
+		scheduler.tick(START + TimeUnit.MILLISECONDS.toNanos(1050));
+		assertEquals(1, tasks.fast);
+
+		scheduler.tick(START + TimeUnit.MILLISECONDS.toNanos(1100));
+		assertEquals(2, tasks.fast);
+	}
+
+	@Test
+	public void testLongPeriod() throws Exception
+	{
+		schedule("slow");
+
+		runFor(9990, 10);
+		assertEquals(0, tasks.slow);
+
+		scheduler.tick(START + TimeUnit.SECONDS.toNanos(10));
+		assertEquals(1, tasks.slow);
+	}
+
+	@Test
+	public void testRemove() throws Exception
+	{
+		final ScheduledMethod method = schedule("fast");
+		runFor(250, 10);
+		assertEquals(2, tasks.fast);
+
+		scheduler.removeScheduledMethod(method);
+		runFor(1000, 10);
+		assertEquals(2, tasks.fast);
+		assertTrue(scheduler.getScheduledMethods().isEmpty());
+	}
+
+	@Test
+	public void testAsynchronous() throws Exception
+	{
+		schedule("async");
+		scheduler.tick(START + TimeUnit.MILLISECONDS.toNanos(50));
+
+		assertTrue(tasks.async.await(5, TimeUnit.SECONDS));
+	}
+}
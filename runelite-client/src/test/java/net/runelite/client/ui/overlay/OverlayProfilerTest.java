@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.ui.overlay;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.runelite.client.config.RuneLiteConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OverlayProfilerTest
+{
+	private static class TestOverlay extends Overlay
+	{
+		@Override
+		public Dimension render(Graphics2D graphics)
+		{
+			return null;
+		}
+	}
+
+	@Mock
+	private RuneLiteConfig runeLiteConfig;
+
+	private OverlayProfiler overlayProfiler;
+
+	@Before
+	public void before()
+	{
+		when(runeLiteConfig.overlayRenderBudget()).thenReturn(1000);
+		overlayProfiler = new OverlayProfiler(runeLiteConfig);
+	}
+
+	@Test
+	public void testTimings()
+	{
+		overlayProfiler.setEnabled(true);
+		assertTrue(overlayProfiler.beginLayer());
+
+		OverlayProfiler.Stats stats = overlayProfiler.getStats(new TestOverlay());
+		for (int i = 1; i <= 100; ++i)
+		{
+			overlayProfiler.record(stats, TimeUnit.MICROSECONDS.toNanos(i), -1);
+		}
+
+		List<OverlayTiming> timings = overlayProfiler.getOverlayTimings();
+		assertEquals(1, timings.size());
+
+		OverlayTiming timing = timings.get(0);
+		assertEquals("TestOverlay", timing.getName());
+		assertEquals(100, timing.getSamples());
+		assertEquals(50.5, timing.getAverage(), 0.001);
+		assertEquals(50, timing.getP50(), 0.001);
+		assertEquals(95, timing.getP95(), 0.001);
+		assertEquals(100, timing.getMax(), 0.001);
+		assertEquals(-1, timing.getAllocatedBytes());
+		assertEquals(0, timing.getOverruns());
+
+		overlayProfiler.reset();
+		assertEquals(0, overlayProfiler.getOverlayTimings().get(0).getSamples());
+	}
+
+	@Test
+	public void testThrottle()
+	{
+		when(runeLiteConfig.throttleSlowOverlays()).thenReturn(true);
+		assertTrue(overlayProfiler.beginLayer());
+
+		OverlayProfiler.Stats stats = overlayProfiler.getStats(new TestOverlay());
+		for (int i = 0; i < 5; ++i)
+		{
+			assertFalse(overlayProfiler.isThrottled(stats));
+			overlayProfiler.record(stats, TimeUnit.MICROSECONDS.toNanos(1500), -1);
+		}
+		assertTrue(overlayProfiler.isThrottled(stats));
+
+		// Nothing to reuse until the overlay has rendered into its cache
+		assertFalse(overlayProfiler.shouldSkip(stats));
+		stats.frameCache = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+		stats.frameDimension = new Dimension();
+		assertTrue(overlayProfiler.shouldSkip(stats));
+		assertFalse(overlayProfiler.shouldSkip(stats));
+
+		for (int i = 0; i < 50; ++i)
+		{
+			assertTrue(overlayProfiler.isThrottled(stats));
+			overlayProfiler.record(stats, TimeUnit.MICROSECONDS.toNanos(500), -1);
+		}
+		assertFalse(overlayProfiler.isThrottled(stats));
+		assertFalse(overlayProfiler.shouldSkip(stats));
+	}
+
+	@Test
+	public void testThrottleDisabled()
+	{
+		assertFalse(overlayProfiler.beginLayer());
+
+		OverlayProfiler.Stats stats = overlayProfiler.getStats(new TestOverlay());
+		for (int i = 0; i < 10; ++i)
+		{
+			overlayProfiler.record(stats, TimeUnit.MICROSECONDS.toNanos(1500), -1);
+		}
+		assertFalse(overlayProfiler.isThrottled(stats));
+	}
+}
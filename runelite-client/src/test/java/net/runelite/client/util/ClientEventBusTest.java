@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.util;
+
+import com.google.common.eventbus.DeadEvent;
+import com.google.common.eventbus.Subscribe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ClientEventBusTest
+{
+	private final ClientEventBus eventBus = new ClientEventBus();
+	private final List<Object> received = new ArrayList<>();
+
+	private class Subscriber
+	{
+		@Subscribe
+		private void onString(String event)
+		{
+			received.add("string " + event);
+		}
+
+		@Subscribe
+		public void onCharSequence(CharSequence event)
+		{
+			received.add("chars " + event);
+		}
+	}
+
+	private class ChildSubscriber extends Subscriber
+	{
+		@Subscribe
+		@Override
+		public void onCharSequence(CharSequence event)
+		{
+			received.add("child " + event);
+		}
+	}
+
+	private class ReentrantSubscriber
+	{
+		@Subscribe
+		public void onString(String event)
+		{
+			received.add("reentrant " + event);
+			eventBus.post(event.length());
+		}
+
+		@Subscribe
+		public void onInteger(Integer event)
+		{
+			received.add(event);
+		}
+	}
+
+	private class ThrowingSubscriber
+	{
+		@Subscribe
+		public void onString(String event)
+		{
+			throw new IllegalStateException();
+		}
+	}
+
+	private class ErrorSubscriber
+	{
+		@Subscribe
+		public void onString(String event)
+		{
+			throw new AssertionError();
+		}
+	}
+
+	@Test
+	public void testDispatch()
+	{
+		eventBus.register(new Subscriber());
+		eventBus.post("a");
+
+		assertEquals(Arrays.asList("string a", "chars a"), received);
+	}
+
+	@Test
+	public void testOverride()
+	{
+		final ChildSubscriber subscriber = new ChildSubscriber();
+		eventBus.register(subscriber);
+		// registering twice is a no-op
+		eventBus.register(subscriber);
+		eventBus.post("a");
+
+		assertEquals(Arrays.asList("string a", "child a"), received);
+	}
+
+	@Test
+	public void testUnregister()
+	{
+		final Subscriber subscriber = new Subscriber();
+		eventBus.register(subscriber);
+		eventBus.unregister(subscriber);
+		eventBus.post("a");
+
+		assertTrue(received.isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnregisterMissing()
+	{
+		eventBus.unregister(new Subscriber());
+	}
+
+	@Test
+	public void testReentrantPost()
+	{
+		eventBus.register(new ReentrantSubscriber());
+		eventBus.register(new Subscriber());
+		eventBus.post("abc");
+
+		// events posted during dispatch are delivered after the current event
+		assertEquals(Arrays.asList("reentrant abc", "string abc", "chars abc", 3), received);
+	}
+
+	@Test
+	public void testException()
+	{
+		eventBus.register(new ThrowingSubscriber());
+		eventBus.register(new Subscriber());
+		eventBus.post("a");
+
+		assertEquals(Arrays.asList("string a", "chars a"), received);
+	}
+
+	@Test
+	public void testError()
+	{
+		eventBus.register(new ErrorSubscriber());
+		eventBus.register(new ReentrantSubscriber());
+		eventBus.register(new Subscriber());
+		eventBus.post("abc");
+
+		// the error doesn't stop the other subscribers or the queued events
+		assertEquals(Arrays.asList("reentrant abc", "string abc", "chars abc", 3), received);
+	}
+
+	@Test
+	public void testDeadEvent()
+	{
+		eventBus.register(new Object()
+		{
+			@Subscribe
+			public void onDeadEvent(DeadEvent event)
+			{
+				received.add(event.getEvent());
+			}
+		});
+		eventBus.post(1);
+
+		assertEquals(Arrays.asList(1), received);
+	}
+
+	@Test
+	public void testEventTimings()
+	{
+		eventBus.register(new Subscriber());
+		eventBus.post("a");
+		eventBus.post("b");
+
+		final EventTiming timing = eventBus.getEventTimings().get(0);
+		assertEquals(String.class.getName(), timing.getEventType());
+		assertEquals(2, timing.getSubscribers());
+		assertEquals(2, timing.getPosts());
+	}
+}
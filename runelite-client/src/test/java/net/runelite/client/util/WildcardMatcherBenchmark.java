@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Matching a crowd of npc names against a highlight list, with a regex
+ * built per pattern and name as the plugins did, and with the list
+ * compiled once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WildcardMatcherBenchmark
+{
+	private static final String[] WORDS = {
+		"goblin", "guard", "man", "woman", "dragon", "green", "black", "baby", "cow", "chicken",
+		"rat", "giant", "skeleton", "zombie", "imp", "dark", "wizard", "knight", "warrior", "spider"
+	};
+
+	@Param({"10", "100"})
+	private int patternCount;
+
+	private List<String> patterns;
+	private WildcardMatcher matcher;
+	private String[] names;
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(42L);
+
+		patterns = new ArrayList<>(patternCount);
+		for (int i = 0; i < patternCount; ++i)
+		{
+			String word = WORDS[random.nextInt(WORDS.length)] + i;
+			switch (i % 3)
+			{
+				case 0:
+					patterns.add(word);
+					break;
+				case 1:
+					patterns.add(word + "*");
+					break;
+				default:
+					patterns.add("*" + word + "*");
+					break;
+			}
+		}
+
+		matcher = WildcardMatcher.compile(patterns);
+
+		// a crowded area, mostly npcs which are not highlighted
+		names = new String[200];
+		for (int i = 0; i < names.length; ++i)
+		{
+			names[i] = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + random.nextInt(patternCount * 2);
+		}
+	}
+
+	@Benchmark
+	public void regex(Blackhole blackhole)
+	{
+		for (String name : names)
+		{
+			boolean matched = false;
+			for (String pattern : patterns)
+			{
+				if (WildcardMatcher.matches(pattern, name))
+				{
+					matched = true;
+					break;
+				}
+			}
+			blackhole.consume(matched);
+		}
+	}
+
+	@Benchmark
+	public void compiled(Blackhole blackhole)
+	{
+		for (String name : names)
+		{
+			blackhole.consume(matcher.matches(name));
+		}
+	}
+
+	@Benchmark
+	public WildcardMatcher compile()
+	{
+		return WildcardMatcher.compile(patterns);
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+			.include(WildcardMatcherBenchmark.class.getSimpleName())
+			.build()).run();
+	}
+}
@@ -26,7 +26,11 @@ package net.runelite.client.util;
 
 import static junit.framework.TestCase.assertTrue;
 import static net.runelite.client.util.WildcardMatcher.matches;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import org.junit.Test;
 
 public class WildcardMatcherTest
@@ -40,4 +44,42 @@ public class WildcardMatcherTest
 		assertTrue(matches("rune*", "Runeite Ore"));
 		assertTrue(matches("Abyssal whip", "Abyssal whip"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testCompiled()
+	{
+		List<String> patterns = Arrays.asList("abyssal whip", "rune*", "*dragon*", "*bones", "a*b*c", "*", "Rune pouch");
+		WildcardMatcher matcher = WildcardMatcher.compile(patterns);
+
+		assertEquals("abyssal whip", matcher.match("Abyssal Whip"));
+		assertEquals("rune*", matcher.match("Rune pouch"));
+		assertEquals("*dragon*", matcher.match("Baby dragon"));
+		assertEquals("*bones", matcher.match("Big bones"));
+		assertEquals("a*b*c", matcher.match("abc"));
+		assertEquals("*", matcher.match("Adamant dagger"));
+
+		WildcardMatcher anchored = WildcardMatcher.compile(Arrays.asList("a*b*c", "*ab*ba*"));
+		assertNull(anchored.match("acb"));
+		assertNull(anchored.match("aba"));
+		assertEquals("*ab*ba*", anchored.match("xabba"));
+		assertEquals("a*b*c", anchored.match("aXbYbc"));
+		assertEquals(-1, WildcardMatcher.compile(Arrays.asList()).indexOf("anything"));
+	}
+
+	@Test
+	public void testCompiledMatchesRegex()
+	{
+		List<String> patterns = Arrays.asList("rune*", "*scimitar", "*dragon*", "a*a", "*a*a*", "guard", "**", "");
+		List<String> texts = Arrays.asList("rune pouch", "Rune scimitar", "RUNE", "Dragon scimitar", "a", "aa", "aXa",
+			"Guard", "guards", "", "Black dragon", "banana");
+
+		for (String pattern : patterns)
+		{
+			WildcardMatcher matcher = WildcardMatcher.compile(Arrays.asList(pattern));
+			for (String text : texts)
+			{
+				assertEquals(pattern + " ~ " + text, matches(pattern, text), matcher.matches(text));
+			}
+		}
+	}
+}
@@ -27,11 +27,14 @@ package net.runelite.mixins;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import javax.inject.Named;
 import net.runelite.api.ChatMessageType;
 import net.runelite.api.ClanMember;
+import net.runelite.api.Constants;
 import net.runelite.api.Friend;
+import net.runelite.api.GameObject;
 import net.runelite.api.GameState;
 import net.runelite.api.GrandExchangeOffer;
 import net.runelite.api.GraphicsObject;
@@ -100,6 +103,7 @@ import net.runelite.rs.api.RSClient;
 import net.runelite.rs.api.RSDeque;
 import net.runelite.rs.api.RSFriendContainer;
 import net.runelite.rs.api.RSFriendManager;
+import net.runelite.rs.api.RSGameObject;
 import net.runelite.rs.api.RSHashTable;
 import net.runelite.rs.api.RSIndexedSprite;
 import net.runelite.rs.api.RSItem;
@@ -284,6 +288,151 @@ public abstract class RSClientMixin implements RSClient
 		return npcs;
 	}
 
+	@Inject
+	@Override
+	public void forEachPlayer(Consumer<? super Player> consumer)
+	{
+		int validPlayerIndexes = getPlayerIndexesCount();
+		int[] playerIndexes = getPlayerIndices();
+		Player[] cachedPlayers = getCachedPlayers();
+
+		for (int i = 0; i < validPlayerIndexes; ++i)
+		{
+			Player player = cachedPlayers[playerIndexes[i]];
+			if (player != null)
+			{
+				consumer.accept(player);
+			}
+		}
+	}
+
+	@Inject
+	@Override
+	public int getPlayers(Player[] buffer)
+	{
+		int validPlayerIndexes = getPlayerIndexesCount();
+		int[] playerIndexes = getPlayerIndices();
+		Player[] cachedPlayers = getCachedPlayers();
+		int count = 0;
+
+		for (int i = 0; i < validPlayerIndexes; ++i)
+		{
+			Player player = cachedPlayers[playerIndexes[i]];
+			if (player == null)
+			{
+				continue;
+			}
+
+			if (count < buffer.length)
+			{
+				buffer[count] = player;
+			}
+			++count;
+		}
+
+		return count;
+	}
+
+	@Inject
+	@Override
+	public void forEachNpc(Consumer<? super NPC> consumer)
+	{
+		int validNpcIndexes = getNpcIndexesCount();
+		int[] npcIndexes = getNpcIndices();
+		NPC[] cachedNpcs = getCachedNPCs();
+
+		for (int i = 0; i < validNpcIndexes; ++i)
+		{
+			NPC npc = cachedNpcs[npcIndexes[i]];
+			if (npc != null)
+			{
+				consumer.accept(npc);
+			}
+		}
+	}
+
+	@Inject
+	@Override
+	public int getNpcs(NPC[] buffer)
+	{
+		int validNpcIndexes = getNpcIndexesCount();
+		int[] npcIndexes = getNpcIndices();
+		NPC[] cachedNpcs = getCachedNPCs();
+		int count = 0;
+
+		for (int i = 0; i < validNpcIndexes; ++i)
+		{
+			NPC npc = cachedNpcs[npcIndexes[i]];
+			if (npc == null)
+			{
+				continue;
+			}
+
+			if (count < buffer.length)
+			{
+				buffer[count] = npc;
+			}
+			++count;
+		}
+
+		return count;
+	}
+
+	@Inject
+	@Override
+	public void forEachTile(Consumer<? super Tile> consumer)
+	{
+		Tile[][] tiles = getScene().getTiles()[getPlane()];
+
+		for (int x = 0; x < Constants.SCENE_SIZE; ++x)
+		{
+			for (int y = 0; y < Constants.SCENE_SIZE; ++y)
+			{
+				Tile tile = tiles[x][y];
+				if (tile != null)
+				{
+					consumer.accept(tile);
+				}
+			}
+		}
+	}
+
+	@Inject
+	@Override
+	public void forEachGameObject(Consumer<? super GameObject> consumer)
+	{
+		Tile[][] tiles = getScene().getTiles()[getPlane()];
+
+		for (int x = 0; x < Constants.SCENE_SIZE; ++x)
+		{
+			for (int y = 0; y < Constants.SCENE_SIZE; ++y)
+			{
+				Tile tile = tiles[x][y];
+				if (tile == null)
+				{
+					continue;
+				}
+
+				GameObject[] gameObjects = tile.getGameObjects();
+				if (gameObjects == null)
+				{
+					continue;
+				}
+
+				for (GameObject gameObject : gameObjects)
+				{
+					// objects larger than one tile are on each tile they cover, visit them on their first tile
+					if (gameObject != null
+						&& ((RSGameObject) gameObject).getRelativeX() == x
+						&& ((RSGameObject) gameObject).getRelativeY() == y)
+					{
+						consumer.accept(gameObject);
+					}
+				}
+			}
+		}
+	}
+
 	@Inject
 	@Override
 	public int getBoostedSkillLevel(Skill skill)
@@ -872,6 +1021,7 @@ public abstract class RSClientMixin implements RSClient
 	public static void settingsChanged(int idx)
 	{
 		VarbitChanged varbitChanged = new VarbitChanged();
+		varbitChanged.setIndex(idx);
 		client.getCallbacks().post(varbitChanged);
 	}
 
@@ -29,7 +29,9 @@ import java.util.ArrayList;
 import java.util.List;
 import net.runelite.api.Perspective;
 import net.runelite.api.Point;
+import net.runelite.api.mixins.FieldHook;
 import net.runelite.api.mixins.Inject;
+import net.runelite.api.mixins.MethodHook;
 import net.runelite.api.mixins.Mixin;
 import net.runelite.api.mixins.Shadow;
 import net.runelite.api.model.Jarvis;
@@ -47,6 +49,32 @@ public abstract class RSModelMixin implements RSModel
 	@Shadow("clientInstance")
 	private static RSClient client;
 
+	@Inject
+	private int rl$verticesRevision;
+
+	@Override
+	@Inject
+	public int getVerticesRevision()
+	{
+		return rl$verticesRevision;
+	}
+
+	@FieldHook("verticesX")
+	@Inject
+	public void onVerticesChanged(int idx)
+	{
+		// shared models have their vertex arrays swapped when reused
+		++rl$verticesRevision;
+	}
+
+	@Inject
+	@MethodHook("resetBounds")
+	public void onBoundsReset()
+	{
+		// the bounds are reset whenever the vertices are transformed
+		++rl$verticesRevision;
+	}
+
 	@Override
 	@Inject
 	public List<Vertex> getVertices()
@@ -24,8 +24,7 @@
  */
 package net.runelite.mixins;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import java.util.Arrays;
 import net.runelite.api.VarClientInt;
 import net.runelite.api.VarClientStr;
 import net.runelite.api.Varbits;
@@ -39,13 +38,18 @@ import net.runelite.rs.api.RSVarbit;
 @Mixin(RSClient.class)
 public abstract class VarbitMixin implements RSClient
 {
+	private static final int VARBIT_LOADED = 1 << 30;
+
 	@Shadow("clientInstance")
 	private static RSClient client;
 
+	/**
+	 * Decoded varbits by id, packed as varp index (20 bits), lsb (5 bits)
+	 * and msb (5 bits), with VARBIT_LOADED set once the varbit has been
+	 * read from the game's varbit cache.
+	 */
 	@Inject
-	private Cache<Integer, RSVarbit> varbitCache = CacheBuilder.newBuilder()
-		.maximumSize(128)
-		.build();
+	private int[] varbitTable = new int[4096];
 
 	@Inject
 	VarbitMixin()
@@ -68,27 +72,27 @@ public abstract class VarbitMixin implements RSClient
 		setVarbitValue(getVarps(), varbitId, value);
 	}
 
+	@Inject
+	@Override
+	public int getVarbitIndex(int varbitId)
+	{
+		return getVarbit0(varbitId) >>> 10 & 0xFFFFF;
+	}
+
 	@Inject
 	@Override
 	public int getVarbitValue(int[] varps, int varbitId)
 	{
-		RSVarbit v = varbitCache.getIfPresent(varbitId);
-		if (v == null)
-		{
-			client.getVarbit(varbitId); // load varbit into cache
-			RSNodeCache varbits = client.getVarbitCache();
-			v = (RSVarbit) varbits.get(varbitId); // get from cache
-			varbitCache.put(varbitId, v);
-		}
+		int v = getVarbit0(varbitId);
 
-		if (v.getIndex() == 0 && v.getLeastSignificantBit() == 0 && v.getMostSignificantBit() == 0)
+		if ((v & ~VARBIT_LOADED) == 0)
 		{
 			throw new IndexOutOfBoundsException("Varbit " + varbitId + " does not exist");
 		}
 
-		int value = varps[v.getIndex()];
-		int lsb = v.getLeastSignificantBit();
-		int msb = v.getMostSignificantBit();
+		int value = varps[v >>> 10 & 0xFFFFF];
+		int lsb = v >>> 5 & 31;
+		int msb = v & 31;
 		int mask = (1 << ((msb - lsb) + 1)) - 1;
 		return (value >> lsb) & mask;
 	}
@@ -97,19 +101,44 @@ public abstract class VarbitMixin implements RSClient
 	@Override
 	public void setVarbitValue(int[] varps, int varbitId, int value)
 	{
-		RSVarbit v = varbitCache.getIfPresent(varbitId);
-		if (v == null)
+		int v = getVarbit0(varbitId);
+
+		int index = v >>> 10 & 0xFFFFF;
+		int lsb = v >>> 5 & 31;
+		int msb = v & 31;
+		int mask = (1 << ((msb - lsb) + 1)) - 1;
+		varps[index] = (varps[index] & ~(mask << lsb)) | ((value & mask) << lsb);
+	}
+
+	@Inject
+	private int getVarbit0(int varbitId)
+	{
+		int[] table = varbitTable;
+		if (varbitId < table.length)
 		{
-			client.getVarbit(varbitId); // load varbit into cache
-			RSNodeCache varbits = client.getVarbitCache();
-			v = (RSVarbit) varbits.get(varbitId); // get from cache
-			varbitCache.put(varbitId, v);
+			int v = table[varbitId];
+			if (v != 0)
+			{
+				return v;
+			}
 		}
 
-		int lsb = v.getLeastSignificantBit();
-		int msb = v.getMostSignificantBit();
-		int mask = (1 << ((msb - lsb) + 1)) - 1;
-		varps[v.getIndex()] = (varps[v.getIndex()] & ~(mask << lsb)) | ((value & mask) << lsb);
+		client.getVarbit(varbitId); // load varbit into cache
+		RSNodeCache varbits = client.getVarbitCache();
+		RSVarbit varbit = (RSVarbit) varbits.get(varbitId); // get from cache
+
+		int v = VARBIT_LOADED
+			| varbit.getIndex() << 10
+			| varbit.getLeastSignificantBit() << 5
+			| varbit.getMostSignificantBit();
+
+		if (varbitId >= table.length)
+		{
+			table = Arrays.copyOf(table, Math.max(varbitId + 1, table.length * 2));
+			varbitTable = table;
+		}
+		table[varbitId] = v;
+		return v;
 	}
 
 	@Inject
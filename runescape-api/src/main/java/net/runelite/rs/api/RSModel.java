@@ -31,27 +31,35 @@ import net.runelite.mapping.Import;
 public interface RSModel extends RSRenderable, Model
 {
 	@Import("verticesCount")
+	@Override
 	int getVerticesCount();
 
 	@Import("verticesX")
+	@Override
 	int[] getVerticesX();
 
 	@Import("verticesY")
+	@Override
 	int[] getVerticesY();
 
 	@Import("verticesZ")
+	@Override
 	int[] getVerticesZ();
 
 	@Import("indicesCount")
+	@Override
 	int getTrianglesCount();
 
 	@Import("indices1")
+	@Override
 	int[] getTrianglesX();
 
 	@Import("indices2")
+	@Override
 	int[] getTrianglesY();
 
 	@Import("indices3")
+	@Override
 	int[] getTrianglesZ();
 
 	@Import("vertexGroups")